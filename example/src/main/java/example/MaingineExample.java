@@ -1,6 +1,8 @@
 package example;
 
 import example.game.Game;
+import example.game.InstancingBenchmark;
+import example.game.SpriteBenchmark;
 import me.joosua.maingine.Maingine;
 import me.joosua.maingine.engine.gamestate.GameStateManager;
 import me.joosua.maingine.settings.EngineSettings;
@@ -15,6 +17,7 @@ public class MaingineExample {
     EngineSettings engineSettings = new EngineSettings();
     engineSettings.setTargetFps(60);
     engineSettings.setTargetUps(120);
+    engineSettings.setMaxFramesInFlight(2);
 
     WindowSettings windowSettings = new WindowSettings();
     windowSettings.setTitle("Maingine example");
@@ -29,7 +32,11 @@ public class MaingineExample {
 
     GameStateManager gameStateManager = maingine.getGameStateManager();
     gameStateManager.addGameState("Game", new Game(maingine.getEngine(), maingine.getWindow()));
-    maingine.setMainStateName("Game");
+    gameStateManager.addGameState("SpriteBenchmark",
+        new SpriteBenchmark(maingine.getEngine(), maingine.getWindow()));
+    gameStateManager.addGameState("InstancingBenchmark",
+        new InstancingBenchmark(maingine.getEngine(), maingine.getWindow()));
+    maingine.setMainStateName(args.length > 0 ? args[0] : "Game");
 
     maingine.run();
 
@@ -0,0 +1,127 @@
+package example.game;
+
+import java.util.Random;
+import me.joosua.maingine.engine.Engine;
+import me.joosua.maingine.engine.gamestate.GameState;
+import me.joosua.maingine.glfw.window.Window;
+import me.joosua.maingine.graphics.mesh.InstanceBatch;
+import me.joosua.maingine.graphics.mesh.Mesh;
+import me.joosua.maingine.graphics.sprite.SpriteBatch;
+import org.joml.Matrix4f;
+import org.joml.Vector2i;
+import org.lwjgl.opengl.GL11;
+
+public class InstancingBenchmark extends GameState {
+
+  private static final int[] STAGES = {1_000, 10_000, 50_000, 100_000, 200_000};
+  private static final int FRAMES_PER_STAGE = 120;
+
+  private Engine engine;
+  private Window window;
+
+  private InstanceBatch instanceBatch;
+  private Mesh cube;
+
+  private float[] positions = new float[STAGES[STAGES.length - 1] * 3];
+  private int[] colors = new int[STAGES[STAGES.length - 1]];
+
+  private Matrix4f viewProjection = new Matrix4f();
+  private Vector2i size = new Vector2i();
+  private Matrix4f transform = new Matrix4f();
+
+  private int stage;
+  private int frames;
+  private long stageTime;
+  private double msPer10k;
+  private float angle;
+
+  public InstancingBenchmark(Engine engine, Window window) {
+
+    this.engine = engine;
+    this.window = window;
+
+  }
+
+  public void init() {
+
+    instanceBatch = new InstanceBatch(window.getStateCache(), 65536);
+    cube = Mesh.createCube(window.getStateCache(), 1);
+
+    Random random = new Random();
+
+    for (int i = 0; i < colors.length; i++) {
+      positions[i * 3] = (random.nextFloat() - 0.5f) * 200;
+      positions[i * 3 + 1] = (random.nextFloat() - 0.5f) * 200;
+      positions[i * 3 + 2] = (random.nextFloat() - 0.5f) * 200;
+      colors[i] = SpriteBatch.packColor(random.nextFloat(), random.nextFloat(),
+          random.nextFloat(), 1);
+    }
+
+  }
+
+  public void update(double delta) {
+
+    angle += (float) delta;
+
+    window.setTitle(String.format("FPS: %s, instances: %s, draw calls: %s, %.3f ms / 10k",
+        engine.getFps(), STAGES[stage], instanceBatch.getDrawCalls(), msPer10k));
+
+  }
+
+  public void render() {
+
+    Vector2i size = window.getSize(this.size);
+
+    viewProjection.setPerspective((float) Math.toRadians(60), (float) size.x / size.y, 0.1f,
+        1000)
+        .lookAt(0, 0, 250, 0, 0, 0, 0, 1, 0);
+
+    window.getStateCache().viewport(0, 0, size.x, size.y);
+    window.getStateCache().setDepthTest(true);
+    GL11.glClearColor(0.0f, 0.0f, 0.0f, 0.0f);
+    GL11.glClear(GL11.GL_COLOR_BUFFER_BIT | GL11.GL_DEPTH_BUFFER_BIT);
+
+    int count = STAGES[stage];
+    long start = System.nanoTime();
+
+    instanceBatch.resetStatistics();
+    instanceBatch.begin(viewProjection);
+
+    for (int i = 0; i < count; i++) {
+      transform.translation(positions[i * 3], positions[i * 3 + 1], positions[i * 3 + 2])
+          .rotateXYZ(angle, angle * 0.5f, 0);
+      instanceBatch.add(cube, transform, colors[i]);
+    }
+
+    instanceBatch.end();
+
+    // Wait for the GPU so the measured time includes the drawing itself
+    GL11.glFinish();
+
+    stageTime += System.nanoTime() - start;
+
+    if (++frames == FRAMES_PER_STAGE) {
+
+      msPer10k = stageTime / 1e6 / frames / (count / 10_000.0);
+
+      System.out.println(String.format("%s instances: %.3f ms / frame, %.3f ms / 10k",
+          count, stageTime / 1e6 / frames, msPer10k));
+
+      stage = (stage + 1) % STAGES.length;
+      frames = 0;
+      stageTime = 0;
+
+    }
+
+  }
+
+  public void unset() {
+
+    instanceBatch.destroy();
+    cube.destroy();
+
+    window.getStateCache().setDepthTest(false);
+
+  }
+
+}
@@ -0,0 +1,103 @@
+package example.game;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import me.joosua.maingine.engine.Engine;
+import me.joosua.maingine.engine.gamestate.GameState;
+import me.joosua.maingine.glfw.window.Window;
+import me.joosua.maingine.graphics.sprite.SpriteBatch;
+import org.joml.Matrix4f;
+import org.joml.Vector2i;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.system.MemoryUtil;
+
+public class SpriteBenchmark extends GameState {
+
+  private static final int SPRITES = 100_000;
+
+  private Engine engine;
+  private Window window;
+
+  private SpriteBatch spriteBatch;
+  private int texture;
+
+  private float[] positions = new float[SPRITES * 2];
+  private int[] colors = new int[SPRITES];
+  private Matrix4f projection = new Matrix4f();
+  private Vector2i size = new Vector2i();
+
+  private int drawCalls;
+
+  public SpriteBenchmark(Engine engine, Window window) {
+
+    this.engine = engine;
+    this.window = window;
+
+  }
+
+  public void init() {
+
+    spriteBatch = new SpriteBatch(window.getStateCache(), 16384);
+
+    ByteBuffer white = MemoryUtil.memAlloc(4);
+    white.putInt(0, 0xFFFFFFFF);
+
+    texture = GL11.glGenTextures();
+    window.getStateCache().bindTexture(0, GL11.GL_TEXTURE_2D, texture);
+    GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_NEAREST);
+    GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_NEAREST);
+    GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_RGBA8, 1, 1, 0, GL11.GL_RGBA,
+        GL11.GL_UNSIGNED_BYTE, white);
+
+    MemoryUtil.memFree(white);
+
+    Random random = new Random();
+
+    for (int i = 0; i < SPRITES; i++) {
+      positions[i * 2] = random.nextFloat();
+      positions[i * 2 + 1] = random.nextFloat();
+      colors[i] = SpriteBatch.packColor(random.nextFloat(), random.nextFloat(),
+          random.nextFloat(), 1);
+    }
+
+  }
+
+  public void update(double delta) {
+
+    window.setTitle(String.format("FPS: %s, sprites: %s, draw calls: %s, GL calls: %s/%s",
+        engine.getFps(), SPRITES, drawCalls, window.getStateCache().getIssuedCalls(),
+        window.getStateCache().getElidedCalls()));
+
+  }
+
+  public void render() {
+
+    Vector2i size = window.getSize(this.size);
+    projection.setOrtho2D(0, size.x, 0, size.y);
+
+    window.getStateCache().viewport(0, 0, size.x, size.y);
+    GL11.glClearColor(0.0f, 0.0f, 0.0f, 0.0f);
+    GL11.glClear(GL11.GL_COLOR_BUFFER_BIT);
+
+    spriteBatch.resetStatistics();
+    spriteBatch.begin(projection);
+
+    for (int i = 0; i < SPRITES; i++) {
+      spriteBatch.draw(texture, positions[i * 2] * size.x, positions[i * 2 + 1] * size.y, 4, 4,
+          0, 0, 1, 1, colors[i]);
+    }
+
+    spriteBatch.end();
+
+    drawCalls = spriteBatch.getDrawCalls();
+
+  }
+
+  public void unset() {
+
+    spriteBatch.destroy();
+    GL11.glDeleteTextures(texture);
+
+  }
+
+}
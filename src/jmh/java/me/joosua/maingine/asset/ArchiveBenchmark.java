@@ -0,0 +1,148 @@
+package me.joosua.maingine.asset;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArchiveBenchmark {
+
+  private static final int FILE_SIZE = 16 * 1024;
+
+  @Param({"100", "1000"})
+  private int files;
+
+  private Path directory;
+  private String[] paths;
+
+  private DirectorySource loose;
+  private ArchiveSource stored;
+  private ArchiveSource compressed;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+
+    directory = Files.createTempDirectory("maingine-archive");
+
+    Path assets = directory.resolve("assets");
+    Random random = new Random(1);
+    byte[] content = new byte[FILE_SIZE];
+
+    paths = new String[files];
+    Files.createDirectories(assets);
+
+    for (int i = 0; i < files; i++) {
+
+      // Half random and half repeated, compressing to about half
+      random.nextBytes(content);
+      for (int j = FILE_SIZE / 2; j < FILE_SIZE; j++) {
+        content[j] = (byte) (j / 64);
+      }
+
+      paths[i] = "asset" + i + ".bin";
+      Files.write(assets.resolve(paths[i]), content);
+
+    }
+
+    loose = new DirectorySource(assets);
+    stored = pack(assets, "stored.pak", false);
+    compressed = pack(assets, "compressed.pak", true);
+
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+
+    stored.close();
+    compressed.close();
+
+    try (Stream<Path> walk = Files.walk(directory)) {
+
+      for (Path path : (Iterable<Path>) walk.sorted(Comparator.reverseOrder())::iterator) {
+        Files.delete(path);
+      }
+
+    }
+
+  }
+
+  @Benchmark
+  public long readLoose() throws IOException {
+
+    return readAll(loose);
+
+  }
+
+  @Benchmark
+  public long readStored() throws IOException {
+
+    return readAll(stored);
+
+  }
+
+  @Benchmark
+  public long readCompressed() throws IOException {
+
+    return readAll(compressed);
+
+  }
+
+  private long readAll(AssetSource source) throws IOException {
+
+    long sum = 0;
+
+    for (String path : paths) {
+
+      try (AssetData data = source.read(path)) {
+
+        ByteBuffer buffer = data.getBuffer();
+
+        // Touch every page so the mapped reads pay for faulting the data in
+        for (int i = 0; i < buffer.limit(); i += 4096) {
+          sum += buffer.get(i);
+        }
+
+      }
+
+    }
+
+    return sum;
+
+  }
+
+  private ArchiveSource pack(Path assets, String name, boolean compress) throws IOException {
+
+    ArchiveWriter writer = new ArchiveWriter();
+    Path archive = directory.resolve(name);
+
+    writer.addDirectory(assets, compress);
+    writer.write(archive);
+
+    return new ArchiveSource(archive);
+
+  }
+
+}
@@ -0,0 +1,82 @@
+package me.joosua.maingine.audio;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AudioMixerBenchmark {
+
+  // Sounds the game tries to play at once
+  @Param({"8", "32", "128", "512"})
+  private int sounds;
+
+  @Param({"32", "256"})
+  private int voices;
+
+  private AudioMixer mixer;
+  private Sound sound;
+  private long time;
+
+  @Setup(Level.Trial)
+  public void setup() {
+
+    // Opened on the benchmark thread without starting the audio thread
+    mixer = new AudioMixer(voices, true);
+    mixer.open();
+
+    short[] samples = new short[AudioMixer.SAMPLE_RATE];
+
+    for (int i = 0; i < samples.length; i++) {
+      samples[i] = (short) (Math.sin(i * 0.05) * Short.MAX_VALUE / 2);
+    }
+
+    sound = new Sound(samples, 1, AudioMixer.SAMPLE_RATE);
+
+    for (int i = 0; i < sounds; i++) {
+      int voice = mixer.play(sound, 1, 1, true, i % 4);
+      mixer.setPosition(voice, i, 0, -i);
+    }
+
+    time = System.nanoTime();
+    mixer.update(time);
+
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+
+    mixer.delete(sound);
+    mixer.update(time);
+    mixer.close();
+
+  }
+
+  // One update of the audio thread, which mixes the samples of the time passed
+  @Benchmark
+  public int update() {
+
+    time += AudioMixer.UPDATE_NANOS;
+    mixer.update(time);
+
+    return mixer.getActiveVoiceCount();
+
+  }
+
+}
@@ -0,0 +1,180 @@
+package me.joosua.maingine.ecs;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorldBenchmark {
+
+  private static final float DELTA = 1f / 60f;
+
+  @Param({"1000000"})
+  private int entities;
+
+  private World world;
+  private ComponentType position;
+  private ComponentType velocity;
+  private Query query;
+  private Consumer<Chunk> integrate;
+
+  private SystemScheduler scheduler;
+
+  // Baseline of a heap object per entity with a virtual update
+  private List<GameObject> objects;
+
+  @Setup(Level.Trial)
+  public void setup() {
+
+    Random random = new Random(1);
+
+    world = new World();
+    position = world.registerFloats("position", 3);
+    velocity = world.registerFloats("velocity", 3);
+    ComponentType tag = world.registerInts("tag", 1);
+
+    objects = new ArrayList<>(entities);
+
+    for (int i = 0; i < entities; i++) {
+
+      // Every fourth entity has an extra component so the query spans two archetypes
+      int entity = i % 4 == 0 ? world.create(position, velocity, tag)
+          : world.create(position, velocity);
+
+      for (int c = 0; c < 3; c++) {
+        world.setFloat(entity, velocity, c, random.nextFloat());
+      }
+
+      objects.add(i % 2 == 0 ? new GameObject() : new MovingObject());
+
+    }
+
+    Collections.shuffle(objects, random);
+
+    query = world.query(position, velocity);
+    integrate = this::integrate;
+
+    // The world is also updated through a system splitting the query into chunk ranges
+    world.addSystem(new EntitySystem() {
+
+      @Override
+      public void declareAccess(SystemAccess access) {
+
+        access.reads(velocity).writes(position);
+
+      }
+
+      @Override
+      public void update(World world, double delta) {
+
+        query.forEachParallel(integrate);
+
+      }
+
+    });
+
+    scheduler = new SystemScheduler(Runtime.getRuntime().availableProcessors());
+
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+
+    scheduler.shutdown();
+
+  }
+
+  @Benchmark
+  public World iterateChunks() {
+
+    query.forEach(integrate);
+
+    return world;
+
+  }
+
+  @Benchmark
+  public World iterateChunksParallel() {
+
+    world.update(DELTA, scheduler);
+
+    return world;
+
+  }
+
+  @Benchmark
+  public List<GameObject> iterateObjects() {
+
+    for (int i = 0; i < objects.size(); i++) {
+      objects.get(i).update(DELTA);
+    }
+
+    return objects;
+
+  }
+
+  private void integrate(Chunk chunk) {
+
+    int size = chunk.size();
+
+    for (int c = 0; c < 3; c++) {
+
+      float[] p = chunk.getFloats(position, c);
+      float[] v = chunk.getFloats(velocity, c);
+
+      for (int i = 0; i < size; i++) {
+        p[i] += v[i] * DELTA;
+      }
+
+    }
+
+  }
+
+  private static class GameObject {
+
+    private final float[] position = new float[3];
+    private final float[] velocity = {1, 2, 3};
+
+    void update(float delta) {
+
+      for (int c = 0; c < 3; c++) {
+        position[c] += velocity[c] * delta;
+      }
+
+    }
+
+  }
+
+  private static class MovingObject extends GameObject {
+
+    @Override
+    void update(float delta) {
+
+      super.update(delta * 0.5f);
+
+    }
+
+  }
+
+}
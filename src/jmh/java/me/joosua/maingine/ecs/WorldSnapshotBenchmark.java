@@ -0,0 +1,119 @@
+package me.joosua.maingine.ecs;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorldSnapshotBenchmark {
+
+  // About 100 MB of state with 32 bytes per entity
+  @Param({"100000", "3200000"})
+  private int entities;
+
+  private World world;
+  private WorldSnapshot base;
+  private WorldSnapshot target;
+  private WorldSnapshot reused;
+
+  @Setup(Level.Trial)
+  public void setup() {
+
+    Random random = new Random(1);
+
+    world = new World();
+
+    ComponentType position = world.registerFloats("position", 3);
+    ComponentType velocity = world.registerFloats("velocity", 3);
+    ComponentType health = world.registerInts("health", 1);
+    int[] created = new int[entities];
+
+    for (int i = 0; i < entities; i++) {
+
+      created[i] = world.create(position, velocity, health);
+
+      for (int c = 0; c < 3; c++) {
+        world.setFloat(created[i], position, c, random.nextFloat());
+      }
+
+    }
+
+    base = WorldSnapshot.capture(world);
+
+    // A tick changing the positions of a hundredth of the entities
+    for (int i = 0; i < entities; i += 100) {
+      world.setFloat(created[i], position, 0, -1);
+    }
+
+    target = WorldSnapshot.capture(world);
+    reused = WorldSnapshot.capture(world);
+
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+
+    base.free();
+    target.free();
+    reused.free();
+
+  }
+
+  @Benchmark
+  public int capture() {
+
+    WorldSnapshot snapshot = WorldSnapshot.capture(world);
+    int size = snapshot.getSize();
+
+    snapshot.free();
+
+    return size;
+
+  }
+
+  @Benchmark
+  public int captureReused() {
+
+    reused = WorldSnapshot.capture(world, reused);
+
+    return reused.getSize();
+
+  }
+
+  @Benchmark
+  public boolean restore() {
+
+    return target.restore(world);
+
+  }
+
+  @Benchmark
+  public int encodeDelta() {
+
+    SnapshotDelta delta = SnapshotDelta.encode(base, target);
+    int size = delta.getSize();
+
+    delta.free();
+
+    return size;
+
+  }
+
+}
@@ -0,0 +1,129 @@
+package me.joosua.maingine.graphics.texture;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.ImageIO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ImageDecoderBenchmark {
+
+  private static final int IMAGES = 32;
+  private static final int SIZE = 512;
+
+  @Param({"1", "2", "4"})
+  private int threads;
+
+  @Param({"stb", "stb-mipmaps", "imageio"})
+  private String decoder;
+
+  private Path directory;
+  private List<Path> files;
+  private ImageDecoder imageDecoder;
+  private ExecutorService executor;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+
+    directory = Files.createTempDirectory("maingine-images");
+    files = new ArrayList<>();
+
+    Random random = new Random(1);
+    BufferedImage image = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_INT_ARGB);
+
+    for (int i = 0; i < IMAGES; i++) {
+
+      // Gradients with some noise compress about like real textures
+      for (int y = 0; y < SIZE; y++) {
+        for (int x = 0; x < SIZE; x++) {
+          image.setRGB(x, y, 0xFF000000 | (x / 2 << 16) | (y / 2 << 8) | random.nextInt(32));
+        }
+      }
+
+      Path file = directory.resolve(i + ".png");
+      ImageIO.write(image, "png", file.toFile());
+      files.add(file);
+
+    }
+
+    switch (decoder) {
+      case "stb":
+        imageDecoder = new StbImageDecoder();
+        break;
+      case "stb-mipmaps":
+        imageDecoder = new StbImageDecoder(true);
+        break;
+      default:
+        imageDecoder = new ImageIoDecoder();
+        break;
+    }
+
+    executor = Executors.newFixedThreadPool(threads);
+
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+
+    executor.shutdown();
+
+    for (Path file : files) {
+      Files.delete(file);
+    }
+
+    Files.delete(directory);
+
+  }
+
+  @Benchmark
+  public long decode() throws InterruptedException, ExecutionException {
+
+    List<Future<ImageData>> futures = new ArrayList<>(files.size());
+
+    for (Path file : files) {
+      futures.add(executor.submit(() -> imageDecoder.decode(file)));
+    }
+
+    long bytes = 0;
+
+    for (Future<ImageData> future : futures) {
+
+      ImageData image = future.get();
+
+      bytes += image.getPixels().remaining();
+      image.free();
+
+    }
+
+    return bytes;
+
+  }
+
+}
@@ -0,0 +1,153 @@
+package me.joosua.maingine.physics;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import me.joosua.maingine.ecs.ComponentType;
+import me.joosua.maingine.ecs.SystemScheduler;
+import me.joosua.maingine.ecs.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IntegratorBenchmark {
+
+  private static final float STEP = 1 / 60f;
+  private static final float DAMPING = 0.999f;
+
+  @Param({"10000", "100000", "1000000"})
+  private int bodies;
+
+  private final float[] gravity = {0, -9.81f, 0};
+
+  private float[][] positions;
+  private float[][] velocities;
+  private float[][] forces;
+  private float[] inverseMass;
+
+  private World world;
+  private IntegrationSystem system;
+  private SystemScheduler scheduler;
+
+  @Setup(Level.Trial)
+  public void setup() {
+
+    Random random = new Random(1);
+
+    positions = new float[3][bodies];
+    velocities = new float[3][bodies];
+    forces = new float[3][bodies];
+    inverseMass = new float[bodies];
+
+    for (int i = 0; i < bodies; i++) {
+
+      inverseMass[i] = random.nextFloat();
+
+      for (int axis = 0; axis < 3; axis++) {
+        velocities[axis][i] = random.nextFloat() - 0.5f;
+        forces[axis][i] = random.nextFloat() - 0.5f;
+      }
+
+    }
+
+    world = new World();
+
+    ComponentType position = world.registerFloats("position", 3);
+    ComponentType velocity = world.registerFloats("velocity", 3);
+    ComponentType force = world.registerFloats("force", 3);
+    ComponentType mass = world.registerFloats("inverseMass", 1);
+
+    system = new IntegrationSystem(position, velocity, force, mass, STEP);
+    system.setGravity(gravity[0], gravity[1], gravity[2]);
+    world.addSystem(system);
+    scheduler = new SystemScheduler(Runtime.getRuntime().availableProcessors());
+
+    for (int i = 0; i < bodies; i++) {
+      int entity = world.create(position, velocity, force, mass);
+      world.setFloat(entity, mass, 0, inverseMass[i]);
+      world.setFloat(entity, velocity, 0, velocities[0][i]);
+    }
+
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+
+    scheduler.shutdown();
+
+  }
+
+  @Benchmark
+  public float[][] vectorized() {
+
+    for (int axis = 0; axis < 3; axis++) {
+      Integrator.integrate(positions[axis], velocities[axis], forces[axis], inverseMass,
+          gravity[axis], DAMPING, STEP, 0, bodies);
+    }
+
+    return positions;
+
+  }
+
+  /*
+   * The same loops with the SIMD instructions of the JIT turned off, shows how much of the
+   * difference to the scalar path comes from the vectorization.
+   */
+  @Benchmark
+  @Fork(value = 1, jvmArgsAppend = "-XX:-UseSuperWord")
+  public float[][] vectorizedWithoutSuperWord() {
+
+    return vectorized();
+
+  }
+
+  @Benchmark
+  public float[][] scalar() {
+
+    Integrator.integrateScalar(positions, velocities, forces, inverseMass, gravity, DAMPING,
+        STEP, 0, bodies);
+
+    return positions;
+
+  }
+
+  @Benchmark
+  public void systemSerial() {
+
+    system.setVectorized(true);
+    world.update(STEP);
+
+  }
+
+  @Benchmark
+  public void systemScalar() {
+
+    system.setVectorized(false);
+    world.update(STEP);
+
+  }
+
+  @Benchmark
+  public void systemParallel() {
+
+    system.setVectorized(true);
+    world.update(STEP, scheduler);
+
+  }
+
+}
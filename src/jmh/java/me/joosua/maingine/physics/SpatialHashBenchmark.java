@@ -0,0 +1,129 @@
+package me.joosua.maingine.physics;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpatialHashBenchmark {
+
+  // Bodies per unit of volume stay the same for every amount of bodies
+  private static final float DENSITY = 0.02f;
+  private static final float SPEED = 0.1f;
+
+  @Param({"1000", "10000", "50000", "200000"})
+  private int bodies;
+
+  private SpatialHash serialHash;
+  private SpatialHash parallelHash;
+  private ForkJoinPool pool;
+
+  private float[] positions;
+  private float[] velocities;
+  private float[] sizes;
+
+  @Setup(Level.Trial)
+  public void setup() {
+
+    Random random = new Random(1);
+    float worldSize = (float) Math.cbrt(bodies / DENSITY);
+    int threads = Runtime.getRuntime().availableProcessors();
+
+    pool = new ForkJoinPool(threads);
+    serialHash = new SpatialHash(2, 4, bodies, null, 1);
+    parallelHash = new SpatialHash(2, 4, bodies, pool, threads * 4);
+
+    positions = new float[bodies * 3];
+    velocities = new float[bodies * 3];
+    sizes = new float[bodies];
+
+    for (int i = 0; i < bodies; i++) {
+
+      // One body in fifty is large
+      sizes[i] = random.nextInt(50) == 0 ? 4 + random.nextFloat() * 8 : 1 + random.nextFloat();
+
+      for (int axis = 0; axis < 3; axis++) {
+        positions[i * 3 + axis] = random.nextFloat() * worldSize;
+        velocities[i * 3 + axis] = (random.nextFloat() - 0.5f) * SPEED;
+      }
+
+      insert(serialHash, i);
+      insert(parallelHash, i);
+
+    }
+
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+
+    pool.shutdown();
+
+  }
+
+  @Benchmark
+  public int updateAll() {
+
+    int moved = 0;
+
+    for (int i = 0; i < bodies; i++) {
+
+      for (int axis = 0; axis < 3; axis++) {
+        positions[i * 3 + axis] += velocities[i * 3 + axis];
+      }
+
+      float x = positions[i * 3];
+      float y = positions[i * 3 + 1];
+      float z = positions[i * 3 + 2];
+
+      if (serialHash.update(i, x, y, z, x + sizes[i], y + sizes[i], z + sizes[i])) moved++;
+
+    }
+
+    return moved;
+
+  }
+
+  @Benchmark
+  public int findPairsSerial() {
+
+    return serialHash.findPairs();
+
+  }
+
+  @Benchmark
+  public int findPairsParallel() {
+
+    return parallelHash.findPairs();
+
+  }
+
+  private void insert(SpatialHash hash, int i) {
+
+    float x = positions[i * 3];
+    float y = positions[i * 3 + 1];
+    float z = positions[i * 3 + 2];
+
+    hash.insert(x, y, z, x + sizes[i], y + sizes[i], z + sizes[i], i);
+
+  }
+
+}
@@ -0,0 +1,150 @@
+package me.joosua.maingine.scene;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.joml.FrustumIntersection;
+import org.joml.Matrix4f;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AabbTreeBenchmark {
+
+  private static final float WORLD_SIZE = 1000;
+
+  @Param({"100000", "250000"})
+  private int objects;
+
+  private AabbTree tree;
+  private int[] proxies;
+  private float[] positions;
+
+  private FrustumIntersection frustum;
+  private FrustumCuller serialCuller;
+  private FrustumCuller parallelCuller;
+  private ForkJoinPool pool;
+
+  private Random random;
+
+  @Setup(Level.Trial)
+  public void setup() {
+
+    random = new Random(1);
+    tree = new AabbTree(1, objects * 2);
+    proxies = new int[objects];
+    positions = new float[objects * 3];
+
+    for (int i = 0; i < objects; i++) {
+
+      float x = random.nextFloat() * WORLD_SIZE;
+      float y = random.nextFloat() * WORLD_SIZE;
+      float z = random.nextFloat() * WORLD_SIZE;
+
+      positions[i * 3] = x;
+      positions[i * 3 + 1] = y;
+      positions[i * 3 + 2] = z;
+      proxies[i] = tree.insert(x, y, z, x + 2, y + 2, z + 2, i);
+
+    }
+
+    frustum = new FrustumIntersection(new Matrix4f()
+        .perspective((float) Math.toRadians(60), 16f / 9f, 0.1f, WORLD_SIZE / 2)
+        .lookAt(WORLD_SIZE / 2, WORLD_SIZE / 2, 0, WORLD_SIZE / 2, WORLD_SIZE / 2, WORLD_SIZE,
+            0, 1, 0));
+
+    int threads = Runtime.getRuntime().availableProcessors();
+
+    pool = new ForkJoinPool(threads);
+    serialCuller = new FrustumCuller(tree, null, 1);
+    parallelCuller = new FrustumCuller(tree, pool, threads);
+
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+
+    pool.shutdown();
+
+  }
+
+  @Benchmark
+  public int cullSerial() {
+
+    return serialCuller.cull(frustum);
+
+  }
+
+  @Benchmark
+  public int cullParallel() {
+
+    return parallelCuller.cull(frustum);
+
+  }
+
+  @Benchmark
+  public int queryRadius(Blackhole blackhole) {
+
+    float x = random.nextFloat() * WORLD_SIZE;
+    float y = random.nextFloat() * WORLD_SIZE;
+    float z = random.nextFloat() * WORLD_SIZE;
+
+    return tree.queryRadius(x, y, z, 20, blackhole::consume);
+
+  }
+
+  @Benchmark
+  public int queryBox(Blackhole blackhole) {
+
+    float x = random.nextFloat() * WORLD_SIZE;
+    float y = random.nextFloat() * WORLD_SIZE;
+    float z = random.nextFloat() * WORLD_SIZE;
+
+    return tree.queryBox(x, y, z, x + 40, y + 40, z + 40, blackhole::consume);
+
+  }
+
+  // Moves a thousandth of the objects, most of them staying within their enlarged boxes
+  @Benchmark
+  public int updateMoving() {
+
+    int moved = 0;
+
+    for (int n = 0; n < objects / 1000; n++) {
+
+      int i = random.nextInt(objects);
+
+      positions[i * 3] += random.nextFloat() - 0.5f;
+      positions[i * 3 + 1] += random.nextFloat() - 0.5f;
+      positions[i * 3 + 2] += random.nextFloat() - 0.5f;
+
+      float x = positions[i * 3];
+      float y = positions[i * 3 + 1];
+      float z = positions[i * 3 + 2];
+
+      if (tree.update(proxies[i], x, y, z, x + 2, y + 2, z + 2)) moved++;
+
+    }
+
+    return moved;
+
+  }
+
+}
@@ -0,0 +1,132 @@
+package me.joosua.maingine.utils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.apache.logging.log4j.core.config.builder.api.AppenderComponentBuilder;
+import org.apache.logging.log4j.core.config.builder.api.ConfigurationBuilder;
+import org.apache.logging.log4j.core.config.builder.api.ConfigurationBuilderFactory;
+import org.apache.logging.log4j.core.config.builder.api.RootLoggerComponentBuilder;
+import org.apache.logging.log4j.core.config.builder.impl.BuiltConfiguration;
+import org.apache.logging.log4j.util.Unbox;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoggingBenchmark {
+
+  // Events logged at once, like when loading a level
+  private static final int BURST = 1000;
+  private static final long PAUSE_MILLIS = 20;
+
+  private static final String PATTERN = "[%level] %d{yyyy-MM-dd HH:mm:ss.SSS} [%t] %c{1} - %msg%n";
+
+  // Synchronous loggers with a flushed file like before, or the asynchronous ones of now
+  @Param({"sync", "async"})
+  private String mode;
+
+  private Path directory;
+  private LoggerContext context;
+  private Logger logger;
+  private long frame;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+
+    final boolean async = "async".equals(mode);
+
+    directory = Files.createTempDirectory("maingine-logging");
+
+    ConfigurationBuilder<BuiltConfiguration> builder =
+        ConfigurationBuilderFactory.newConfigurationBuilder();
+
+    AppenderComponentBuilder appender = builder
+        .newAppender("file", async ? "RandomAccessFile" : "File")
+        .addAttribute("fileName", directory.resolve("benchmark.log").toString())
+        .addAttribute("immediateFlush", !async)
+        .add(builder.newLayout("PatternLayout").addAttribute("pattern", PATTERN));
+
+    RootLoggerComponentBuilder root = async ? builder.newAsyncRootLogger("info")
+        : builder.newRootLogger("info");
+
+    builder.add(appender);
+    builder.add(root.add(builder.newAppenderRef("file")));
+
+    context = Configurator.initialize(builder.build());
+    logger = context.getLogger(LoggingBenchmark.class.getName());
+
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+
+    Configurator.shutdown(context);
+
+    Files.deleteIfExists(directory.resolve("benchmark.log"));
+    Files.deleteIfExists(directory);
+
+  }
+
+  // The logging thread catches up between the bursts as it would between frames
+  @Setup(Level.Invocation)
+  public void pause() throws InterruptedException {
+
+    Thread.sleep(PAUSE_MILLIS);
+
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BURST)
+  public void parameterized() {
+
+    for (int i = 0; i < BURST; i++) {
+      frame++;
+      logger.info("Frame {} took {} ns", Unbox.box(frame), Unbox.box(frame * 3));
+    }
+
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BURST)
+  public void concatenated() {
+
+    for (int i = 0; i < BURST; i++) {
+      frame++;
+      logger.info("Frame " + frame + " took " + frame * 3 + " ns");
+    }
+
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BURST)
+  public void disabled() {
+
+    for (int i = 0; i < BURST; i++) {
+      frame++;
+      logger.debug("Frame {} took {} ns", Unbox.box(frame), Unbox.box(frame * 3));
+    }
+
+  }
+
+}
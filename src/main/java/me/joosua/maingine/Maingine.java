@@ -162,7 +162,7 @@ public class Maingine {
   /**
    * <p>Cleanup the mess.</p>
    *
-   * <p>This will destroy the window and terminate GLFW from the thread.</p>
+   * <p>This will destroy the engine and the window and terminate GLFW from the thread.</p>
    *
    * @since 0.0.3
    */
@@ -170,6 +170,8 @@ public class Maingine {
 
     gameStateManager.selectGameState(null);
 
+    engine.destroy();
+
     window.destroy();
 
     GlfwManager.terminate();
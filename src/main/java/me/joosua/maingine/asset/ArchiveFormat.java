@@ -0,0 +1,60 @@
+package me.joosua.maingine.asset;
+
+/*
+ * Layout of the archives written by ArchiveWriter and read by ArchiveSource. Every value is
+ * little-endian.
+ *
+ * Header, 32 bytes:
+ *   int magic, int version, int entry count, int alignment of the data,
+ *   long offset of the names, long size of the names
+ *
+ * Table of contents right after the header, one entry of 32 bytes per asset sorted by the
+ * hash of the path and then by the path:
+ *   long hash of the path, long offset of the data,
+ *   int stored size, int size, int offset of the path in the names,
+ *   short length of the path in bytes, short flags
+ *
+ * The names are the UTF-8 paths one after another. The data of every entry starts at a
+ * multiple of the alignment, so it can be handed to OpenGL straight from the mapping.
+ */
+final class ArchiveFormat {
+
+  static final int MAGIC = 0x4B41504D;
+  static final int VERSION = 1;
+
+  static final int HEADER_SIZE = 32;
+  static final int ENTRY_SIZE = 32;
+  static final int DEFAULT_ALIGNMENT = 64;
+
+  static final short FLAG_LZ4 = 1;
+
+  private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+
+  private ArchiveFormat() {
+
+  }
+
+  /*
+   * FNV-1a over the characters of the path, so looking up a path doesn't encode it.
+   */
+  static long hash(String path) {
+
+    long hash = FNV_OFFSET;
+
+    for (int i = 0; i < path.length(); i++) {
+      hash ^= path.charAt(i);
+      hash *= FNV_PRIME;
+    }
+
+    return hash;
+
+  }
+
+  static long align(long position, int alignment) {
+
+    return (position + alignment - 1) / alignment * alignment;
+
+  }
+
+}
@@ -0,0 +1,247 @@
+package me.joosua.maingine.asset;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import me.joosua.maingine.memory.Memory;
+import me.joosua.maingine.memory.MemoryTag;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.lwjgl.util.lz4.LZ4;
+
+/**
+ * <p>ArchiveSource reads assets from an archive written by {@link ArchiveWriter}.</p>
+ *
+ * <p>The table of contents is read when the archive is opened and the archive is mapped
+ * to memory as a whole, so reading an asset is a lookup and a slice of the mapping. The
+ * slices of stored entries are direct buffers which stay valid while the source is open,
+ * so they can be kept past loading and handed to OpenGL without copying. Compressed
+ * entries are decompressed with LZ4 into native memory.</p>
+ *
+ * <p>Archives larger than 2 GiB can't be mapped at once, so their entries are mapped one
+ * at a time when read.</p>
+ *
+ * @since 0.0.5
+ */
+public class ArchiveSource implements AssetSource {
+
+  private static final Logger logger = LogManager.getLogger(ArchiveSource.class);
+
+  private final FileChannel channel;
+  private final MappedByteBuffer mapping;
+
+  private final long[] hashes;
+  private final long[] offsets;
+  private final int[] storedSizes;
+  private final int[] sizes;
+  private final short[] flags;
+  private final String[] paths;
+
+  /**
+   * <p>Open an archive.</p>
+   *
+   * @param file The archive file
+   * @throws IOException If the archive couldn't be opened or isn't valid
+   * @since 0.0.5
+   */
+  public ArchiveSource(Path file) throws IOException {
+
+    channel = FileChannel.open(file, StandardOpenOption.READ);
+
+    try {
+
+      ByteBuffer header = readFully(0, ArchiveFormat.HEADER_SIZE);
+
+      if (header.getInt() != ArchiveFormat.MAGIC || header.getInt() != ArchiveFormat.VERSION) {
+        throw new IOException("Not an asset archive of version " + ArchiveFormat.VERSION
+            + ": " + file);
+      }
+
+      int count = header.getInt();
+
+      header.getInt();
+
+      final long namesOffset = header.getLong();
+      final int namesSize = (int) header.getLong();
+      ByteBuffer table = readFully(ArchiveFormat.HEADER_SIZE, count * ArchiveFormat.ENTRY_SIZE);
+      ByteBuffer names = readFully(namesOffset, namesSize);
+
+      hashes = new long[count];
+      offsets = new long[count];
+      storedSizes = new int[count];
+      sizes = new int[count];
+      flags = new short[count];
+      paths = new String[count];
+
+      for (int i = 0; i < count; i++) {
+
+        hashes[i] = table.getLong();
+        offsets[i] = table.getLong();
+        storedSizes[i] = table.getInt();
+        sizes[i] = table.getInt();
+
+        int nameOffset = table.getInt();
+        int nameLength = table.getShort() & 0xFFFF;
+
+        flags[i] = table.getShort();
+        paths[i] = new String(names.array(), nameOffset, nameLength, StandardCharsets.UTF_8);
+
+      }
+
+      mapping = channel.size() <= Integer.MAX_VALUE
+          ? channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()) : null;
+
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+
+  }
+
+  @Override
+  public AssetData read(String path) throws IOException {
+
+    int index = find(path);
+
+    if (index < 0) throw new NoSuchFileException(path);
+
+    ByteBuffer stored;
+
+    if (mapping != null) {
+      stored = mapping.duplicate().position((int) offsets[index])
+          .limit((int) offsets[index] + storedSizes[index]).slice();
+    } else {
+      stored = channel.map(FileChannel.MapMode.READ_ONLY, offsets[index], storedSizes[index]);
+    }
+
+    if ((flags[index] & ArchiveFormat.FLAG_LZ4) == 0) return new AssetData(stored, true);
+
+    ByteBuffer content = Memory.mallocBuffer(sizes[index], MemoryTag.ASSETS);
+
+    if (content == null) throw new IOException("Out of memory decompressing " + path);
+
+    if (LZ4.LZ4_decompress_safe(stored, content) != sizes[index]) {
+      Memory.freeBuffer(content, MemoryTag.ASSETS);
+      throw new IOException("Asset is corrupted in the archive: " + path);
+    }
+
+    return new AssetData(content, false);
+
+  }
+
+  @Override
+  public boolean exists(String path) {
+
+    return find(path) >= 0;
+
+  }
+
+  /**
+   * <p>Get the amount of assets in the archive.</p>
+   *
+   * @return Amount of assets
+   * @since 0.0.5
+   */
+  public int getEntryCount() {
+
+    return paths.length;
+
+  }
+
+  /**
+   * <p>Get the path of an asset in the archive.</p>
+   *
+   * @param index Index of the asset, ordered by the hashes of the paths
+   * @return Path of the asset
+   * @since 0.0.5
+   */
+  public String getPath(int index) {
+
+    return paths[index];
+
+  }
+
+  /**
+   * <p>Whether an asset is compressed in the archive.</p>
+   *
+   * @param path Path of the asset
+   * @return <code>TRUE</code> if compressed, <code>FALSE</code> if stored or missing.
+   * @since 0.0.5
+   */
+  public boolean isCompressed(String path) {
+
+    int index = find(path);
+
+    return index >= 0 && (flags[index] & ArchiveFormat.FLAG_LZ4) != 0;
+
+  }
+
+  /**
+   * <p>Close the archive.</p>
+   *
+   * <p>The mapping is released by the garbage collector once the buffers read from it
+   * aren't used anymore.</p>
+   *
+   * @since 0.0.5
+   */
+  @Override
+  public void close() {
+
+    try {
+      channel.close();
+    } catch (IOException e) {
+      logger.warn("Asset archive couldn't be closed: {}", e.getMessage());
+    }
+
+  }
+
+  private int find(String path) {
+
+    long hash = ArchiveFormat.hash(path);
+    int low = 0;
+    int high = hashes.length - 1;
+
+    while (low <= high) {
+
+      int middle = (low + high) >>> 1;
+
+      if (hashes[middle] < hash) {
+        low = middle + 1;
+      } else {
+        high = middle - 1;
+      }
+
+    }
+
+    // The paths with the same hash are next to each other
+    for (int i = low; i < hashes.length && hashes[i] == hash; i++) {
+      if (paths[i].equals(path)) return i;
+    }
+
+    return -1;
+
+  }
+
+  private ByteBuffer readFully(long position, int size) throws IOException {
+
+    ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+
+    while (buffer.hasRemaining()) {
+
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        throw new IOException("Archive is truncated");
+      }
+
+    }
+
+    return buffer.flip();
+
+  }
+
+}
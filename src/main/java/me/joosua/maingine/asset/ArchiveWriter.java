@@ -0,0 +1,313 @@
+package me.joosua.maingine.asset;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.lwjgl.system.MemoryUtil;
+import org.lwjgl.util.lz4.LZ4;
+import org.lwjgl.util.lz4.LZ4HC;
+
+/**
+ * <p>ArchiveWriter packs assets into a single archive read by {@link ArchiveSource}.</p>
+ *
+ * <p>The archive is built when the game is built, with the <code>packAssets</code> Gradle
+ * task running {@link #main(String[])}. Entries can be compressed with LZ4, which is kept
+ * only if it saves at least a tenth of the size. Files of formats which are compressed
+ * already, like PNG and OGG, are always stored as they are.</p>
+ *
+ * @since 0.0.5
+ */
+public class ArchiveWriter {
+
+  private static final Logger logger = LogManager.getLogger(ArchiveWriter.class);
+
+  private static final Set<String> COMPRESSED_FORMATS = Set.of("png", "jpg", "jpeg", "ogg",
+      "mp3", "zip", "gz", "lz4");
+
+  private static final double MIN_SAVING = 0.1;
+
+  private final List<Entry> entries = new ArrayList<>();
+  private final int alignment;
+
+  /**
+   * <p>Create a writer aligning the entries for OpenGL.</p>
+   *
+   * @since 0.0.5
+   */
+  public ArchiveWriter() {
+
+    this(ArchiveFormat.DEFAULT_ALIGNMENT);
+
+  }
+
+  /**
+   * <p>Create a writer.</p>
+   *
+   * @param alignment Alignment of the data of the entries in bytes
+   * @since 0.0.5
+   */
+  public ArchiveWriter(int alignment) {
+
+    this.alignment = Math.max(alignment, 1);
+
+  }
+
+  /**
+   * <p>Pack a directory from the command line.</p>
+   *
+   * <p>The arguments are the directory, the archive and optionally <code>--store</code>
+   * to turn off the compression.</p>
+   *
+   * @param args The arguments
+   * @throws IOException If the archive couldn't be written
+   * @since 0.0.5
+   */
+  public static void main(String[] args) throws IOException {
+
+    if (args.length < 2) {
+      logger.error("Usage: ArchiveWriter <directory> <archive> [--store]");
+      return;
+    }
+
+    boolean compress = args.length < 3 || !"--store".equals(args[2]);
+    ArchiveWriter writer = new ArchiveWriter();
+
+    writer.addDirectory(Paths.get(args[0]), compress);
+    writer.write(Paths.get(args[1]));
+
+  }
+
+  /**
+   * <p>Add a file to the archive.</p>
+   *
+   * @param path Path of the asset in the archive
+   * @param file The file
+   * @param compress Whether to try compressing the file
+   * @since 0.0.5
+   */
+  public void add(String path, Path file, boolean compress) {
+
+    entries.add(new Entry(path, file, compress && !isCompressedFormat(path)));
+
+  }
+
+  /**
+   * <p>Add every file of a directory and its subdirectories to the archive.</p>
+   *
+   * <p>The paths of the assets are relative to the directory.</p>
+   *
+   * @param directory The directory
+   * @param compress Whether to try compressing the files
+   * @throws IOException If the directory couldn't be listed
+   * @since 0.0.5
+   */
+  public void addDirectory(Path directory, boolean compress) throws IOException {
+
+    List<Path> files;
+
+    try (Stream<Path> walk = Files.walk(directory)) {
+      files = walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+    }
+
+    for (Path file : files) {
+
+      String path = directory.relativize(file).toString().replace(file.getFileSystem()
+          .getSeparator(), "/");
+
+      add(path, file, compress);
+
+    }
+
+  }
+
+  /**
+   * <p>Get the amount of entries added.</p>
+   *
+   * @return Amount of entries
+   * @since 0.0.5
+   */
+  public int getEntryCount() {
+
+    return entries.size();
+
+  }
+
+  /**
+   * <p>Write the archive.</p>
+   *
+   * @param output The archive file, replaced if it exists
+   * @throws IOException If a file couldn't be read or the archive couldn't be written
+   * @since 0.0.5
+   */
+  public void write(Path output) throws IOException {
+
+    entries.sort(Comparator.comparingLong((Entry entry) -> entry.hash)
+        .thenComparing(entry -> entry.path));
+
+    ByteBuffer names = encodeNames();
+    long position = ArchiveFormat.align(ArchiveFormat.HEADER_SIZE
+        + (long) entries.size() * ArchiveFormat.ENTRY_SIZE + names.remaining(), alignment);
+    long totalSize = 0;
+
+    if (output.toAbsolutePath().getParent() != null) {
+      Files.createDirectories(output.toAbsolutePath().getParent());
+    }
+
+    try (FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+      // The data goes first, the table of contents is written once the sizes are known
+      for (Entry entry : entries) {
+
+        entry.offset = position;
+        position = ArchiveFormat.align(position + writeData(channel, entry), alignment);
+        totalSize += entry.size;
+
+      }
+
+      writeFully(channel, encodeTable(names), 0);
+
+      logger.info("Packed {} assets of {} bytes to {} bytes in {}", entries.size(), totalSize,
+          channel.size(), output);
+
+    }
+
+  }
+
+  private long writeData(FileChannel channel, Entry entry) throws IOException {
+
+    byte[] bytes = Files.readAllBytes(entry.file);
+    ByteBuffer content = MemoryUtil.memAlloc(Math.max(bytes.length, 1));
+    ByteBuffer compressed = null;
+
+    try {
+
+      content.put(bytes).flip();
+      entry.size = bytes.length;
+
+      if (entry.compress && bytes.length > 0) {
+
+        compressed = MemoryUtil.memAlloc(LZ4.LZ4_compressBound(bytes.length));
+
+        int size = LZ4HC.LZ4_compress_HC(content, compressed, LZ4HC.LZ4HC_CLEVEL_DEFAULT);
+
+        if (size > 0 && size <= bytes.length * (1 - MIN_SAVING)) {
+          compressed.limit(size);
+          entry.flags |= ArchiveFormat.FLAG_LZ4;
+        }
+
+      }
+
+      ByteBuffer stored = (entry.flags & ArchiveFormat.FLAG_LZ4) != 0 ? compressed : content;
+
+      entry.storedSize = stored.remaining();
+      writeFully(channel, stored, entry.offset);
+
+      return entry.storedSize;
+
+    } finally {
+      MemoryUtil.memFree(content);
+      MemoryUtil.memFree(compressed);
+    }
+
+  }
+
+  private ByteBuffer encodeNames() {
+
+    int size = 0;
+
+    for (Entry entry : entries) {
+      entry.name = entry.path.getBytes(StandardCharsets.UTF_8);
+      size += entry.name.length;
+    }
+
+    ByteBuffer names = ByteBuffer.allocate(size);
+
+    for (Entry entry : entries) {
+      entry.nameOffset = names.position();
+      names.put(entry.name);
+    }
+
+    return names.flip();
+
+  }
+
+  private ByteBuffer encodeTable(ByteBuffer names) {
+
+    int tableSize = entries.size() * ArchiveFormat.ENTRY_SIZE;
+    ByteBuffer table = ByteBuffer.allocate(ArchiveFormat.HEADER_SIZE + tableSize
+        + names.remaining()).order(ByteOrder.LITTLE_ENDIAN);
+
+    table.putInt(ArchiveFormat.MAGIC).putInt(ArchiveFormat.VERSION).putInt(entries.size())
+        .putInt(alignment).putLong(ArchiveFormat.HEADER_SIZE + tableSize)
+        .putLong(names.remaining());
+
+    for (Entry entry : entries) {
+      table.putLong(entry.hash).putLong(entry.offset).putInt(entry.storedSize)
+          .putInt(entry.size).putInt(entry.nameOffset).putShort((short) entry.name.length)
+          .putShort(entry.flags);
+    }
+
+    return table.put(names).flip();
+
+  }
+
+  private static void writeFully(FileChannel channel, ByteBuffer buffer, long position)
+      throws IOException {
+
+    while (buffer.hasRemaining()) {
+      position += channel.write(buffer, position);
+    }
+
+  }
+
+  private static boolean isCompressedFormat(String path) {
+
+    int dot = path.lastIndexOf('.');
+
+    return dot >= 0 && COMPRESSED_FORMATS.contains(path.substring(dot + 1)
+        .toLowerCase(Locale.ROOT));
+
+  }
+
+  private static class Entry {
+
+    private final String path;
+    private final Path file;
+    private final boolean compress;
+    private final long hash;
+
+    private byte[] name;
+    private int nameOffset;
+    private long offset;
+    private int storedSize;
+    private int size;
+    private short flags;
+
+    private Entry(String path, Path file, boolean compress) {
+
+      this.path = path;
+      this.file = file;
+      this.compress = compress;
+      this.hash = ArchiveFormat.hash(path);
+
+    }
+
+  }
+
+}
@@ -0,0 +1,255 @@
+package me.joosua.maingine.asset;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>AssetCache keeps released assets loaded within memory budgets.</p>
+ *
+ * <p>Every loaded asset of an {@link AssetManager} is counted against a budget of each
+ * {@link AssetMemory} with the sizes given by its {@link AssetLoader}. Assets whose last
+ * reference is released stay loaded, so loading them again is a hit which doesn't read
+ * anything. Once the memory used is over a budget, the released assets are unloaded with
+ * the CLOCK policy: an asset loaded again since the last sweep gets a second chance and
+ * the others are unloaded in the order they come. Assets in use are never unloaded, so
+ * the budgets can be exceeded by them.</p>
+ *
+ * <p>Without any budgets, assets are unloaded as soon as they're released.</p>
+ *
+ * @since 0.0.5
+ */
+public class AssetCache {
+
+  private static final AssetMemory[] MEMORIES = AssetMemory.values();
+
+  private final long[] budgets = new long[MEMORIES.length];
+  private final long[] used = new long[MEMORIES.length];
+
+  private final List<AssetHandle<?>> entries = new ArrayList<>();
+  private int hand;
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private long evictions;
+
+  AssetCache() {
+
+  }
+
+  /**
+   * <p>Set the budget of a kind of memory.</p>
+   *
+   * <p>This must be called on the engine thread.</p>
+   *
+   * @param memory Kind of the memory
+   * @param bytes The budget in bytes, <code>0</code> for none
+   * @see #getBudget(AssetMemory)
+   * @since 0.0.5
+   */
+  public void setBudget(AssetMemory memory, long bytes) {
+
+    budgets[memory.ordinal()] = Math.max(bytes, 0);
+
+  }
+
+  /**
+   * <p>Get the budget of a kind of memory.</p>
+   *
+   * @param memory Kind of the memory
+   * @return The budget in bytes or <code>0</code> if none.
+   * @see #setBudget(AssetMemory, long)
+   * @since 0.0.5
+   */
+  public long getBudget(AssetMemory memory) {
+
+    return budgets[memory.ordinal()];
+
+  }
+
+  /**
+   * <p>Get the memory used by the loaded assets.</p>
+   *
+   * <p>This includes the assets in use and the released ones kept loaded.</p>
+   *
+   * @param memory Kind of the memory
+   * @return Size in bytes
+   * @since 0.0.5
+   */
+  public long getUsed(AssetMemory memory) {
+
+    return used[memory.ordinal()];
+
+  }
+
+  /**
+   * <p>Get the amount of loaded assets.</p>
+   *
+   * @return Amount of assets
+   * @since 0.0.5
+   */
+  public int getLoadedCount() {
+
+    return entries.size();
+
+  }
+
+  /**
+   * <p>Get the amount of loads which found the asset already loaded or being loaded.</p>
+   *
+   * @return Amount of hits
+   * @since 0.0.5
+   */
+  public long getHits() {
+
+    return hits.get();
+
+  }
+
+  /**
+   * <p>Get the amount of loads which had to read the asset.</p>
+   *
+   * @return Amount of misses
+   * @since 0.0.5
+   */
+  public long getMisses() {
+
+    return misses.get();
+
+  }
+
+  /**
+   * <p>Get the amount of released assets unloaded to stay within the budgets.</p>
+   *
+   * @return Amount of evictions
+   * @since 0.0.5
+   */
+  public long getEvictions() {
+
+    return evictions;
+
+  }
+
+  /**
+   * <p>Whether released assets are kept loaded.</p>
+   *
+   * @return <code>TRUE</code> if any budget is set, <code>FALSE</code> if not.
+   * @since 0.0.5
+   */
+  public boolean isEnabled() {
+
+    for (long budget : budgets) {
+      if (budget > 0) return true;
+    }
+
+    return false;
+
+  }
+
+  /**
+   * <p>Whether the memory used is over any of the budgets.</p>
+   *
+   * @return <code>TRUE</code> if over a budget, <code>FALSE</code> if not.
+   * @since 0.0.5
+   */
+  public boolean isOverBudget() {
+
+    for (int i = 0; i < budgets.length; i++) {
+      if (budgets[i] > 0 && used[i] > budgets[i]) return true;
+    }
+
+    return false;
+
+  }
+
+  void countHit(AssetHandle<?> handle) {
+
+    handle.markAccessed();
+    hits.incrementAndGet();
+
+  }
+
+  void countMiss() {
+
+    misses.incrementAndGet();
+
+  }
+
+  /*
+   * Called on the engine thread when an asset is loaded or reloaded.
+   */
+  <T> void track(AssetHandle<T> handle, AssetLoader<T> loader) {
+
+    long[] sizes = handle.getSizes();
+
+    if (handle.getCacheIndex() < 0) {
+      handle.setCacheIndex(entries.size());
+      entries.add(handle);
+    }
+
+    for (int i = 0; i < MEMORIES.length; i++) {
+      used[i] -= sizes[i];
+      sizes[i] = Math.max(loader.getSize(handle.get(), MEMORIES[i]), 0);
+      used[i] += sizes[i];
+    }
+
+    handle.markAccessed();
+
+  }
+
+  /*
+   * Called on the engine thread when an asset is unloaded.
+   */
+  void untrack(AssetHandle<?> handle) {
+
+    int index = handle.getCacheIndex();
+
+    if (index < 0) return;
+
+    long[] sizes = handle.getSizes();
+
+    for (int i = 0; i < MEMORIES.length; i++) {
+      used[i] -= sizes[i];
+      sizes[i] = 0;
+    }
+
+    // The last entry takes the place of the removed one, the hand checks it next
+    AssetHandle<?> last = entries.remove(entries.size() - 1);
+
+    if (last != handle) {
+      entries.set(index, last);
+      last.setCacheIndex(index);
+    }
+
+    handle.setCacheIndex(-1);
+
+  }
+
+  /*
+   * Unloads released assets until the memory used is within the budgets or nothing more
+   * can be unloaded. Called on the engine thread.
+   */
+  void evict(AssetManager manager) {
+
+    // Every asset is passed at most twice, the first pass clears the accessed flags
+    int remaining = entries.size() * 2;
+
+    while (remaining-- > 0 && !entries.isEmpty() && isOverBudget()) {
+
+      if (hand >= entries.size()) hand = 0;
+
+      AssetHandle<?> handle = entries.get(hand);
+
+      if (handle.getReferenceCount() > 0 || handle.clearAccessed()
+          || !manager.evict(handle)) {
+        hand++;
+        continue;
+      }
+
+      evictions++;
+
+    }
+
+  }
+
+}
@@ -0,0 +1,20 @@
+package me.joosua.maingine.asset;
+
+/**
+ * <p>AssetCallback is notified when an asset has been loaded or has failed.</p>
+ *
+ * @param <T> Type of the asset
+ * @since 0.0.5
+ */
+@FunctionalInterface
+public interface AssetCallback<T> {
+
+  /**
+   * <p>Called on the engine thread once the asset is done.</p>
+   *
+   * @param handle Handle of the asset, check {@link AssetHandle#isLoaded()} for success
+   * @since 0.0.5
+   */
+  void done(AssetHandle<T> handle);
+
+}
@@ -0,0 +1,102 @@
+package me.joosua.maingine.asset;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>AssetContext is given to an {@link AssetLoader} loading an asset.</p>
+ *
+ * <p>The assets loaded through the context are the dependencies of the asset, like the
+ * textures of a material. They are loaded at the same time on the other workers, and the
+ * asset is loaded only after all of them are. The asset holds a reference to each
+ * dependency until it's unloaded. Dependencies must not form a cycle.</p>
+ *
+ * @since 0.0.5
+ */
+public final class AssetContext {
+
+  private final AssetManager manager;
+  private final String path;
+
+  private List<AssetHandle<?>> dependencies;
+
+  AssetContext(AssetManager manager, String path) {
+
+    this.manager = manager;
+    this.path = path;
+
+  }
+
+  /**
+   * <p>Load a dependency of the asset.</p>
+   *
+   * @param path Path of the dependency
+   * @param type Type of the dependency
+   * @param <D> Type of the dependency
+   * @return Handle of the dependency or <code>NULL</code> if there's no loader for the
+   *     type.
+   * @since 0.0.5
+   */
+  public <D> AssetHandle<D> load(String path, Class<D> type) {
+
+    AssetHandle<D> handle = manager.load(path, type);
+
+    if (handle != null) {
+
+      if (dependencies == null) dependencies = new ArrayList<>();
+
+      dependencies.add(handle);
+
+    }
+
+    return handle;
+
+  }
+
+  /**
+   * <p>Get the path of a file next to the asset.</p>
+   *
+   * @param name Path relative to the directory of the asset
+   * @return Path of the file
+   * @since 0.0.5
+   */
+  public String resolve(String name) {
+
+    int separator = path.lastIndexOf('/');
+
+    return separator < 0 ? name : path.substring(0, separator + 1) + name;
+
+  }
+
+  /**
+   * <p>Get the path of the asset being loaded.</p>
+   *
+   * @return Path of the asset
+   * @since 0.0.5
+   */
+  public String getPath() {
+
+    return path;
+
+  }
+
+  /**
+   * <p>Get the manager loading the asset.</p>
+   *
+   * @return The asset manager
+   * @since 0.0.5
+   */
+  public AssetManager getManager() {
+
+    return manager;
+
+  }
+
+  List<AssetHandle<?>> getDependencies() {
+
+    return dependencies != null ? dependencies : Collections.emptyList();
+
+  }
+
+}
@@ -0,0 +1,94 @@
+package me.joosua.maingine.asset;
+
+import java.nio.ByteBuffer;
+import me.joosua.maingine.memory.Memory;
+import me.joosua.maingine.memory.MemoryTag;
+
+/**
+ * <p>AssetData is the raw content of an asset read from an {@link AssetSource}.</p>
+ *
+ * <p>The content is a direct buffer, either mapped from the file or read into native
+ * memory, so it can be parsed or handed to OpenGL without copying it to the heap. The
+ * buffer is only valid until the data is closed, which the {@link AssetManager} does after
+ * the loader has returned, unless the loader takes it with {@link #take()}.</p>
+ *
+ * @since 0.0.5
+ */
+public final class AssetData implements AutoCloseable {
+
+  private ByteBuffer buffer;
+  private final boolean mapped;
+
+  /**
+   * <p>Create data of a buffer.</p>
+   *
+   * @param buffer The content
+   * @param mapped <code>TRUE</code> if the buffer is mapped and freed by the garbage
+   *     collector, <code>FALSE</code> if it's allocated with
+   *     {@link Memory#mallocBuffer(int, MemoryTag)} and tagged as assets.
+   * @since 0.0.5
+   */
+  public AssetData(ByteBuffer buffer, boolean mapped) {
+
+    this.buffer = buffer;
+    this.mapped = mapped;
+
+  }
+
+  /**
+   * <p>Get the content.</p>
+   *
+   * @return The buffer or <code>NULL</code> if closed.
+   * @since 0.0.5
+   */
+  public ByteBuffer getBuffer() {
+
+    return buffer;
+
+  }
+
+  /**
+   * <p>Whether the content is mapped from a file.</p>
+   *
+   * @return <code>TRUE</code> if mapped, <code>FALSE</code> if read into memory.
+   * @since 0.0.5
+   */
+  public boolean isMapped() {
+
+    return mapped;
+
+  }
+
+  /**
+   * <p>Take the ownership of the content.</p>
+   *
+   * <p>The buffer isn't freed when the data is closed. A buffer which isn't mapped must be
+   * freed with {@link Memory#freeBuffer(ByteBuffer, MemoryTag)} and the
+   * {@link MemoryTag#ASSETS} tag once it's no longer needed. Loaders use this to hand the
+   * content to OpenGL in {@link AssetLoader#finish(Object)} without copying it.</p>
+   *
+   * @return The buffer or <code>NULL</code> if closed.
+   * @since 0.0.5
+   */
+  public ByteBuffer take() {
+
+    ByteBuffer taken = buffer;
+
+    buffer = null;
+
+    return taken;
+
+  }
+
+  @Override
+  public void close() {
+
+    if (buffer == null) return;
+
+    if (!mapped) Memory.freeBuffer(buffer, MemoryTag.ASSETS);
+
+    buffer = null;
+
+  }
+
+}
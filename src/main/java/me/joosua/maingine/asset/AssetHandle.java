@@ -0,0 +1,390 @@
+package me.joosua.maingine.asset;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>AssetHandle is a reference counted reference to an asset of an
+ * {@link AssetManager}.</p>
+ *
+ * <p>Handles are returned immediately when assets are loaded and the asset is available
+ * with {@link #get()} once it's loaded. Loading an asset which is already loaded or being
+ * loaded returns the same handle and adds a reference to it. Every reference is released
+ * with {@link #release()}, after which the asset is kept in the {@link AssetCache} of the
+ * manager or unloaded.</p>
+ *
+ * @param <T> Type of the asset
+ * @since 0.0.5
+ */
+public final class AssetHandle<T> {
+
+  static final int LOADING = 0;
+  static final int LOADED = 1;
+  static final int FAILED = 2;
+  static final int UNLOADED = 3;
+
+  private final AssetManager manager;
+  private final String path;
+  private final Class<T> type;
+
+  private final AtomicInteger references = new AtomicInteger(1);
+  private final AtomicBoolean unloadQueued = new AtomicBoolean();
+  private final AtomicInteger reloads = new AtomicInteger();
+  private volatile boolean accessed;
+  private final CompletableFuture<T> future = new CompletableFuture<>();
+
+  private volatile int state = LOADING;
+  private volatile T asset;
+
+  // Set by the worker before the handle is queued to the engine thread
+  private T loaded;
+  private Throwable error;
+  private List<AssetHandle<?>> dependencies = Collections.emptyList();
+
+  private List<AssetCallback<T>> callbacks;
+
+  // Used by the cache on the engine thread
+  private final long[] sizes = new long[AssetMemory.values().length];
+  private int cacheIndex = -1;
+
+  AssetHandle(AssetManager manager, String path, Class<T> type) {
+
+    this.manager = manager;
+    this.path = path;
+    this.type = type;
+
+  }
+
+  /**
+   * <p>Get the asset.</p>
+   *
+   * @return The asset or <code>NULL</code> if not loaded.
+   * @since 0.0.5
+   */
+  public T get() {
+
+    return asset;
+
+  }
+
+  /**
+   * <p>Get the path of the asset.</p>
+   *
+   * @return Path of the asset
+   * @since 0.0.5
+   */
+  public String getPath() {
+
+    return path;
+
+  }
+
+  /**
+   * <p>Get the type of the asset.</p>
+   *
+   * @return Type of the asset
+   * @since 0.0.5
+   */
+  public Class<T> getType() {
+
+    return type;
+
+  }
+
+  /**
+   * <p>Whether the asset has been loaded.</p>
+   *
+   * @return <code>TRUE</code> if loaded, <code>FALSE</code> if not.
+   * @since 0.0.5
+   */
+  public boolean isLoaded() {
+
+    return state == LOADED;
+
+  }
+
+  /**
+   * <p>Whether the asset or one of its dependencies failed to load.</p>
+   *
+   * @return <code>TRUE</code> if failed, <code>FALSE</code> if not.
+   * @since 0.0.5
+   */
+  public boolean isFailed() {
+
+    return state == FAILED;
+
+  }
+
+  /**
+   * <p>Whether the asset has been loaded or has failed.</p>
+   *
+   * @return <code>TRUE</code> if done, <code>FALSE</code> if still loading.
+   * @since 0.0.5
+   */
+  public boolean isDone() {
+
+    return state != LOADING;
+
+  }
+
+  /**
+   * <p>Get the amount of references to the handle.</p>
+   *
+   * @return Amount of references
+   * @since 0.0.5
+   */
+  public int getReferenceCount() {
+
+    return references.get();
+
+  }
+
+  /**
+   * <p>Add a reference to the handle.</p>
+   *
+   * @return Whether the reference was added, <code>FALSE</code> if the handle has already
+   *     been released.
+   * @since 0.0.5
+   */
+  public boolean retain() {
+
+    int count = references.get();
+
+    while (count > 0) {
+
+      if (references.compareAndSet(count, count + 1)) return true;
+
+      count = references.get();
+
+    }
+
+    return false;
+
+  }
+
+  /**
+   * <p>Release a reference to the handle.</p>
+   *
+   * <p>Once the last reference is released, the asset is kept in the cache or unloaded on
+   * the engine thread. The handle must not be used after releasing it.</p>
+   *
+   * @since 0.0.5
+   */
+  public void release() {
+
+    int count = references.decrementAndGet();
+
+    if (count == 0 && isDone()) {
+      queueUnload();
+    } else if (count < 0) {
+      references.incrementAndGet();
+      throw new IllegalStateException("Asset '" + path + "' released too many times");
+    }
+
+  }
+
+  /*
+   * Adds the first reference to a released handle kept in the cache. Called by the
+   * manager while it holds the lock of the handle's key.
+   */
+  boolean revive() {
+
+    return state != UNLOADED && references.compareAndSet(0, 1);
+
+  }
+
+  CompletableFuture<T> getFuture() {
+
+    return future;
+
+  }
+
+  String getKey() {
+
+    return AssetManager.key(path, type);
+
+  }
+
+  int getState() {
+
+    return state;
+
+  }
+
+  T getLoaded() {
+
+    return loaded;
+
+  }
+
+  Throwable getError() {
+
+    return error;
+
+  }
+
+  List<AssetHandle<?>> getDependencies() {
+
+    return dependencies;
+
+  }
+
+  void setLoaded(T loaded) {
+
+    this.loaded = loaded;
+
+  }
+
+  void setError(Throwable error) {
+
+    if (this.error == null) this.error = error;
+
+  }
+
+  void setDependencies(List<AssetHandle<?>> dependencies) {
+
+    this.dependencies = dependencies;
+
+  }
+
+  /*
+   * Called on the engine thread, the callbacks are run after this.
+   */
+  synchronized List<AssetCallback<T>> complete() {
+
+    if (error == null) {
+      asset = loaded;
+      state = LOADED;
+      future.complete(loaded);
+    } else {
+      state = FAILED;
+      future.completeExceptionally(error);
+    }
+
+    loaded = null;
+
+    List<AssetCallback<T>> done = callbacks;
+    callbacks = null;
+
+    return done != null ? done : Collections.emptyList();
+
+  }
+
+  /*
+   * Returns false if the handle is already done and the callback must be run by the caller.
+   */
+  synchronized boolean addCallback(AssetCallback<T> callback) {
+
+    if (isDone()) return false;
+
+    if (callbacks == null) callbacks = new ArrayList<>(1);
+
+    callbacks.add(callback);
+
+    return true;
+
+  }
+
+  /*
+   * Returns the asset to unload, or null if it was never loaded.
+   */
+  T markUnloaded() {
+
+    T unloaded = state == LOADED ? asset : null;
+
+    asset = null;
+    state = UNLOADED;
+
+    return unloaded;
+
+  }
+
+  /*
+   * Returns the version of the reload, only the latest reload replaces the asset.
+   */
+  int nextReload() {
+
+    return reloads.incrementAndGet();
+
+  }
+
+  boolean isLatestReload(int version) {
+
+    return reloads.get() == version;
+
+  }
+
+  /*
+   * Called on the engine thread with a finished reload, returns the replaced asset.
+   */
+  T replace(T reloaded, List<AssetHandle<?>> reloadedDependencies) {
+
+    final T replaced = state == LOADED ? asset : null;
+
+    asset = reloaded;
+    error = null;
+    dependencies = reloadedDependencies;
+    state = LOADED;
+
+    return replaced;
+
+  }
+
+  void queueUnload() {
+
+    if (unloadQueued.compareAndSet(false, true)) manager.queueUnload(this);
+
+  }
+
+  /*
+   * Called when taken from the queue, the handle can be queued again if it's revived and
+   * released after this.
+   */
+  void clearUnloadQueued() {
+
+    unloadQueued.set(false);
+
+  }
+
+  void markAccessed() {
+
+    accessed = true;
+
+  }
+
+  /*
+   * Returns whether the handle was accessed since the last call.
+   */
+  boolean clearAccessed() {
+
+    boolean wasAccessed = accessed;
+
+    accessed = false;
+
+    return wasAccessed;
+
+  }
+
+  long[] getSizes() {
+
+    return sizes;
+
+  }
+
+  int getCacheIndex() {
+
+    return cacheIndex;
+
+  }
+
+  void setCacheIndex(int cacheIndex) {
+
+    this.cacheIndex = cacheIndex;
+
+  }
+
+}
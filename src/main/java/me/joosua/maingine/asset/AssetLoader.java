@@ -0,0 +1,75 @@
+package me.joosua.maingine.asset;
+
+import java.io.IOException;
+
+/**
+ * <p>AssetLoader creates assets of a type from their content.</p>
+ *
+ * <p>Loaders are registered to an {@link AssetManager} for the type of their assets.
+ * {@link #load(AssetData, AssetContext)} is called on a worker thread, so it must be
+ * thread safe and can't use OpenGL. Work needing the engine thread is done in
+ * {@link #finish(Object)}.</p>
+ *
+ * @param <T> Type of the assets
+ * @since 0.0.5
+ */
+public interface AssetLoader<T> {
+
+  /**
+   * <p>Create an asset from its content.</p>
+   *
+   * <p>Other assets the asset depends on are loaded with
+   * {@link AssetContext#load(String, Class)}. They are loaded at the same time as this
+   * one and the asset is loaded once all of them are.</p>
+   *
+   * @param data Content of the asset, only valid during the call
+   * @param context Context of the asset being loaded
+   * @return The asset
+   * @throws IOException If the asset couldn't be created
+   * @since 0.0.5
+   */
+  T load(AssetData data, AssetContext context) throws IOException;
+
+  /**
+   * <p>Finish an asset on the engine thread once its dependencies are loaded.</p>
+   *
+   * <p>This is the place for uploading the asset to the GPU.</p>
+   *
+   * @param asset The asset
+   * @since 0.0.5
+   */
+  default void finish(T asset) {
+
+  }
+
+  /**
+   * <p>Free an asset which is no longer used.</p>
+   *
+   * <p>This is called on the engine thread. The dependencies of the asset are released
+   * after this.</p>
+   *
+   * @param asset The asset
+   * @since 0.0.5
+   */
+  default void unload(T asset) {
+
+  }
+
+  /**
+   * <p>Get the amount of memory an asset uses.</p>
+   *
+   * <p>The sizes are counted against the budgets of the {@link AssetCache}. They're asked
+   * once the asset has been finished.</p>
+   *
+   * @param asset The asset
+   * @param memory Kind of the memory
+   * @return Size in bytes, estimated if not known exactly
+   * @since 0.0.5
+   */
+  default long getSize(T asset, AssetMemory memory) {
+
+    return 0;
+
+  }
+
+}
@@ -0,0 +1,666 @@
+package me.joosua.maingine.asset;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * <p>AssetManager loads assets on worker threads.</p>
+ *
+ * <p>Assets are loaded with {@link #load(String, Class)}, which returns a reference
+ * counted {@link AssetHandle} immediately. The content is read from an
+ * {@link AssetSource} and turned into an asset by the {@link AssetLoader} registered for
+ * its type, both on the workers. Dependencies loaded by the loaders are loaded at the
+ * same time, and an asset is finished once its dependencies are.</p>
+ *
+ * <p>Finishing, the callbacks and unloading are done on the engine thread in
+ * {@link #update()}, which the engine calls before every update of the game state. The
+ * same asset is loaded only once and shared by the handles to it. Released assets are
+ * kept loaded within the budgets of the {@link AssetCache}, and unloaded once they don't
+ * fit.</p>
+ *
+ * <p>Loaded assets can be reloaded with {@link #reload(String)}, like by an
+ * {@link AssetWatcher} when the files change. The new version is loaded on the workers
+ * and replaces the old one in the handles in {@link #update()}, after which the assets
+ * depending on it are reloaded too.</p>
+ *
+ * @since 0.0.5
+ */
+public class AssetManager {
+
+  private static final Logger logger = LogManager.getLogger(AssetManager.class);
+
+  private static final long SHUTDOWN_TIMEOUT = 5;
+  private static final long WAIT_NANOS = 100_000;
+
+  private final AssetSource source;
+  private final Executor executor;
+  private final ExecutorService ownedExecutor;
+
+  private final Map<Class<?>, AssetLoader<?>> loaders = new ConcurrentHashMap<>();
+  private final Map<String, AssetHandle<?>> handles = new ConcurrentHashMap<>();
+
+  private final Queue<AssetHandle<?>> finished = new ConcurrentLinkedQueue<>();
+  private final Queue<Reload<?>> reloaded = new ConcurrentLinkedQueue<>();
+  private final Queue<Runnable> callbacks = new ConcurrentLinkedQueue<>();
+  private final Queue<AssetHandle<?>> unloads = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger pending = new AtomicInteger();
+  private final AssetCache cache = new AssetCache();
+
+  /**
+   * <p>Create a manager with its own worker threads.</p>
+   *
+   * @param source Source of the assets
+   * @param threads Amount of worker threads, at least <code>1</code>
+   * @since 0.0.5
+   */
+  public AssetManager(AssetSource source, int threads) {
+
+    this.source = source;
+
+    AtomicInteger index = new AtomicInteger();
+
+    ownedExecutor = Executors.newFixedThreadPool(Math.max(threads, 1), runnable -> {
+      Thread thread = new Thread(runnable, "Maingine asset worker " + index.getAndIncrement());
+      thread.setDaemon(true);
+      return thread;
+    });
+    executor = ownedExecutor;
+
+  }
+
+  /**
+   * <p>Create a manager loading on an executor.</p>
+   *
+   * @param source Source of the assets
+   * @param executor Executor running the loading
+   * @since 0.0.5
+   */
+  public AssetManager(AssetSource source, Executor executor) {
+
+    this.source = source;
+    this.executor = executor;
+    this.ownedExecutor = null;
+
+  }
+
+  /**
+   * <p>Register the loader of a type of assets.</p>
+   *
+   * <p>A loader registered earlier for the type is replaced.</p>
+   *
+   * @param type Type of the assets
+   * @param loader The loader
+   * @param <T> Type of the assets
+   * @since 0.0.5
+   */
+  public <T> void registerLoader(Class<T> type, AssetLoader<T> loader) {
+
+    loaders.put(type, loader);
+
+  }
+
+  /**
+   * <p>Get the loader of a type of assets.</p>
+   *
+   * @param type Type of the assets
+   * @param <T> Type of the assets
+   * @return The loader or <code>NULL</code> if not registered.
+   * @since 0.0.5
+   */
+  @SuppressWarnings("unchecked")
+  public <T> AssetLoader<T> getLoader(Class<T> type) {
+
+    return (AssetLoader<T>) loaders.get(type);
+
+  }
+
+  /**
+   * <p>Load an asset.</p>
+   *
+   * <p>This can be called from any thread.</p>
+   *
+   * @param path Path of the asset in the source
+   * @param type Type of the asset
+   * @param <T> Type of the asset
+   * @return Handle of the asset or <code>NULL</code> if there's no loader for the type.
+   * @since 0.0.5
+   */
+  public <T> AssetHandle<T> load(String path, Class<T> type) {
+
+    AssetLoader<T> loader = getLoader(type);
+
+    if (loader == null) {
+      logger.error("No loader registered for {}, can't load '{}'", type.getName(), path);
+      return null;
+    }
+
+    boolean[] created = new boolean[1];
+
+    @SuppressWarnings("unchecked")
+    AssetHandle<T> handle = (AssetHandle<T>) handles.compute(key(path, type), (key, old) -> {
+
+      if (old != null && (old.retain() || old.revive())) return old;
+
+      created[0] = true;
+
+      return new AssetHandle<>(this, path, type);
+
+    });
+
+    if (created[0]) {
+      cache.countMiss();
+      pending.incrementAndGet();
+      executor.execute(() -> loadAsync(handle, loader));
+    } else {
+      cache.countHit(handle);
+    }
+
+    return handle;
+
+  }
+
+  /**
+   * <p>Load an asset and get notified when it's done.</p>
+   *
+   * <p>The callback is called on the engine thread, also when the asset has already been
+   * loaded.</p>
+   *
+   * @param path Path of the asset in the source
+   * @param type Type of the asset
+   * @param callback Callback called once the asset is loaded or has failed
+   * @param <T> Type of the asset
+   * @return Handle of the asset or <code>NULL</code> if there's no loader for the type.
+   * @since 0.0.5
+   */
+  public <T> AssetHandle<T> load(String path, Class<T> type, AssetCallback<T> callback) {
+
+    AssetHandle<T> handle = load(path, type);
+
+    if (handle != null && !handle.addCallback(callback)) {
+      callbacks.add(() -> callback.done(handle));
+    }
+
+    return handle;
+
+  }
+
+  /**
+   * <p>Reload the assets of a path.</p>
+   *
+   * <p>Every loaded or failed asset of the path is loaded again on the workers, and the
+   * handles keep the old version until the new one is finished in {@link #update()}. If
+   * reloading fails, the old version is kept. The assets depending on a reloaded asset
+   * are reloaded after it.</p>
+   *
+   * <p>This can be called from any thread.</p>
+   *
+   * @param path Path of the asset in the source
+   * @return Amount of assets being reloaded
+   * @since 0.0.5
+   */
+  public int reload(String path) {
+
+    int count = 0;
+
+    for (AssetHandle<?> handle : handles.values()) {
+
+      if (handle.getPath().equals(path) && scheduleReload(handle)) count++;
+
+    }
+
+    return count;
+
+  }
+
+  /**
+   * <p>Finish the loaded assets, call their callbacks and unload the released ones which
+   * don't fit the cache.</p>
+   *
+   * <p>This must be called on the engine thread, which the engine does before every
+   * update.</p>
+   *
+   * @return Amount of assets finished
+   * @since 0.0.5
+   */
+  public int update() {
+
+    int count = 0;
+    AssetHandle<?> handle;
+
+    // Finishing completes the dependencies of other assets, which queue themselves here
+    while ((handle = finished.poll()) != null) {
+      finish(handle);
+      count++;
+    }
+
+    Reload<?> reload;
+
+    while ((reload = reloaded.poll()) != null) {
+      replace(reload);
+      count++;
+    }
+
+    Runnable callback;
+
+    while ((callback = callbacks.poll()) != null) {
+      callback.run();
+    }
+
+    // Unloading releases the dependencies, which can queue them
+    do {
+
+      while ((handle = unloads.poll()) != null) {
+
+        handle.clearUnloadQueued();
+
+        if (handle.getReferenceCount() > 0 || handle.isLoaded() && cache.isEnabled()) {
+          continue;
+        }
+
+        if (remove(handle)) unload(handle);
+
+      }
+
+      cache.evict(this);
+
+    } while (!unloads.isEmpty());
+
+    return count;
+
+  }
+
+  /**
+   * <p>Wait until every asset being loaded is finished.</p>
+   *
+   * <p>This must be called on the engine thread, like on a loading screen which shouldn't
+   * be left before everything has been loaded.</p>
+   *
+   * @since 0.0.5
+   */
+  public void finishLoading() {
+
+    update();
+
+    while (pending.get() > 0) {
+      LockSupport.parkNanos(WAIT_NANOS);
+      update();
+    }
+
+  }
+
+  /**
+   * <p>Get the amount of assets being loaded or reloaded.</p>
+   *
+   * @return Amount of assets
+   * @since 0.0.5
+   */
+  public int getPendingCount() {
+
+    return pending.get();
+
+  }
+
+  /**
+   * <p>Get the amount of assets loaded or being loaded.</p>
+   *
+   * @return Amount of assets
+   * @since 0.0.5
+   */
+  public int getAssetCount() {
+
+    return handles.size();
+
+  }
+
+  /**
+   * <p>Get the cache keeping the released assets loaded.</p>
+   *
+   * @return The cache
+   * @since 0.0.5
+   */
+  public AssetCache getCache() {
+
+    return cache;
+
+  }
+
+  /**
+   * <p>Get the source of the assets.</p>
+   *
+   * @return The source
+   * @since 0.0.5
+   */
+  public AssetSource getSource() {
+
+    return source;
+
+  }
+
+  /**
+   * <p>Stop the workers, unload every asset and close the source.</p>
+   *
+   * <p>This should only be called after the last update.</p>
+   *
+   * @since 0.0.5
+   */
+  public void destroy() {
+
+    if (ownedExecutor != null) {
+
+      ownedExecutor.shutdownNow();
+
+      try {
+
+        if (!ownedExecutor.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.SECONDS)) {
+          logger.warn("Asset workers didn't stop in {} seconds", SHUTDOWN_TIMEOUT);
+        }
+
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+
+    }
+
+    update();
+
+    for (AssetHandle<?> handle : handles.values()) {
+      unload(handle);
+    }
+
+    handles.clear();
+    source.close();
+
+  }
+
+  static String key(String path, Class<?> type) {
+
+    return type.getName() + ':' + path;
+
+  }
+
+  void queueUnload(AssetHandle<?> handle) {
+
+    unloads.add(handle);
+
+  }
+
+  /*
+   * Unloads a released asset for the cache, returns false if it's in use again.
+   */
+  boolean evict(AssetHandle<?> handle) {
+
+    if (!remove(handle)) return false;
+
+    unload(handle);
+
+    return true;
+
+  }
+
+  private <T> void loadAsync(AssetHandle<T> handle, AssetLoader<T> loader) {
+
+    AssetContext context = new AssetContext(this, handle.getPath());
+
+    try (AssetData data = source.read(handle.getPath())) {
+
+      handle.setLoaded(loader.load(data, context));
+
+    } catch (IOException | RuntimeException e) {
+      handle.setError(e);
+    }
+
+    handle.setDependencies(context.getDependencies());
+
+    List<AssetHandle<?>> dependencies = handle.getDependencies();
+
+    if (dependencies.isEmpty()) {
+      finished.add(handle);
+      return;
+    }
+
+    CompletableFuture<?>[] futures = new CompletableFuture<?>[dependencies.size()];
+
+    for (int i = 0; i < futures.length; i++) {
+      futures[i] = dependencies.get(i).getFuture();
+    }
+
+    CompletableFuture.allOf(futures).whenComplete((result, error) -> {
+
+      if (error != null) handle.setError(error);
+
+      finished.add(handle);
+
+    });
+
+  }
+
+  private <T> boolean scheduleReload(AssetHandle<T> handle) {
+
+    int state = handle.getState();
+
+    if (state != AssetHandle.LOADED && state != AssetHandle.FAILED) return false;
+
+    Reload<T> reload = new Reload<>(handle, handle.nextReload());
+
+    pending.incrementAndGet();
+    executor.execute(() -> reloadAsync(reload));
+
+    return true;
+
+  }
+
+  private <T> void reloadAsync(Reload<T> reload) {
+
+    AssetContext context = new AssetContext(this, reload.handle.getPath());
+
+    try (AssetData data = source.read(reload.handle.getPath())) {
+
+      reload.loaded = getLoader(reload.handle.getType()).load(data, context);
+
+    } catch (IOException | RuntimeException e) {
+      reload.error = e;
+    }
+
+    reload.dependencies = context.getDependencies();
+
+    CompletableFuture<?>[] futures = new CompletableFuture<?>[reload.dependencies.size()];
+
+    for (int i = 0; i < futures.length; i++) {
+      futures[i] = reload.dependencies.get(i).getFuture();
+    }
+
+    CompletableFuture.allOf(futures).whenComplete((result, error) -> {
+
+      if (error != null && reload.error == null) reload.error = error;
+
+      reloaded.add(reload);
+
+    });
+
+  }
+
+  private <T> void replace(Reload<T> reload) {
+
+    AssetHandle<T> handle = reload.handle;
+    AssetLoader<T> loader = getLoader(handle.getType());
+
+    pending.decrementAndGet();
+
+    if (reload.error == null) {
+
+      try {
+        loader.finish(reload.loaded);
+      } catch (RuntimeException e) {
+        reload.error = e;
+      }
+
+    }
+
+    if (reload.error != null) {
+      logger.error("Asset '{}' couldn't be reloaded: {}", handle.getPath(),
+          reload.error.getMessage());
+      if (reload.loaded != null) loader.unload(reload.loaded);
+    } else if (!handle.isLatestReload(reload.version)
+        || handle.getState() == AssetHandle.UNLOADED) {
+      // Replaced by a later reload or unloaded while reloading
+      loader.unload(reload.loaded);
+    } else {
+      swap(handle, reload);
+      return;
+    }
+
+    for (AssetHandle<?> dependency : reload.dependencies) {
+      dependency.release();
+    }
+
+  }
+
+  private <T> void swap(AssetHandle<T> handle, Reload<T> reload) {
+
+    // A failed asset released its dependencies already
+    final boolean wasLoaded = handle.isLoaded();
+    List<AssetHandle<?>> dependencies = handle.getDependencies();
+    T replaced = handle.replace(reload.loaded, reload.dependencies);
+
+    if (replaced != null) getLoader(handle.getType()).unload(replaced);
+
+    cache.track(handle, getLoader(handle.getType()));
+
+    if (wasLoaded) {
+
+      for (AssetHandle<?> dependency : dependencies) {
+        dependency.release();
+      }
+
+    }
+
+    logger.info("Asset '{}' has been reloaded", handle.getPath());
+
+    for (AssetHandle<?> dependent : handles.values()) {
+
+      if (dependent.isDone() && dependent.getDependencies().contains(handle)) {
+        scheduleReload(dependent);
+      }
+
+    }
+
+  }
+
+  private <T> void finish(AssetHandle<T> handle) {
+
+    AssetLoader<T> loader = getLoader(handle.getType());
+
+    if (handle.getError() == null) {
+
+      try {
+        loader.finish(handle.getLoaded());
+      } catch (RuntimeException e) {
+        handle.setError(e);
+      }
+
+    }
+
+    // The asset may have been loaded with only a dependency failing
+    if (handle.getError() != null && handle.getLoaded() != null) {
+      loader.unload(handle.getLoaded());
+    }
+
+    pending.decrementAndGet();
+
+    List<AssetCallback<T>> done = handle.complete();
+
+    if (handle.isLoaded()) cache.track(handle, loader);
+
+    for (AssetCallback<T> callback : done) {
+      callback.done(handle);
+    }
+
+    if (handle.isFailed()) {
+
+      logger.error("Asset '{}' couldn't be loaded: {}", handle.getPath(),
+          handle.getError().getMessage());
+
+      releaseDependencies(handle);
+
+    }
+
+    // Released while it was loading
+    if (handle.getReferenceCount() == 0) handle.queueUnload();
+
+  }
+
+  private <T> void unload(AssetHandle<T> handle) {
+
+    if (handle.getState() == AssetHandle.UNLOADED) return;
+
+    T asset = handle.markUnloaded();
+
+    if (asset == null) return;
+
+    cache.untrack(handle);
+    getLoader(handle.getType()).unload(asset);
+    releaseDependencies(handle);
+
+  }
+
+  /*
+   * Removes a released handle so that it can't be revived anymore.
+   */
+  private boolean remove(AssetHandle<?> handle) {
+
+    boolean[] removed = new boolean[1];
+
+    handles.compute(handle.getKey(), (key, current) -> {
+
+      if (handle.getReferenceCount() > 0) return current;
+
+      removed[0] = true;
+
+      return current == handle ? null : current;
+
+    });
+
+    return removed[0];
+
+  }
+
+  private void releaseDependencies(AssetHandle<?> handle) {
+
+    for (AssetHandle<?> dependency : handle.getDependencies()) {
+      dependency.release();
+    }
+
+  }
+
+  private static final class Reload<T> {
+
+    private final AssetHandle<T> handle;
+    private final int version;
+
+    private T loaded;
+    private Throwable error;
+    private List<AssetHandle<?>> dependencies;
+
+    private Reload(AssetHandle<T> handle, int version) {
+
+      this.handle = handle;
+      this.version = version;
+
+    }
+
+  }
+
+}
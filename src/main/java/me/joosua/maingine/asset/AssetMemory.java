@@ -0,0 +1,26 @@
+package me.joosua.maingine.asset;
+
+/**
+ * <p>Kinds of memory used by assets.</p>
+ *
+ * @see AssetCache
+ * @since 0.0.5
+ */
+public enum AssetMemory {
+
+  /**
+   * <p>Java heap, like arrays and objects of the asset.</p>
+   */
+  HEAP,
+
+  /**
+   * <p>Native memory allocated outside of the heap.</p>
+   */
+  NATIVE,
+
+  /**
+   * <p>Estimated video memory of textures and buffers.</p>
+   */
+  GPU
+
+}
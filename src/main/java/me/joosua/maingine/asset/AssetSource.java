@@ -0,0 +1,46 @@
+package me.joosua.maingine.asset;
+
+import java.io.IOException;
+
+/**
+ * <p>AssetSource reads the content of assets by their paths.</p>
+ *
+ * <p>Paths are relative and separated with slashes, like <code>textures/stone.png</code>.
+ * Sources are read from the worker threads of the {@link AssetManager}, so
+ * implementations must be thread safe.</p>
+ *
+ * @since 0.0.5
+ */
+public interface AssetSource {
+
+  /**
+   * <p>Read an asset.</p>
+   *
+   * @param path Path of the asset
+   * @return Content of the asset, closed by the caller
+   * @throws IOException If the asset couldn't be read
+   * @since 0.0.5
+   */
+  AssetData read(String path) throws IOException;
+
+  /**
+   * <p>Whether an asset exists.</p>
+   *
+   * @param path Path of the asset
+   * @return <code>TRUE</code> if the asset can be read, <code>FALSE</code> if not.
+   * @since 0.0.5
+   */
+  boolean exists(String path);
+
+  /**
+   * <p>Release the resources of the source.</p>
+   *
+   * <p>The asset manager closes its source when it's destroyed.</p>
+   *
+   * @since 0.0.5
+   */
+  default void close() {
+
+  }
+
+}
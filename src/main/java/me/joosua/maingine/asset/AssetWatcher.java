@@ -0,0 +1,250 @@
+package me.joosua.maingine.asset;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * <p>AssetWatcher reloads the assets of a directory when their files change.</p>
+ *
+ * <p>The directory and its subdirectories are watched on a thread of their own. Editors
+ * and exporters often write a file several times in a row, so a file is reloaded only
+ * once it hasn't changed for the debounce time. The reloading itself is done by
+ * {@link AssetManager#reload(String)}, which swaps the new versions in on the engine
+ * thread.</p>
+ *
+ * <p>This is meant for development, where content can then be changed without restarting
+ * the game.</p>
+ *
+ * @since 0.0.5
+ */
+public class AssetWatcher {
+
+  private static final Logger logger = LogManager.getLogger(AssetWatcher.class);
+
+  /**
+   * <p>The default debounce time in milliseconds.</p>
+   *
+   * @since 0.0.5
+   */
+  public static final long DEFAULT_DEBOUNCE = 200;
+
+  private final AssetManager manager;
+  private final Path root;
+  private final long debounceNanos;
+
+  private final WatchService watchService;
+  private final Map<WatchKey, Path> directories = new HashMap<>();
+  private final Map<String, Long> changes = new LinkedHashMap<>();
+
+  private Thread thread;
+
+  /**
+   * <p>Create a watcher.</p>
+   *
+   * @param manager Manager reloading the assets
+   * @param root The asset directory, the paths of the assets are relative to it
+   * @param debounce Time in milliseconds a file must stay unchanged before reloading it
+   * @throws IOException If the directory couldn't be watched
+   * @since 0.0.5
+   */
+  public AssetWatcher(AssetManager manager, Path root, long debounce) throws IOException {
+
+    this.manager = manager;
+    this.root = root.toAbsolutePath().normalize();
+    this.debounceNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(debounce, 0));
+
+    watchService = FileSystems.getDefault().newWatchService();
+
+    try {
+      registerAll(this.root);
+    } catch (IOException e) {
+      watchService.close();
+      throw e;
+    }
+
+  }
+
+  /**
+   * <p>Start watching.</p>
+   *
+   * @since 0.0.5
+   */
+  public void start() {
+
+    if (thread != null) return;
+
+    thread = new Thread(this::run, "Maingine asset watcher");
+    thread.setDaemon(true);
+    thread.start();
+
+    logger.info("Watching '{}' for changed assets", root);
+
+  }
+
+  /**
+   * <p>Stop watching.</p>
+   *
+   * <p>The watcher can't be started again.</p>
+   *
+   * @since 0.0.5
+   */
+  public void stop() {
+
+    try {
+      watchService.close();
+    } catch (IOException e) {
+      logger.warn("Asset watcher couldn't be closed: {}", e.getMessage());
+    }
+
+    if (thread == null) return;
+
+    try {
+      thread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+  }
+
+  private void run() {
+
+    try {
+
+      while (true) {
+
+        // Wait only until the oldest change can be reloaded
+        WatchKey key = changes.isEmpty() ? watchService.take()
+            : watchService.poll(debounceNanos, TimeUnit.NANOSECONDS);
+
+        if (key != null) process(key);
+
+        reloadSettled();
+
+      }
+
+    } catch (ClosedWatchServiceException e) {
+      logger.debug("Asset watcher has been stopped");
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+  }
+
+  private void process(WatchKey key) {
+
+    Path directory = directories.get(key);
+    long now = System.nanoTime();
+
+    for (WatchEvent<?> event : key.pollEvents()) {
+
+      if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+        logger.warn("Too many changes in '{}', some assets may not be reloaded", directory);
+        continue;
+      }
+
+      Path file = directory.resolve((Path) event.context());
+
+      if (Files.isDirectory(file)) {
+
+        if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE) registerNew(file, now);
+
+      } else {
+        changes.remove(toAssetPath(file));
+        changes.put(toAssetPath(file), now);
+      }
+
+    }
+
+    if (!key.reset()) directories.remove(key);
+
+  }
+
+  private void reloadSettled() {
+
+    long now = System.nanoTime();
+    Iterator<Map.Entry<String, Long>> iterator = changes.entrySet().iterator();
+
+    // The changes are in the order of their last change, so the settled ones are first
+    while (iterator.hasNext()) {
+
+      Map.Entry<String, Long> change = iterator.next();
+
+      if (now - change.getValue() < debounceNanos) break;
+
+      iterator.remove();
+
+      if (manager.reload(change.getKey()) > 0) {
+        logger.info("Reloading changed asset '{}'", change.getKey());
+      }
+
+    }
+
+  }
+
+  private void registerNew(Path directory, long now) {
+
+    try {
+
+      registerAll(directory);
+
+      // Files can be moved or written into the directory before it's registered
+      List<Path> files;
+
+      try (Stream<Path> walk = Files.walk(directory)) {
+        files = walk.filter(Files::isRegularFile).collect(Collectors.toList());
+      }
+
+      for (Path file : files) {
+        changes.put(toAssetPath(file), now);
+      }
+
+    } catch (IOException e) {
+      logger.warn("Asset directory '{}' couldn't be watched: {}", directory, e.getMessage());
+    }
+
+  }
+
+  private void registerAll(Path directory) throws IOException {
+
+    List<Path> subdirectories;
+
+    try (Stream<Path> walk = Files.walk(directory)) {
+      subdirectories = walk.filter(Files::isDirectory).collect(Collectors.toList());
+    }
+
+    for (Path subdirectory : subdirectories) {
+
+      // Deleted files keep their loaded versions, so only creating and writing matter
+      WatchKey key = subdirectory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+          StandardWatchEventKinds.ENTRY_MODIFY);
+
+      directories.put(key, subdirectory);
+
+    }
+
+  }
+
+  private String toAssetPath(Path file) {
+
+    return root.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+
+  }
+
+}
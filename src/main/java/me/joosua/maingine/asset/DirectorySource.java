@@ -0,0 +1,127 @@
+package me.joosua.maingine.asset;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import me.joosua.maingine.memory.Memory;
+import me.joosua.maingine.memory.MemoryTag;
+
+/**
+ * <p>DirectorySource reads assets from the files of a directory.</p>
+ *
+ * <p>Files from the mapping threshold up are memory-mapped, so the pages are read by the
+ * operating system on demand and never copied. Smaller files are read with a single
+ * {@link FileChannel} read into native memory, because mapping costs more than reading
+ * them.</p>
+ *
+ * @since 0.0.5
+ */
+public class DirectorySource implements AssetSource {
+
+  /**
+   * <p>Default size from which files are mapped.</p>
+   *
+   * @since 0.0.5
+   */
+  public static final long DEFAULT_MAP_THRESHOLD = 256 * 1024;
+
+  private final Path root;
+  private final long mapThreshold;
+
+  /**
+   * <p>Create a source of a directory mapping the large files.</p>
+   *
+   * @param root The directory
+   * @since 0.0.5
+   */
+  public DirectorySource(Path root) {
+
+    this(root, DEFAULT_MAP_THRESHOLD);
+
+  }
+
+  /**
+   * <p>Create a source of a directory.</p>
+   *
+   * @param root The directory
+   * @param mapThreshold Size in bytes from which files are mapped
+   * @since 0.0.5
+   */
+  public DirectorySource(Path root, long mapThreshold) {
+
+    this.root = root.toAbsolutePath().normalize();
+    this.mapThreshold = mapThreshold;
+
+  }
+
+  @Override
+  public AssetData read(String path) throws IOException {
+
+    try (FileChannel channel = FileChannel.open(resolve(path), StandardOpenOption.READ)) {
+
+      long size = channel.size();
+
+      if (size >= mapThreshold || size == 0) {
+        return new AssetData(channel.map(FileChannel.MapMode.READ_ONLY, 0, size), true);
+      }
+
+      ByteBuffer buffer = Memory.mallocBuffer((int) size, MemoryTag.ASSETS);
+
+      if (buffer == null) throw new IOException("Out of memory reading " + path);
+
+      try {
+
+        while (buffer.hasRemaining()) {
+          if (channel.read(buffer) < 0) throw new EOFException("File truncated: " + path);
+        }
+
+      } catch (IOException e) {
+        Memory.freeBuffer(buffer, MemoryTag.ASSETS);
+        throw e;
+      }
+
+      buffer.flip();
+
+      return new AssetData(buffer, false);
+
+    }
+
+  }
+
+  @Override
+  public boolean exists(String path) {
+
+    return Files.isRegularFile(resolve(path));
+
+  }
+
+  /**
+   * <p>Get the file of an asset.</p>
+   *
+   * @param path Path of the asset
+   * @return Path of the file
+   * @since 0.0.5
+   */
+  public Path resolve(String path) {
+
+    return root.resolve(path).normalize();
+
+  }
+
+  /**
+   * <p>Get the directory of the assets.</p>
+   *
+   * @return The directory
+   * @since 0.0.5
+   */
+  public Path getRoot() {
+
+    return root;
+
+  }
+
+}
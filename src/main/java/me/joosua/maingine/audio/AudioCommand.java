@@ -0,0 +1,33 @@
+package me.joosua.maingine.audio;
+
+/*
+ * Preallocated slot of the command ring. The game fills the values used by the type and the
+ * audio thread reads them, so nothing is allocated per command.
+ */
+final class AudioCommand {
+
+  static final int PLAY = 0;
+  static final int STREAM = 1;
+  static final int STOP = 2;
+  static final int GAIN = 3;
+  static final int PITCH = 4;
+  static final int POSITION = 5;
+  static final int LISTENER = 6;
+  static final int MASTER_GAIN = 7;
+  static final int DELETE = 8;
+
+  int type;
+  int voice;
+  int priority;
+  boolean looping;
+  float gain;
+  float pitch;
+  float positionX;
+  float positionY;
+  float positionZ;
+  Object object;
+
+  // Position of the slot in the ring, set when claimed
+  long sequence;
+
+}
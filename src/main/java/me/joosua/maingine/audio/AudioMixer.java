@@ -0,0 +1,1074 @@
+package me.joosua.maingine.audio;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import me.joosua.maingine.memory.Memory;
+import me.joosua.maingine.memory.MemoryTag;
+import me.joosua.maingine.utils.SlotRing;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.lwjgl.openal.AL;
+import org.lwjgl.openal.AL10;
+import org.lwjgl.openal.ALC;
+import org.lwjgl.openal.ALC10;
+import org.lwjgl.openal.ALCCapabilities;
+import org.lwjgl.openal.SOFTLoopback;
+import org.lwjgl.system.MemoryStack;
+import org.lwjgl.system.MemoryUtil;
+
+/**
+ * <p>AudioMixer plays sounds and streams with OpenAL on a thread of its own.</p>
+ *
+ * <p>Everything touching OpenAL is done on the audio thread, which runs at the highest
+ * priority and wakes up every few milliseconds. The game sends commands to it through a
+ * lock-free ring of preallocated commands, so playing a sound never blocks the engine
+ * thread, and a hitch of the engine thread never starves the audio: OpenAL keeps mixing
+ * and the streams keep being refilled while a frame takes its time. When the ring is full
+ * the command is dropped and counted, see {@link #getDroppedCount()}.</p>
+ *
+ * <p>The mixer has a fixed amount of voices, each an OpenAL source. When all of them are
+ * playing, a new sound takes the voice of the lowest priority, the oldest one of them, if
+ * that priority isn't higher than its own. Otherwise the new sound is culled. Either way
+ * the mixer plays no more voices than it has, so the work of mixing stays the same however
+ * many sounds the game plays at once. Culled sounds are counted, see
+ * {@link #getCulledCount()}.</p>
+ *
+ * <p>Streams are decoded on the audio thread a buffer of {@value #STREAM_FRAMES} frames at
+ * a time. Each stream has {@value #STREAM_BUFFERS} buffers: OpenAL plays one while the
+ * other is refilled.</p>
+ *
+ * <p>Without an audio device, like on servers and in tests, the mixer mixes to a loopback
+ * device of OpenAL Soft in real time and throws the result away, so everything else works
+ * the same.</p>
+ *
+ * @since 0.0.5
+ */
+public class AudioMixer {
+
+  private static final Logger logger = LogManager.getLogger(AudioMixer.class);
+
+  /**
+   * <p>Voice returned when a sound couldn't be played.</p>
+   */
+  public static final int NO_VOICE = 0;
+
+  /**
+   * <p>Default amount of voices.</p>
+   */
+  public static final int DEFAULT_VOICES = 32;
+
+  static final int SAMPLE_RATE = 44100;
+  static final int STREAM_BUFFERS = 2;
+  static final int STREAM_FRAMES = 8192;
+  static final long UPDATE_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+  private static final int COMMAND_CAPACITY = 1024;
+  private static final int RENDER_FRAMES = SAMPLE_RATE / 10;
+  private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  private final int maxVoices;
+  private final boolean headless;
+
+  private final SlotRing<AudioCommand> commands = new SlotRing<>(COMMAND_CAPACITY,
+      AudioCommand::new);
+  private final AtomicInteger nextVoice = new AtomicInteger();
+
+  private final AtomicLong dropped = new AtomicLong();
+  private final AtomicLong culled = new AtomicLong();
+  private final AtomicLong underruns = new AtomicLong();
+  private volatile int activeVoices;
+  private volatile int voiceCount;
+
+  private final CountDownLatch opened = new CountDownLatch(1);
+  private volatile boolean available;
+  private volatile boolean running;
+  private Thread thread;
+
+  // Only touched by the audio thread
+  private long device;
+  private long context;
+  private boolean loopback;
+  private Voice[] voices = new Voice[0];
+  private long ticks;
+  private ByteBuffer streamMemory;
+  private ShortBuffer streamSamples;
+  private ByteBuffer renderMemory;
+  private ShortBuffer rendered;
+  private long renderTime;
+
+  /**
+   * <p>Create a mixer.</p>
+   *
+   * <p>Nothing is played before the mixer is started with {@link #start()}.</p>
+   *
+   * @param maxVoices Amount of sounds and streams played at once
+   * @param headless <code>TRUE</code> to mix to a loopback device even if there's an
+   *     audio device
+   * @since 0.0.5
+   */
+  public AudioMixer(int maxVoices, boolean headless) {
+
+    this.maxVoices = Math.max(maxVoices, 1);
+    this.headless = headless;
+
+  }
+
+  /**
+   * <p>Start the audio thread.</p>
+   *
+   * <p>This waits until OpenAL has been initialized on the thread.</p>
+   *
+   * @return Whether audio can be played.
+   * @since 0.0.5
+   */
+  public boolean start() {
+
+    if (thread != null) return available;
+
+    running = true;
+
+    thread = new Thread(this::run, "Maingine audio");
+    thread.setDaemon(true);
+    thread.setPriority(Thread.MAX_PRIORITY);
+    thread.start();
+
+    try {
+      opened.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    return available;
+
+  }
+
+  /**
+   * <p>Play a sound once at full volume.</p>
+   *
+   * @param sound The sound
+   * @param priority Priority of the sound, higher ones take the voices of lower ones
+   * @return Voice playing the sound or {@link #NO_VOICE} if the mixer isn't running or
+   *     its commands are full.
+   * @see #play(Sound, float, float, boolean, int)
+   * @since 0.0.5
+   */
+  public int play(Sound sound, int priority) {
+
+    return play(sound, 1, 1, false, priority);
+
+  }
+
+  /**
+   * <p>Play a sound.</p>
+   *
+   * <p>The returned voice can be used to control the sound until it ends. A sound culled
+   * by the voice limit still gets a voice, which simply doesn't do anything.</p>
+   *
+   * @param sound The sound
+   * @param gain Volume of the sound, <code>1</code> for the original
+   * @param pitch Pitch of the sound, <code>1</code> for the original
+   * @param looping <code>TRUE</code> to play until stopped
+   * @param priority Priority of the sound, higher ones take the voices of lower ones
+   * @return Voice playing the sound or {@link #NO_VOICE} if the mixer isn't running or
+   *     its commands are full.
+   * @since 0.0.5
+   */
+  public int play(Sound sound, float gain, float pitch, boolean looping, int priority) {
+
+    return send(AudioCommand.PLAY, sound, gain, pitch, looping, priority);
+
+  }
+
+  /**
+   * <p>Play a stream.</p>
+   *
+   * <p>The mixer takes the ownership of the stream and closes it once it stops, or right
+   * away if it isn't played.</p>
+   *
+   * @param stream The stream
+   * @param gain Volume of the stream, <code>1</code> for the original
+   * @param looping <code>TRUE</code> to start over at the end until stopped
+   * @param priority Priority of the stream, higher ones take the voices of lower ones
+   * @return Voice playing the stream or {@link #NO_VOICE} if the mixer isn't running or
+   *     its commands are full.
+   * @since 0.0.5
+   */
+  public int stream(AudioStream stream, float gain, boolean looping, int priority) {
+
+    int channels = stream.getChannels();
+
+    // The memory the streams are decoded to holds stereo at most
+    if (channels < 1 || channels > 2) {
+
+      logger.error("Stream not played! It has {} channels, only mono and stereo are "
+          + "supported.", channels);
+      stream.close();
+      return NO_VOICE;
+
+    }
+
+    int voice = send(AudioCommand.STREAM, stream, gain, 1, looping, priority);
+
+    if (voice == NO_VOICE) stream.close();
+
+    return voice;
+
+  }
+
+  /**
+   * <p>Stop a voice.</p>
+   *
+   * <p>Nothing is done if the voice has already ended.</p>
+   *
+   * @param voice The voice
+   * @return Whether the command was sent.
+   * @since 0.0.5
+   */
+  public boolean stop(int voice) {
+
+    AudioCommand command = claim(AudioCommand.STOP, voice);
+
+    if (command == null) return false;
+
+    commands.publish(command.sequence);
+
+    return true;
+
+  }
+
+  /**
+   * <p>Set the volume of a voice.</p>
+   *
+   * @param voice The voice
+   * @param gain Volume, <code>1</code> for the original
+   * @return Whether the command was sent.
+   * @since 0.0.5
+   */
+  public boolean setGain(int voice, float gain) {
+
+    AudioCommand command = claim(AudioCommand.GAIN, voice);
+
+    if (command == null) return false;
+
+    command.gain = gain;
+    commands.publish(command.sequence);
+
+    return true;
+
+  }
+
+  /**
+   * <p>Set the pitch of a voice.</p>
+   *
+   * @param voice The voice
+   * @param pitch Pitch, <code>1</code> for the original
+   * @return Whether the command was sent.
+   * @since 0.0.5
+   */
+  public boolean setPitch(int voice, float pitch) {
+
+    AudioCommand command = claim(AudioCommand.PITCH, voice);
+
+    if (command == null) return false;
+
+    command.pitch = pitch;
+    commands.publish(command.sequence);
+
+    return true;
+
+  }
+
+  /**
+   * <p>Set the position of a voice in the world.</p>
+   *
+   * <p>Voices are played at the listener until given a position. Only mono sounds are
+   * positioned, stereo ones are always played as they are.</p>
+   *
+   * @param voice The voice
+   * @param x X coordinate
+   * @param y Y coordinate
+   * @param z Z coordinate
+   * @return Whether the command was sent.
+   * @see #setListenerPosition(float, float, float)
+   * @since 0.0.5
+   */
+  public boolean setPosition(int voice, float x, float y, float z) {
+
+    AudioCommand command = claim(AudioCommand.POSITION, voice);
+
+    if (command == null) return false;
+
+    command.positionX = x;
+    command.positionY = y;
+    command.positionZ = z;
+    commands.publish(command.sequence);
+
+    return true;
+
+  }
+
+  /**
+   * <p>Set the position of the listener in the world.</p>
+   *
+   * @param x X coordinate
+   * @param y Y coordinate
+   * @param z Z coordinate
+   * @return Whether the command was sent.
+   * @since 0.0.5
+   */
+  public boolean setListenerPosition(float x, float y, float z) {
+
+    AudioCommand command = claim(AudioCommand.LISTENER, NO_VOICE);
+
+    if (command == null) return false;
+
+    command.positionX = x;
+    command.positionY = y;
+    command.positionZ = z;
+    commands.publish(command.sequence);
+
+    return true;
+
+  }
+
+  /**
+   * <p>Set the volume of everything played.</p>
+   *
+   * @param gain Volume, <code>1</code> for the original
+   * @return Whether the command was sent.
+   * @since 0.0.5
+   */
+  public boolean setMasterGain(float gain) {
+
+    AudioCommand command = claim(AudioCommand.MASTER_GAIN, NO_VOICE);
+
+    if (command == null) return false;
+
+    command.gain = gain;
+    commands.publish(command.sequence);
+
+    return true;
+
+  }
+
+  /**
+   * <p>Delete a sound.</p>
+   *
+   * <p>The voices playing the sound are stopped and its memory is freed on the audio
+   * thread. Unlike the other commands this waits for room if the commands are full, so a
+   * sound is never leaked. This must not be called while the mixer is being destroyed.</p>
+   *
+   * @param sound The sound
+   * @since 0.0.5
+   */
+  public void delete(Sound sound) {
+
+    while (available) {
+
+      long position = commands.claim();
+
+      if (position != SlotRing.FULL) {
+        AudioCommand command = commands.get(position);
+        command.sequence = position;
+        command.type = AudioCommand.DELETE;
+        command.object = sound;
+        commands.publish(command.sequence);
+        return;
+      }
+
+      LockSupport.parkNanos(UPDATE_NANOS);
+
+    }
+
+    sound.free();
+
+  }
+
+  /**
+   * <p>Stop the audio thread and close the device.</p>
+   *
+   * <p>Commands sent before this are still handled.</p>
+   *
+   * @since 0.0.5
+   */
+  public void destroy() {
+
+    if (thread == null) return;
+
+    running = false;
+    LockSupport.unpark(thread);
+
+    try {
+      thread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+  }
+
+  /**
+   * <p>Whether audio can be played.</p>
+   *
+   * @return <code>TRUE</code> if the mixer is running, <code>FALSE</code> if it isn't
+   *     started, has been destroyed, OpenAL couldn't be initialized or the audio thread
+   *     failed.
+   * @since 0.0.5
+   */
+  public boolean isAvailable() {
+
+    return available;
+
+  }
+
+  /**
+   * <p>Whether the mixer mixes to a loopback device instead of an audio device.</p>
+   *
+   * <p>This is known once the mixer has been started.</p>
+   *
+   * @return <code>TRUE</code> if nothing is heard, <code>FALSE</code> if not.
+   * @since 0.0.5
+   */
+  public boolean isLoopback() {
+
+    return loopback;
+
+  }
+
+  /**
+   * <p>Get the amount of voices.</p>
+   *
+   * <p>This can be lower than asked for if OpenAL has fewer sources.</p>
+   *
+   * @return Amount of sounds and streams played at once
+   * @since 0.0.5
+   */
+  public int getVoiceCount() {
+
+    return voiceCount;
+
+  }
+
+  /**
+   * <p>Get the amount of voices playing.</p>
+   *
+   * <p>This is updated by the audio thread every few milliseconds.</p>
+   *
+   * @return Amount of voices
+   * @since 0.0.5
+   */
+  public int getActiveVoiceCount() {
+
+    return activeVoices;
+
+  }
+
+  /**
+   * <p>Get the amount of sounds and streams culled by the voice limit.</p>
+   *
+   * <p>This counts both the new sounds which weren't played and the playing ones whose
+   * voices were taken.</p>
+   *
+   * @return Amount of sounds and streams
+   * @since 0.0.5
+   */
+  public long getCulledCount() {
+
+    return culled.get();
+
+  }
+
+  /**
+   * <p>Get the amount of commands dropped because the commands were full.</p>
+   *
+   * @return Amount of commands
+   * @since 0.0.5
+   */
+  public long getDroppedCount() {
+
+    return dropped.get();
+
+  }
+
+  /**
+   * <p>Get the amount of times a stream ran out of samples before it was refilled.</p>
+   *
+   * <p>Those are heard as gaps, which only happen if the audio thread is starved.</p>
+   *
+   * @return Amount of underruns
+   * @since 0.0.5
+   */
+  public long getUnderrunCount() {
+
+    return underruns.get();
+
+  }
+
+  static int getFormat(int channels) {
+
+    return channels == 1 ? AL10.AL_FORMAT_MONO16 : AL10.AL_FORMAT_STEREO16;
+
+  }
+
+  /*
+   * Opens the device and creates the voices, called on the audio thread.
+   */
+  boolean open() {
+
+    if (!headless) {
+
+      device = ALC10.alcOpenDevice((ByteBuffer) null);
+
+      if (device == MemoryUtil.NULL) {
+        logger.warn("Audio device couldn't be opened, nothing will be heard");
+      }
+
+    }
+
+    if (device == MemoryUtil.NULL) {
+      device = SOFTLoopback.alcLoopbackOpenDeviceSOFT((ByteBuffer) null);
+      loopback = true;
+    }
+
+    if (device == MemoryUtil.NULL) {
+      logger.error("Audio couldn't be initialized! OpenAL device couldn't be opened.");
+      return false;
+    }
+
+    final ALCCapabilities capabilities = ALC.createCapabilities(device);
+
+    try (MemoryStack stack = Memory.stackPush()) {
+
+      IntBuffer attributes = loopback ? stack.ints(SOFTLoopback.ALC_FORMAT_CHANNELS_SOFT,
+          SOFTLoopback.ALC_STEREO_SOFT, SOFTLoopback.ALC_FORMAT_TYPE_SOFT,
+          SOFTLoopback.ALC_SHORT_SOFT, ALC10.ALC_FREQUENCY, SAMPLE_RATE, 0) : null;
+
+      context = ALC10.alcCreateContext(device, attributes);
+
+    }
+
+    if (context == MemoryUtil.NULL) {
+      logger.error("Audio couldn't be initialized! OpenAL context couldn't be created.");
+      ALC10.alcCloseDevice(device);
+      return false;
+    }
+
+    ALC10.alcMakeContextCurrent(context);
+    AL.createCapabilities(capabilities);
+
+    createVoices();
+
+    streamMemory = Memory.mallocBuffer(STREAM_FRAMES * 2 * Short.BYTES, MemoryTag.AUDIO);
+    streamSamples = streamMemory.asShortBuffer();
+
+    if (loopback) {
+      renderMemory = Memory.mallocBuffer(RENDER_FRAMES * 2 * Short.BYTES, MemoryTag.AUDIO);
+      rendered = renderMemory.asShortBuffer();
+      renderTime = System.nanoTime();
+    }
+
+    logger.info("Audio initialized with {} voices on {}", voices.length,
+        loopback ? "a loopback device"
+            : ALC10.alcGetString(device, ALC10.ALC_DEVICE_SPECIFIER));
+
+    available = true;
+
+    return true;
+
+  }
+
+  /*
+   * Handles the commands, refills the streams and frees the voices which have ended.
+   * Called on the audio thread.
+   */
+  void update(long now) {
+
+    processCommands();
+
+    int active = 0;
+
+    for (Voice voice : voices) {
+
+      if (voice.isFree()) continue;
+
+      boolean playing = voice.stream != null ? refill(voice)
+          : AL10.alGetSourcei(voice.source, AL10.AL_SOURCE_STATE) != AL10.AL_STOPPED;
+
+      if (playing) {
+        active++;
+      } else {
+        free(voice);
+      }
+
+    }
+
+    activeVoices = active;
+    ticks++;
+
+    if (loopback) render(now);
+
+  }
+
+  /*
+   * Frees the voices and closes the device, called on the audio thread.
+   */
+  void close() {
+
+    available = false;
+
+    for (Voice voice : voices) {
+
+      if (!voice.isFree()) free(voice);
+
+      AL10.alDeleteSources(voice.source);
+      AL10.alDeleteBuffers(voice.buffers);
+
+    }
+
+    voices = new Voice[0];
+    activeVoices = 0;
+
+    // Buffers of the sounds not deleted yet are freed with the device
+    ALC10.alcMakeContextCurrent(MemoryUtil.NULL);
+    ALC10.alcDestroyContext(context);
+    ALC10.alcCloseDevice(device);
+
+    Memory.freeBuffer(streamMemory, MemoryTag.AUDIO);
+    Memory.freeBuffer(renderMemory, MemoryTag.AUDIO);
+
+  }
+
+  private void run() {
+
+    boolean ready = false;
+
+    try {
+
+      ready = open();
+
+    } catch (RuntimeException | Error e) {
+
+      // Like a missing native or an OpenAL without the loopback extension
+      logger.error("Audio couldn't be initialized! OpenAL failed.", e);
+      available = false;
+
+    } finally {
+      opened.countDown();
+    }
+
+    if (!ready) return;
+
+    try {
+
+      while (running) {
+
+        long start = System.nanoTime();
+
+        update(start);
+
+        LockSupport.parkNanos(UPDATE_NANOS - (System.nanoTime() - start));
+
+      }
+
+      processCommands();
+
+    } catch (RuntimeException | Error e) {
+      logger.error("Audio thread failed! Nothing will be heard anymore.", e);
+    } finally {
+      close();
+      discardCommands();
+    }
+
+  }
+
+  /*
+   * Frees what the commands left after closing hold, so nothing waits for them or leaks.
+   */
+  private void discardCommands() {
+
+    for (AudioCommand command = commands.peek(); command != null;
+        command = commands.peek()) {
+
+      if (command.type == AudioCommand.DELETE) {
+        ((Sound) command.object).free();
+      } else if (command.type == AudioCommand.STREAM) {
+        ((AudioStream) command.object).close();
+      }
+
+      command.object = null;
+      commands.release();
+
+    }
+
+  }
+
+  private void createVoices() {
+
+    Voice[] created = new Voice[maxVoices];
+    int count = 0;
+
+    AL10.alGetError();
+
+    for (; count < maxVoices; count++) {
+
+      int source = AL10.alGenSources();
+
+      // OpenAL has a limit of sources of its own
+      if (AL10.alGetError() != AL10.AL_NO_ERROR) break;
+
+      int[] buffers = new int[STREAM_BUFFERS];
+
+      AL10.alGenBuffers(buffers);
+      created[count] = new Voice(source, buffers);
+
+    }
+
+    if (count < maxVoices) {
+      logger.warn("Only {} of {} voices could be created", count, maxVoices);
+    }
+
+    voices = Arrays.copyOf(created, count);
+    voiceCount = count;
+
+  }
+
+  private int send(int type, Object object, float gain, float pitch, boolean looping,
+      int priority) {
+
+    int voice = nextVoice.incrementAndGet();
+
+    if (voice == NO_VOICE) voice = nextVoice.incrementAndGet();
+
+    AudioCommand command = claim(type, voice);
+
+    if (command == null) return NO_VOICE;
+
+    command.object = object;
+    command.gain = gain;
+    command.pitch = pitch;
+    command.looping = looping;
+    command.priority = priority;
+    commands.publish(command.sequence);
+
+    return voice;
+
+  }
+
+  private AudioCommand claim(int type, int voice) {
+
+    if (!available) return null;
+
+    long position = commands.claim();
+
+    if (position == SlotRing.FULL) {
+      dropped.incrementAndGet();
+      return null;
+    }
+
+    AudioCommand command = commands.get(position);
+
+    command.sequence = position;
+    command.type = type;
+    command.voice = voice;
+
+    return command;
+
+  }
+
+  private void processCommands() {
+
+    // Bounded, so producers can't keep the thread from updating the voices
+    for (int i = 0; i < COMMAND_CAPACITY; i++) {
+
+      AudioCommand command = commands.peek();
+
+      if (command == null) return;
+
+      try {
+        execute(command);
+      } finally {
+        command.object = null;
+        commands.release();
+      }
+
+    }
+
+  }
+
+  private void execute(AudioCommand command) {
+
+    switch (command.type) {
+
+      case AudioCommand.PLAY:
+      case AudioCommand.STREAM:
+        startVoice(command);
+        break;
+
+      case AudioCommand.DELETE:
+        deleteSound((Sound) command.object);
+        break;
+
+      case AudioCommand.LISTENER:
+        AL10.alListener3f(AL10.AL_POSITION, command.positionX, command.positionY,
+            command.positionZ);
+        break;
+
+      case AudioCommand.MASTER_GAIN:
+        AL10.alListenerf(AL10.AL_GAIN, command.gain);
+        break;
+
+      default:
+        control(command);
+        break;
+
+    }
+
+  }
+
+  private void control(AudioCommand command) {
+
+    Voice voice = find(command.voice);
+
+    // The voice has ended or was culled
+    if (voice == null) return;
+
+    switch (command.type) {
+
+      case AudioCommand.STOP:
+        free(voice);
+        break;
+
+      case AudioCommand.GAIN:
+        AL10.alSourcef(voice.source, AL10.AL_GAIN, command.gain);
+        break;
+
+      case AudioCommand.PITCH:
+        AL10.alSourcef(voice.source, AL10.AL_PITCH, command.pitch);
+        break;
+
+      case AudioCommand.POSITION:
+        AL10.alSourcei(voice.source, AL10.AL_SOURCE_RELATIVE, AL10.AL_FALSE);
+        AL10.alSource3f(voice.source, AL10.AL_POSITION, command.positionX,
+            command.positionY, command.positionZ);
+        break;
+
+      default:
+        break;
+
+    }
+
+  }
+
+  private void startVoice(AudioCommand command) {
+
+    final AudioStream stream = command.type == AudioCommand.STREAM
+        ? (AudioStream) command.object : null;
+    Voice voice = allocate(command.priority);
+
+    if (voice == null) {
+      culled.incrementAndGet();
+      if (stream != null) stream.close();
+      return;
+    }
+
+    final int source = voice.source;
+
+    voice.handle = command.voice;
+    voice.priority = command.priority;
+    voice.started = ticks;
+    voice.looping = command.looping;
+
+    AL10.alSourcef(source, AL10.AL_GAIN, command.gain);
+    AL10.alSourcef(source, AL10.AL_PITCH, command.pitch);
+    AL10.alSourcei(source, AL10.AL_SOURCE_RELATIVE, AL10.AL_TRUE);
+    AL10.alSource3f(source, AL10.AL_POSITION, 0, 0, 0);
+
+    if (stream != null) {
+
+      voice.stream = stream;
+      AL10.alSourcei(source, AL10.AL_LOOPING, AL10.AL_FALSE);
+
+      // Streams loop by rewinding, the queued buffers are played once
+      for (int buffer : voice.buffers) {
+        if (!fill(voice, buffer)) break;
+        AL10.alSourceQueueBuffers(source, buffer);
+      }
+
+    } else {
+
+      voice.sound = (Sound) command.object;
+
+      int buffer = voice.sound.upload();
+
+      // The sound has been deleted
+      if (buffer == 0) {
+        voice.reset();
+        return;
+      }
+
+      AL10.alSourcei(source, AL10.AL_LOOPING, command.looping ? AL10.AL_TRUE : AL10.AL_FALSE);
+      AL10.alSourcei(source, AL10.AL_BUFFER, buffer);
+
+    }
+
+    AL10.alSourcePlay(source);
+
+  }
+
+  private Voice allocate(int priority) {
+
+    Voice victim = null;
+
+    for (Voice voice : voices) {
+
+      if (voice.isFree()) return voice;
+
+      if (victim == null || voice.priority < victim.priority
+          || voice.priority == victim.priority && voice.started < victim.started) {
+        victim = voice;
+      }
+
+    }
+
+    if (victim == null || victim.priority > priority) return null;
+
+    culled.incrementAndGet();
+    free(victim);
+
+    return victim;
+
+  }
+
+  private Voice find(int handle) {
+
+    for (Voice voice : voices) {
+      if (voice.handle == handle) return voice;
+    }
+
+    return null;
+
+  }
+
+  private void free(Voice voice) {
+
+    AL10.alSourceStop(voice.source);
+    AL10.alSourcei(voice.source, AL10.AL_BUFFER, 0);
+
+    if (voice.stream != null) voice.stream.close();
+
+    voice.reset();
+
+  }
+
+  private void deleteSound(Sound sound) {
+
+    for (Voice voice : voices) {
+      if (voice.sound == sound) free(voice);
+    }
+
+    sound.delete();
+
+  }
+
+  /*
+   * Returns whether the stream is still playing.
+   */
+  private boolean refill(Voice voice) {
+
+    int source = voice.source;
+
+    for (int processed = AL10.alGetSourcei(source, AL10.AL_BUFFERS_PROCESSED);
+        processed > 0; processed--) {
+
+      int buffer = AL10.alSourceUnqueueBuffers(source);
+
+      if (!voice.ended && fill(voice, buffer)) AL10.alSourceQueueBuffers(source, buffer);
+
+    }
+
+    if (AL10.alGetSourcei(source, AL10.AL_BUFFERS_QUEUED) == 0) return false;
+
+    // The buffers ran out before they were refilled, so the source has stopped
+    if (AL10.alGetSourcei(source, AL10.AL_SOURCE_STATE) == AL10.AL_STOPPED) {
+      underruns.incrementAndGet();
+      AL10.alSourcePlay(source);
+    }
+
+    return true;
+
+  }
+
+  /*
+   * Decodes the next samples of the stream to the buffer, returns false at the end.
+   */
+  private boolean fill(Voice voice, int buffer) {
+
+    final AudioStream stream = voice.stream;
+    final int channels = stream.getChannels();
+    int frames = 0;
+    boolean rewound = false;
+
+    while (frames < STREAM_FRAMES) {
+
+      streamSamples.limit(STREAM_FRAMES * channels).position(frames * channels);
+
+      int read = stream.read(streamSamples);
+
+      if (read > 0) {
+        frames += read;
+        rewound = false;
+        continue;
+      }
+
+      // An empty stream would be rewound forever
+      if (!voice.looping || rewound) {
+        voice.ended = true;
+        break;
+      }
+
+      stream.rewind();
+      rewound = true;
+
+    }
+
+    if (frames == 0) return false;
+
+    streamSamples.position(0).limit(frames * channels);
+    AL10.alBufferData(buffer, getFormat(channels), streamSamples, stream.getSampleRate());
+
+    return true;
+
+  }
+
+  /*
+   * Mixes the time passed on the loopback device, like an audio device would.
+   */
+  private void render(long now) {
+
+    long frames = (now - renderTime) * SAMPLE_RATE / NANOS_PER_SECOND;
+
+    if (frames <= 0) return;
+
+    if (frames > RENDER_FRAMES) {
+
+      // Fell behind like after a stall, the time is skipped as a device would
+      frames = RENDER_FRAMES;
+      renderTime = now;
+
+    } else {
+
+      renderTime += frames * NANOS_PER_SECOND / SAMPLE_RATE;
+
+    }
+
+    SOFTLoopback.alcRenderSamplesSOFT(device, rendered, (int) frames);
+
+  }
+
+}
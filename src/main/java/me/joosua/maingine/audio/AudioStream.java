@@ -0,0 +1,65 @@
+package me.joosua.maingine.audio;
+
+import java.nio.ShortBuffer;
+
+/**
+ * <p>AudioStream is a source of samples decoded while it's played.</p>
+ *
+ * <p>Long tracks like music are streamed instead of decoded at once, so only a fraction of
+ * a second of them is in memory. The methods are called on the audio thread of the
+ * {@link AudioMixer} playing the stream, which also closes the stream once it stops. A
+ * stream can be played by one voice at a time.</p>
+ *
+ * @see VorbisStream
+ * @since 0.0.5
+ */
+public interface AudioStream {
+
+  /**
+   * <p>Get the amount of channels.</p>
+   *
+   * @return <code>1</code> for mono or <code>2</code> for stereo
+   * @since 0.0.5
+   */
+  int getChannels();
+
+  /**
+   * <p>Get the sample rate.</p>
+   *
+   * @return Frames per second
+   * @since 0.0.5
+   */
+  int getSampleRate();
+
+  /**
+   * <p>Decode the next samples.</p>
+   *
+   * <p>The samples are signed 16-bit values with the channels interleaved. They are
+   * written from the position of the buffer up to its limit, which holds a whole amount of
+   * frames.</p>
+   *
+   * @param samples The buffer to decode to
+   * @return Amount of frames decoded, <code>0</code> at the end of the stream
+   * @since 0.0.5
+   */
+  int read(ShortBuffer samples);
+
+  /**
+   * <p>Start over from the beginning of the stream.</p>
+   *
+   * <p>This is called when a looping stream reaches its end.</p>
+   *
+   * @since 0.0.5
+   */
+  void rewind();
+
+  /**
+   * <p>Free the resources of the stream.</p>
+   *
+   * @since 0.0.5
+   */
+  default void close() {
+
+  }
+
+}
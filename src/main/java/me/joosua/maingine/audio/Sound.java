@@ -0,0 +1,209 @@
+package me.joosua.maingine.audio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ShortBuffer;
+import me.joosua.maingine.memory.Memory;
+import me.joosua.maingine.memory.MemoryTag;
+import org.lwjgl.openal.AL10;
+
+/**
+ * <p>Sound is a short clip decoded to memory as a whole.</p>
+ *
+ * <p>Sounds are meant for effects played often, like steps and shots. They are decoded
+ * when loaded and uploaded to OpenAL by the audio thread the first time they're played.
+ * The samples are freed once uploaded, so a sound is in memory only once. Long tracks
+ * should be streamed with an {@link AudioStream} instead.</p>
+ *
+ * <p>A sound must be deleted with {@link AudioMixer#delete(Sound)} once no longer
+ * needed.</p>
+ *
+ * @since 0.0.5
+ */
+public final class Sound {
+
+  private final int channels;
+  private final int sampleRate;
+  private final int frames;
+
+  private ByteBuffer samples;
+  private int buffer;
+
+  /**
+   * <p>Create a sound of samples.</p>
+   *
+   * <p>The samples are copied to native memory.</p>
+   *
+   * @param samples Signed 16-bit samples with the channels interleaved
+   * @param channels <code>1</code> for mono or <code>2</code> for stereo
+   * @param sampleRate Frames per second
+   * @since 0.0.5
+   */
+  public Sound(short[] samples, int channels, int sampleRate) {
+
+    this(Memory.mallocBuffer(samples.length * Short.BYTES, MemoryTag.AUDIO), channels,
+        sampleRate);
+
+    this.samples.asShortBuffer().put(samples);
+
+  }
+
+  private Sound(ByteBuffer samples, int channels, int sampleRate) {
+
+    this.samples = samples;
+    this.channels = channels;
+    this.sampleRate = sampleRate;
+    this.frames = samples.remaining() / Short.BYTES / channels;
+
+  }
+
+  /**
+   * <p>Decode a sound from an Ogg Vorbis file in memory.</p>
+   *
+   * @param encoded Content of the file in a direct buffer, only read during the call
+   * @param name Name of the file used in the errors
+   * @return The sound
+   * @throws IOException If the file isn't a mono or stereo Vorbis file
+   * @since 0.0.5
+   */
+  public static Sound decode(ByteBuffer encoded, String name) throws IOException {
+
+    VorbisStream stream = new VorbisStream(encoded, name);
+
+    try {
+
+      int channels = stream.getChannels();
+      int length = stream.getFrameCount();
+      ByteBuffer samples = Memory.mallocBuffer(length * channels * Short.BYTES,
+          MemoryTag.AUDIO);
+
+      if (samples == null) throw new IOException("Out of memory decoding '" + name + "'");
+
+      ShortBuffer view = samples.asShortBuffer();
+      int decoded = 0;
+
+      while (decoded < length) {
+
+        view.position(decoded * channels);
+
+        int read = stream.read(view);
+
+        if (read == 0) break;
+
+        decoded += read;
+
+      }
+
+      samples.limit(decoded * channels * Short.BYTES);
+
+      return new Sound(samples, channels, stream.getSampleRate());
+
+    } finally {
+      stream.close();
+    }
+
+  }
+
+  /**
+   * <p>Get the amount of channels.</p>
+   *
+   * @return <code>1</code> for mono or <code>2</code> for stereo
+   * @since 0.0.5
+   */
+  public int getChannels() {
+
+    return channels;
+
+  }
+
+  /**
+   * <p>Get the sample rate.</p>
+   *
+   * @return Frames per second
+   * @since 0.0.5
+   */
+  public int getSampleRate() {
+
+    return sampleRate;
+
+  }
+
+  /**
+   * <p>Get the length of the sound.</p>
+   *
+   * @return Amount of frames
+   * @since 0.0.5
+   */
+  public int getFrameCount() {
+
+    return frames;
+
+  }
+
+  /**
+   * <p>Get the length of the sound.</p>
+   *
+   * @return Length in seconds
+   * @since 0.0.5
+   */
+  public double getDuration() {
+
+    return (double) frames / sampleRate;
+
+  }
+
+  /**
+   * <p>Get the size of the samples.</p>
+   *
+   * <p>The samples take this much memory whether they're uploaded or not.</p>
+   *
+   * @return Size in bytes
+   * @since 0.0.5
+   */
+  public int getSize() {
+
+    return frames * channels * Short.BYTES;
+
+  }
+
+  /*
+   * Called on the audio thread, returns the OpenAL buffer of the sound.
+   */
+  int upload() {
+
+    if (buffer != 0 || samples == null) return buffer;
+
+    buffer = AL10.alGenBuffers();
+    AL10.alBufferData(buffer, AudioMixer.getFormat(channels), samples, sampleRate);
+
+    Memory.freeBuffer(samples, MemoryTag.AUDIO);
+    samples = null;
+
+    return buffer;
+
+  }
+
+  /*
+   * Called on the audio thread once no voice plays the sound.
+   */
+  void delete() {
+
+    if (buffer != 0) AL10.alDeleteBuffers(buffer);
+
+    free();
+
+  }
+
+  /*
+   * Frees the samples without OpenAL, which has freed the buffer with its device if the
+   * sound was uploaded.
+   */
+  void free() {
+
+    Memory.freeBuffer(samples, MemoryTag.AUDIO);
+    samples = null;
+    buffer = 0;
+
+  }
+
+}
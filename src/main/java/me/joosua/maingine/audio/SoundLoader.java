@@ -0,0 +1,54 @@
+package me.joosua.maingine.audio;
+
+import java.io.IOException;
+import me.joosua.maingine.asset.AssetContext;
+import me.joosua.maingine.asset.AssetData;
+import me.joosua.maingine.asset.AssetLoader;
+import me.joosua.maingine.asset.AssetMemory;
+
+/**
+ * <p>SoundLoader loads {@link Sound}s from Ogg Vorbis files.</p>
+ *
+ * <p>The files are decoded on the workers, so the audio thread only uploads the samples
+ * when a sound is first played. Unloaded sounds are deleted by the mixer.</p>
+ *
+ * @since 0.0.5
+ */
+public class SoundLoader implements AssetLoader<Sound> {
+
+  private final AudioMixer mixer;
+
+  /**
+   * <p>Create a loader.</p>
+   *
+   * @param mixer Mixer playing the sounds
+   * @since 0.0.5
+   */
+  public SoundLoader(AudioMixer mixer) {
+
+    this.mixer = mixer;
+
+  }
+
+  @Override
+  public Sound load(AssetData data, AssetContext context) throws IOException {
+
+    return Sound.decode(data.getBuffer(), context.getPath());
+
+  }
+
+  @Override
+  public void unload(Sound asset) {
+
+    mixer.delete(asset);
+
+  }
+
+  @Override
+  public long getSize(Sound asset, AssetMemory memory) {
+
+    return memory == AssetMemory.NATIVE ? asset.getSize() : 0;
+
+  }
+
+}
@@ -0,0 +1,42 @@
+package me.joosua.maingine.audio;
+
+/*
+ * A source of OpenAL and what it plays. Voices are allocated when the mixer is opened and
+ * only touched by the audio thread. A free voice has no handle.
+ */
+final class Voice {
+
+  final int source;
+  final int[] buffers;
+
+  int handle;
+  int priority;
+  long started;
+  boolean looping;
+  Sound sound;
+  AudioStream stream;
+  boolean ended;
+
+  Voice(int source, int[] buffers) {
+
+    this.source = source;
+    this.buffers = buffers;
+
+  }
+
+  boolean isFree() {
+
+    return handle == 0;
+
+  }
+
+  void reset() {
+
+    handle = 0;
+    sound = null;
+    stream = null;
+    ended = false;
+
+  }
+
+}
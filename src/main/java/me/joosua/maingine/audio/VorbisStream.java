@@ -0,0 +1,146 @@
+package me.joosua.maingine.audio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import me.joosua.maingine.memory.Memory;
+import org.lwjgl.stb.STBVorbis;
+import org.lwjgl.stb.STBVorbisInfo;
+import org.lwjgl.system.MemoryStack;
+import org.lwjgl.system.MemoryUtil;
+
+/**
+ * <p>VorbisStream decodes an Ogg Vorbis file with stb_vorbis.</p>
+ *
+ * <p>The file is decoded from memory, which is usually mapped from the file, a frame at a
+ * time. Decoding a second of a track takes a small fraction of a millisecond, so it's
+ * done on the audio thread as the track plays.</p>
+ *
+ * @since 0.0.5
+ */
+public class VorbisStream implements AudioStream {
+
+  // Keeps a mapping reachable while the decoder reads it
+  private final ByteBuffer encoded;
+  private final int channels;
+  private final int sampleRate;
+  private long decoder;
+
+  /**
+   * <p>Open a stream of an encoded file in memory.</p>
+   *
+   * <p>The memory must stay valid until the stream is closed.</p>
+   *
+   * @param encoded Content of the file in a direct buffer
+   * @param name Name of the file used in the errors
+   * @throws IOException If the file isn't a mono or stereo Vorbis file
+   * @since 0.0.5
+   */
+  public VorbisStream(ByteBuffer encoded, String name) throws IOException {
+
+    this.encoded = encoded;
+
+    try (MemoryStack stack = Memory.stackPush()) {
+
+      IntBuffer error = stack.mallocInt(1);
+
+      decoder = STBVorbis.stb_vorbis_open_memory(encoded, error, null);
+
+      if (decoder == MemoryUtil.NULL) {
+        throw new IOException("Vorbis file '" + name + "' couldn't be opened, error "
+            + error.get(0));
+      }
+
+      STBVorbisInfo info = STBVorbis.stb_vorbis_get_info(decoder,
+          STBVorbisInfo.mallocStack(stack));
+
+      channels = info.channels();
+      sampleRate = info.sample_rate();
+
+    }
+
+    if (channels < 1 || channels > 2) {
+      close();
+      throw new IOException("Vorbis file '" + name + "' has " + channels
+          + " channels, only mono and stereo are supported");
+    }
+
+  }
+
+  /**
+   * <p>Open a stream of a file.</p>
+   *
+   * <p>The file is mapped to memory.</p>
+   *
+   * @param file The file
+   * @return The stream
+   * @throws IOException If the file couldn't be read or isn't a mono or stereo Vorbis file
+   * @since 0.0.5
+   */
+  public static VorbisStream open(Path file) throws IOException {
+
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+
+      ByteBuffer encoded = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+      return new VorbisStream(encoded, file.toString());
+
+    }
+
+  }
+
+  @Override
+  public int getChannels() {
+
+    return channels;
+
+  }
+
+  @Override
+  public int getSampleRate() {
+
+    return sampleRate;
+
+  }
+
+  /**
+   * <p>Get the length of the stream.</p>
+   *
+   * @return Amount of frames
+   * @since 0.0.5
+   */
+  public int getFrameCount() {
+
+    return STBVorbis.stb_vorbis_stream_length_in_samples(decoder);
+
+  }
+
+  @Override
+  public int read(ShortBuffer samples) {
+
+    return STBVorbis.stb_vorbis_get_samples_short_interleaved(decoder, channels, samples);
+
+  }
+
+  @Override
+  public void rewind() {
+
+    STBVorbis.stb_vorbis_seek_start(decoder);
+
+  }
+
+  @Override
+  public void close() {
+
+    if (decoder == MemoryUtil.NULL) return;
+
+    STBVorbis.stb_vorbis_close(decoder);
+    decoder = MemoryUtil.NULL;
+
+  }
+
+}
@@ -0,0 +1,269 @@
+package me.joosua.maingine.ecs;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>Archetype holds all the entities with the same set of component types.</p>
+ *
+ * <p>The entities are packed into chunks of {@value #CHUNK_CAPACITY} entities without
+ * holes: when an entity leaves, the last entity of the archetype is moved to its place.
+ * Only the last chunk in use can be partially filled. Chunks emptied this way are kept for
+ * reuse.</p>
+ *
+ * <p>Archetypes are created by their {@link World} when needed.</p>
+ *
+ * @since 0.0.5
+ */
+public final class Archetype {
+
+  /**
+   * <p>Amount of entities in a chunk.</p>
+   */
+  public static final int CHUNK_CAPACITY = 1 << 12;
+
+  private static final int CHUNK_SHIFT = 12;
+  private static final int ROW_MASK = CHUNK_CAPACITY - 1;
+
+  private final int index;
+  private final long mask;
+  private final ComponentType[] types;
+
+  private final List<Chunk> chunks = new ArrayList<>();
+  private int size;
+
+  private final Archetype[] addEdges = new Archetype[World.MAX_COMPONENT_TYPES];
+  private final Archetype[] removeEdges = new Archetype[World.MAX_COMPONENT_TYPES];
+
+  Archetype(int index, long mask, ComponentType[] types) {
+
+    this.index = index;
+    this.mask = mask;
+    this.types = types;
+
+  }
+
+  /**
+   * <p>Get the component types of the archetype.</p>
+   *
+   * @return Unmodifiable list of the types
+   * @since 0.0.5
+   */
+  public List<ComponentType> getComponentTypes() {
+
+    return Collections.unmodifiableList(Arrays.asList(types));
+
+  }
+
+  /**
+   * <p>Whether the archetype has a component type.</p>
+   *
+   * @param type The component type
+   * @return <code>TRUE</code> if it has the type, <code>FALSE</code> if not.
+   * @since 0.0.5
+   */
+  public boolean has(ComponentType type) {
+
+    return (mask & type.getMask()) != 0;
+
+  }
+
+  /**
+   * <p>Get the mask of the component types.</p>
+   *
+   * @return Mask with a bit set for every type
+   * @since 0.0.5
+   */
+  public long getMask() {
+
+    return mask;
+
+  }
+
+  /**
+   * <p>Get the amount of entities in the archetype.</p>
+   *
+   * @return Amount of entities
+   * @since 0.0.5
+   */
+  public int size() {
+
+    return size;
+
+  }
+
+  /**
+   * <p>Get the amount of chunks with entities.</p>
+   *
+   * @return Amount of chunks in use
+   * @since 0.0.5
+   */
+  public int getChunkCount() {
+
+    return (size + ROW_MASK) >>> CHUNK_SHIFT;
+
+  }
+
+  /**
+   * <p>Get a chunk.</p>
+   *
+   * @param chunk Index of the chunk, less than {@link #getChunkCount()}
+   * @return The chunk
+   * @since 0.0.5
+   */
+  public Chunk getChunk(int chunk) {
+
+    return chunks.get(chunk);
+
+  }
+
+  int getIndex() {
+
+    return index;
+
+  }
+
+  ComponentType[] getTypes() {
+
+    return types;
+
+  }
+
+  Archetype getAddEdge(int type) {
+
+    return addEdges[type];
+
+  }
+
+  void setAddEdge(int type, Archetype archetype) {
+
+    addEdges[type] = archetype;
+
+  }
+
+  Archetype getRemoveEdge(int type) {
+
+    return removeEdges[type];
+
+  }
+
+  void setRemoveEdge(int type, Archetype archetype) {
+
+    removeEdges[type] = archetype;
+
+  }
+
+  Chunk chunkOf(int slot) {
+
+    return chunks.get(slot >>> CHUNK_SHIFT);
+
+  }
+
+  static int rowOf(int slot) {
+
+    return slot & ROW_MASK;
+
+  }
+
+  /*
+   * Adds an entity with zeroed components and returns its slot.
+   */
+  int allocate(int entity) {
+
+    int chunkIndex = size >>> CHUNK_SHIFT;
+
+    if (chunkIndex == chunks.size()) chunks.add(new Chunk(this, CHUNK_CAPACITY));
+
+    Chunk chunk = chunks.get(chunkIndex);
+    int row = chunk.add(entity);
+
+    chunk.clearRow(row);
+
+    return size++;
+
+  }
+
+  /*
+   * Removes the entity of a slot by moving the last entity to it. Returns the moved entity
+   * or World.NULL if the removed entity was the last.
+   */
+  int remove(int slot) {
+
+    int last = --size;
+    Chunk lastChunk = chunks.get(last >>> CHUNK_SHIFT);
+    int lastRow = last & ROW_MASK;
+
+    int moved = World.NULL;
+
+    if (slot != last) {
+
+      Chunk chunk = chunkOf(slot);
+      int row = rowOf(slot);
+
+      lastChunk.copyRow(lastRow, chunk, row);
+      moved = lastChunk.getEntity(lastRow);
+      chunk.setEntity(row, moved);
+
+    }
+
+    lastChunk.removeLast();
+
+    return moved;
+
+  }
+
+  /*
+   * Size of the archetype in a snapshot: the mask, the size and the rows.
+   */
+  long getSnapshotSize() {
+
+    long rowSize = Integer.BYTES;
+
+    for (ComponentType type : types) {
+      rowSize += (long) type.getWidth() * Integer.BYTES;
+    }
+
+    return Long.BYTES + Integer.BYTES + size * rowSize;
+
+  }
+
+  void write(ByteBuffer buffer) {
+
+    buffer.putLong(mask).putInt(size);
+
+    for (int i = 0; i < getChunkCount(); i++) {
+      chunks.get(i).write(buffer);
+    }
+
+  }
+
+  /*
+   * Replaces the entities with the ones of a snapshot, the mask and the size are read
+   * already.
+   */
+  void read(ByteBuffer buffer, int size) {
+
+    while (chunks.size() < (size + ROW_MASK) >>> CHUNK_SHIFT) {
+      chunks.add(new Chunk(this, CHUNK_CAPACITY));
+    }
+
+    for (int i = 0; i < chunks.size(); i++) {
+      chunks.get(i).read(buffer, Math.max(Math.min(size - (i << CHUNK_SHIFT),
+          CHUNK_CAPACITY), 0));
+    }
+
+    this.size = size;
+
+  }
+
+  @Override
+  public String toString() {
+
+    return Arrays.toString(types);
+
+  }
+
+}
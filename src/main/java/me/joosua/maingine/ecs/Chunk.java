@@ -0,0 +1,259 @@
+package me.joosua.maingine.ecs;
+
+import java.nio.ByteBuffer;
+
+/**
+ * <p>Chunk stores the components of a fixed amount of entities of one archetype.</p>
+ *
+ * <p>Every value of every component has its own primitive array, so iterating over a
+ * chunk reads memory linearly:</p>
+ *
+ * <pre>
+ * float[] x = chunk.getFloats(position, 0);
+ * float[] vx = chunk.getFloats(velocity, 0);
+ *
+ * for (int i = 0; i &lt; chunk.size(); i++) {
+ *   x[i] += vx[i] * delta;
+ * }
+ * </pre>
+ *
+ * <p>The arrays are as long as the capacity of the chunk, only the first
+ * {@link #size()} values are used.</p>
+ *
+ * @since 0.0.5
+ */
+public final class Chunk {
+
+  private final Archetype archetype;
+
+  private final int[] entities;
+  private final float[][][] floats = new float[World.MAX_COMPONENT_TYPES][][];
+  private final int[][][] ints = new int[World.MAX_COMPONENT_TYPES][][];
+
+  private int size;
+
+  Chunk(Archetype archetype, int capacity) {
+
+    this.archetype = archetype;
+
+    entities = new int[capacity];
+
+    for (ComponentType type : archetype.getTypes()) {
+
+      if (type.getKind() == ComponentType.Kind.FLOAT) {
+        floats[type.getId()] = new float[type.getWidth()][capacity];
+      } else {
+        ints[type.getId()] = new int[type.getWidth()][capacity];
+      }
+
+    }
+
+  }
+
+  /**
+   * <p>Get the values of a float component.</p>
+   *
+   * @param type Type of the component
+   * @param component Index of the value in the component
+   * @return Array of the values or <code>NULL</code> if the chunk doesn't have the type.
+   * @since 0.0.5
+   */
+  public float[] getFloats(ComponentType type, int component) {
+
+    float[][] columns = floats[type.getId()];
+
+    return columns == null ? null : columns[component];
+
+  }
+
+  /**
+   * <p>Get the values of an int component.</p>
+   *
+   * @param type Type of the component
+   * @param component Index of the value in the component
+   * @return Array of the values or <code>NULL</code> if the chunk doesn't have the type.
+   * @since 0.0.5
+   */
+  public int[] getInts(ComponentType type, int component) {
+
+    int[][] columns = ints[type.getId()];
+
+    return columns == null ? null : columns[component];
+
+  }
+
+  /**
+   * <p>Get the entity of a row.</p>
+   *
+   * @param row The row
+   * @return The entity
+   * @since 0.0.5
+   */
+  public int getEntity(int row) {
+
+    return entities[row];
+
+  }
+
+  /**
+   * <p>Get the amount of entities in the chunk.</p>
+   *
+   * @return Amount of entities
+   * @since 0.0.5
+   */
+  public int size() {
+
+    return size;
+
+  }
+
+  /**
+   * <p>Get the maximum amount of entities in the chunk.</p>
+   *
+   * @return Capacity of the chunk
+   * @since 0.0.5
+   */
+  public int getCapacity() {
+
+    return entities.length;
+
+  }
+
+  /**
+   * <p>Get the archetype the chunk belongs to.</p>
+   *
+   * @return The archetype
+   * @since 0.0.5
+   */
+  public Archetype getArchetype() {
+
+    return archetype;
+
+  }
+
+  int add(int entity) {
+
+    entities[size] = entity;
+
+    return size++;
+
+  }
+
+  void setEntity(int row, int entity) {
+
+    entities[row] = entity;
+
+  }
+
+  void removeLast() {
+
+    size--;
+
+  }
+
+  void copyRow(int fromRow, Chunk to, int toRow) {
+
+    for (ComponentType type : to.archetype.getTypes()) {
+
+      int id = type.getId();
+
+      if (type.getKind() == ComponentType.Kind.FLOAT) {
+
+        float[][] source = floats[id];
+        float[][] target = to.floats[id];
+
+        for (int c = 0; source != null && c < source.length; c++) {
+          target[c][toRow] = source[c][fromRow];
+        }
+
+      } else {
+
+        int[][] source = ints[id];
+        int[][] target = to.ints[id];
+
+        for (int c = 0; source != null && c < source.length; c++) {
+          target[c][toRow] = source[c][fromRow];
+        }
+
+      }
+
+    }
+
+  }
+
+  void clearRow(int row) {
+
+    for (ComponentType type : archetype.getTypes()) {
+
+      if (type.getKind() == ComponentType.Kind.FLOAT) {
+
+        for (float[] column : floats[type.getId()]) {
+          column[row] = 0;
+        }
+
+      } else {
+
+        for (int[] column : ints[type.getId()]) {
+          column[row] = 0;
+        }
+
+      }
+
+    }
+
+  }
+
+  /*
+   * Writes the entities and then the components of the used rows, column by column.
+   */
+  void write(ByteBuffer buffer) {
+
+    WorldSnapshot.putInts(buffer, entities, size);
+
+    for (ComponentType type : archetype.getTypes()) {
+
+      if (type.getKind() == ComponentType.Kind.FLOAT) {
+
+        for (float[] column : floats[type.getId()]) {
+          WorldSnapshot.putFloats(buffer, column, size);
+        }
+
+      } else {
+
+        for (int[] column : ints[type.getId()]) {
+          WorldSnapshot.putInts(buffer, column, size);
+        }
+
+      }
+
+    }
+
+  }
+
+  void read(ByteBuffer buffer, int size) {
+
+    this.size = size;
+
+    WorldSnapshot.getInts(buffer, entities, size);
+
+    for (ComponentType type : archetype.getTypes()) {
+
+      if (type.getKind() == ComponentType.Kind.FLOAT) {
+
+        for (float[] column : floats[type.getId()]) {
+          WorldSnapshot.getFloats(buffer, column, size);
+        }
+
+      } else {
+
+        for (int[] column : ints[type.getId()]) {
+          WorldSnapshot.getInts(buffer, column, size);
+        }
+
+      }
+
+    }
+
+  }
+
+}
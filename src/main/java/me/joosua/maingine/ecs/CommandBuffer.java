@@ -0,0 +1,254 @@
+package me.joosua.maingine.ecs;
+
+import java.util.Arrays;
+
+/**
+ * <p>CommandBuffer records structural changes to be done later.</p>
+ *
+ * <p>Entities can't be created or destroyed and components can't be added or removed while
+ * a {@link Query} is iterating, so systems record them here. The commands are stored as
+ * ints and played back in the order they were recorded with {@link #playback(World)}.</p>
+ *
+ * <p>{@link #create(ComponentType...)} returns a temporary negative id, which can be used
+ * in the following commands of the same buffer until it's played back. Commands for
+ * entities which aren't alive anymore when played back are skipped.</p>
+ *
+ * @since 0.0.5
+ */
+public class CommandBuffer {
+
+  private static final int CREATE = 0;
+  private static final int DESTROY = 1;
+  private static final int ADD = 2;
+  private static final int REMOVE = 3;
+  private static final int SET_FLOAT = 4;
+  private static final int SET_INT = 5;
+
+  // Opcode, entity, two arguments and a value
+  private static final int STRIDE = 5;
+
+  private int[] commands = new int[STRIDE * 64];
+  private int count;
+
+  private int[] created = new int[16];
+  private int createdCount;
+
+  /**
+   * <p>Record creating an entity.</p>
+   *
+   * @param types Component types of the entity
+   * @return Temporary id of the entity, valid until played back
+   * @since 0.0.5
+   */
+  public int create(ComponentType... types) {
+
+    long mask = 0;
+
+    for (ComponentType type : types) {
+      mask |= type.getMask();
+    }
+
+    if (createdCount == created.length) created = Arrays.copyOf(created, createdCount * 2);
+
+    record(CREATE, 0, (int) mask, (int) (mask >>> 32), 0);
+
+    // Ids from -2 downwards, -1 is World.NULL
+    return -2 - createdCount++;
+
+  }
+
+  /**
+   * <p>Record destroying an entity.</p>
+   *
+   * @param entity The entity
+   * @since 0.0.5
+   */
+  public void destroy(int entity) {
+
+    record(DESTROY, entity, 0, 0, 0);
+
+  }
+
+  /**
+   * <p>Record adding a component to an entity.</p>
+   *
+   * @param entity The entity
+   * @param type Type of the component
+   * @since 0.0.5
+   */
+  public void add(int entity, ComponentType type) {
+
+    record(ADD, entity, type.getId(), 0, 0);
+
+  }
+
+  /**
+   * <p>Record removing a component from an entity.</p>
+   *
+   * @param entity The entity
+   * @param type Type of the component
+   * @since 0.0.5
+   */
+  public void remove(int entity, ComponentType type) {
+
+    record(REMOVE, entity, type.getId(), 0, 0);
+
+  }
+
+  /**
+   * <p>Record setting a value of a float component.</p>
+   *
+   * @param entity The entity
+   * @param type Type of the component
+   * @param component Index of the value in the component
+   * @param value The value
+   * @since 0.0.5
+   */
+  public void setFloat(int entity, ComponentType type, int component, float value) {
+
+    record(SET_FLOAT, entity, type.getId(), component, Float.floatToRawIntBits(value));
+
+  }
+
+  /**
+   * <p>Record setting a value of an int component.</p>
+   *
+   * @param entity The entity
+   * @param type Type of the component
+   * @param component Index of the value in the component
+   * @param value The value
+   * @since 0.0.5
+   */
+  public void setInt(int entity, ComponentType type, int component, int value) {
+
+    record(SET_INT, entity, type.getId(), component, value);
+
+  }
+
+  /**
+   * <p>Do the recorded commands to a world and clear the buffer.</p>
+   *
+   * @param world The world
+   * @since 0.0.5
+   */
+  public void playback(World world) {
+
+    createdCount = 0;
+
+    for (int i = 0; i < count * STRIDE; i += STRIDE) {
+
+      int opcode = commands[i];
+
+      if (opcode == CREATE) {
+        long mask = commands[i + 2] & 0xFFFFFFFFL | (long) commands[i + 3] << 32;
+        created[createdCount++] = world.create(mask);
+        continue;
+      }
+
+      int entity = commands[i + 1];
+
+      if (entity < World.NULL) entity = created[-2 - entity];
+
+      if (!world.isAlive(entity)) continue;
+
+      ComponentType type = opcode == DESTROY ? null : world.getComponentType(commands[i + 2]);
+
+      switch (opcode) {
+
+        case DESTROY:
+          world.destroy(entity);
+          break;
+
+        case ADD:
+          world.add(entity, type);
+          break;
+
+        case REMOVE:
+          world.remove(entity, type);
+          break;
+
+        case SET_FLOAT:
+          world.setFloat(entity, type, commands[i + 3], Float.intBitsToFloat(commands[i + 4]));
+          break;
+
+        default:
+          world.setInt(entity, type, commands[i + 3], commands[i + 4]);
+          break;
+
+      }
+
+    }
+
+    clear();
+
+  }
+
+  /**
+   * <p>Remove all the recorded commands.</p>
+   *
+   * @since 0.0.5
+   */
+  public void clear() {
+
+    count = 0;
+    createdCount = 0;
+
+  }
+
+  /**
+   * <p>Get the amount of recorded commands.</p>
+   *
+   * @return Amount of commands
+   * @since 0.0.5
+   */
+  public int size() {
+
+    return count;
+
+  }
+
+  /*
+   * Moves the commands of another buffer to the end of this one. The temporary ids of the
+   * other buffer are moved past the ones of this buffer.
+   */
+  void append(CommandBuffer other) {
+
+    int offset = createdCount;
+
+    for (int i = 0; i < other.count * STRIDE; i += STRIDE) {
+
+      int opcode = other.commands[i];
+      int entity = other.commands[i + 1];
+
+      if (opcode == CREATE) {
+        if (createdCount == created.length) created = Arrays.copyOf(created, createdCount * 2);
+        createdCount++;
+      }
+
+      record(opcode, entity < World.NULL ? entity - offset : entity, other.commands[i + 2],
+          other.commands[i + 3], other.commands[i + 4]);
+
+    }
+
+    other.clear();
+
+  }
+
+  private void record(int opcode, int entity, int first, int second, int value) {
+
+    if ((count + 1) * STRIDE > commands.length) {
+      commands = Arrays.copyOf(commands, commands.length * 2);
+    }
+
+    int i = count * STRIDE;
+
+    commands[i] = opcode;
+    commands[i + 1] = entity;
+    commands[i + 2] = first;
+    commands[i + 3] = second;
+    commands[i + 4] = value;
+    count++;
+
+  }
+
+}
@@ -0,0 +1,108 @@
+package me.joosua.maingine.ecs;
+
+/**
+ * <p>ComponentType describes a kind of component, like a position or a velocity.</p>
+ *
+ * <p>A component is made of one or more primitive values of the same kind. The values are
+ * stored in their own arrays, one per value, so a position of three floats is stored as
+ * three float arrays in every chunk containing positions.</p>
+ *
+ * <p>Component types are registered to a {@link World} with
+ * {@link World#registerFloats(String, int)} and {@link World#registerInts(String, int)}
+ * and can only be used with that world.</p>
+ *
+ * @since 0.0.5
+ */
+public final class ComponentType {
+
+  /**
+   * <p>Kind of the values of a component.</p>
+   *
+   * @since 0.0.5
+   */
+  public enum Kind {
+    FLOAT, INT
+  }
+
+  private final int id;
+  private final String name;
+  private final Kind kind;
+  private final int width;
+
+  ComponentType(int id, String name, Kind kind, int width) {
+
+    this.id = id;
+    this.name = name;
+    this.kind = kind;
+    this.width = width;
+
+  }
+
+  /**
+   * <p>Get the id of the type in its world.</p>
+   *
+   * @return Id of the type
+   * @since 0.0.5
+   */
+  public int getId() {
+
+    return id;
+
+  }
+
+  /**
+   * <p>Get the bit of the type in the component masks.</p>
+   *
+   * @return Mask with only this type
+   * @since 0.0.5
+   */
+  public long getMask() {
+
+    return 1L << id;
+
+  }
+
+  /**
+   * <p>Get the name of the type.</p>
+   *
+   * @return Name of the type
+   * @since 0.0.5
+   */
+  public String getName() {
+
+    return name;
+
+  }
+
+  /**
+   * <p>Get the kind of the values.</p>
+   *
+   * @return Kind of the values
+   * @since 0.0.5
+   */
+  public Kind getKind() {
+
+    return kind;
+
+  }
+
+  /**
+   * <p>Get the amount of values in a component.</p>
+   *
+   * @return Amount of values
+   * @since 0.0.5
+   */
+  public int getWidth() {
+
+    return width;
+
+  }
+
+  @Override
+  public String toString() {
+
+    return name;
+
+  }
+
+}
@@ -0,0 +1,41 @@
+package me.joosua.maingine.ecs;
+
+/**
+ * <p>EntitySystem processes the entities of a {@link World} on every tick.</p>
+ *
+ * <p>Systems usually create their {@link Query}s once and iterate them in
+ * {@link #update(World, double)}. Structural changes are recorded to
+ * {@link World#getCommands()}.</p>
+ *
+ * <p>Systems declaring which component types they read and write can be run in parallel
+ * with the other systems by a {@link SystemScheduler}.</p>
+ *
+ * @since 0.0.5
+ */
+public interface EntitySystem {
+
+  /**
+   * <p>Declare the component types the system reads and writes.</p>
+   *
+   * <p>This is called once when the system is added to a world. By default the system is
+   * exclusive and never runs at the same time as other systems.</p>
+   *
+   * @param access The access to declare to
+   * @since 0.0.5
+   */
+  default void declareAccess(SystemAccess access) {
+
+    access.exclusive();
+
+  }
+
+  /**
+   * <p>Update is called on every tick.</p>
+   *
+   * @param world The world of the system
+   * @param delta Time each update takes (Multiply time-related values with this).
+   * @since 0.0.5
+   */
+  void update(World world, double delta);
+
+}
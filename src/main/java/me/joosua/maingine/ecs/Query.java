@@ -0,0 +1,314 @@
+package me.joosua.maingine.ecs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+/**
+ * <p>Query iterates over the chunks of the entities with a set of component types.</p>
+ *
+ * <p>The matching archetypes are cached and only archetypes created after the previous
+ * iteration are checked, so iterating doesn't allocate. Structural changes aren't allowed
+ * during the iteration, they are recorded to a {@link CommandBuffer} instead.</p>
+ *
+ * <p>A query is used by one system at a time.</p>
+ *
+ * @since 0.0.5
+ */
+public final class Query {
+
+  // Chunks handled by one task of a parallel iteration
+  private static final int CHUNKS_PER_RANGE = 2;
+
+  private final World world;
+  private final long include;
+  private long exclude;
+
+  private final List<Archetype> matches = new ArrayList<>();
+  private int checked;
+
+  private Chunk[] chunks = new Chunk[16];
+  private int chunkCount;
+  private ChunkRange[] ranges = new ChunkRange[0];
+  private int rangeCount;
+  private Consumer<Chunk> consumer;
+  private final RecursiveAction root = new RecursiveAction() {
+
+    @Override
+    protected void compute() {
+
+      invokeRanges();
+
+    }
+
+  };
+
+  Query(World world, ComponentType[] types) {
+
+    this.world = world;
+
+    long mask = 0;
+
+    for (ComponentType type : types) {
+      mask |= type.getMask();
+    }
+
+    include = mask;
+
+  }
+
+  /**
+   * <p>Leave out the entities with any of the given component types.</p>
+   *
+   * @param types Component types the entities must not have
+   * @return This query
+   * @since 0.0.5
+   */
+  public Query without(ComponentType... types) {
+
+    for (ComponentType type : types) {
+      exclude |= type.getMask();
+    }
+
+    matches.clear();
+    checked = 0;
+
+    return this;
+
+  }
+
+  /**
+   * <p>Call the consumer with every chunk of the matching entities.</p>
+   *
+   * @param consumer The consumer
+   * @since 0.0.5
+   */
+  public void forEach(Consumer<Chunk> consumer) {
+
+    refresh();
+
+    world.beginIteration();
+
+    try {
+
+      for (int i = 0; i < matches.size(); i++) {
+
+        Archetype archetype = matches.get(i);
+
+        for (int chunk = 0; chunk < archetype.getChunkCount(); chunk++) {
+          consumer.accept(archetype.getChunk(chunk));
+        }
+
+      }
+
+    } finally {
+      world.endIteration();
+    }
+
+  }
+
+  /**
+   * <p>Call the consumer with every chunk of the matching entities in parallel.</p>
+   *
+   * <p>The chunks are split into ranges run on the worker threads of the
+   * {@link SystemScheduler} updating the world. Without one, this is the same as
+   * {@link #forEach(Consumer)}. The consumer is called from many threads at the same time,
+   * but with a different chunk each time.</p>
+   *
+   * <p>The consumer may record structural changes to {@link World#getCommands()}. Each range
+   * records to a buffer of its own, and the buffers are added in the order of the chunks to
+   * the buffer of the calling system when all the ranges are done. The buffer must not be
+   * kept after the consumer returns.</p>
+   *
+   * @param consumer The consumer
+   * @since 0.0.5
+   */
+  public void forEachParallel(Consumer<Chunk> consumer) {
+
+    ForkJoinPool pool = world.getPool();
+
+    if (pool == null && !ForkJoinTask.inForkJoinPool()) {
+      forEach(consumer);
+      return;
+    }
+
+    collectChunks();
+
+    if (chunkCount <= CHUNKS_PER_RANGE) {
+      forEach(consumer);
+      return;
+    }
+
+    final CommandBuffer commands = world.getCommands();
+
+    this.consumer = consumer;
+
+    world.beginIteration();
+
+    try {
+
+      if (ForkJoinTask.inForkJoinPool()) {
+        invokeRanges();
+      } else {
+        root.reinitialize();
+        pool.invoke(root);
+      }
+
+      for (int i = 0; i < rangeCount; i++) {
+        commands.append(ranges[i].commands);
+      }
+
+    } finally {
+
+      world.endIteration();
+      this.consumer = null;
+
+      for (int i = 0; i < rangeCount; i++) {
+        ranges[i].commands.clear();
+      }
+
+    }
+
+  }
+
+  /**
+   * <p>Get the amount of matching entities.</p>
+   *
+   * @return Amount of entities
+   * @since 0.0.5
+   */
+  public int count() {
+
+    refresh();
+
+    int count = 0;
+
+    for (int i = 0; i < matches.size(); i++) {
+      count += matches.get(i).size();
+    }
+
+    return count;
+
+  }
+
+  /**
+   * <p>Get the mask of the component types the entities must have.</p>
+   *
+   * @return Mask of the types
+   * @since 0.0.5
+   */
+  public long getMask() {
+
+    return include;
+
+  }
+
+  private void collectChunks() {
+
+    refresh();
+
+    chunkCount = 0;
+
+    for (int i = 0; i < matches.size(); i++) {
+
+      Archetype archetype = matches.get(i);
+
+      for (int chunk = 0; chunk < archetype.getChunkCount(); chunk++) {
+
+        if (chunkCount == chunks.length) chunks = Arrays.copyOf(chunks, chunkCount * 2);
+
+        chunks[chunkCount++] = archetype.getChunk(chunk);
+
+      }
+
+    }
+
+    rangeCount = (chunkCount + CHUNKS_PER_RANGE - 1) / CHUNKS_PER_RANGE;
+
+    if (rangeCount > ranges.length) {
+
+      int old = ranges.length;
+      ranges = Arrays.copyOf(ranges, rangeCount);
+
+      for (int i = old; i < rangeCount; i++) {
+        ranges[i] = new ChunkRange(i * CHUNKS_PER_RANGE);
+      }
+
+    }
+
+  }
+
+  private void invokeRanges() {
+
+    for (int i = 0; i < rangeCount; i++) {
+      ranges[i].reinitialize();
+    }
+
+    // The calling thread runs the first range itself
+    for (int i = 1; i < rangeCount; i++) {
+      ranges[i].fork();
+    }
+
+    ranges[0].invoke();
+
+    for (int i = rangeCount - 1; i > 0; i--) {
+      ranges[i].join();
+    }
+
+  }
+
+  private void refresh() {
+
+    for (; checked < world.getArchetypeCount(); checked++) {
+
+      Archetype archetype = world.getArchetype(checked);
+
+      if ((archetype.getMask() & include) == include && (archetype.getMask() & exclude) == 0) {
+        matches.add(archetype);
+      }
+
+    }
+
+  }
+
+  private final class ChunkRange extends RecursiveAction {
+
+    private final int start;
+    private final CommandBuffer commands = new CommandBuffer();
+
+    private ChunkRange(int start) {
+
+      this.start = start;
+
+    }
+
+    @Override
+    protected void compute() {
+
+      int end = Math.min(start + CHUNKS_PER_RANGE, chunkCount);
+
+      // The worker may be helping another system or no system at all, so the range records
+      // to its own buffer and gives the worker its buffer back afterwards
+      CommandBuffer previous = world.getCurrentCommands();
+
+      world.setCurrentCommands(commands);
+
+      try {
+
+        for (int i = start; i < end; i++) {
+          consumer.accept(chunks[i]);
+        }
+
+      } finally {
+        world.setCurrentCommands(previous);
+      }
+
+    }
+
+  }
+
+}
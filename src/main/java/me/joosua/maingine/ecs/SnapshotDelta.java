@@ -0,0 +1,250 @@
+package me.joosua.maingine.ecs;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import me.joosua.maingine.memory.Memory;
+import me.joosua.maingine.memory.MemoryTag;
+import org.lwjgl.system.MemoryUtil;
+
+/**
+ * <p>SnapshotDelta holds the changes between two {@link WorldSnapshot}s.</p>
+ *
+ * <p>The snapshots are compared in blocks of {@value #BLOCK_SIZE} bytes and only the
+ * changed blocks are stored, with a bit per block telling which ones. Most of the state
+ * stays the same from one tick to the next, so deltas are much smaller than the snapshots
+ * and cheap to keep for rollback or to write for autosaves. A delta is applied to the
+ * same snapshot it was encoded against to get the newer snapshot back. A checksum of that
+ * snapshot is stored in the delta, so applying it to any other snapshot fails.</p>
+ *
+ * <p>The memory must be freed with {@link #free()} once no longer needed.</p>
+ *
+ * @since 0.0.5
+ */
+public final class SnapshotDelta {
+
+  /**
+   * <p>Size of the compared blocks in bytes.</p>
+   */
+  public static final int BLOCK_SIZE = 64;
+
+  static final int MAGIC = 0x544C444D;
+  static final int HEADER_SIZE = 40;
+
+  private ByteBuffer data;
+
+  private SnapshotDelta(ByteBuffer data) {
+
+    this.data = data;
+
+  }
+
+  /**
+   * <p>Encode the changes from a snapshot to a newer one.</p>
+   *
+   * @param base The older snapshot
+   * @param target The newer snapshot
+   * @return The delta or <code>NULL</code> if it couldn't be allocated.
+   * @since 0.0.5
+   */
+  public static SnapshotDelta encode(WorldSnapshot base, WorldSnapshot target) {
+
+    final int baseSize = base.getSize();
+    final long baseAddress = MemoryUtil.memAddress(base.getBuffer());
+    long targetAddress = MemoryUtil.memAddress(target.getBuffer());
+    int size = target.getSize();
+    int blocks = (size + BLOCK_SIZE - 1) / BLOCK_SIZE;
+    long[] changed = new long[(blocks + 63) >>> 6];
+    long changedSize = 0;
+
+    for (int block = 0; block < blocks; block++) {
+
+      int offset = block * BLOCK_SIZE;
+      int length = Math.min(BLOCK_SIZE, size - offset);
+
+      if (offset + length <= baseSize
+          && equalBlocks(baseAddress + offset, targetAddress + offset, length)) {
+        continue;
+      }
+
+      changed[block >>> 6] |= 1L << block;
+      changedSize += length;
+
+    }
+
+    ByteBuffer data = Memory.mallocBuffer((int) (HEADER_SIZE + changed.length * Long.BYTES
+        + changedSize), MemoryTag.SNAPSHOTS);
+
+    if (data == null) return null;
+
+    data.order(ByteOrder.nativeOrder());
+    data.putInt(MAGIC).putInt(WorldSnapshot.VERSION).putLong(data.capacity())
+        .putLong(baseSize).putInt(size).putInt(blocks).putLong(base.getChecksum());
+    data.asLongBuffer().put(changed);
+    data.position(data.position() + changed.length * Long.BYTES);
+
+    long address = MemoryUtil.memAddress(data);
+
+    for (int block = 0; block < blocks; block++) {
+
+      if ((changed[block >>> 6] & 1L << block) == 0) continue;
+
+      int offset = block * BLOCK_SIZE;
+      int length = Math.min(BLOCK_SIZE, size - offset);
+
+      MemoryUtil.memCopy(targetAddress + offset, address, length);
+      address += length;
+
+    }
+
+    return new SnapshotDelta(data.clear());
+
+  }
+
+  /**
+   * <p>Read a delta written to a file.</p>
+   *
+   * @param file The file
+   * @return The delta
+   * @throws IOException If the file couldn't be read or isn't a delta
+   * @since 0.0.5
+   */
+  public static SnapshotDelta read(Path file) throws IOException {
+
+    ByteBuffer data = WorldSnapshot.readFile(file);
+
+    if (data.remaining() < HEADER_SIZE || data.getInt(0) != MAGIC
+        || data.getInt(4) != WorldSnapshot.VERSION || data.getLong(8) != data.remaining()) {
+
+      Memory.freeBuffer(data, MemoryTag.SNAPSHOTS);
+      throw new IOException("Not a snapshot delta of version " + WorldSnapshot.VERSION + ": "
+          + file);
+
+    }
+
+    return new SnapshotDelta(data);
+
+  }
+
+  /**
+   * <p>Apply the changes to the snapshot the delta was encoded against.</p>
+   *
+   * @param base The older snapshot
+   * @return The newer snapshot or <code>NULL</code> if the size or the checksum of the base
+   *     doesn't match or the snapshot couldn't be allocated.
+   * @since 0.0.5
+   */
+  public WorldSnapshot apply(WorldSnapshot base) {
+
+    if (base.getSize() != data.getLong(16) || base.getChecksum() != data.getLong(32)) {
+      return null;
+    }
+
+    int size = data.getInt(24);
+    int blocks = data.getInt(28);
+    ByteBuffer result = Memory.mallocBuffer(size, MemoryTag.SNAPSHOTS);
+
+    if (result == null) return null;
+
+    long resultAddress = MemoryUtil.memAddress(result);
+    long masks = MemoryUtil.memAddress(data) + HEADER_SIZE;
+    long address = masks + ((blocks + 63) >>> 6) * Long.BYTES;
+
+    MemoryUtil.memCopy(MemoryUtil.memAddress(base.getBuffer()), resultAddress,
+        Math.min(base.getSize(), size));
+
+    for (int block = 0; block < blocks; block++) {
+
+      if ((MemoryUtil.memGetLong(masks + (block >>> 6) * Long.BYTES) & 1L << block) == 0) {
+        continue;
+      }
+
+      int offset = block * BLOCK_SIZE;
+      int length = Math.min(BLOCK_SIZE, size - offset);
+
+      MemoryUtil.memCopy(address, resultAddress + offset, length);
+      address += length;
+
+    }
+
+    return new WorldSnapshot(result.order(ByteOrder.nativeOrder()));
+
+  }
+
+  /**
+   * <p>Get the amount of changed blocks.</p>
+   *
+   * @return Amount of blocks stored in the delta
+   * @since 0.0.5
+   */
+  public int getChangedBlocks() {
+
+    int blocks = data.getInt(28);
+    int count = 0;
+
+    for (int i = 0; i < (blocks + 63) >>> 6; i++) {
+      count += Long.bitCount(data.getLong(HEADER_SIZE + i * Long.BYTES));
+    }
+
+    return count;
+
+  }
+
+  /**
+   * <p>Get the content of the delta.</p>
+   *
+   * @return Read-only view of the content
+   * @since 0.0.5
+   */
+  public ByteBuffer getData() {
+
+    return data.asReadOnlyBuffer().order(ByteOrder.nativeOrder());
+
+  }
+
+  /**
+   * <p>Get the size of the delta.</p>
+   *
+   * @return Size in bytes
+   * @since 0.0.5
+   */
+  public int getSize() {
+
+    return data.remaining();
+
+  }
+
+  /**
+   * <p>Free the memory of the delta.</p>
+   *
+   * <p>Nothing is done if it has already been freed.</p>
+   *
+   * @since 0.0.5
+   */
+  public void free() {
+
+    Memory.freeBuffer(data, MemoryTag.SNAPSHOTS);
+    data = null;
+
+  }
+
+  private static boolean equalBlocks(long first, long second, int length) {
+
+    long difference = 0;
+    int i = 0;
+
+    // Without branches per word, the loads of a block can be done in parallel
+    for (; i + Long.BYTES <= length; i += Long.BYTES) {
+      difference |= MemoryUtil.memGetLong(first + i) ^ MemoryUtil.memGetLong(second + i);
+    }
+
+    for (; i < length; i++) {
+      difference |= MemoryUtil.memGetByte(first + i) ^ MemoryUtil.memGetByte(second + i);
+    }
+
+    return difference == 0;
+
+  }
+
+}
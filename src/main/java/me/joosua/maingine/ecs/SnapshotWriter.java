@@ -0,0 +1,139 @@
+package me.joosua.maingine.ecs;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * <p>SnapshotWriter writes snapshots and deltas to files on a thread of its own.</p>
+ *
+ * <p>Writing returns immediately, so autosaving never blocks an update for the disk. The
+ * content is written to a temporary file next to the target, forced to the disk and then
+ * moved over the target, so a crash while writing never leaves a broken save behind.
+ * Writes are done in the order they were made.</p>
+ *
+ * @since 0.0.5
+ */
+public class SnapshotWriter {
+
+  private static final Logger logger = LogManager.getLogger(SnapshotWriter.class);
+
+  private static final long SHUTDOWN_TIMEOUT = 10;
+
+  private final ExecutorService executor;
+
+  /**
+   * <p>Create a writer with its thread.</p>
+   *
+   * @since 0.0.5
+   */
+  public SnapshotWriter() {
+
+    executor = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "Maingine snapshot writer");
+      thread.setDaemon(true);
+      return thread;
+    });
+
+  }
+
+  /**
+   * <p>Write a snapshot to a file.</p>
+   *
+   * <p>The snapshot must not be freed before the returned future is done.</p>
+   *
+   * @param snapshot The snapshot
+   * @param file The file, replaced if it exists
+   * @return Future completed with the file once written
+   * @since 0.0.5
+   */
+  public CompletableFuture<Path> write(WorldSnapshot snapshot, Path file) {
+
+    return submit(snapshot.getData(), file);
+
+  }
+
+  /**
+   * <p>Write a delta to a file.</p>
+   *
+   * <p>The delta must not be freed before the returned future is done.</p>
+   *
+   * @param delta The delta
+   * @param file The file, replaced if it exists
+   * @return Future completed with the file once written
+   * @since 0.0.5
+   */
+  public CompletableFuture<Path> write(SnapshotDelta delta, Path file) {
+
+    return submit(delta.getData(), file);
+
+  }
+
+  /**
+   * <p>Wait for the writes and stop the thread.</p>
+   *
+   * @since 0.0.5
+   */
+  public void destroy() {
+
+    executor.shutdown();
+
+    try {
+
+      if (!executor.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.SECONDS)) {
+        logger.warn("Snapshot writes didn't finish in {} seconds", SHUTDOWN_TIMEOUT);
+      }
+
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+  }
+
+  private CompletableFuture<Path> submit(ByteBuffer data, Path file) {
+
+    return CompletableFuture.supplyAsync(() -> {
+
+      try {
+        return writeFile(data, file);
+      } catch (IOException e) {
+        logger.error("Snapshot '{}' couldn't be written: {}", file, e.getMessage());
+        throw new UncheckedIOException(e);
+      }
+
+    }, executor);
+
+  }
+
+  private static Path writeFile(ByteBuffer data, Path file) throws IOException {
+
+    Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+
+    try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+      while (data.hasRemaining()) {
+        channel.write(data);
+      }
+
+      channel.force(false);
+
+    }
+
+    return Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+
+  }
+
+}
@@ -0,0 +1,126 @@
+package me.joosua.maingine.ecs;
+
+/**
+ * <p>SystemAccess holds the component types a system reads and writes.</p>
+ *
+ * <p>Systems declare their access in {@link EntitySystem#declareAccess(SystemAccess)}.
+ * Two systems conflict if one of them writes a type the other one reads or writes, or if
+ * either of them is exclusive. Conflicting systems are never run at the same time and run
+ * in the order they were added to the world.</p>
+ *
+ * @since 0.0.5
+ */
+public final class SystemAccess {
+
+  private long reads;
+  private long writes;
+  private boolean exclusive;
+
+  SystemAccess() {
+
+  }
+
+  /**
+   * <p>Declare component types read by the system.</p>
+   *
+   * @param types The types
+   * @return This access
+   * @since 0.0.5
+   */
+  public SystemAccess reads(ComponentType... types) {
+
+    for (ComponentType type : types) {
+      reads |= type.getMask();
+    }
+
+    return this;
+
+  }
+
+  /**
+   * <p>Declare component types written by the system.</p>
+   *
+   * <p>Writing includes reading.</p>
+   *
+   * @param types The types
+   * @return This access
+   * @since 0.0.5
+   */
+  public SystemAccess writes(ComponentType... types) {
+
+    for (ComponentType type : types) {
+      writes |= type.getMask();
+    }
+
+    return this;
+
+  }
+
+  /**
+   * <p>Declare the system to conflict with all the other systems.</p>
+   *
+   * <p>This is the default for systems which don't declare their access.</p>
+   *
+   * @return This access
+   * @since 0.0.5
+   */
+  public SystemAccess exclusive() {
+
+    exclusive = true;
+
+    return this;
+
+  }
+
+  /**
+   * <p>Get the mask of the types read.</p>
+   *
+   * @return Mask of the types
+   * @since 0.0.5
+   */
+  public long getReads() {
+
+    return reads;
+
+  }
+
+  /**
+   * <p>Get the mask of the types written.</p>
+   *
+   * @return Mask of the types
+   * @since 0.0.5
+   */
+  public long getWrites() {
+
+    return writes;
+
+  }
+
+  /**
+   * <p>Whether the system conflicts with all the other systems.</p>
+   *
+   * @return <code>TRUE</code> if exclusive, <code>FALSE</code> if not.
+   * @since 0.0.5
+   */
+  public boolean isExclusive() {
+
+    return exclusive;
+
+  }
+
+  /**
+   * <p>Whether a system with this access can't run at the same time as another.</p>
+   *
+   * @param other Access of the other system
+   * @return <code>TRUE</code> if they conflict, <code>FALSE</code> if not.
+   * @since 0.0.5
+   */
+  public boolean conflicts(SystemAccess other) {
+
+    if (exclusive || other.exclusive) return true;
+
+    return (writes & (other.reads | other.writes)) != 0 || (other.writes & reads) != 0;
+
+  }
+
+}
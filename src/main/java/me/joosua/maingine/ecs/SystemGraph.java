@@ -0,0 +1,200 @@
+package me.joosua.maingine.ecs;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/*
+ * Dependency graph of the systems of a world. Every system depends on the systems added
+ * before it which it conflicts with, so the result is the same as running the systems in
+ * order. Each system records to its own command buffer, which are played back in order.
+ */
+class SystemGraph {
+
+  private static final Logger logger = LogManager.getLogger(SystemGraph.class);
+
+  private final List<Node> nodes = new ArrayList<>();
+  private boolean dirty;
+
+  private World world;
+  private double delta;
+
+  void add(EntitySystem system) {
+
+    SystemAccess access = new SystemAccess();
+    system.declareAccess(access);
+
+    nodes.add(new Node(system, access));
+    dirty = true;
+
+  }
+
+  boolean remove(EntitySystem system) {
+
+    for (int i = 0; i < nodes.size(); i++) {
+
+      if (nodes.get(i).system == system) {
+        nodes.remove(i);
+        dirty = true;
+        return true;
+      }
+
+    }
+
+    return false;
+
+  }
+
+  int size() {
+
+    return nodes.size();
+
+  }
+
+  EntitySystem getSystem(int index) {
+
+    return nodes.get(index).system;
+
+  }
+
+  CommandBuffer getCommands(int index) {
+
+    return nodes.get(index).commands;
+
+  }
+
+  /*
+   * Runs every system on the calling thread in order.
+   */
+  void runSerial(World world, double delta) {
+
+    for (int i = 0; i < nodes.size(); i++) {
+
+      Node node = nodes.get(i);
+      CommandBuffer previous = world.getCurrentCommands();
+
+      world.setCurrentCommands(node.commands);
+
+      try {
+        node.system.update(world, delta);
+      } finally {
+        world.setCurrentCommands(previous);
+      }
+
+    }
+
+  }
+
+  /*
+   * Runs the systems on the pool, each one as soon as the systems it depends on are done,
+   * and waits until all of them are done.
+   */
+  void runParallel(ForkJoinPool pool, World world, double delta) {
+
+    if (nodes.isEmpty()) return;
+
+    if (dirty) build();
+
+    this.world = world;
+    this.delta = delta;
+
+    for (int i = 0; i < nodes.size(); i++) {
+      nodes.get(i).reset();
+    }
+
+    for (int i = 0; i < nodes.size(); i++) {
+      if (nodes.get(i).dependencies == 0) pool.execute(nodes.get(i));
+    }
+
+    // Every system is forked eventually, and a joined task is completely done so it can be
+    // reinitialized on the next tick
+    for (int i = 0; i < nodes.size(); i++) {
+      nodes.get(i).quietlyJoin();
+    }
+
+    this.world = null;
+
+  }
+
+  private void build() {
+
+    for (Node node : nodes) {
+      node.dependents.clear();
+      node.dependencies = 0;
+    }
+
+    for (int i = 0; i < nodes.size(); i++) {
+
+      for (int j = i + 1; j < nodes.size(); j++) {
+
+        if (nodes.get(i).access.conflicts(nodes.get(j).access)) {
+          nodes.get(i).dependents.add(nodes.get(j));
+          nodes.get(j).dependencies++;
+        }
+
+      }
+
+    }
+
+    dirty = false;
+
+  }
+
+  private final class Node extends RecursiveAction {
+
+    private final EntitySystem system;
+    private final SystemAccess access;
+    private final CommandBuffer commands = new CommandBuffer();
+
+    private final List<Node> dependents = new ArrayList<>();
+    private int dependencies;
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private Node(EntitySystem system, SystemAccess access) {
+
+      this.system = system;
+      this.access = access;
+
+    }
+
+    private void reset() {
+
+      reinitialize();
+      waiting.set(dependencies);
+
+    }
+
+    @Override
+    protected void compute() {
+
+      // The worker may be helping a join inside a range of another system, which keeps
+      // recording to its own buffer afterwards
+      CommandBuffer previous = world.getCurrentCommands();
+
+      world.setCurrentCommands(commands);
+
+      try {
+        system.update(world, delta);
+      } catch (RuntimeException | Error e) {
+        logger.error("System {} failed!", system.getClass().getName(), e);
+      } finally {
+        world.setCurrentCommands(previous);
+      }
+
+      for (int i = 0; i < dependents.size(); i++) {
+
+        Node dependent = dependents.get(i);
+
+        if (dependent.waiting.decrementAndGet() == 0) dependent.fork();
+
+      }
+
+    }
+
+  }
+
+}
@@ -0,0 +1,129 @@
+package me.joosua.maingine.ecs;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * <p>SystemScheduler runs the systems of a {@link World} on a pool of worker threads.</p>
+ *
+ * <p>The systems form a graph by the component types they declare in
+ * {@link EntitySystem#declareAccess(SystemAccess)}: a system waits for the systems added
+ * before it which it conflicts with, and the others run at the same time. The graph is
+ * rebuilt when systems are added or removed. Large queries can further be split into chunk
+ * ranges with {@link Query#forEachParallel(java.util.function.Consumer)}.</p>
+ *
+ * <p>In deterministic mode the systems run one by one on the updating thread in the order
+ * they were added. Chunk ranges still run in parallel, as they never touch the same
+ * entities.</p>
+ *
+ * <p>The engine owns a scheduler, see
+ * {@link me.joosua.maingine.engine.Engine#getSystemScheduler()}.</p>
+ *
+ * @since 0.0.5
+ */
+public class SystemScheduler {
+
+  private static final Logger logger = LogManager.getLogger(SystemScheduler.class);
+
+  private static final long SHUTDOWN_TIMEOUT = 5;
+
+  private final ForkJoinPool pool;
+  private boolean deterministic;
+
+  /**
+   * <p>Create a scheduler.</p>
+   *
+   * @param threads Amount of worker threads, at least <code>1</code>
+   * @since 0.0.5
+   */
+  public SystemScheduler(int threads) {
+
+    pool = new ForkJoinPool(Math.max(threads, 1), pool -> {
+      ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+      thread.setName("Maingine system worker " + thread.getPoolIndex());
+      thread.setDaemon(true);
+      return thread;
+    }, null, false);
+
+  }
+
+  /**
+   * <p>Set whether the systems run one by one in the order they were added.</p>
+   *
+   * @param deterministic <code>TRUE</code> for deterministic order, <code>FALSE</code> for
+   *     parallel
+   * @since 0.0.5
+   */
+  public void setDeterministic(boolean deterministic) {
+
+    this.deterministic = deterministic;
+
+  }
+
+  /**
+   * <p>Whether the systems run one by one in the order they were added.</p>
+   *
+   * @return <code>TRUE</code> if deterministic, <code>FALSE</code> if parallel.
+   * @since 0.0.5
+   */
+  public boolean isDeterministic() {
+
+    return deterministic;
+
+  }
+
+  /**
+   * <p>Get the amount of worker threads.</p>
+   *
+   * @return Amount of threads
+   * @since 0.0.5
+   */
+  public int getThreadCount() {
+
+    return pool.getParallelism();
+
+  }
+
+  /**
+   * <p>Stop the worker threads.</p>
+   *
+   * <p>This should only be called after the last update.</p>
+   *
+   * @since 0.0.5
+   */
+  public void shutdown() {
+
+    pool.shutdown();
+
+    try {
+
+      if (!pool.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.SECONDS)) {
+        logger.warn("System workers didn't stop in {} seconds", SHUTDOWN_TIMEOUT);
+      }
+
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+  }
+
+  ForkJoinPool getPool() {
+
+    return pool;
+
+  }
+
+  void run(SystemGraph graph, World world, double delta) {
+
+    if (deterministic) {
+      graph.runSerial(world, delta);
+    } else {
+      graph.runParallel(pool, world, delta);
+    }
+
+  }
+
+}
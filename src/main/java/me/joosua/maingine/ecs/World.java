@@ -0,0 +1,984 @@
+package me.joosua.maingine.ecs;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * <p>World holds entities, their components and the systems processing them.</p>
+ *
+ * <p>An entity is an int made of an index and a generation. The generation is increased
+ * every time the index is reused, so an old id of a destroyed entity is never mistaken
+ * for a new entity. Components are stored by {@link Archetype} into {@link Chunk}s as
+ * primitive arrays and iterated with a {@link Query}.</p>
+ *
+ * <p>Creating and destroying entities and adding and removing components are structural
+ * changes, which move entities between archetypes. They can't be done while a query is
+ * iterating or while systems run in parallel, so systems record them to
+ * {@link #getCommands()} instead. The commands are played back after all the systems have
+ * been updated.</p>
+ *
+ * <p>The whole state of a world can be saved and restored with a {@link WorldSnapshot},
+ * like for save games and rollback.</p>
+ *
+ * <p>A world is only accessed from one thread at a time, except by the systems run in
+ * parallel by a {@link SystemScheduler}.</p>
+ *
+ * @since 0.0.5
+ */
+public class World {
+
+  private static final Logger logger = LogManager.getLogger(World.class);
+
+  /**
+   * <p>Id of no entity.</p>
+   */
+  public static final int NULL = -1;
+
+  /**
+   * <p>Maximum amount of component types in a world.</p>
+   */
+  public static final int MAX_COMPONENT_TYPES = 64;
+
+  /**
+   * <p>Maximum amount of entities alive at the same time.</p>
+   */
+  public static final int MAX_ENTITIES = 1 << 22;
+
+  private static final int INDEX_BITS = 22;
+  private static final int INDEX_MASK = MAX_ENTITIES - 1;
+  private static final int GENERATION_MASK = (1 << 9) - 1;
+
+  private static final int INITIAL_CAPACITY = 1024;
+
+  private final ComponentType[] componentTypes = new ComponentType[MAX_COMPONENT_TYPES];
+  private int componentTypeCount;
+
+  private final List<Archetype> archetypes = new ArrayList<>();
+  private final Archetype emptyArchetype;
+
+  private int[] generations = new int[INITIAL_CAPACITY];
+  private int[] archetypeOf = new int[INITIAL_CAPACITY];
+  private int[] slotOf = new int[INITIAL_CAPACITY];
+  private int[] freeIndices = new int[INITIAL_CAPACITY];
+  private int indexCount;
+  private int freeCount;
+  private int entityCount;
+
+  private final CommandBuffer commands = new CommandBuffer();
+  private final ThreadLocal<CommandBuffer> currentCommands = new ThreadLocal<>();
+
+  private final List<EntitySystem> systems = new ArrayList<>();
+  private final SystemGraph graph = new SystemGraph();
+  private SystemScheduler scheduler;
+
+  private final AtomicInteger iterating = new AtomicInteger();
+
+  /**
+   * <p>Create an empty world.</p>
+   *
+   * @since 0.0.5
+   */
+  public World() {
+
+    emptyArchetype = createArchetype(0);
+
+  }
+
+  /**
+   * <p>Register a component type of float values.</p>
+   *
+   * @param name Name of the type
+   * @param width Amount of values in a component
+   * @return The type or <code>NULL</code> if it couldn't be registered.
+   * @since 0.0.5
+   */
+  public ComponentType registerFloats(String name, int width) {
+
+    return register(name, ComponentType.Kind.FLOAT, width);
+
+  }
+
+  /**
+   * <p>Register a component type of int values.</p>
+   *
+   * @param name Name of the type
+   * @param width Amount of values in a component
+   * @return The type or <code>NULL</code> if it couldn't be registered.
+   * @since 0.0.5
+   */
+  public ComponentType registerInts(String name, int width) {
+
+    return register(name, ComponentType.Kind.INT, width);
+
+  }
+
+  /**
+   * <p>Get a registered component type by its id.</p>
+   *
+   * @param id Id of the type
+   * @return The type or <code>NULL</code> if not registered.
+   * @since 0.0.5
+   */
+  public ComponentType getComponentType(int id) {
+
+    return id >= 0 && id < componentTypeCount ? componentTypes[id] : null;
+
+  }
+
+  /**
+   * <p>Create an entity.</p>
+   *
+   * <p>The components are zeroed.</p>
+   *
+   * @param types Component types of the entity
+   * @return The entity or {@link #NULL} if it couldn't be created.
+   * @since 0.0.5
+   */
+  public int create(ComponentType... types) {
+
+    long mask = 0;
+
+    for (ComponentType type : types) {
+      mask |= type.getMask();
+    }
+
+    return create(mask);
+
+  }
+
+  int create(long mask) {
+
+    if (iterating.get() > 0) {
+
+      logger.error("Entity not created! Use the command buffer while iterating.");
+      return NULL;
+
+    }
+
+    int index;
+
+    if (freeCount > 0) {
+
+      index = freeIndices[--freeCount];
+
+    } else {
+
+      if (indexCount == MAX_ENTITIES) {
+
+        logger.error("Entity not created! Maximum of {} entities reached.", MAX_ENTITIES);
+        return NULL;
+
+      }
+
+      if (indexCount == generations.length) grow();
+
+      index = indexCount++;
+
+    }
+
+    Archetype archetype = mask == 0 ? emptyArchetype : findArchetype(mask);
+    int entity = index | generations[index] << INDEX_BITS;
+
+    archetypeOf[index] = archetype.getIndex();
+    slotOf[index] = archetype.allocate(entity);
+    entityCount++;
+
+    return entity;
+
+  }
+
+  /**
+   * <p>Destroy an entity.</p>
+   *
+   * @param entity The entity
+   * @return Whether the entity was destroyed.
+   * @since 0.0.5
+   */
+  public boolean destroy(int entity) {
+
+    if (!checkStructural(entity, "Entity not destroyed!")) return false;
+
+    int index = entity & INDEX_MASK;
+
+    removeFromArchetype(archetypes.get(archetypeOf[index]), slotOf[index]);
+
+    generations[index] = (generations[index] + 1) & GENERATION_MASK;
+    archetypeOf[index] = -1;
+    freeIndices[freeCount++] = index;
+    entityCount--;
+
+    return true;
+
+  }
+
+  /**
+   * <p>Add a component to an entity.</p>
+   *
+   * <p>The component is zeroed. Nothing is done if the entity already has it.</p>
+   *
+   * @param entity The entity
+   * @param type Type of the component
+   * @return Whether the entity has the component now.
+   * @since 0.0.5
+   */
+  public boolean add(int entity, ComponentType type) {
+
+    if (!checkStructural(entity, "Component not added!")) return false;
+
+    Archetype from = archetypes.get(archetypeOf[entity & INDEX_MASK]);
+
+    if (from.has(type)) return true;
+
+    Archetype to = from.getAddEdge(type.getId());
+
+    if (to == null) {
+      to = findArchetype(from.getMask() | type.getMask());
+      from.setAddEdge(type.getId(), to);
+    }
+
+    move(entity, from, to);
+
+    return true;
+
+  }
+
+  /**
+   * <p>Remove a component from an entity.</p>
+   *
+   * <p>Nothing is done if the entity doesn't have it.</p>
+   *
+   * @param entity The entity
+   * @param type Type of the component
+   * @return Whether the entity is without the component now.
+   * @since 0.0.5
+   */
+  public boolean remove(int entity, ComponentType type) {
+
+    if (!checkStructural(entity, "Component not removed!")) return false;
+
+    Archetype from = archetypes.get(archetypeOf[entity & INDEX_MASK]);
+
+    if (!from.has(type)) return true;
+
+    Archetype to = from.getRemoveEdge(type.getId());
+
+    if (to == null) {
+      to = findArchetype(from.getMask() & ~type.getMask());
+      from.setRemoveEdge(type.getId(), to);
+    }
+
+    move(entity, from, to);
+
+    return true;
+
+  }
+
+  /**
+   * <p>Whether an entity is alive.</p>
+   *
+   * @param entity The entity
+   * @return <code>TRUE</code> if it's alive, <code>FALSE</code> if it was destroyed.
+   * @since 0.0.5
+   */
+  public boolean isAlive(int entity) {
+
+    if (entity < 0) return false;
+
+    int index = entity & INDEX_MASK;
+
+    return index < indexCount && archetypeOf[index] >= 0
+        && generations[index] == entity >>> INDEX_BITS;
+
+  }
+
+  /**
+   * <p>Whether an entity has a component.</p>
+   *
+   * @param entity The entity
+   * @param type Type of the component
+   * @return <code>TRUE</code> if it has, <code>FALSE</code> if not or if it isn't alive.
+   * @since 0.0.5
+   */
+  public boolean has(int entity, ComponentType type) {
+
+    return isAlive(entity) && archetypes.get(archetypeOf[entity & INDEX_MASK]).has(type);
+
+  }
+
+  /**
+   * <p>Get a value of a float component of an entity.</p>
+   *
+   * <p>Iterate with a {@link Query} to access many entities.</p>
+   *
+   * @param entity The entity
+   * @param type Type of the component
+   * @param component Index of the value in the component
+   * @return The value or <code>0</code> if the entity doesn't have the component.
+   * @since 0.0.5
+   */
+  public float getFloat(int entity, ComponentType type, int component) {
+
+    if (!has(entity, type)) return 0;
+
+    int slot = slotOf[entity & INDEX_MASK];
+
+    return archetypes.get(archetypeOf[entity & INDEX_MASK]).chunkOf(slot)
+        .getFloats(type, component)[Archetype.rowOf(slot)];
+
+  }
+
+  /**
+   * <p>Set a value of a float component of an entity.</p>
+   *
+   * @param entity The entity
+   * @param type Type of the component
+   * @param component Index of the value in the component
+   * @param value The value
+   * @return Whether the value was set.
+   * @since 0.0.5
+   */
+  public boolean setFloat(int entity, ComponentType type, int component, float value) {
+
+    if (!checkComponent(entity, type)) return false;
+
+    int slot = slotOf[entity & INDEX_MASK];
+
+    archetypes.get(archetypeOf[entity & INDEX_MASK]).chunkOf(slot)
+        .getFloats(type, component)[Archetype.rowOf(slot)] = value;
+
+    return true;
+
+  }
+
+  /**
+   * <p>Get a value of an int component of an entity.</p>
+   *
+   * @param entity The entity
+   * @param type Type of the component
+   * @param component Index of the value in the component
+   * @return The value or <code>0</code> if the entity doesn't have the component.
+   * @since 0.0.5
+   */
+  public int getInt(int entity, ComponentType type, int component) {
+
+    if (!has(entity, type)) return 0;
+
+    int slot = slotOf[entity & INDEX_MASK];
+
+    return archetypes.get(archetypeOf[entity & INDEX_MASK]).chunkOf(slot)
+        .getInts(type, component)[Archetype.rowOf(slot)];
+
+  }
+
+  /**
+   * <p>Set a value of an int component of an entity.</p>
+   *
+   * @param entity The entity
+   * @param type Type of the component
+   * @param component Index of the value in the component
+   * @param value The value
+   * @return Whether the value was set.
+   * @since 0.0.5
+   */
+  public boolean setInt(int entity, ComponentType type, int component, int value) {
+
+    if (!checkComponent(entity, type)) return false;
+
+    int slot = slotOf[entity & INDEX_MASK];
+
+    archetypes.get(archetypeOf[entity & INDEX_MASK]).chunkOf(slot)
+        .getInts(type, component)[Archetype.rowOf(slot)] = value;
+
+    return true;
+
+  }
+
+  /**
+   * <p>Create a query of the entities with all the given component types.</p>
+   *
+   * <p>Queries should be created once and reused.</p>
+   *
+   * @param types Component types the entities must have
+   * @return The query
+   * @since 0.0.5
+   */
+  public Query query(ComponentType... types) {
+
+    return new Query(this, types);
+
+  }
+
+  /**
+   * <p>Add a system to be updated on every tick.</p>
+   *
+   * <p>Systems are updated in the order they were added, or in parallel when their
+   * accesses don't conflict, see {@link SystemScheduler}.</p>
+   *
+   * @param system The system
+   * @since 0.0.5
+   */
+  public void addSystem(EntitySystem system) {
+
+    systems.add(system);
+    graph.add(system);
+
+  }
+
+  /**
+   * <p>Remove a system.</p>
+   *
+   * @param system The system
+   * @return Whether the system was removed.
+   * @since 0.0.5
+   */
+  public boolean removeSystem(EntitySystem system) {
+
+    graph.remove(system);
+
+    return systems.remove(system);
+
+  }
+
+  /**
+   * <p>Get the systems.</p>
+   *
+   * @return Unmodifiable list of the systems
+   * @since 0.0.5
+   */
+  public List<EntitySystem> getSystems() {
+
+    return Collections.unmodifiableList(systems);
+
+  }
+
+  /**
+   * <p>Update all the systems in order on the calling thread.</p>
+   *
+   * @param delta Time each update takes (Multiply time-related values with this).
+   * @see #update(double, SystemScheduler)
+   * @since 0.0.5
+   */
+  public void update(double delta) {
+
+    update(delta, null);
+
+  }
+
+  /**
+   * <p>Update all the systems and play back the commands they recorded.</p>
+   *
+   * <p>The commands recorded before the update are played back first and then the
+   * commands of each system in the order the systems were added.</p>
+   *
+   * <p>This is called by {@link me.joosua.maingine.engine.gamestate.GameStateManager} on
+   * every tick.</p>
+   *
+   * @param delta Time each update takes (Multiply time-related values with this).
+   * @param scheduler Scheduler running the systems or <code>NULL</code> to run them in
+   *     order on the calling thread
+   * @since 0.0.5
+   */
+  public void update(double delta, SystemScheduler scheduler) {
+
+    this.scheduler = scheduler;
+
+    if (scheduler == null) {
+
+      graph.runSerial(this, delta);
+
+    } else {
+
+      // Structural changes aren't safe while systems run in parallel
+      boolean parallel = !scheduler.isDeterministic();
+
+      if (parallel) beginIteration();
+
+      try {
+        scheduler.run(graph, this, delta);
+      } finally {
+        if (parallel) endIteration();
+      }
+
+    }
+
+    this.scheduler = null;
+
+    commands.playback(this);
+
+    for (int i = 0; i < graph.size(); i++) {
+      graph.getCommands(i).playback(this);
+    }
+
+  }
+
+  /**
+   * <p>Get the command buffer for structural changes.</p>
+   *
+   * <p>Every system has its own buffer, which is returned while the system is updated on
+   * the calling thread. Inside a consumer of {@link Query#forEachParallel} the
+   * buffer of the range being iterated is returned, which is added to the buffer of the
+   * system afterwards. Otherwise the buffer of the world is returned.</p>
+   *
+   * <p>Command buffers aren't thread-safe. The buffer must only be used on the thread which
+   * got it and not kept after the system or the consumer returns.</p>
+   *
+   * @return The command buffer
+   * @since 0.0.5
+   */
+  public CommandBuffer getCommands() {
+
+    CommandBuffer current = currentCommands.get();
+
+    return current != null ? current : commands;
+
+  }
+
+  /**
+   * <p>Get the amount of entities alive.</p>
+   *
+   * @return Amount of entities
+   * @since 0.0.5
+   */
+  public int getEntityCount() {
+
+    return entityCount;
+
+  }
+
+  /**
+   * <p>Get the amount of archetypes created.</p>
+   *
+   * @return Amount of archetypes
+   * @since 0.0.5
+   */
+  public int getArchetypeCount() {
+
+    return archetypes.size();
+
+  }
+
+  /**
+   * <p>Get an archetype.</p>
+   *
+   * @param index Index of the archetype, less than {@link #getArchetypeCount()}
+   * @return The archetype
+   * @since 0.0.5
+   */
+  public Archetype getArchetype(int index) {
+
+    return archetypes.get(index);
+
+  }
+
+  /**
+   * <p>Whether a query is iterating.</p>
+   *
+   * @return <code>TRUE</code> if structural changes aren't allowed, <code>FALSE</code> if
+   *     they are.
+   * @since 0.0.5
+   */
+  public boolean isIterating() {
+
+    return iterating.get() > 0;
+
+  }
+
+  void beginIteration() {
+
+    iterating.incrementAndGet();
+
+  }
+
+  void endIteration() {
+
+    iterating.decrementAndGet();
+
+  }
+
+  CommandBuffer getCurrentCommands() {
+
+    return currentCommands.get();
+
+  }
+
+  void setCurrentCommands(CommandBuffer commands) {
+
+    currentCommands.set(commands);
+
+  }
+
+  /*
+   * Size of the world in a snapshot: the component types, the archetypes and the entities.
+   */
+  long getSnapshotSize() {
+
+    long size = Integer.BYTES;
+
+    for (int i = 0; i < componentTypeCount; i++) {
+      size += 3 * Integer.BYTES
+          + componentTypes[i].getName().getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    size += Integer.BYTES;
+
+    for (Archetype archetype : archetypes) {
+      size += archetype.getSnapshotSize();
+    }
+
+    return size + 3 * Integer.BYTES + (3L * indexCount + freeCount) * Integer.BYTES;
+
+  }
+
+  void writeSnapshot(ByteBuffer buffer) {
+
+    buffer.putInt(componentTypeCount);
+
+    for (int i = 0; i < componentTypeCount; i++) {
+
+      byte[] name = componentTypes[i].getName().getBytes(StandardCharsets.UTF_8);
+
+      buffer.putInt(componentTypes[i].getKind().ordinal()).putInt(componentTypes[i].getWidth())
+          .putInt(name.length).put(name);
+
+    }
+
+    buffer.putInt(archetypes.size());
+
+    for (Archetype archetype : archetypes) {
+      archetype.write(buffer);
+    }
+
+    buffer.putInt(indexCount).putInt(freeCount).putInt(entityCount);
+
+    WorldSnapshot.putInts(buffer, generations, indexCount);
+    WorldSnapshot.putInts(buffer, archetypeOf, indexCount);
+    WorldSnapshot.putInts(buffer, slotOf, indexCount);
+    WorldSnapshot.putInts(buffer, freeIndices, freeCount);
+
+  }
+
+  /*
+   * Replaces the whole state with a snapshot. The archetypes are matched by their masks,
+   * so the ones created since the snapshot are emptied but kept for the queries.
+   */
+  boolean readSnapshot(ByteBuffer buffer) {
+
+    if (iterating.get() > 0) {
+
+      logger.error("Snapshot not restored! The world is being iterated.");
+      return false;
+
+    }
+
+    // Everything is checked before the world is touched, so a broken snapshot changes nothing
+    if (!checkSchema(buffer) || !checkContent(buffer.duplicate().order(buffer.order()))) {
+      return false;
+    }
+
+    for (Archetype archetype : archetypes) {
+      archetype.read(buffer, 0);
+    }
+
+    int[] archetypeIndices = new int[buffer.getInt()];
+
+    for (int i = 0; i < archetypeIndices.length; i++) {
+
+      long mask = buffer.getLong();
+      int size = buffer.getInt();
+      Archetype archetype = findArchetype(mask);
+
+      archetype.read(buffer, size);
+      archetypeIndices[i] = archetype.getIndex();
+
+    }
+
+    indexCount = buffer.getInt();
+    freeCount = buffer.getInt();
+    entityCount = buffer.getInt();
+
+    while (generations.length < indexCount) grow();
+
+    WorldSnapshot.getInts(buffer, generations, indexCount);
+    WorldSnapshot.getInts(buffer, archetypeOf, indexCount);
+    WorldSnapshot.getInts(buffer, slotOf, indexCount);
+    WorldSnapshot.getInts(buffer, freeIndices, freeCount);
+
+    for (int i = 0; i < indexCount; i++) {
+      if (archetypeOf[i] >= 0) archetypeOf[i] = archetypeIndices[archetypeOf[i]];
+    }
+
+    return true;
+
+  }
+
+  ForkJoinPool getPool() {
+
+    return scheduler != null ? scheduler.getPool() : null;
+
+  }
+
+  private ComponentType register(String name, ComponentType.Kind kind, int width) {
+
+    if (componentTypeCount == MAX_COMPONENT_TYPES) {
+
+      logger.error("Component type '{}' not registered! Maximum of {} types reached.", name,
+          MAX_COMPONENT_TYPES);
+      return null;
+
+    }
+
+    if (width < 1) {
+
+      logger.error("Component type '{}' not registered! Width must be at least 1.", name);
+      return null;
+
+    }
+
+    ComponentType type = new ComponentType(componentTypeCount, name, kind, width);
+    componentTypes[componentTypeCount++] = type;
+
+    return type;
+
+  }
+
+  private boolean checkSchema(ByteBuffer buffer) {
+
+    int count = buffer.getInt();
+
+    if (count != componentTypeCount) {
+
+      logger.error("Snapshot not restored! It has {} component types instead of {}.", count,
+          componentTypeCount);
+      return false;
+
+    }
+
+    for (int i = 0; i < count; i++) {
+
+      final int kind = buffer.getInt();
+      final int width = buffer.getInt();
+      final int length = buffer.getInt();
+
+      if (length < 0 || length > buffer.remaining()) {
+
+        logger.error("Snapshot not restored! Name of component type {} is corrupted.", i);
+        return false;
+
+      }
+
+      byte[] name = new byte[length];
+
+      buffer.get(name);
+
+      ComponentType type = componentTypes[i];
+
+      if (kind != type.getKind().ordinal() || width != type.getWidth()
+          || !type.getName().equals(new String(name, StandardCharsets.UTF_8))) {
+
+        logger.error("Snapshot not restored! Component type {} doesn't match '{}'.", i, type);
+        return false;
+
+      }
+
+    }
+
+    return true;
+
+  }
+
+  /*
+   * Checks the archetypes and the entities of a snapshot against the rest of the buffer and
+   * the limits of the world without reading them.
+   */
+  private boolean checkContent(ByteBuffer buffer) {
+
+    long registered = componentTypeCount == MAX_COMPONENT_TYPES ? -1
+        : (1L << componentTypeCount) - 1;
+    int count = buffer.remaining() < Integer.BYTES ? -1 : buffer.getInt();
+
+    if (count < 0 || count > buffer.remaining() / (Long.BYTES + Integer.BYTES)) {
+      return corrupted("archetype count " + count);
+    }
+
+    long[] masks = new long[count];
+    int[] sizes = new int[count];
+    long total = 0;
+
+    for (int i = 0; i < count; i++) {
+
+      if (buffer.remaining() < Long.BYTES + Integer.BYTES) return corrupted("archetype " + i);
+
+      masks[i] = buffer.getLong();
+      sizes[i] = buffer.getInt();
+
+      if ((masks[i] & ~registered) != 0) return corrupted("mask of archetype " + i);
+
+      for (int j = 0; j < i; j++) {
+        if (masks[j] == masks[i]) return corrupted("mask of archetype " + i);
+      }
+
+      long rowSize = Integer.BYTES;
+
+      for (int j = 0; j < componentTypeCount; j++) {
+        if ((masks[i] & componentTypes[j].getMask()) != 0) {
+          rowSize += (long) componentTypes[j].getWidth() * Integer.BYTES;
+        }
+      }
+
+      if (sizes[i] < 0 || sizes[i] > MAX_ENTITIES
+          || sizes[i] * rowSize > buffer.remaining()) {
+        return corrupted("size of archetype " + i);
+      }
+
+      buffer.position(buffer.position() + (int) (sizes[i] * rowSize));
+      total += sizes[i];
+
+    }
+
+    if (buffer.remaining() < 3 * Integer.BYTES) return corrupted("entity table");
+
+    final int indices = buffer.getInt();
+    final int free = buffer.getInt();
+    final int alive = buffer.getInt();
+
+    if (indices < 0 || indices > MAX_ENTITIES || free < 0 || free > indices
+        || alive != total || alive + free != indices
+        || buffer.remaining() != (3L * indices + free) * Integer.BYTES) {
+      return corrupted("entity counts");
+    }
+
+    final int start = buffer.position();
+
+    for (int i = 0; i < indices; i++) {
+
+      int archetype = buffer.getInt(start + (indices + i) * Integer.BYTES);
+      int slot = buffer.getInt(start + (2 * indices + i) * Integer.BYTES);
+
+      if (archetype < -1 || archetype >= count
+          || archetype >= 0 && (slot < 0 || slot >= sizes[archetype])) {
+        return corrupted("entity " + i);
+      }
+
+    }
+
+    for (int i = 0; i < free; i++) {
+
+      int index = buffer.getInt(start + (3 * indices + i) * Integer.BYTES);
+
+      if (index < 0 || index >= indices) return corrupted("free entity " + i);
+
+    }
+
+    return true;
+
+  }
+
+  private static boolean corrupted(String part) {
+
+    logger.error("Snapshot not restored! Corrupted {}.", part);
+    return false;
+
+  }
+
+  private Archetype findArchetype(long mask) {
+
+    for (int i = 0; i < archetypes.size(); i++) {
+      if (archetypes.get(i).getMask() == mask) return archetypes.get(i);
+    }
+
+    return createArchetype(mask);
+
+  }
+
+  private Archetype createArchetype(long mask) {
+
+    ComponentType[] types = new ComponentType[Long.bitCount(mask)];
+    int count = 0;
+
+    for (int i = 0; i < componentTypeCount; i++) {
+      if ((mask & componentTypes[i].getMask()) != 0) types[count++] = componentTypes[i];
+    }
+
+    Archetype archetype = new Archetype(archetypes.size(), mask, types);
+    archetypes.add(archetype);
+
+    return archetype;
+
+  }
+
+  private void move(int entity, Archetype from, Archetype to) {
+
+    int index = entity & INDEX_MASK;
+    int fromSlot = slotOf[index];
+    int toSlot = to.allocate(entity);
+
+    from.chunkOf(fromSlot).copyRow(Archetype.rowOf(fromSlot), to.chunkOf(toSlot),
+        Archetype.rowOf(toSlot));
+    removeFromArchetype(from, fromSlot);
+
+    archetypeOf[index] = to.getIndex();
+    slotOf[index] = toSlot;
+
+  }
+
+  private void removeFromArchetype(Archetype archetype, int slot) {
+
+    int moved = archetype.remove(slot);
+
+    if (moved != NULL) slotOf[moved & INDEX_MASK] = slot;
+
+  }
+
+  private boolean checkStructural(int entity, String message) {
+
+    if (iterating.get() > 0) {
+
+      logger.error("{} Use the command buffer while iterating.", message);
+      return false;
+
+    }
+
+    if (!isAlive(entity)) {
+
+      logger.error("{} Entity {} isn't alive.", message, entity);
+      return false;
+
+    }
+
+    return true;
+
+  }
+
+  private boolean checkComponent(int entity, ComponentType type) {
+
+    if (!has(entity, type)) {
+
+      logger.error("Component not set! Entity {} doesn't have '{}'.", entity, type);
+      return false;
+
+    }
+
+    return true;
+
+  }
+
+  private void grow() {
+
+    int capacity = Math.min(generations.length * 2, MAX_ENTITIES);
+
+    generations = Arrays.copyOf(generations, capacity);
+    archetypeOf = Arrays.copyOf(archetypeOf, capacity);
+    slotOf = Arrays.copyOf(slotOf, capacity);
+    freeIndices = Arrays.copyOf(freeIndices, capacity);
+
+  }
+
+}
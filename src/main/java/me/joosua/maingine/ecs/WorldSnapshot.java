@@ -0,0 +1,312 @@
+package me.joosua.maingine.ecs;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import me.joosua.maingine.memory.Memory;
+import me.joosua.maingine.memory.MemoryTag;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.lwjgl.system.MemoryUtil;
+
+/**
+ * <p>WorldSnapshot is the whole state of a {@link World} saved to native memory.</p>
+ *
+ * <p>A snapshot holds the component types of the world as its schema, the entities and
+ * every component of every archetype. The components are stored column by column as in
+ * the chunks, so capturing and restoring are bulk copies between the arrays and the
+ * snapshot. A snapshot can be restored to the world it was captured from, like for
+ * rollback, or to another world with the same component types registered in the same
+ * order, like when loading a save game.</p>
+ *
+ * <p>Snapshots can be written to files with a {@link SnapshotWriter} and the changes
+ * between two snapshots encoded with {@link SnapshotDelta}. The values are stored in the
+ * byte order of the machine, so snapshots can't be read on machines of the other
+ * order.</p>
+ *
+ * <p>The memory must be freed with {@link #free()} once no longer needed.</p>
+ *
+ * @since 0.0.5
+ */
+public final class WorldSnapshot {
+
+  private static final Logger logger = LogManager.getLogger(WorldSnapshot.class);
+
+  static final int MAGIC = 0x504E534D;
+  static final int VERSION = 1;
+  static final int HEADER_SIZE = 16;
+
+  private static final long HASH_PRIME = 0xC2B2AE3D27D4EB4FL;
+  private static final long HASH_MULTIPLIER = 0x9E3779B185EBCA87L;
+
+  private ByteBuffer data;
+  private long checksum;
+  private boolean summed;
+
+  WorldSnapshot(ByteBuffer data) {
+
+    this.data = data;
+
+  }
+
+  /**
+   * <p>Capture the state of a world.</p>
+   *
+   * <p>This should be called between updates, when no systems are running.</p>
+   *
+   * @param world The world
+   * @return The snapshot or <code>NULL</code> if it couldn't be allocated.
+   * @see #capture(World, WorldSnapshot)
+   * @since 0.0.5
+   */
+  public static WorldSnapshot capture(World world) {
+
+    return capture(world, null);
+
+  }
+
+  /**
+   * <p>Capture the state of a world into the memory of an old snapshot.</p>
+   *
+   * <p>Touching fresh memory costs more than copying the state, so snapshots captured
+   * often, like every tick for rollback, should reuse the memory of the oldest one. The
+   * old snapshot is overwritten if it's large enough and freed otherwise.</p>
+   *
+   * @param world The world
+   * @param old Snapshot which is no longer needed or <code>NULL</code>
+   * @return The snapshot or <code>NULL</code> if it couldn't be allocated.
+   * @since 0.0.5
+   */
+  public static WorldSnapshot capture(World world, WorldSnapshot old) {
+
+    long size = HEADER_SIZE + world.getSnapshotSize();
+
+    if (old != null && old.data != null && old.data.capacity() < size) old.free();
+
+    if (size > Integer.MAX_VALUE) {
+      logger.error("Snapshot not captured! {} bytes is too large.", size);
+      return null;
+    }
+
+    ByteBuffer data = old != null && old.data != null ? old.data.clear()
+        : Memory.mallocBuffer((int) size, MemoryTag.SNAPSHOTS);
+
+    if (data == null) return null;
+
+    data.order(ByteOrder.nativeOrder()).limit((int) size);
+    data.putInt(MAGIC).putInt(VERSION).putLong(size);
+    world.writeSnapshot(data);
+    data.flip();
+
+    if (old == null || old.data != data) return new WorldSnapshot(data);
+
+    old.summed = false;
+
+    return old;
+
+  }
+
+  /**
+   * <p>Read a snapshot written to a file.</p>
+   *
+   * @param file The file
+   * @return The snapshot
+   * @throws IOException If the file couldn't be read or isn't a snapshot
+   * @since 0.0.5
+   */
+  public static WorldSnapshot read(Path file) throws IOException {
+
+    ByteBuffer data = readFile(file);
+
+    if (data.remaining() < HEADER_SIZE || data.getInt(0) != MAGIC
+        || data.getInt(4) != VERSION || data.getLong(8) != data.remaining()) {
+
+      Memory.freeBuffer(data, MemoryTag.SNAPSHOTS);
+      throw new IOException("Not a snapshot of version " + VERSION + ": " + file);
+
+    }
+
+    return new WorldSnapshot(data);
+
+  }
+
+  /**
+   * <p>Restore the state of a world from the snapshot.</p>
+   *
+   * <p>Every entity and component of the world is replaced. Commands recorded before
+   * restoring are still played back on the next update. This must not be called while
+   * the world is being updated.</p>
+   *
+   * <p>The whole snapshot is checked before anything is replaced, so the world is left as
+   * it was if the snapshot doesn't match or is corrupted.</p>
+   *
+   * @param world The world
+   * @return Whether the snapshot was restored.
+   * @since 0.0.5
+   */
+  public boolean restore(World world) {
+
+    ByteBuffer buffer = data.duplicate().order(ByteOrder.nativeOrder());
+
+    buffer.position(HEADER_SIZE);
+
+    try {
+      return world.readSnapshot(buffer);
+    } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+      logger.error("Snapshot not restored! It's corrupted: {}", e.toString());
+      return false;
+    }
+
+  }
+
+  /**
+   * <p>Get the content of the snapshot.</p>
+   *
+   * @return Read-only view of the content
+   * @since 0.0.5
+   */
+  public ByteBuffer getData() {
+
+    return data.asReadOnlyBuffer().order(ByteOrder.nativeOrder());
+
+  }
+
+  /**
+   * <p>Get the size of the snapshot.</p>
+   *
+   * @return Size in bytes
+   * @since 0.0.5
+   */
+  public int getSize() {
+
+    return data.remaining();
+
+  }
+
+  /**
+   * <p>Free the memory of the snapshot.</p>
+   *
+   * <p>Nothing is done if it has already been freed.</p>
+   *
+   * @since 0.0.5
+   */
+  public void free() {
+
+    Memory.freeBuffer(data, MemoryTag.SNAPSHOTS);
+    data = null;
+
+  }
+
+  ByteBuffer getBuffer() {
+
+    return data;
+
+  }
+
+  /*
+   * Hash of the content, computed once as the content doesn't change.
+   */
+  long getChecksum() {
+
+    if (!summed) {
+      checksum = hash(MemoryUtil.memAddress(data), data.remaining());
+      summed = true;
+    }
+
+    return checksum;
+
+  }
+
+  static void putInts(ByteBuffer buffer, int[] values, int length) {
+
+    buffer.asIntBuffer().put(values, 0, length);
+    buffer.position(buffer.position() + length * Integer.BYTES);
+
+  }
+
+  static void getInts(ByteBuffer buffer, int[] values, int length) {
+
+    buffer.asIntBuffer().get(values, 0, length);
+    buffer.position(buffer.position() + length * Integer.BYTES);
+
+  }
+
+  static void putFloats(ByteBuffer buffer, float[] values, int length) {
+
+    buffer.asFloatBuffer().put(values, 0, length);
+    buffer.position(buffer.position() + length * Float.BYTES);
+
+  }
+
+  static void getFloats(ByteBuffer buffer, float[] values, int length) {
+
+    buffer.asFloatBuffer().get(values, 0, length);
+    buffer.position(buffer.position() + length * Float.BYTES);
+
+  }
+
+  private static long hash(long address, int length) {
+
+    long first = 0x9E3779B97F4A7C15L;
+    long second = 0xC2B2AE3D27D4EB4FL;
+    long third = 0x165667B19E3779F9L;
+    long fourth = 0x27D4EB2F165667C5L;
+    int i = 0;
+
+    // Four independent lanes like in xxHash, so the multiplications overlap
+    for (; i + 4 * Long.BYTES <= length; i += 4 * Long.BYTES) {
+      first = round(first, MemoryUtil.memGetLong(address + i));
+      second = round(second, MemoryUtil.memGetLong(address + i + 8));
+      third = round(third, MemoryUtil.memGetLong(address + i + 16));
+      fourth = round(fourth, MemoryUtil.memGetLong(address + i + 24));
+    }
+
+    long hash = Long.rotateLeft(first, 1) + Long.rotateLeft(second, 7)
+        + Long.rotateLeft(third, 12) + Long.rotateLeft(fourth, 18) + length;
+
+    for (; i < length; i++) {
+      hash = (hash ^ MemoryUtil.memGetByte(address + i)) * HASH_PRIME;
+    }
+
+    return hash ^ hash >>> 29;
+
+  }
+
+  private static long round(long lane, long value) {
+
+    return Long.rotateLeft(lane + value * HASH_PRIME, 31) * HASH_MULTIPLIER;
+
+  }
+
+  static ByteBuffer readFile(Path file) throws IOException {
+
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+
+      if (channel.size() > Integer.MAX_VALUE) throw new IOException("Too large: " + file);
+
+      ByteBuffer data = Memory.mallocBuffer((int) channel.size(), MemoryTag.SNAPSHOTS);
+
+      if (data == null) throw new IOException("Out of memory reading " + file);
+
+      try {
+
+        while (data.hasRemaining()) {
+          if (channel.read(data) < 0) throw new IOException("Truncated: " + file);
+        }
+
+      } catch (IOException e) {
+        Memory.freeBuffer(data, MemoryTag.SNAPSHOTS);
+        throw e;
+      }
+
+      return data.flip().order(ByteOrder.nativeOrder());
+
+    }
+
+  }
+
+}
@@ -1,11 +1,35 @@
 package me.joosua.maingine.engine;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import me.joosua.maingine.asset.ArchiveSource;
+import me.joosua.maingine.asset.AssetManager;
+import me.joosua.maingine.asset.AssetMemory;
+import me.joosua.maingine.asset.AssetSource;
+import me.joosua.maingine.asset.AssetWatcher;
+import me.joosua.maingine.asset.DirectorySource;
+import me.joosua.maingine.audio.AudioMixer;
+import me.joosua.maingine.ecs.SystemScheduler;
+import me.joosua.maingine.engine.event.EventBus;
 import me.joosua.maingine.engine.gamestate.GameState;
 import me.joosua.maingine.engine.gamestate.GameStateManager;
+import me.joosua.maingine.engine.stats.AllocationMonitor;
+import me.joosua.maingine.engine.stats.CpuPhase;
+import me.joosua.maingine.engine.stats.EngineStats;
 import me.joosua.maingine.glfw.window.Window;
+import me.joosua.maingine.graphics.FramePacer;
+import me.joosua.maingine.graphics.GpuProfiler;
+import me.joosua.maingine.graphics.command.RenderCommandBuffer;
+import me.joosua.maingine.graphics.command.RenderStateBinder;
+import me.joosua.maingine.graphics.shader.ShaderManager;
+import me.joosua.maingine.memory.LinearArena;
+import me.joosua.maingine.memory.MemoryTag;
 import me.joosua.maingine.settings.EngineSettings;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.util.Unbox;
 import org.lwjgl.glfw.GLFW;
 
 /**
@@ -26,6 +50,30 @@ public class Engine {
 
   private GameStateManager gameStateManager;
 
+  private RenderCommandBuffer renderCommandBuffer = new RenderCommandBuffer();
+  private RenderStateBinder renderStateBinder;
+
+  private static final int STATS_LOG_INTERVAL = 10;
+
+  private EngineStats stats = new EngineStats();
+  private AllocationMonitor allocationMonitor = new AllocationMonitor();
+  private long frameAllocationStart;
+  private GpuProfiler gpuProfiler;
+  private FramePacer framePacer;
+  private ShaderManager shaderManager;
+  private Path shaderCacheDirectory;
+
+  private SystemScheduler systemScheduler;
+
+  private EventBus eventBus;
+
+  private AssetManager assetManager;
+  private AssetWatcher assetWatcher;
+
+  private AudioMixer audioMixer;
+
+  private LinearArena frameArena = new LinearArena(1024 * 1024, MemoryTag.FRAME);
+
   private boolean closeRequested;
 
   private int fps = 0;
@@ -56,6 +104,30 @@ public class Engine {
     setTargetFps(settings.getTargetFps());
     setTargetUps(settings.getTargetUps());
 
+    framePacer = new FramePacer(settings.getMaxFramesInFlight());
+
+    // The GPU profiler and the shader manager need the OpenGL context, so they're created
+    // on the render thread once used
+    String shaderCache = settings.getShaderCacheDirectory();
+    shaderCacheDirectory = shaderCache != null ? Paths.get(shaderCache) : null;
+
+    systemScheduler = new SystemScheduler(settings.getSystemThreads());
+    systemScheduler.setDeterministic(settings.isDeterministicSystems());
+
+    eventBus = new EventBus(settings.getEventCapacity());
+
+    assetManager = new AssetManager(createAssetSource(settings.getAssetDirectory()),
+        settings.getAssetThreads());
+
+    for (AssetMemory memory : AssetMemory.values()) {
+      assetManager.getCache().setBudget(memory, settings.getAssetBudget(memory));
+    }
+
+    if (settings.isAssetHotReload()) watchAssets();
+
+    audioMixer = new AudioMixer(settings.getAudioVoices(), settings.isAudioHeadless());
+    audioMixer.start();
+
     logger.info("The engine has been initialized");
 
   }
@@ -72,6 +144,8 @@ public class Engine {
 
     logger.info("Starting the engine");
 
+    createGraphics();
+
     double refreshTimer = 0;
 
     double deltaUps = 0;
@@ -79,7 +153,10 @@ public class Engine {
     int frames = 0;
     int ticks = 0;
 
+    int refreshes = 0;
+
     double initialTime = GLFW.glfwGetTime();
+    frameAllocationStart = allocationMonitor.getAllocatedBytes();
 
     gameloop:
     while (true) {
@@ -97,7 +174,9 @@ public class Engine {
       if (targetUpsTime > 0 && deltaUps >= 1) {
 
         processInput();
+        dispatchEvents();
         update(deltaUps * targetUpsTime);
+        dispatchEvents();
 
         if (closeRequested) break gameloop;
 
@@ -125,6 +204,12 @@ public class Engine {
         frames = 0;
         ticks = 0;
 
+        stats.refresh();
+
+        if (++refreshes % STATS_LOG_INTERVAL == 0) {
+          logger.info("FPS: {}, UPS: {}, {}", Unbox.box(fps), Unbox.box(ups), stats);
+        }
+
       }
 
     }
@@ -142,12 +227,93 @@ public class Engine {
    */
   private void processInput() {
 
+    final long allocated = allocationMonitor.getAllocatedBytes();
+    long start = System.nanoTime();
+
     window.pollEvents();
 
     if (window.isCloseRequested()) {
       closeRequested = true;
     }
 
+    addTiming(CpuPhase.INPUT, start);
+    addAllocations(CpuPhase.INPUT, allocated);
+
+  }
+
+  /**
+   * <p>Create the source of the assets.</p>
+   *
+   * <p>A packed archive is read if the path is a file, otherwise the files of the
+   * directory are read.</p>
+   *
+   * @param location Path of the asset directory or archive
+   * @return The source of the assets
+   * @since 0.0.5
+   */
+  private AssetSource createAssetSource(String location) {
+
+    Path path = Paths.get(location);
+
+    if (Files.isRegularFile(path)) {
+
+      try {
+        return new ArchiveSource(path);
+      } catch (IOException e) {
+        logger.error("Asset archive '{}' couldn't be opened: {}", path, e.getMessage());
+      }
+
+    }
+
+    return new DirectorySource(path);
+
+  }
+
+  /**
+   * <p>Start reloading the assets when their files change.</p>
+   *
+   * <p>The reloaded assets are swapped in when the asset manager is updated before the
+   * game state, so the game state never sees an asset being replaced.</p>
+   *
+   * @since 0.0.5
+   */
+  private void watchAssets() {
+
+    if (!(assetManager.getSource() instanceof DirectorySource)) {
+      logger.warn("Assets can be hot reloaded only from a directory");
+      return;
+    }
+
+    Path root = ((DirectorySource) assetManager.getSource()).getRoot();
+
+    try {
+      assetWatcher = new AssetWatcher(assetManager, root, AssetWatcher.DEFAULT_DEBOUNCE);
+      assetWatcher.start();
+    } catch (IOException e) {
+      logger.error("Asset directory '{}' couldn't be watched: {}", root, e.getMessage());
+    }
+
+  }
+
+  /**
+   * <p>Deliver the events published since the last dispatch.</p>
+   *
+   * <p>This is called after {@link #processInput()} for the events of the input and
+   * the other threads, and after {@link #update(double)} for the events of the game
+   * state before rendering.</p>
+   *
+   * @since 0.0.5
+   */
+  private void dispatchEvents() {
+
+    final long allocated = allocationMonitor.getAllocatedBytes();
+    long start = System.nanoTime();
+
+    eventBus.dispatch();
+
+    addTiming(CpuPhase.EVENTS, start);
+    addAllocations(CpuPhase.EVENTS, allocated);
+
   }
 
   /**
@@ -160,22 +326,157 @@ public class Engine {
    */
   private void update(double delta) {
 
-    gameStateManager.update(delta);
+    final long allocated = allocationMonitor.getAllocatedBytes();
+    long start = System.nanoTime();
+
+    assetManager.update();
+    gameStateManager.update(delta, systemScheduler);
+
+    addTiming(CpuPhase.UPDATE, start);
+    addAllocations(CpuPhase.UPDATE, allocated);
 
   }
 
   /**
    * <p>Render to screen.</p>
    *
+   * <p>Commands recorded to the render command buffer during the game state's render
+   * are sorted and executed before the buffers are swapped.</p>
+   *
+   * <p>Rendering waits first until a frame can be started without exceeding the frames
+   * in flight. Each phase is timed on the CPU and the game state's render and the
+   * commands also on the GPU. The frame arena is reset at the end.</p>
+   *
    * <p>This should be called after {@link #update(double)}.</p>
    *
    * @since 0.0.3
    */
   private void render() {
 
+    final long allocated = allocationMonitor.getAllocatedBytes();
+
+    stats.getCpuTiming(CpuPhase.WAIT).add(framePacer.awaitFrame());
+
+    gpuProfiler.beginFrame();
+    gpuProfiler.begin("render");
+
+    long time = System.nanoTime();
+
     gameStateManager.render();
 
+    gpuProfiler.end();
+    time = addTiming(CpuPhase.RENDER, time);
+    gpuProfiler.begin("commands");
+
+    renderCommandBuffer.sort();
+    renderCommandBuffer.execute(renderStateBinder);
+    renderCommandBuffer.clear();
+
+    gpuProfiler.end();
+    time = addTiming(CpuPhase.COMMANDS, time);
+
     window.render();
+    framePacer.frameSubmitted();
+
+    addTiming(CpuPhase.SWAP, time);
+
+    gpuProfiler.endFrame();
+    window.getStateCache().endFrame();
+
+    frameArena.reset();
+
+    addAllocations(CpuPhase.RENDER, allocated);
+    addFrameStatistics();
+
+  }
+
+  /**
+   * <p>Add the time passed since the start of a phase to its timing.</p>
+   *
+   * @param phase The phase ended
+   * @param start Start time of the phase from {@link System#nanoTime()}
+   * @return End time of the phase, which is also the start time of the next one
+   * @since 0.0.5
+   */
+  private long addTiming(CpuPhase phase, long start) {
+
+    long end = System.nanoTime();
+
+    stats.getCpuTiming(phase).add(end - start);
+
+    return end;
+
+  }
+
+  /**
+   * <p>Add the heap allocated since the start of a phase to its allocations.</p>
+   *
+   * @param phase The phase ended
+   * @param start Allocated bytes at the start of the phase
+   * @since 0.0.5
+   */
+  private void addAllocations(CpuPhase phase, long start) {
+
+    stats.getAllocations(phase).add(allocationMonitor.getAllocatedSince(start));
+
+  }
+
+  /**
+   * <p>Add the allocations of the frame and the garbage collections during it.</p>
+   *
+   * @since 0.0.5
+   */
+  private void addFrameStatistics() {
+
+    stats.getFrameAllocations().add(allocationMonitor.getAllocatedSince(frameAllocationStart));
+    frameAllocationStart = allocationMonitor.getAllocatedBytes();
+
+    int collections = allocationMonitor.takeGcCount();
+
+    stats.getGcFrames().add(collections > 0 ? 1 : 0);
+
+    if (collections > 0) stats.getGcPauses().add(allocationMonitor.takeGcTime());
+
+  }
+
+  /**
+   * <p>Create the parts of the engine needing the OpenGL context.</p>
+   *
+   * <p>Nothing is done for the parts already created. This must be called from the
+   * thread owning the context.</p>
+   *
+   * @since 0.0.5
+   */
+  private void createGraphics() {
+
+    if (gpuProfiler == null) gpuProfiler = new GpuProfiler(stats, 64);
+    if (shaderManager == null) shaderManager = new ShaderManager(shaderCacheDirectory);
+
+  }
+
+  /**
+   * <p>Free the resources owned by the engine.</p>
+   *
+   * <p>This should only be called after the engine has stopped running.</p>
+   *
+   * @since 0.0.5
+   */
+  public void destroy() {
+
+    renderCommandBuffer.free();
+    framePacer.destroy();
+    frameArena.free();
+    allocationMonitor.destroy();
+    systemScheduler.shutdown();
+
+    if (gpuProfiler != null) gpuProfiler.destroy();
+    if (shaderManager != null) shaderManager.destroy();
+
+    if (assetWatcher != null) assetWatcher.stop();
+
+    // Unloaded sounds are deleted by the mixer, so it's destroyed last
+    assetManager.destroy();
+    audioMixer.destroy();
 
   }
 
@@ -232,6 +533,208 @@ public class Engine {
 
   }
 
+  /**
+   * <p>Get the render command buffer of the engine.</p>
+   *
+   * <p>Commands recorded here in {@link GameState#render()} are sorted and executed
+   * by the engine after the game state has finished rendering.</p>
+   *
+   * @return The render command buffer
+   * @see #setRenderStateBinder(RenderStateBinder)
+   * @since 0.0.5
+   */
+  public RenderCommandBuffer getRenderCommandBuffer() {
+
+    return renderCommandBuffer;
+
+  }
+
+  /**
+   * <p>Set the binder used for the state in render command sort keys.</p>
+   *
+   * <p>Binder is called only when the shader or the material changes between
+   * the sorted commands. <code>NULL</code> disables binding.</p>
+   *
+   * @param binder The binder to be used or <code>NULL</code>
+   * @see #getRenderCommandBuffer()
+   * @since 0.0.5
+   */
+  public void setRenderStateBinder(RenderStateBinder binder) {
+
+    this.renderStateBinder = binder;
+
+  }
+
+  /**
+   * <p>Get the metrics of the engine.</p>
+   *
+   * <p>The timings and the heap allocations are averaged over a second and refreshed
+   * together with the FPS. A summary is also logged every {@value #STATS_LOG_INTERVAL}
+   * seconds.</p>
+   *
+   * @return The engine statistics
+   * @see #getGpuProfiler()
+   * @since 0.0.5
+   */
+  public EngineStats getStats() {
+
+    return stats;
+
+  }
+
+  /**
+   * <p>Get the frame arena of the engine.</p>
+   *
+   * <p>Native memory allocated from the arena is valid until the end of the current
+   * frame's rendering. This is meant for scratch buffers on the engine's thread.</p>
+   *
+   * @return The frame arena
+   * @since 0.0.5
+   */
+  public LinearArena getFrameArena() {
+
+    return frameArena;
+
+  }
+
+  /**
+   * <p>Get the GPU profiler of the engine.</p>
+   *
+   * <p>Game states can time their own render passes by calling
+   * {@link GpuProfiler#begin(String)} and {@link GpuProfiler#end()} in
+   * {@link GameState#render()}. The results appear in {@link #getStats()}.</p>
+   *
+   * <p>The profiler is created on first use, so this must be called from the thread
+   * owning the OpenGL context.</p>
+   *
+   * @return The GPU profiler
+   * @since 0.0.5
+   */
+  public GpuProfiler getGpuProfiler() {
+
+    createGraphics();
+
+    return gpuProfiler;
+
+  }
+
+  /**
+   * <p>Get the shader manager of the engine.</p>
+   *
+   * <p>Linked programs are cached to the shader cache directory of the engine
+   * settings.</p>
+   *
+   * <p>The manager is created on first use, so this must be called from the thread
+   * owning the OpenGL context.</p>
+   *
+   * @return The shader manager
+   * @since 0.0.5
+   */
+  public ShaderManager getShaderManager() {
+
+    createGraphics();
+
+    return shaderManager;
+
+  }
+
+  /**
+   * <p>Get the scheduler running the systems of the game state manager's world.</p>
+   *
+   * <p>Systems run on its worker threads during the update step, or one by one in order
+   * if it's set to be deterministic.</p>
+   *
+   * @return The system scheduler
+   * @since 0.0.5
+   */
+  public SystemScheduler getSystemScheduler() {
+
+    return systemScheduler;
+
+  }
+
+  /**
+   * <p>Get the asset manager of the engine.</p>
+   *
+   * <p>Assets are loaded from the asset directory of the engine settings on worker
+   * threads. Loaded assets are finished and their callbacks called before every update
+   * of the game state.</p>
+   *
+   * @return The asset manager
+   * @since 0.0.5
+   */
+  public AssetManager getAssetManager() {
+
+    return assetManager;
+
+  }
+
+  /**
+   * <p>Get the audio mixer of the engine.</p>
+   *
+   * <p>Sounds and streams are played on the audio thread, so they keep playing smoothly
+   * when a frame takes longer. Commands can be sent to the mixer from any thread.</p>
+   *
+   * @return The audio mixer
+   * @see me.joosua.maingine.audio.SoundLoader
+   * @since 0.0.5
+   */
+  public AudioMixer getAudioMixer() {
+
+    return audioMixer;
+
+  }
+
+  /**
+   * <p>Get the event bus of the engine.</p>
+   *
+   * <p>Events can be published to it from any thread and are delivered on the engine
+   * thread after the input is polled and after the game state is updated.</p>
+   *
+   * @return The event bus
+   * @since 0.0.5
+   */
+  public EventBus getEventBus() {
+
+    return eventBus;
+
+  }
+
+  /**
+   * <p>Set the amount of frames the CPU can run ahead of the GPU.</p>
+   *
+   * <p>Fewer frames lower the input latency and more frames raise the throughput.
+   * Time spent waiting for the GPU is reported in {@link #getStats()}.</p>
+   *
+   * @param frames Amount of frames in flight, clamped between <code>1</code> and
+   *     <code>3</code>
+   * @see #getMaxFramesInFlight()
+   * @since 0.0.5
+   */
+  public void setMaxFramesInFlight(int frames) {
+
+    if (frames < FramePacer.MIN_FRAMES_IN_FLIGHT || frames > FramePacer.MAX_FRAMES_IN_FLIGHT) {
+      logger.warn("Frames in flight must be between {} and {}, {} was given",
+          FramePacer.MIN_FRAMES_IN_FLIGHT, FramePacer.MAX_FRAMES_IN_FLIGHT, frames);
+    }
+
+    framePacer.setMaxFramesInFlight(frames);
+
+  }
+
+  /**
+   * <p>Get the amount of frames the CPU can run ahead of the GPU.</p>
+   *
+   * @return Amount of frames in flight
+   * @see #setMaxFramesInFlight(int)
+   * @since 0.0.5
+   */
+  public int getMaxFramesInFlight() {
+
+    return framePacer.getMaxFramesInFlight();
+
+  }
+
   /**
    * <p>Set the target FPS.</p>
    *
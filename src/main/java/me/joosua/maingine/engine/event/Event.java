@@ -0,0 +1,202 @@
+package me.joosua.maingine.engine.event;
+
+/**
+ * <p>Event is a preallocated slot of an {@link EventBus}.</p>
+ *
+ * <p>An event carries its type, {@link #SIZE} primitive values and one object reference.
+ * The values are stored as longs, so an int, float or double set to an index must be read
+ * back with the getter of the same kind. The slots are reused, so publishing an event
+ * doesn't allocate and an event must not be kept after it's published or handled.</p>
+ *
+ * @since 0.0.5
+ */
+public final class Event {
+
+  /**
+   * <p>The amount of primitive values in an event.</p>
+   *
+   * @since 0.0.5
+   */
+  public static final int SIZE = 4;
+
+  private final long[] values = new long[SIZE];
+
+  private EventType type;
+  private Object object;
+
+  // Position of the slot in the ring, set when claimed
+  long sequence;
+
+  Event() {
+
+  }
+
+  /**
+   * <p>Get the type of the event.</p>
+   *
+   * @return The type
+   * @since 0.0.5
+   */
+  public EventType getType() {
+
+    return type;
+
+  }
+
+  /**
+   * <p>Set a value to a long.</p>
+   *
+   * @param index Index of the value
+   * @param value The value
+   * @return This event
+   * @since 0.0.5
+   */
+  public Event setLong(int index, long value) {
+
+    values[index] = value;
+
+    return this;
+
+  }
+
+  /**
+   * <p>Get a value as a long.</p>
+   *
+   * @param index Index of the value
+   * @return The value
+   * @since 0.0.5
+   */
+  public long getLong(int index) {
+
+    return values[index];
+
+  }
+
+  /**
+   * <p>Set a value to an int.</p>
+   *
+   * @param index Index of the value
+   * @param value The value
+   * @return This event
+   * @since 0.0.5
+   */
+  public Event setInt(int index, int value) {
+
+    values[index] = value;
+
+    return this;
+
+  }
+
+  /**
+   * <p>Get a value as an int.</p>
+   *
+   * @param index Index of the value
+   * @return The value
+   * @since 0.0.5
+   */
+  public int getInt(int index) {
+
+    return (int) values[index];
+
+  }
+
+  /**
+   * <p>Set a value to a double.</p>
+   *
+   * @param index Index of the value
+   * @param value The value
+   * @return This event
+   * @since 0.0.5
+   */
+  public Event setDouble(int index, double value) {
+
+    values[index] = Double.doubleToRawLongBits(value);
+
+    return this;
+
+  }
+
+  /**
+   * <p>Get a value as a double.</p>
+   *
+   * @param index Index of the value
+   * @return The value
+   * @since 0.0.5
+   */
+  public double getDouble(int index) {
+
+    return Double.longBitsToDouble(values[index]);
+
+  }
+
+  /**
+   * <p>Set a value to a float.</p>
+   *
+   * @param index Index of the value
+   * @param value The value
+   * @return This event
+   * @since 0.0.5
+   */
+  public Event setFloat(int index, float value) {
+
+    values[index] = Float.floatToRawIntBits(value);
+
+    return this;
+
+  }
+
+  /**
+   * <p>Get a value as a float.</p>
+   *
+   * @param index Index of the value
+   * @return The value
+   * @since 0.0.5
+   */
+  public float getFloat(int index) {
+
+    return Float.intBitsToFloat((int) values[index]);
+
+  }
+
+  /**
+   * <p>Set the object of the event.</p>
+   *
+   * <p>The reference is cleared once the event is handled.</p>
+   *
+   * @param object The object, like the source of the event
+   * @return This event
+   * @since 0.0.5
+   */
+  public Event setObject(Object object) {
+
+    this.object = object;
+
+    return this;
+
+  }
+
+  /**
+   * <p>Get the object of the event.</p>
+   *
+   * @return The object or <code>NULL</code> if not set
+   * @since 0.0.5
+   */
+  public Object getObject() {
+
+    return object;
+
+  }
+
+  void reset(EventType type) {
+
+    this.type = type;
+    this.object = null;
+
+    for (int i = 0; i < SIZE; i++) {
+      values[i] = 0;
+    }
+
+  }
+
+}
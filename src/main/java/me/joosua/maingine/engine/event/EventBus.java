@@ -0,0 +1,330 @@
+package me.joosua.maingine.engine.event;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import me.joosua.maingine.utils.SlotRing;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.util.Unbox;
+
+/**
+ * <p>EventBus delivers events from any thread to the listeners on the engine thread.</p>
+ *
+ * <p>Events are published to a ring of preallocated {@link Event}s and handled later when
+ * the bus is dispatched, which the engine does after polling the input and after updating
+ * the game state. Publishing claims a slot, sets its values and publishes it:</p>
+ *
+ * <pre>
+ * Event event = bus.claim(resized);
+ * if (event != null) bus.publish(event.setInt(0, width).setInt(1, height));
+ * </pre>
+ *
+ * <p>Publishing is lock-free and can be done from many threads at once. When the ring is
+ * full the event is dropped and counted, see {@link #getDroppedCount()}. Registering,
+ * subscribing and dispatching are done on the engine thread. Publishing and dispatching
+ * don't allocate, subscribing copies the listeners of the type.</p>
+ *
+ * <p>Events published by the listeners during a dispatch are handled on the next
+ * dispatch.</p>
+ *
+ * @since 0.0.5
+ */
+public class EventBus {
+
+  private static final Logger logger = LogManager.getLogger(EventBus.class);
+
+  private static final EventListener[] NO_LISTENERS = new EventListener[0];
+
+  private final SlotRing<Event> ring;
+
+  private EventType[] types = new EventType[16];
+  private EventListener[][] listeners = new EventListener[16][];
+  private int typeCount;
+
+  private final AtomicLong dropped = new AtomicLong();
+  private long reportedDropped;
+
+  /**
+   * <p>Create an event bus.</p>
+   *
+   * @param capacity Amount of events that can wait for a dispatch, rounded up to a power
+   *     of two
+   * @since 0.0.5
+   */
+  public EventBus(int capacity) {
+
+    ring = new SlotRing<>(capacity, Event::new);
+
+  }
+
+  /**
+   * <p>Register an event type.</p>
+   *
+   * @param name Name of the type
+   * @return The type
+   * @since 0.0.5
+   */
+  public EventType register(String name) {
+
+    if (typeCount == types.length) {
+      types = Arrays.copyOf(types, typeCount * 2);
+      listeners = Arrays.copyOf(listeners, typeCount * 2);
+    }
+
+    EventType type = new EventType(typeCount, name);
+
+    types[typeCount] = type;
+    listeners[typeCount] = NO_LISTENERS;
+    typeCount++;
+
+    return type;
+
+  }
+
+  /**
+   * <p>Get a registered event type by its id.</p>
+   *
+   * @param id Id of the type
+   * @return The type or <code>NULL</code> if not registered.
+   * @since 0.0.5
+   */
+  public EventType getEventType(int id) {
+
+    return id >= 0 && id < typeCount ? types[id] : null;
+
+  }
+
+  /**
+   * <p>Subscribe a listener to the events of a type.</p>
+   *
+   * @param type The type
+   * @param listener The listener
+   * @return Whether the listener was subscribed.
+   * @since 0.0.5
+   */
+  public boolean subscribe(EventType type, EventListener listener) {
+
+    if (!isRegistered(type)) {
+      logger.error("Can't subscribe to event type {}, it's not registered to this bus", type);
+      return false;
+    }
+
+    EventListener[] old = listeners[type.getId()];
+    EventListener[] updated = Arrays.copyOf(old, old.length + 1);
+
+    updated[old.length] = listener;
+    listeners[type.getId()] = updated;
+
+    return true;
+
+  }
+
+  /**
+   * <p>Unsubscribe a listener from the events of a type.</p>
+   *
+   * @param type The type
+   * @param listener The listener
+   * @return Whether the listener was subscribed.
+   * @since 0.0.5
+   */
+  public boolean unsubscribe(EventType type, EventListener listener) {
+
+    if (!isRegistered(type)) return false;
+
+    EventListener[] old = listeners[type.getId()];
+
+    for (int i = 0; i < old.length; i++) {
+
+      if (old[i] != listener) continue;
+
+      EventListener[] updated = Arrays.copyOf(old, old.length - 1);
+
+      System.arraycopy(old, i + 1, updated, i, old.length - i - 1);
+      listeners[type.getId()] = updated;
+
+      return true;
+
+    }
+
+    return false;
+
+  }
+
+  /**
+   * <p>Claim an event to publish.</p>
+   *
+   * <p>The values of the event are zeroed. The event must be published with
+   * {@link #publish(Event)} as soon as its values are set, because the events after it
+   * aren't dispatched before it.</p>
+   *
+   * @param type Type of the event
+   * @return The event or <code>NULL</code> if the bus is full or the type isn't
+   *     registered.
+   * @since 0.0.5
+   */
+  public Event claim(EventType type) {
+
+    if (!isRegistered(type)) {
+      logger.error("Can't publish event type {}, it's not registered to this bus", type);
+      return null;
+    }
+
+    long position = ring.claim();
+
+    if (position == SlotRing.FULL) {
+      dropped.incrementAndGet();
+      return null;
+    }
+
+    Event event = ring.get(position);
+
+    event.sequence = position;
+    event.reset(type);
+
+    return event;
+
+  }
+
+  /**
+   * <p>Publish a claimed event.</p>
+   *
+   * @param event The event
+   * @since 0.0.5
+   */
+  public void publish(Event event) {
+
+    ring.publish(event.sequence);
+
+  }
+
+  /**
+   * <p>Publish an event without values.</p>
+   *
+   * @param type Type of the event
+   * @return Whether the event was published.
+   * @since 0.0.5
+   */
+  public boolean publish(EventType type) {
+
+    Event event = claim(type);
+
+    if (event == null) return false;
+
+    ring.publish(event.sequence);
+
+    return true;
+
+  }
+
+  /**
+   * <p>Publish an event with a single value.</p>
+   *
+   * @param type Type of the event
+   * @param value The first value of the event
+   * @return Whether the event was published.
+   * @since 0.0.5
+   */
+  public boolean publish(EventType type, long value) {
+
+    Event event = claim(type);
+
+    if (event == null) return false;
+
+    ring.publish(event.setLong(0, value).sequence);
+
+    return true;
+
+  }
+
+  /**
+   * <p>Deliver the published events to their listeners.</p>
+   *
+   * <p>The events are delivered in the order they were claimed. This is called by the
+   * engine, so it's only called manually when the bus is used without one.</p>
+   *
+   * @return Amount of events delivered
+   * @since 0.0.5
+   */
+  public int dispatch() {
+
+    final long end = ring.getTail();
+    int count = 0;
+
+    while (ring.getHead() < end) {
+
+      Event event = ring.peek();
+
+      // Not published yet, the rest is delivered on the next dispatch
+      if (event == null) break;
+
+      try {
+
+        EventListener[] targets = listeners[event.getType().getId()];
+
+        for (int i = 0; i < targets.length; i++) {
+          targets[i].onEvent(event);
+        }
+
+      } finally {
+        event.setObject(null);
+        ring.release();
+      }
+
+      count++;
+
+    }
+
+    long total = dropped.get();
+
+    if (total != reportedDropped) {
+      logger.warn("Event bus was full, {} events were dropped", Unbox.box(total - reportedDropped));
+      reportedDropped = total;
+    }
+
+    return count;
+
+  }
+
+  /**
+   * <p>Get the amount of events waiting for a dispatch.</p>
+   *
+   * @return Amount of events, including the ones claimed but not published yet
+   * @since 0.0.5
+   */
+  public int getPendingCount() {
+
+    return (int) (ring.getTail() - ring.getHead());
+
+  }
+
+  /**
+   * <p>Get the amount of events which were dropped because the bus was full.</p>
+   *
+   * @return Amount of events
+   * @since 0.0.5
+   */
+  public long getDroppedCount() {
+
+    return dropped.get();
+
+  }
+
+  /**
+   * <p>Get the amount of events that can wait for a dispatch.</p>
+   *
+   * @return Amount of events
+   * @since 0.0.5
+   */
+  public int getCapacity() {
+
+    return ring.capacity();
+
+  }
+
+  private boolean isRegistered(EventType type) {
+
+    return type != null && type.getId() < typeCount && types[type.getId()] == type;
+
+  }
+
+}
@@ -0,0 +1,22 @@
+package me.joosua.maingine.engine.event;
+
+/**
+ * <p>EventListener receives the events of the types it's subscribed to.</p>
+ *
+ * @since 0.0.5
+ */
+@FunctionalInterface
+public interface EventListener {
+
+  /**
+   * <p>Handle an event.</p>
+   *
+   * <p>This is called on the thread dispatching the events. The event is reused after the
+   * call, so its values must be copied if they are needed later.</p>
+   *
+   * @param event The event
+   * @since 0.0.5
+   */
+  void onEvent(Event event);
+
+}
@@ -0,0 +1,56 @@
+package me.joosua.maingine.engine.event;
+
+/**
+ * <p>EventType identifies a kind of event, like a resized window or a finished level.</p>
+ *
+ * <p>Event types are registered to an {@link EventBus} with
+ * {@link EventBus#register(String)} and can only be used with that bus. The id of a type
+ * is the index of its listeners in the bus, so finding the listeners of an event doesn't
+ * need a lookup.</p>
+ *
+ * @since 0.0.5
+ */
+public final class EventType {
+
+  private final int id;
+  private final String name;
+
+  EventType(int id, String name) {
+
+    this.id = id;
+    this.name = name;
+
+  }
+
+  /**
+   * <p>Get the id of the type in its bus.</p>
+   *
+   * @return Id of the type
+   * @since 0.0.5
+   */
+  public int getId() {
+
+    return id;
+
+  }
+
+  /**
+   * <p>Get the name of the type.</p>
+   *
+   * @return Name of the type
+   * @since 0.0.5
+   */
+  public String getName() {
+
+    return name;
+
+  }
+
+  @Override
+  public String toString() {
+
+    return name;
+
+  }
+
+}
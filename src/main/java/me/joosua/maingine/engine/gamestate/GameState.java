@@ -20,7 +20,9 @@ public abstract class GameState {
   /**
    * <p>Render is called before every screen buffer swap.</p>
    *
-   * <p>All draw calls should be made here.</p>
+   * <p>All draw calls should be made here. Draw calls can also be recorded to
+   * {@link me.joosua.maingine.engine.Engine#getRenderCommandBuffer()} to have them
+   * sorted and executed after this.</p>
    *
    * @since 0.0.4
    */
@@ -3,6 +3,8 @@ package me.joosua.maingine.engine.gamestate;
 import java.util.HashMap;
 import java.util.Map;
 
+import me.joosua.maingine.ecs.SystemScheduler;
+import me.joosua.maingine.ecs.World;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -14,21 +16,50 @@ public class GameStateManager {
 
   private GameState currentGameState;
 
+  private World world;
+
   /**
    * <p>Update is called on every tick.</p>
    *
    * <p>If the current game state is <code>NULL</code>,
    * nothing will be done.</p>
    *
+   * <p>The systems of the world are updated after the game state
+   * in order, see {@link #setWorld(World)}.</p>
+   *
    * @param delta Time each update takes (multiply time-related values with this).
    * @since 0.0.4
    */
   public void update(double delta) {
 
+    update(delta, null);
+
+  }
+
+  /**
+   * <p>Update is called on every tick.</p>
+   *
+   * <p>If the current game state is <code>NULL</code>,
+   * nothing will be done.</p>
+   *
+   * <p>The systems of the world are updated after the game state
+   * with the scheduler, see {@link #setWorld(World)}.</p>
+   *
+   * @param delta Time each update takes (multiply time-related values with this).
+   * @param scheduler Scheduler running the systems or <code>NULL</code>
+   *     to run them in order
+   * @since 0.0.5
+   */
+  public void update(double delta, SystemScheduler scheduler) {
+
     if (currentGameState != null) {
       currentGameState.update(delta);
     }
 
+    if (world != null) {
+      world.update(delta, scheduler);
+    }
+
   }
 
   /**
@@ -71,7 +102,7 @@ public class GameStateManager {
 
     if (gameStates.containsKey(name)) {
 
-      logger.error("GameState not added! GameState '" + name + "' already exists.");
+      logger.error("GameState not added! GameState '{}' already exists.", name);
       return false;
 
     }
@@ -99,7 +130,7 @@ public class GameStateManager {
 
     if (!gameStates.containsKey(name)) {
 
-      logger.error("Game state '" + name + "' can't be removed as it doesn't exists!");
+      logger.error("Game state '{}' can't be removed as it doesn't exists!", name);
       return false;
 
     }
@@ -173,7 +204,7 @@ public class GameStateManager {
 
     if (name != null && !gameStates.containsKey(name)) {
 
-      logger.error("Game state '" + name + "' can't be selected as it doesn't exists!");
+      logger.error("Game state '{}' can't be selected as it doesn't exists!", name);
       return false;
 
     }
@@ -196,7 +227,7 @@ public class GameStateManager {
       currentGameState.init();
     }
 
-    logger.info("Current game state changed to '" + name + "'");
+    logger.info("Current game state changed to '{}'", name);
 
     return true;
 
@@ -215,6 +246,33 @@ public class GameStateManager {
 
   }
 
+  /**
+   * <p>Set the entity world updated on every tick.</p>
+   *
+   * <p>Set world to <code>NULL</code> to use none.</p>
+   *
+   * @param world The world
+   * @see #update(double)
+   * @since 0.0.5
+   */
+  public void setWorld(World world) {
+
+    this.world = world;
+
+  }
+
+  /**
+   * <p>Get the entity world updated on every tick.</p>
+   *
+   * @return The world or <code>NULL</code> if no world in use.
+   * @since 0.0.5
+   */
+  public World getWorld() {
+
+    return world;
+
+  }
+
   /**
    * <p>Get all the game states and their names.</p>
    *
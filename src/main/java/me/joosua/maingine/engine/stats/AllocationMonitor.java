@@ -0,0 +1,216 @@
+package me.joosua.maingine.engine.stats;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * <p>AllocationMonitor measures heap allocations and garbage collections.</p>
+ *
+ * <p>Allocations are read from the thread's allocation counter of
+ * <code>com.sun.management.ThreadMXBean</code>. On older JDKs reading the counter allocates
+ * itself, so the cost of a reading is measured on creation and subtracted for every
+ * reading made. Because of this the allocations must always be read on the same thread,
+ * which is the thread running the engine.</p>
+ *
+ * <p>Garbage collections are reported by notifications of the
+ * <code>GarbageCollectorMXBean</code>s on a thread of the JVM. The engine takes the
+ * collections since the last frame with {@link #takeGcCount()} and {@link #takeGcTime()}.
+ * </p>
+ *
+ * @since 0.0.5
+ */
+public class AllocationMonitor {
+
+  private static final Logger logger = LogManager.getLogger(AllocationMonitor.class);
+
+  private static final int CALIBRATION_ROUNDS = 16;
+
+  private final com.sun.management.ThreadMXBean threadBean;
+  private final long readingCost;
+  private long readings;
+
+  private final AtomicInteger gcCount = new AtomicInteger();
+  private final AtomicLong gcTime = new AtomicLong();
+
+  private final List<NotificationEmitter> emitters = new ArrayList<>();
+  private final NotificationListener listener = this::handleNotification;
+
+  /**
+   * <p>Create a monitor and start listening to garbage collections.</p>
+   *
+   * @since 0.0.5
+   */
+  public AllocationMonitor() {
+
+    java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+
+    if (bean instanceof com.sun.management.ThreadMXBean
+        && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+
+      threadBean = (com.sun.management.ThreadMXBean) bean;
+      threadBean.setThreadAllocatedMemoryEnabled(true);
+
+    } else {
+
+      threadBean = null;
+      logger.info("Thread allocation counters not supported, allocations aren't measured");
+
+    }
+
+    readingCost = calibrate();
+
+    for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+
+      if (collector instanceof NotificationEmitter) {
+        NotificationEmitter emitter = (NotificationEmitter) collector;
+        emitter.addNotificationListener(listener, null, null);
+        emitters.add(emitter);
+      }
+
+    }
+
+  }
+
+  /**
+   * <p>Whether allocations can be measured.</p>
+   *
+   * @return <code>TRUE</code> if allocations are measured, <code>FALSE</code> if not.
+   * @since 0.0.5
+   */
+  public boolean isSupported() {
+
+    return threadBean != null;
+
+  }
+
+  /**
+   * <p>Get the amount of heap allocated by the current thread so far.</p>
+   *
+   * <p>Used as a starting point for {@link #getAllocatedSince(long)}. The allocations of
+   * the readings themselves are left out.</p>
+   *
+   * @return Allocated bytes or <code>0</code> if not supported
+   * @since 0.0.5
+   */
+  public long getAllocatedBytes() {
+
+    if (threadBean == null) return 0;
+
+    readings++;
+
+    return readAllocatedBytes() - readings * readingCost;
+
+  }
+
+  /**
+   * <p>Get the amount of heap allocated by the current thread since a starting point.</p>
+   *
+   * @param start Allocated bytes from {@link #getAllocatedBytes()}
+   * @return Bytes allocated after the starting point
+   * @since 0.0.5
+   */
+  public long getAllocatedSince(long start) {
+
+    if (threadBean == null) return 0;
+
+    return Math.max(getAllocatedBytes() - start, 0);
+
+  }
+
+  /**
+   * <p>Get and reset the amount of garbage collections reported.</p>
+   *
+   * @return Amount of collections since the last call
+   * @since 0.0.5
+   */
+  public int takeGcCount() {
+
+    return gcCount.getAndSet(0);
+
+  }
+
+  /**
+   * <p>Get and reset the duration of the garbage collections reported.</p>
+   *
+   * @return Duration of the collections since the last call in nanoseconds
+   * @since 0.0.5
+   */
+  public long takeGcTime() {
+
+    return gcTime.getAndSet(0);
+
+  }
+
+  /**
+   * <p>Stop listening to garbage collections.</p>
+   *
+   * @since 0.0.5
+   */
+  public void destroy() {
+
+    for (NotificationEmitter emitter : emitters) {
+
+      try {
+        emitter.removeNotificationListener(listener);
+      } catch (ListenerNotFoundException e) {
+        logger.warn("GC listener was already removed");
+      }
+
+    }
+
+    emitters.clear();
+
+  }
+
+  private long calibrate() {
+
+    if (threadBean == null) return 0;
+
+    long cost = Long.MAX_VALUE;
+
+    for (int i = 0; i < CALIBRATION_ROUNDS; i++) {
+      long start = readAllocatedBytes();
+      cost = Math.min(cost, readAllocatedBytes() - start);
+    }
+
+    return cost;
+
+  }
+
+  private long readAllocatedBytes() {
+
+    return threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+
+  }
+
+  private void handleNotification(Notification notification, Object handback) {
+
+    if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION
+        .equals(notification.getType())) {
+      return;
+    }
+
+    GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo
+        .from((CompositeData) notification.getUserData());
+
+    // Concurrent collectors report their cycles too, which don't pause the threads
+    if (info.getGcName().contains("Concurrent") || info.getGcName().contains("Cycles")) return;
+
+    gcCount.incrementAndGet();
+    gcTime.addAndGet(info.getGcInfo().getDuration() * 1_000_000L);
+
+  }
+
+}
@@ -0,0 +1,170 @@
+package me.joosua.maingine.engine.stats;
+
+import org.apache.logging.log4j.util.StringBuilderFormattable;
+
+/**
+ * <p>Counter collects the values of a repeated measurement, like bytes allocated per
+ * frame.</p>
+ *
+ * <p>Values are summed and averaged over the period between calls to {@link #refresh()},
+ * which the engine does once every second.</p>
+ *
+ * <p>Logging a counter as a parameter formats it without garbage.</p>
+ *
+ * @see Timing
+ * @since 0.0.5
+ */
+public class Counter implements StringBuilderFormattable {
+
+  private final String name;
+
+  private long last;
+  private long sum;
+  private long max;
+  private int count;
+
+  private long total;
+  private long average;
+  private long periodMax;
+  private int periodCount;
+
+  /**
+   * <p>Create a counter.</p>
+   *
+   * @param name Name shown in the statistics
+   * @since 0.0.5
+   */
+  public Counter(String name) {
+
+    this.name = name;
+
+  }
+
+  /**
+   * <p>Add a measured value.</p>
+   *
+   * @param value The value
+   * @since 0.0.5
+   */
+  public void add(long value) {
+
+    last = value;
+    sum += value;
+    max = Math.max(max, value);
+    count++;
+
+  }
+
+  /**
+   * <p>End the current period.</p>
+   *
+   * <p>The sum, the average and the maximum of the ended period are kept until the next
+   * refresh.</p>
+   *
+   * @since 0.0.5
+   */
+  public void refresh() {
+
+    total = sum;
+    average = count > 0 ? sum / count : 0;
+    periodMax = max;
+    periodCount = count;
+
+    sum = 0;
+    max = 0;
+    count = 0;
+
+  }
+
+  /**
+   * <p>Get the name of the counter.</p>
+   *
+   * @return Name of the counter
+   * @since 0.0.5
+   */
+  public String getName() {
+
+    return name;
+
+  }
+
+  /**
+   * <p>Get the latest value.</p>
+   *
+   * @return The latest value
+   * @since 0.0.5
+   */
+  public long getLast() {
+
+    return last;
+
+  }
+
+  /**
+   * <p>Get the sum of the values of the last period.</p>
+   *
+   * @return Sum of the values
+   * @since 0.0.5
+   */
+  public long getTotal() {
+
+    return total;
+
+  }
+
+  /**
+   * <p>Get the average value of the last period.</p>
+   *
+   * @return Average of the values
+   * @since 0.0.5
+   */
+  public long getAverage() {
+
+    return average;
+
+  }
+
+  /**
+   * <p>Get the largest value of the last period.</p>
+   *
+   * @return Largest value
+   * @since 0.0.5
+   */
+  public long getMax() {
+
+    return periodMax;
+
+  }
+
+  /**
+   * <p>Get the amount of values added during the last period.</p>
+   *
+   * @return Amount of values
+   * @since 0.0.5
+   */
+  public int getCount() {
+
+    return periodCount;
+
+  }
+
+  @Override
+  public void formatTo(StringBuilder buffer) {
+
+    buffer.append(name).append(' ').append(average).append(" (max ").append(periodMax)
+        .append(')');
+
+  }
+
+  @Override
+  public String toString() {
+
+    StringBuilder buffer = new StringBuilder();
+
+    formatTo(buffer);
+
+    return buffer.toString();
+
+  }
+
+}
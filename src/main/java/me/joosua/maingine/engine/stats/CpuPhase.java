@@ -0,0 +1,45 @@
+package me.joosua.maingine.engine.stats;
+
+/**
+ * <p>Phases of the game loop timed on the CPU.</p>
+ *
+ * @since 0.0.5
+ */
+public enum CpuPhase {
+
+  /**
+   * <p>Polling the window events.</p>
+   */
+  INPUT,
+
+  /**
+   * <p>Dispatching the events of the event bus.</p>
+   */
+  EVENTS,
+
+  /**
+   * <p>Updating the game state.</p>
+   */
+  UPDATE,
+
+  /**
+   * <p>Waiting for the GPU to finish the frames in flight.</p>
+   */
+  WAIT,
+
+  /**
+   * <p>Rendering the game state.</p>
+   */
+  RENDER,
+
+  /**
+   * <p>Sorting and executing the render command buffer.</p>
+   */
+  COMMANDS,
+
+  /**
+   * <p>Swapping the window buffers.</p>
+   */
+  SWAP
+
+}
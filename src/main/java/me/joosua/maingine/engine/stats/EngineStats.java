@@ -0,0 +1,237 @@
+package me.joosua.maingine.engine.stats;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.logging.log4j.util.StringBuilderFormattable;
+
+/**
+ * <p>EngineStats holds the metrics of the engine.</p>
+ *
+ * <p>The phases of the game loop are timed on the CPU and the render passes on the GPU
+ * with {@link me.joosua.maingine.graphics.GpuProfiler}, so both can be compared side by
+ * side. The values are averaged over a second and refreshed together with the FPS.</p>
+ *
+ * <p>The statistics are only accessed from the thread running the engine. Refreshing and
+ * logging them as a parameter don't allocate, so they can be logged from the game
+ * loop.</p>
+ *
+ * @since 0.0.5
+ */
+public class EngineStats implements StringBuilderFormattable {
+
+  private static final CpuPhase[] PHASES = CpuPhase.values();
+
+  private final Timing[] cpuTimings = new Timing[PHASES.length];
+  private final Map<String, Timing> gpuTimings = new LinkedHashMap<>();
+  // The same timings in order, as iterating the map would allocate an iterator
+  private final List<Timing> gpuTimingList = new ArrayList<>();
+
+  private final Counter[] allocations = new Counter[PHASES.length];
+
+  private final Counter frameAllocations = new Counter("frame");
+  private final Counter gcFrames = new Counter("gc frames");
+  private final Timing gcPauses = new Timing("gc");
+
+  /**
+   * <p>Create the statistics.</p>
+   *
+   * @since 0.0.5
+   */
+  public EngineStats() {
+
+    for (CpuPhase phase : PHASES) {
+      cpuTimings[phase.ordinal()] = new Timing(phase.name().toLowerCase());
+      allocations[phase.ordinal()] = new Counter(phase.name().toLowerCase());
+    }
+
+  }
+
+  /**
+   * <p>Get the CPU timing of a game loop phase.</p>
+   *
+   * @param phase The phase
+   * @return Timing of the phase
+   * @since 0.0.5
+   */
+  public Timing getCpuTiming(CpuPhase phase) {
+
+    return cpuTimings[phase.ordinal()];
+
+  }
+
+  /**
+   * <p>Get the GPU timing of a named scope.</p>
+   *
+   * <p>The timing is created if it doesn't exist yet.</p>
+   *
+   * @param name Name of the scope
+   * @return Timing of the scope
+   * @since 0.0.5
+   */
+  public Timing getGpuTiming(String name) {
+
+    Timing timing = gpuTimings.get(name);
+
+    if (timing == null) {
+      timing = new Timing(name);
+      gpuTimings.put(name, timing);
+      gpuTimingList.add(timing);
+    }
+
+    return timing;
+
+  }
+
+  /**
+   * <p>Get all the GPU timings.</p>
+   *
+   * @return Unmodifiable map of the timings by their names
+   * @since 0.0.5
+   */
+  public Map<String, Timing> getGpuTimings() {
+
+    return Collections.unmodifiableMap(gpuTimings);
+
+  }
+
+  /**
+   * <p>Get the heap allocations of a game loop phase.</p>
+   *
+   * <p>Input and update are measured per tick, the other phases per frame.</p>
+   *
+   * @param phase The phase
+   * @return Bytes allocated by the phase
+   * @since 0.0.5
+   */
+  public Counter getAllocations(CpuPhase phase) {
+
+    return allocations[phase.ordinal()];
+
+  }
+
+  /**
+   * <p>Get the heap allocations of the whole game loop per frame.</p>
+   *
+   * <p>This includes the ticks run since the previous frame.</p>
+   *
+   * @return Bytes allocated per frame
+   * @since 0.0.5
+   */
+  public Counter getFrameAllocations() {
+
+    return frameAllocations;
+
+  }
+
+  /**
+   * <p>Get the frames which overlapped a garbage collection pause.</p>
+   *
+   * <p>Each frame adds <code>1</code> if a pause was reported during it and <code>0</code>
+   * if not, so the total is the amount of such frames in the last period.</p>
+   *
+   * @return Frames with a pause
+   * @since 0.0.5
+   */
+  public Counter getGcFrames() {
+
+    return gcFrames;
+
+  }
+
+  /**
+   * <p>Get the durations of the garbage collection pauses.</p>
+   *
+   * @return Timing of the pauses
+   * @since 0.0.5
+   */
+  public Timing getGcPauses() {
+
+    return gcPauses;
+
+  }
+
+  /**
+   * <p>Whether the game loop ran without heap allocations during the last period.</p>
+   *
+   * <p>This is the case in a zero-allocation steady state. Only meaningful when
+   * allocations can be measured, see {@link AllocationMonitor#isSupported()}.</p>
+   *
+   * @return <code>TRUE</code> if nothing was allocated, <code>FALSE</code> if something was.
+   * @since 0.0.5
+   */
+  public boolean isAllocationFree() {
+
+    return frameAllocations.getCount() > 0 && frameAllocations.getMax() == 0;
+
+  }
+
+  /**
+   * <p>End the current period of all the timings.</p>
+   *
+   * <p>This is called by the engine once every second.</p>
+   *
+   * @since 0.0.5
+   */
+  public void refresh() {
+
+    for (int i = 0; i < PHASES.length; i++) {
+      cpuTimings[i].refresh();
+      allocations[i].refresh();
+    }
+
+    for (int i = 0; i < gpuTimingList.size(); i++) {
+      gpuTimingList.get(i).refresh();
+    }
+
+    frameAllocations.refresh();
+    gcFrames.refresh();
+    gcPauses.refresh();
+
+  }
+
+  @Override
+  public void formatTo(StringBuilder buffer) {
+
+    buffer.append("CPU: ");
+
+    for (int i = 0; i < cpuTimings.length; i++) {
+      appendTiming(buffer, cpuTimings[i], i == 0);
+    }
+
+    if (!gpuTimingList.isEmpty()) buffer.append(", GPU: ");
+
+    for (int i = 0; i < gpuTimingList.size(); i++) {
+      appendTiming(buffer, gpuTimingList.get(i), i == 0);
+    }
+
+    buffer.append(", allocated: ").append(frameAllocations.getAverage()).append(" B/frame (max ")
+        .append(frameAllocations.getMax()).append(" B), GC: ").append(gcFrames.getTotal())
+        .append(" frames, ");
+    Timing.appendMillis(buffer, gcPauses.getAverage() * gcPauses.getCount());
+
+  }
+
+  @Override
+  public String toString() {
+
+    StringBuilder buffer = new StringBuilder();
+
+    formatTo(buffer);
+
+    return buffer.toString();
+
+  }
+
+  private static void appendTiming(StringBuilder buffer, Timing timing, boolean first) {
+
+    if (!first) buffer.append(", ");
+
+    buffer.append(timing.getName()).append(' ');
+    Timing.appendMillis(buffer, timing.getAverage());
+
+  }
+
+}
@@ -0,0 +1,175 @@
+package me.joosua.maingine.engine.stats;
+
+import org.apache.logging.log4j.util.StringBuilderFormattable;
+
+/**
+ * <p>Timing collects the durations of a repeated measurement.</p>
+ *
+ * <p>Durations are added every frame and averaged over the period between calls to
+ * {@link #refresh()}, which the engine does once every second like with the FPS.</p>
+ *
+ * <p>Logging a timing as a parameter formats it without garbage.</p>
+ *
+ * @since 0.0.5
+ */
+public class Timing implements StringBuilderFormattable {
+
+  private final String name;
+
+  private long last;
+  private long total;
+  private long max;
+  private int count;
+
+  private long average;
+  private long periodMax;
+  private int periodCount;
+
+  /**
+   * <p>Create a timing.</p>
+   *
+   * @param name Name shown in the statistics
+   * @since 0.0.5
+   */
+  public Timing(String name) {
+
+    this.name = name;
+
+  }
+
+  /**
+   * <p>Add a measured duration.</p>
+   *
+   * @param nanos Duration in nanoseconds
+   * @since 0.0.5
+   */
+  public void add(long nanos) {
+
+    last = nanos;
+    total += nanos;
+    max = Math.max(max, nanos);
+    count++;
+
+  }
+
+  /**
+   * <p>End the current period.</p>
+   *
+   * <p>The average and the maximum of the ended period are kept until the next refresh.</p>
+   *
+   * @since 0.0.5
+   */
+  public void refresh() {
+
+    average = count > 0 ? total / count : 0;
+    periodMax = max;
+    periodCount = count;
+
+    total = 0;
+    max = 0;
+    count = 0;
+
+  }
+
+  /**
+   * <p>Get the name of the timing.</p>
+   *
+   * @return Name of the timing
+   * @since 0.0.5
+   */
+  public String getName() {
+
+    return name;
+
+  }
+
+  /**
+   * <p>Get the latest duration.</p>
+   *
+   * @return Duration in nanoseconds
+   * @since 0.0.5
+   */
+  public long getLast() {
+
+    return last;
+
+  }
+
+  /**
+   * <p>Get the average duration of the last period.</p>
+   *
+   * @return Duration in nanoseconds
+   * @since 0.0.5
+   */
+  public long getAverage() {
+
+    return average;
+
+  }
+
+  /**
+   * <p>Get the longest duration of the last period.</p>
+   *
+   * @return Duration in nanoseconds
+   * @since 0.0.5
+   */
+  public long getMax() {
+
+    return periodMax;
+
+  }
+
+  /**
+   * <p>Get the amount of durations added during the last period.</p>
+   *
+   * @return Amount of durations
+   * @since 0.0.5
+   */
+  public int getCount() {
+
+    return periodCount;
+
+  }
+
+  @Override
+  public void formatTo(StringBuilder buffer) {
+
+    buffer.append(name).append(' ');
+    appendMillis(buffer, average);
+    buffer.append(" (max ");
+    appendMillis(buffer, periodMax);
+    buffer.append(')');
+
+  }
+
+  @Override
+  public String toString() {
+
+    StringBuilder buffer = new StringBuilder();
+
+    formatTo(buffer);
+
+    return buffer.toString();
+
+  }
+
+  /*
+   * Appends nanoseconds as milliseconds with three decimals, without String.format.
+   */
+  static void appendMillis(StringBuilder buffer, long nanos) {
+
+    long micros = (Math.abs(nanos) + 500) / 1000;
+    long fraction = micros % 1000;
+
+    if (nanos < 0 && micros > 0) buffer.append('-');
+
+    buffer.append(micros / 1000).append('.');
+
+    if (fraction < 100) buffer.append('0');
+    if (fraction < 10) buffer.append('0');
+
+    buffer.append(fraction).append(" ms");
+
+  }
+
+}
@@ -1,13 +1,15 @@
 package me.joosua.maingine.glfw.window;
 
 import java.nio.IntBuffer;
+import me.joosua.maingine.graphics.GlStateCache;
+import me.joosua.maingine.memory.Memory;
 import me.joosua.maingine.settings.WindowSettings;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.joml.Vector2i;
-import org.lwjgl.BufferUtils;
 import org.lwjgl.glfw.GLFW;
 import org.lwjgl.opengl.GL;
+import org.lwjgl.system.MemoryStack;
 
 /**
  * <p>Window class takes care of everything to do with windows.</p>
@@ -23,6 +25,8 @@ public class Window {
 
   private long windowID;
 
+  private GlStateCache stateCache;
+
   private String title;
   private boolean visible;
   private boolean resizable;
@@ -81,11 +85,13 @@ public class Window {
 
     GL.createCapabilities();
 
+    stateCache = new GlStateCache();
+
     if (visible) {
       GLFW.glfwShowWindow(windowID);
     }
 
-    logger.info("Window '" + windowID + "' has been created");
+    logger.info("Window '{}' has been created", windowID);
 
   }
 
@@ -134,7 +140,7 @@ public class Window {
 
       GLFW.glfwDestroyWindow(windowID);
 
-      logger.info("Window '" + windowID + "' has been destroyed");
+      logger.info("Window '{}' has been destroyed", windowID);
 
       windowID = 0;
 
@@ -371,14 +377,36 @@ public class Window {
    */
   public Vector2i getSize() {
 
+    return isOpen() ? getSize(new Vector2i()) : null;
+
+  }
+
+  /**
+   * <p>Get the window's size without allocating.</p>
+   *
+   * <p>If {@link #isOpen()} doesn't return <code>TRUE</code>, the vector isn't changed and
+   * <code>NULL</code> will be returned.</p>
+   *
+   * @param dest Vector the width is stored to as <code>x</code> and the height as
+   *     <code>y</code>
+   * @return The given vector or <code>NULL</code> if window is not open.
+   * @see #getSize()
+   * @since 0.0.5
+   */
+  public Vector2i getSize(Vector2i dest) {
+
     if (isOpen()) {
 
-      IntBuffer width = BufferUtils.createIntBuffer(1);
-      IntBuffer height = BufferUtils.createIntBuffer(1);
+      try (MemoryStack stack = Memory.stackPush()) {
 
-      GLFW.glfwGetWindowSize(windowID, width, height);
+        IntBuffer width = stack.mallocInt(1);
+        IntBuffer height = stack.mallocInt(1);
 
-      return new Vector2i(width.get(), height.get());
+        GLFW.glfwGetWindowSize(windowID, width, height);
+
+        return dest.set(width.get(0), height.get(0));
+
+      }
 
     }
 
@@ -386,6 +414,20 @@ public class Window {
 
   }
 
+  /**
+   * <p>Gets the OpenGL state cache of the window's context.</p>
+   *
+   * <p>State changes should be made through the cache so redundant ones can be skipped.</p>
+   *
+   * @return The state cache or <code>NULL</code> if the window wasn't created properly.
+   * @since 0.0.5
+   */
+  public GlStateCache getStateCache() {
+
+    return stateCache;
+
+  }
+
   /**
    * <p>Gets the window's ID. The ID can be used to execute GLFW functions but only
    * do so if you are familiar with Maingine and know what you're doing as it may
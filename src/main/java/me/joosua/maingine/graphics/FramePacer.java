@@ -0,0 +1,127 @@
+package me.joosua.maingine.graphics;
+
+/**
+ * <p>FramePacer limits how many frames the CPU can run ahead of the GPU.</p>
+ *
+ * <p>A fence is inserted after every swap. Before rendering a new frame the CPU waits
+ * until fewer than the allowed amount of frames are still in flight on the GPU. With one
+ * frame in flight the input latency is the lowest, while more frames let the CPU prepare
+ * the next frame while the GPU is still drawing the previous ones.</p>
+ *
+ * <p>Without fence sync support no frames are waited for. All the methods must be called
+ * from the thread owning the OpenGL context.</p>
+ *
+ * @since 0.0.5
+ */
+public class FramePacer {
+
+  public static final int MIN_FRAMES_IN_FLIGHT = 1;
+  public static final int MAX_FRAMES_IN_FLIGHT = 3;
+
+  private final long[] fences = new long[MAX_FRAMES_IN_FLIGHT];
+  private int oldest;
+  private int inFlight;
+
+  private int maxFramesInFlight;
+
+  /**
+   * <p>Create a frame pacer.</p>
+   *
+   * @param maxFramesInFlight Amount of frames allowed in flight, from {@value
+   *     #MIN_FRAMES_IN_FLIGHT} to {@value #MAX_FRAMES_IN_FLIGHT}
+   * @since 0.0.5
+   */
+  public FramePacer(int maxFramesInFlight) {
+
+    setMaxFramesInFlight(maxFramesInFlight);
+
+  }
+
+  /**
+   * <p>Wait until a new frame can be started.</p>
+   *
+   * <p>This is called by the engine before rendering.</p>
+   *
+   * @return Time waited for the GPU in nanoseconds
+   * @since 0.0.5
+   */
+  public long awaitFrame() {
+
+    long waited = 0;
+
+    while (inFlight >= maxFramesInFlight) {
+
+      waited += GlFence.await(fences[oldest]);
+
+      fences[oldest] = 0;
+      oldest = (oldest + 1) % fences.length;
+      inFlight--;
+
+    }
+
+    return waited;
+
+  }
+
+  /**
+   * <p>Mark the end of the commands of a frame.</p>
+   *
+   * <p>This is called by the engine after swapping the buffers.</p>
+   *
+   * @since 0.0.5
+   */
+  public void frameSubmitted() {
+
+    long fence = GlFence.insert();
+
+    if (fence == 0) return;
+
+    fences[(oldest + inFlight) % fences.length] = fence;
+    inFlight++;
+
+  }
+
+  /**
+   * <p>Set the amount of frames allowed in flight.</p>
+   *
+   * <p>The value is clamped between {@value #MIN_FRAMES_IN_FLIGHT} and
+   * {@value #MAX_FRAMES_IN_FLIGHT}.</p>
+   *
+   * @param frames Amount of frames
+   * @since 0.0.5
+   */
+  public void setMaxFramesInFlight(int frames) {
+
+    maxFramesInFlight = Math.max(MIN_FRAMES_IN_FLIGHT, Math.min(frames, MAX_FRAMES_IN_FLIGHT));
+
+  }
+
+  /**
+   * <p>Get the amount of frames allowed in flight.</p>
+   *
+   * @return Amount of frames
+   * @since 0.0.5
+   */
+  public int getMaxFramesInFlight() {
+
+    return maxFramesInFlight;
+
+  }
+
+  /**
+   * <p>Delete the fences of the frames still in flight.</p>
+   *
+   * @since 0.0.5
+   */
+  public void destroy() {
+
+    for (int i = 0; i < fences.length; i++) {
+      GlFence.delete(fences[i]);
+      fences[i] = 0;
+    }
+
+    inFlight = 0;
+
+  }
+
+}
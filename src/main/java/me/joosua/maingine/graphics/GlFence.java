@@ -0,0 +1,111 @@
+package me.joosua.maingine.graphics;
+
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GL32;
+
+/**
+ * <p>GlFence wraps OpenGL fence syncs used for waiting on the GPU.</p>
+ *
+ * <p>A fence is inserted into the command stream after the commands using a resource
+ * and waited on before the resource is written again. All the methods must be called
+ * from the thread owning the OpenGL context.</p>
+ *
+ * @since 0.0.5
+ */
+public final class GlFence {
+
+  private static final long WAIT_TIMEOUT = 1_000_000L;
+
+  private GlFence() {
+
+  }
+
+  /**
+   * <p>Whether fence syncs are supported by the current context.</p>
+   *
+   * @return <code>TRUE</code> if fences can be used, <code>FALSE</code> if not.
+   * @since 0.0.5
+   */
+  public static boolean isSupported() {
+
+    return GL.getCapabilities().glFenceSync != 0;
+
+  }
+
+  /**
+   * <p>Insert a fence after all the commands issued so far.</p>
+   *
+   * @return Handle of the fence or <code>0</code> if fences are not supported.
+   * @since 0.0.5
+   */
+  public static long insert() {
+
+    return isSupported() ? GL32.glFenceSync(GL32.GL_SYNC_GPU_COMMANDS_COMPLETE, 0) : 0;
+
+  }
+
+  /**
+   * <p>Wait until the GPU has passed a fence and delete the fence.</p>
+   *
+   * <p>Nothing is done for a fence of <code>0</code>.</p>
+   *
+   * @param fence Handle of the fence
+   * @return Time waited in nanoseconds
+   * @since 0.0.5
+   */
+  public static long await(long fence) {
+
+    if (fence == 0) return 0;
+
+    long start = System.nanoTime();
+    int flags = GL32.GL_SYNC_FLUSH_COMMANDS_BIT;
+
+    while (true) {
+
+      int result = GL32.glClientWaitSync(fence, flags, WAIT_TIMEOUT);
+
+      if (result != GL32.GL_TIMEOUT_EXPIRED) break;
+
+      flags = 0;
+
+    }
+
+    GL32.glDeleteSync(fence);
+
+    return System.nanoTime() - start;
+
+  }
+
+  /**
+   * <p>Check whether the GPU has passed a fence without waiting.</p>
+   *
+   * @param fence Handle of the fence
+   * @return <code>TRUE</code> if the fence has been signaled or is <code>0</code>.
+   * @since 0.0.5
+   */
+  public static boolean isSignaled(long fence) {
+
+    if (fence == 0) return true;
+
+    int result = GL32.glClientWaitSync(fence, 0, 0);
+
+    return result == GL32.GL_ALREADY_SIGNALED || result == GL32.GL_CONDITION_SATISFIED
+        || result == GL32.GL_WAIT_FAILED;
+
+  }
+
+  /**
+   * <p>Delete a fence without waiting for it.</p>
+   *
+   * @param fence Handle of the fence, <code>0</code> is ignored
+   * @since 0.0.5
+   */
+  public static void delete(long fence) {
+
+    if (fence != 0) {
+      GL32.glDeleteSync(fence);
+    }
+
+  }
+
+}
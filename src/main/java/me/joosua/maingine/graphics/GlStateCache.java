@@ -0,0 +1,374 @@
+package me.joosua.maingine.graphics;
+
+import java.util.Arrays;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL13;
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL30;
+
+/**
+ * <p>GlStateCache shadows the OpenGL state so redundant state changes are never made.</p>
+ *
+ * <p>Every OpenGL call costs a JNI transition and driver validation even if it doesn't change
+ * anything. Calls made through this class are only issued if the shadowed value differs from
+ * the requested one. The amount of issued and elided calls is counted per frame.</p>
+ *
+ * <p>The shadowed state is only valid if all the changes to it are made through this class.
+ * If something else changes the state, {@link #invalidate()} must be called.</p>
+ *
+ * <p>There is one cache per OpenGL context, see
+ * {@link me.joosua.maingine.glfw.window.Window#getStateCache()}. It must only be used from the
+ * thread the context is current on.</p>
+ *
+ * @since 0.0.5
+ */
+public class GlStateCache {
+
+  private static final int UNKNOWN = -1;
+
+  private int program;
+  private int vertexArray;
+  private int activeUnit;
+  private final int[] textures;
+  private final int[] textureTargets;
+
+  private int blend;
+  private int blendSource;
+  private int blendDestination;
+
+  private int depthTest;
+  private int depthFunction;
+  private int depthMask;
+
+  private int viewportX;
+  private int viewportY;
+  private int viewportWidth;
+  private int viewportHeight;
+
+  private int issued;
+  private int elided;
+  private int frameIssued;
+  private int frameElided;
+
+  /**
+   * <p>Create a state cache for the current OpenGL context.</p>
+   *
+   * <p>All the state is unknown at first so the first calls are always issued.</p>
+   *
+   * @since 0.0.5
+   */
+  public GlStateCache() {
+
+    int units = GL11.glGetInteger(GL20.GL_MAX_COMBINED_TEXTURE_IMAGE_UNITS);
+
+    textures = new int[Math.max(units, 1)];
+    textureTargets = new int[textures.length];
+
+    invalidate();
+
+  }
+
+  /**
+   * <p>Forget all the shadowed state.</p>
+   *
+   * <p>This must be called if the state has been changed without this class,
+   * for example by a library.</p>
+   *
+   * @since 0.0.5
+   */
+  public void invalidate() {
+
+    program = UNKNOWN;
+    vertexArray = UNKNOWN;
+    activeUnit = UNKNOWN;
+    Arrays.fill(textures, UNKNOWN);
+    Arrays.fill(textureTargets, UNKNOWN);
+
+    blend = UNKNOWN;
+    blendSource = UNKNOWN;
+    blendDestination = UNKNOWN;
+
+    depthTest = UNKNOWN;
+    depthFunction = UNKNOWN;
+    depthMask = UNKNOWN;
+
+    viewportX = UNKNOWN;
+    viewportY = UNKNOWN;
+    viewportWidth = UNKNOWN;
+    viewportHeight = UNKNOWN;
+
+  }
+
+  /**
+   * <p>Use a shader program.</p>
+   *
+   * @param program OpenGL name of the program, <code>0</code> for none
+   * @since 0.0.5
+   */
+  public void useProgram(int program) {
+
+    if (this.program == program) {
+      elided++;
+      return;
+    }
+
+    GL20.glUseProgram(program);
+    this.program = program;
+    issued++;
+
+  }
+
+  /**
+   * <p>Bind a vertex array object.</p>
+   *
+   * @param vertexArray OpenGL name of the vertex array, <code>0</code> for none
+   * @since 0.0.5
+   */
+  public void bindVertexArray(int vertexArray) {
+
+    if (this.vertexArray == vertexArray) {
+      elided++;
+      return;
+    }
+
+    GL30.glBindVertexArray(vertexArray);
+    this.vertexArray = vertexArray;
+    issued++;
+
+  }
+
+  /**
+   * <p>Bind a texture to a texture unit.</p>
+   *
+   * <p>The unit is made active only if the texture has to be bound. Only one texture is
+   * shadowed per unit, binding a different target to the same unit is always issued.</p>
+   *
+   * @param unit Index of the texture unit starting from <code>0</code>
+   * @param target Texture target like <code>GL_TEXTURE_2D</code>
+   * @param texture OpenGL name of the texture, <code>0</code> for none
+   * @since 0.0.5
+   */
+  public void bindTexture(int unit, int target, int texture) {
+
+    if (textures[unit] == texture && textureTargets[unit] == target) {
+      elided++;
+      return;
+    }
+
+    activeTexture(unit);
+
+    GL11.glBindTexture(target, texture);
+    textures[unit] = texture;
+    textureTargets[unit] = target;
+    issued++;
+
+  }
+
+  /**
+   * <p>Select the active texture unit.</p>
+   *
+   * @param unit Index of the texture unit starting from <code>0</code>
+   * @since 0.0.5
+   */
+  public void activeTexture(int unit) {
+
+    if (activeUnit == unit) {
+      elided++;
+      return;
+    }
+
+    GL13.glActiveTexture(GL13.GL_TEXTURE0 + unit);
+    activeUnit = unit;
+    issued++;
+
+  }
+
+  /**
+   * <p>Enable or disable blending.</p>
+   *
+   * @param enabled <code>TRUE</code> to enable blending, <code>FALSE</code> to disable.
+   * @since 0.0.5
+   */
+  public void setBlend(boolean enabled) {
+
+    blend = setCapability(GL11.GL_BLEND, blend, enabled);
+
+  }
+
+  /**
+   * <p>Set the blending function.</p>
+   *
+   * @param source Source factor like <code>GL_SRC_ALPHA</code>
+   * @param destination Destination factor like <code>GL_ONE_MINUS_SRC_ALPHA</code>
+   * @since 0.0.5
+   */
+  public void blendFunction(int source, int destination) {
+
+    if (blendSource == source && blendDestination == destination) {
+      elided++;
+      return;
+    }
+
+    GL11.glBlendFunc(source, destination);
+    blendSource = source;
+    blendDestination = destination;
+    issued++;
+
+  }
+
+  /**
+   * <p>Enable or disable depth testing.</p>
+   *
+   * @param enabled <code>TRUE</code> to enable depth testing, <code>FALSE</code> to disable.
+   * @since 0.0.5
+   */
+  public void setDepthTest(boolean enabled) {
+
+    depthTest = setCapability(GL11.GL_DEPTH_TEST, depthTest, enabled);
+
+  }
+
+  /**
+   * <p>Set the depth comparison function.</p>
+   *
+   * @param function Function like <code>GL_LESS</code>
+   * @since 0.0.5
+   */
+  public void depthFunction(int function) {
+
+    if (depthFunction == function) {
+      elided++;
+      return;
+    }
+
+    GL11.glDepthFunc(function);
+    depthFunction = function;
+    issued++;
+
+  }
+
+  /**
+   * <p>Enable or disable writing to the depth buffer.</p>
+   *
+   * @param write <code>TRUE</code> to write depth, <code>FALSE</code> to not.
+   * @since 0.0.5
+   */
+  public void depthMask(boolean write) {
+
+    int value = write ? 1 : 0;
+
+    if (depthMask == value) {
+      elided++;
+      return;
+    }
+
+    GL11.glDepthMask(write);
+    depthMask = value;
+    issued++;
+
+  }
+
+  /**
+   * <p>Set the viewport.</p>
+   *
+   * @param x Left edge of the viewport
+   * @param y Bottom edge of the viewport
+   * @param width Width of the viewport
+   * @param height Height of the viewport
+   * @since 0.0.5
+   */
+  public void viewport(int x, int y, int width, int height) {
+
+    if (viewportX == x && viewportY == y && viewportWidth == width && viewportHeight == height) {
+      elided++;
+      return;
+    }
+
+    GL11.glViewport(x, y, width, height);
+    viewportX = x;
+    viewportY = y;
+    viewportWidth = width;
+    viewportHeight = height;
+    issued++;
+
+  }
+
+  /**
+   * <p>Finish counting the calls of a frame.</p>
+   *
+   * <p>The counts of the finished frame can be gotten with {@link #getIssuedCalls()} and
+   * {@link #getElidedCalls()}. This is called by the engine after every frame.</p>
+   *
+   * @since 0.0.5
+   */
+  public void endFrame() {
+
+    frameIssued = issued;
+    frameElided = elided;
+
+    issued = 0;
+    elided = 0;
+
+  }
+
+  /**
+   * <p>Get the amount of calls issued to OpenGL on the last frame.</p>
+   *
+   * @return Amount of issued calls
+   * @see #endFrame()
+   * @since 0.0.5
+   */
+  public int getIssuedCalls() {
+
+    return frameIssued;
+
+  }
+
+  /**
+   * <p>Get the amount of calls skipped on the last frame because they
+   * wouldn't have changed the state.</p>
+   *
+   * @return Amount of elided calls
+   * @see #endFrame()
+   * @since 0.0.5
+   */
+  public int getElidedCalls() {
+
+    return frameElided;
+
+  }
+
+  /**
+   * <p>Get the shadowed shader program.</p>
+   *
+   * @return OpenGL name of the program or <code>-1</code> if unknown.
+   * @since 0.0.5
+   */
+  public int getProgram() {
+
+    return program;
+
+  }
+
+  private int setCapability(int capability, int current, boolean enabled) {
+
+    int value = enabled ? 1 : 0;
+
+    if (current == value) {
+      elided++;
+      return current;
+    }
+
+    if (enabled) {
+      GL11.glEnable(capability);
+    } else {
+      GL11.glDisable(capability);
+    }
+
+    issued++;
+
+    return value;
+
+  }
+
+}
@@ -0,0 +1,88 @@
+package me.joosua.maingine.graphics;
+
+import java.nio.ByteBuffer;
+import me.joosua.maingine.memory.Memory;
+import me.joosua.maingine.memory.MemoryTag;
+import org.lwjgl.opengl.GL15;
+
+/**
+ * <p>GpuBuffer is an OpenGL buffer object loaded as an asset.</p>
+ *
+ * <p>The buffers are loaded by {@link GpuBufferLoader}, which uploads the content of the
+ * asset as it is, like vertices or indices exported in the layout used for drawing.</p>
+ *
+ * @since 0.0.5
+ */
+public class GpuBuffer {
+
+  private ByteBuffer content;
+  private final boolean mapped;
+  private final long size;
+
+  private int buffer;
+
+  GpuBuffer(ByteBuffer content, boolean mapped) {
+
+    this.content = content;
+    this.mapped = mapped;
+    this.size = content.remaining();
+
+  }
+
+  /**
+   * <p>Get the OpenGL name of the buffer.</p>
+   *
+   * @return OpenGL name of the buffer or <code>0</code> if not uploaded yet.
+   * @since 0.0.5
+   */
+  public int getBuffer() {
+
+    return buffer;
+
+  }
+
+  /**
+   * <p>Get the size of the buffer.</p>
+   *
+   * @return Size in bytes
+   * @since 0.0.5
+   */
+  public long getSize() {
+
+    return size;
+
+  }
+
+  void upload(int target, int usage) {
+
+    buffer = GL15.glGenBuffers();
+
+    // The content is mapped from the file or read into native memory, never the heap
+    GL15.glBindBuffer(target, buffer);
+    GL15.glBufferData(target, content, usage);
+    GL15.glBindBuffer(target, 0);
+
+    freeContent();
+
+  }
+
+  void delete() {
+
+    if (buffer != 0) {
+      GL15.glDeleteBuffers(buffer);
+      buffer = 0;
+    }
+
+    freeContent();
+
+  }
+
+  private void freeContent() {
+
+    if (content != null && !mapped) Memory.freeBuffer(content, MemoryTag.ASSETS);
+
+    content = null;
+
+  }
+
+}
@@ -0,0 +1,68 @@
+package me.joosua.maingine.graphics;
+
+import me.joosua.maingine.asset.AssetContext;
+import me.joosua.maingine.asset.AssetData;
+import me.joosua.maingine.asset.AssetLoader;
+import me.joosua.maingine.asset.AssetMemory;
+
+/**
+ * <p>GpuBufferLoader loads {@link GpuBuffer}s from raw assets.</p>
+ *
+ * <p>The content read by the worker is kept as it is and uploaded on the engine thread
+ * with <code>glBufferData</code>. Assets stored uncompressed in an
+ * {@link me.joosua.maingine.asset.ArchiveSource} or mapped from large files are uploaded
+ * straight from the mapping without any copies on the way.</p>
+ *
+ * @since 0.0.5
+ */
+public class GpuBufferLoader implements AssetLoader<GpuBuffer> {
+
+  private final int target;
+  private final int usage;
+
+  /**
+   * <p>Create a loader.</p>
+   *
+   * @param target Target the buffers are bound to when uploading, like
+   *     <code>GL_ARRAY_BUFFER</code>
+   * @param usage Usage hint of the buffers, like <code>GL_STATIC_DRAW</code>
+   * @since 0.0.5
+   */
+  public GpuBufferLoader(int target, int usage) {
+
+    this.target = target;
+    this.usage = usage;
+
+  }
+
+  @Override
+  public GpuBuffer load(AssetData data, AssetContext context) {
+
+    boolean mapped = data.isMapped();
+
+    return new GpuBuffer(data.take(), mapped);
+
+  }
+
+  @Override
+  public void finish(GpuBuffer asset) {
+
+    asset.upload(target, usage);
+
+  }
+
+  @Override
+  public void unload(GpuBuffer asset) {
+
+    asset.delete();
+
+  }
+
+  @Override
+  public long getSize(GpuBuffer asset, AssetMemory memory) {
+
+    return memory == AssetMemory.GPU ? asset.getSize() : 0;
+
+  }
+
+}
@@ -0,0 +1,292 @@
+package me.joosua.maingine.graphics;
+
+import me.joosua.maingine.engine.stats.EngineStats;
+import me.joosua.maingine.engine.stats.Timing;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.util.Unbox;
+import org.lwjgl.opengl.EXTTimerQuery;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL33;
+import org.lwjgl.opengl.GLCapabilities;
+
+/**
+ * <p>GpuProfiler times named scopes of rendering on the GPU.</p>
+ *
+ * <p>Scopes are timed with <code>GL_TIMESTAMP</code> queries, which allows nesting them.
+ * With only <code>EXT_timer_query</code> available <code>GL_TIME_ELAPSED</code> queries
+ * are used instead and nested scopes are ignored. Without timer queries the profiler does
+ * nothing.</p>
+ *
+ * <p>The queries of every frame are kept in a ring and read back {@value #FRAMES} frames
+ * later, so reading them never waits for the GPU. If the results still aren't available,
+ * the frame is dropped instead. The results are added to the GPU timings of
+ * {@link EngineStats}.</p>
+ *
+ * <p>All the methods must be called from the thread owning the OpenGL context.</p>
+ *
+ * @since 0.0.5
+ */
+public class GpuProfiler {
+
+  private static final Logger logger = LogManager.getLogger(GpuProfiler.class);
+
+  private static final int FRAMES = 4;
+
+  private static final int NONE = 0;
+  private static final int TIMESTAMP = 1;
+  private static final int ELAPSED = 2;
+
+  private final EngineStats stats;
+  private final int maxScopes;
+  private final int mode;
+
+  private final int[][] queries;
+  private final Timing[][] timings;
+  private final int[] used = new int[FRAMES];
+  private final int[] lastQuery = new int[FRAMES];
+
+  private final int[] open;
+  private int depth;
+  private int overflow;
+
+  private int frame;
+  private boolean frameOpen;
+  private int droppedFrames;
+
+  /**
+   * <p>Create a profiler for the current context.</p>
+   *
+   * @param stats Statistics the results are added to
+   * @param maxScopes Amount of scopes timed per frame at most
+   * @since 0.0.5
+   */
+  public GpuProfiler(EngineStats stats, int maxScopes) {
+
+    this.stats = stats;
+    this.maxScopes = maxScopes;
+
+    GLCapabilities capabilities = GL.getCapabilities();
+
+    if (capabilities.OpenGL33 || capabilities.GL_ARB_timer_query) {
+      mode = TIMESTAMP;
+    } else if (capabilities.GL_EXT_timer_query) {
+      mode = ELAPSED;
+      logger.info("Timestamp queries not supported, nested GPU scopes are ignored");
+    } else {
+      mode = NONE;
+      logger.info("Timer queries not supported, GPU profiling disabled");
+    }
+
+    queries = new int[FRAMES][mode == NONE ? 0 : maxScopes * 2];
+    timings = new Timing[FRAMES][maxScopes];
+    open = new int[maxScopes];
+
+    for (int[] frameQueries : queries) {
+      GL15.glGenQueries(frameQueries);
+    }
+
+  }
+
+  /**
+   * <p>Start a new frame.</p>
+   *
+   * <p>The results of the frame recorded {@value #FRAMES} frames ago are read back.
+   * This is called by the engine before rendering.</p>
+   *
+   * @since 0.0.5
+   */
+  public void beginFrame() {
+
+    if (mode == NONE) return;
+
+    frame = (frame + 1) % FRAMES;
+
+    collect(frame);
+
+    used[frame] = 0;
+    frameOpen = true;
+
+  }
+
+  /**
+   * <p>End the current frame.</p>
+   *
+   * <p>Scopes still open are ended. This is called by the engine after swapping the
+   * buffers.</p>
+   *
+   * @since 0.0.5
+   */
+  public void endFrame() {
+
+    if (!frameOpen) return;
+
+    if (depth > 0) {
+
+      logger.warn("{} GPU scopes not ended before the end of the frame",
+          Unbox.box(depth + overflow));
+
+      overflow = 0;
+
+      while (depth > 0) {
+        end();
+      }
+
+    }
+
+    frameOpen = false;
+
+  }
+
+  /**
+   * <p>Begin timing a scope.</p>
+   *
+   * <p>Every call must be followed by {@link #end()} within the same frame. Each scope
+   * adds its own duration to the timing of its name.</p>
+   *
+   * @param name Name of the scope shown in the statistics
+   * @since 0.0.5
+   */
+  public void begin(String name) {
+
+    if (!frameOpen) return;
+
+    int entry = used[frame];
+
+    if (entry == maxScopes || (mode == ELAPSED && depth > 0)) {
+      push(-1);
+      return;
+    }
+
+    used[frame]++;
+    timings[frame][entry] = stats.getGpuTiming(name);
+
+    int query = queries[frame][entry * 2];
+
+    if (mode == TIMESTAMP) {
+      GL33.glQueryCounter(query, GL33.GL_TIMESTAMP);
+    } else {
+      GL15.glBeginQuery(EXTTimerQuery.GL_TIME_ELAPSED_EXT, query);
+    }
+
+    lastQuery[frame] = query;
+    push(entry);
+
+  }
+
+  /**
+   * <p>End timing the latest scope begun.</p>
+   *
+   * @since 0.0.5
+   */
+  public void end() {
+
+    if (!frameOpen || depth == 0) return;
+
+    if (overflow > 0) {
+      overflow--;
+      return;
+    }
+
+    int entry = open[--depth];
+
+    if (entry < 0) return;
+
+    if (mode == TIMESTAMP) {
+
+      int query = queries[frame][entry * 2 + 1];
+
+      GL33.glQueryCounter(query, GL33.GL_TIMESTAMP);
+      lastQuery[frame] = query;
+
+    } else {
+
+      GL15.glEndQuery(EXTTimerQuery.GL_TIME_ELAPSED_EXT);
+
+    }
+
+  }
+
+  /**
+   * <p>Whether timer queries are supported by the current context.</p>
+   *
+   * @return <code>TRUE</code> if scopes are timed, <code>FALSE</code> if not.
+   * @since 0.0.5
+   */
+  public boolean isSupported() {
+
+    return mode != NONE;
+
+  }
+
+  /**
+   * <p>Get the amount of frames whose results weren't ready in time.</p>
+   *
+   * @return Amount of dropped frames
+   * @since 0.0.5
+   */
+  public int getDroppedFrames() {
+
+    return droppedFrames;
+
+  }
+
+  /**
+   * <p>Delete the queries.</p>
+   *
+   * @since 0.0.5
+   */
+  public void destroy() {
+
+    for (int[] frameQueries : queries) {
+      GL15.glDeleteQueries(frameQueries);
+    }
+
+  }
+
+  private void push(int entry) {
+
+    // Scopes nested deeper than the limit are only counted
+    if (depth < open.length) {
+      open[depth++] = entry;
+    } else {
+      overflow++;
+    }
+
+  }
+
+  private void collect(int slot) {
+
+    int count = used[slot];
+
+    if (count == 0) return;
+
+    if (GL15.glGetQueryObjecti(lastQuery[slot], GL15.GL_QUERY_RESULT_AVAILABLE) == GL11.GL_FALSE) {
+      droppedFrames++;
+      return;
+    }
+
+    int[] slotQueries = queries[slot];
+
+    for (int entry = 0; entry < count; entry++) {
+
+      long nanos;
+
+      if (mode == TIMESTAMP) {
+        nanos = GL33.glGetQueryObjecti64(slotQueries[entry * 2 + 1], GL15.GL_QUERY_RESULT)
+            - GL33.glGetQueryObjecti64(slotQueries[entry * 2], GL15.GL_QUERY_RESULT);
+      } else {
+        nanos = EXTTimerQuery.glGetQueryObjecti64EXT(slotQueries[entry * 2],
+            GL15.GL_QUERY_RESULT);
+      }
+
+      timings[slot][entry].add(nanos);
+      timings[slot][entry] = null;
+
+    }
+
+  }
+
+}
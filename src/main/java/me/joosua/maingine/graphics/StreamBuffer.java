@@ -0,0 +1,215 @@
+package me.joosua.maingine.graphics;
+
+import java.nio.ByteBuffer;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL44;
+import org.lwjgl.opengl.GLCapabilities;
+import org.lwjgl.system.MemoryUtil;
+
+/**
+ * <p>StreamBuffer is a vertex buffer rewritten by the CPU every frame.</p>
+ *
+ * <p>When <code>ARB_buffer_storage</code> is available the buffer is mapped persistently and
+ * split into three regions used in turns. A fence is inserted when a region is left and
+ * waited on before the region is written again, so the CPU never writes memory the GPU is
+ * still reading. Data is written straight to the mapped memory.</p>
+ *
+ * <p>Without buffer storage the data is written to off-heap memory and uploaded with
+ * <code>glBufferSubData</code> in {@link #upload(long, long)}.</p>
+ *
+ * <p>All the methods must be called from the thread owning the OpenGL context.</p>
+ *
+ * @since 0.0.5
+ */
+public class StreamBuffer {
+
+  private static final int REGIONS = 3;
+
+  private final long regionSize;
+  private final boolean persistent;
+
+  private final int buffer;
+  private ByteBuffer mapped;
+  private ByteBuffer staging;
+
+  private final long[] fences = new long[REGIONS];
+  private int region;
+
+  /**
+   * <p>Create a stream buffer for the current context.</p>
+   *
+   * @param regionSize Size of each of the three regions in bytes
+   * @since 0.0.5
+   */
+  public StreamBuffer(long regionSize) {
+
+    this.regionSize = regionSize;
+
+    GLCapabilities capabilities = GL.getCapabilities();
+    persistent = capabilities.OpenGL44 || capabilities.GL_ARB_buffer_storage;
+
+    buffer = GL15.glGenBuffers();
+    GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, buffer);
+
+    if (persistent) {
+
+      int flags = GL30.GL_MAP_WRITE_BIT | GL44.GL_MAP_PERSISTENT_BIT | GL44.GL_MAP_COHERENT_BIT;
+
+      GL44.glBufferStorage(GL15.GL_ARRAY_BUFFER, regionSize * REGIONS, flags);
+      mapped = GL30.glMapBufferRange(GL15.GL_ARRAY_BUFFER, 0, regionSize * REGIONS, flags);
+
+    } else {
+
+      GL15.glBufferData(GL15.GL_ARRAY_BUFFER, regionSize * REGIONS, GL15.GL_STREAM_DRAW);
+      staging = MemoryUtil.memAlloc((int) regionSize);
+
+    }
+
+    GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+
+  }
+
+  /**
+   * <p>Get the address data of the current region is written to.</p>
+   *
+   * <p>The address is valid until {@link #nextRegion()} is called. The region's
+   * size is given on creation.</p>
+   *
+   * @return Address of the current region
+   * @since 0.0.5
+   */
+  public long getWriteAddress() {
+
+    return persistent
+        ? MemoryUtil.memAddress(mapped) + region * regionSize
+        : MemoryUtil.memAddress(staging);
+
+  }
+
+  /**
+   * <p>Get the offset of the current region in the OpenGL buffer.</p>
+   *
+   * <p>This is used for the vertex attribute offsets and draw call base vertices.</p>
+   *
+   * @return Offset in bytes
+   * @since 0.0.5
+   */
+  public long getRegionOffset() {
+
+    return region * regionSize;
+
+  }
+
+  /**
+   * <p>Make written data visible to the GPU.</p>
+   *
+   * <p>This must be called for a range before drawing from it. With persistent
+   * mapping this does nothing.</p>
+   *
+   * @param offset Offset of the range from the start of the current region
+   * @param size Size of the range in bytes
+   * @since 0.0.5
+   */
+  public void upload(long offset, long size) {
+
+    if (persistent || size == 0) return;
+
+    GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, buffer);
+    GL15.nglBufferSubData(GL15.GL_ARRAY_BUFFER, region * regionSize + offset, size,
+        MemoryUtil.memAddress(staging) + offset);
+    GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+
+  }
+
+  /**
+   * <p>Move to the next region.</p>
+   *
+   * <p>The current region is fenced and the next one waited for if the GPU
+   * hasn't finished reading it yet.</p>
+   *
+   * @return Time waited for the GPU in nanoseconds
+   * @since 0.0.5
+   */
+  public long nextRegion() {
+
+    int next = (region + 1) % REGIONS;
+    long waited = 0;
+
+    if (persistent) {
+      fences[region] = GlFence.insert();
+      waited = GlFence.await(fences[next]);
+      fences[next] = 0;
+    }
+
+    region = next;
+
+    return waited;
+
+  }
+
+  /**
+   * <p>Get the OpenGL name of the buffer.</p>
+   *
+   * @return OpenGL name of the buffer
+   * @since 0.0.5
+   */
+  public int getBuffer() {
+
+    return buffer;
+
+  }
+
+  /**
+   * <p>Get the size of each region.</p>
+   *
+   * @return Size of a region in bytes
+   * @since 0.0.5
+   */
+  public long getRegionSize() {
+
+    return regionSize;
+
+  }
+
+  /**
+   * <p>Whether the buffer is persistently mapped.</p>
+   *
+   * @return <code>TRUE</code> if buffer storage is used, <code>FALSE</code> if not.
+   * @since 0.0.5
+   */
+  public boolean isPersistent() {
+
+    return persistent;
+
+  }
+
+  /**
+   * <p>Delete the buffer and free the memory used.</p>
+   *
+   * @since 0.0.5
+   */
+  public void destroy() {
+
+    for (int i = 0; i < REGIONS; i++) {
+      GlFence.delete(fences[i]);
+      fences[i] = 0;
+    }
+
+    if (persistent) {
+      GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, buffer);
+      GL15.glUnmapBuffer(GL15.GL_ARRAY_BUFFER);
+      GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+    } else {
+      MemoryUtil.memFree(staging);
+    }
+
+    GL15.glDeleteBuffers(buffer);
+
+    mapped = null;
+    staging = null;
+
+  }
+
+}
@@ -0,0 +1,26 @@
+package me.joosua.maingine.graphics.command;
+
+/**
+ * <p>RenderCommand executes one kind of recorded command.</p>
+ *
+ * <p>Commands are registered to a {@link RenderCommandBuffer} which gives them an ID.
+ * The recorded arguments can be read from the buffer with the record given.</p>
+ *
+ * @see RenderCommandBuffer#registerCommand(RenderCommand)
+ * @since 0.0.5
+ */
+public interface RenderCommand {
+
+  /**
+   * <p>Execute a recorded command.</p>
+   *
+   * <p>This is called on the thread executing the buffer, usually the one
+   * owning the OpenGL context.</p>
+   *
+   * @param buffer The buffer the command was recorded to
+   * @param record Index of the record for reading the arguments
+   * @since 0.0.5
+   */
+  void execute(RenderCommandBuffer buffer, int record);
+
+}
@@ -0,0 +1,401 @@
+package me.joosua.maingine.graphics.command;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.lwjgl.system.MemoryUtil;
+
+/**
+ * <p>RenderCommandBuffer records render commands to be executed later in bulk.</p>
+ *
+ * <p>Every command is stored as a compact fixed size record in off-heap memory. A record
+ * consists of a 64-bit {@link SortKey}, the ID of a registered {@link RenderCommand} and
+ * {@value #ARGUMENTS} integer arguments.</p>
+ *
+ * <p>Before execution the records are radix sorted by their keys. Executing the sorted
+ * records only calls the {@link RenderStateBinder} when the shader or material changes.</p>
+ *
+ * <p>Recording and execution don't need to happen on the same thread as long as
+ * they don't happen at the same time.</p>
+ *
+ * @since 0.0.5
+ */
+public class RenderCommandBuffer {
+
+  private static final Logger logger = LogManager.getLogger(RenderCommandBuffer.class);
+
+  public static final int ARGUMENTS = 5;
+
+  private static final int RECORD_SIZE = 32;
+  private static final int KEY_OFFSET = 0;
+  private static final int COMMAND_OFFSET = 8;
+  private static final int ARGUMENT_OFFSET = 12;
+
+  private static final int RADIX_BITS = 8;
+  private static final int RADIX_SIZE = 1 << RADIX_BITS;
+
+  private RenderCommand[] commands = new RenderCommand[16];
+  private int commandCount;
+
+  private ByteBuffer records;
+  private int capacity;
+  private int count;
+
+  private long[] keys = new long[0];
+  private long[] keysSwap = new long[0];
+  private int[] order = new int[0];
+  private int[] orderSwap = new int[0];
+  private final int[] histogram = new int[RADIX_SIZE];
+  private int[] sortedOrder;
+
+  private int binds;
+
+  /**
+   * <p>Create a command buffer with default capacity.</p>
+   *
+   * @since 0.0.5
+   */
+  public RenderCommandBuffer() {
+
+    this(1024);
+
+  }
+
+  /**
+   * <p>Create a command buffer.</p>
+   *
+   * <p>The buffer grows when needed, the initial capacity only
+   * prevents growing on the first frames.</p>
+   *
+   * @param capacity Initial amount of records
+   * @since 0.0.5
+   */
+  public RenderCommandBuffer(int capacity) {
+
+    this.capacity = Math.max(capacity, 1);
+
+  }
+
+  /**
+   * <p>Register a command.</p>
+   *
+   * <p>The returned ID is used for recording the command with
+   * {@link #submit(long, int, int, int, int, int, int)}.</p>
+   *
+   * @param command Command to be registered. Can't be null.
+   * @return ID of the command or <code>-1</code> if it wasn't registered.
+   * @since 0.0.5
+   */
+  public int registerCommand(RenderCommand command) {
+
+    if (command == null) {
+
+      logger.error("RenderCommand not registered! RenderCommand can't be NULL.");
+      return -1;
+
+    }
+
+    if (commandCount == commands.length) {
+      commands = Arrays.copyOf(commands, commandCount * 2);
+    }
+
+    commands[commandCount] = command;
+
+    return commandCount++;
+
+  }
+
+  /**
+   * <p>Record a command.</p>
+   *
+   * <p>Unused arguments should be <code>0</code>. Floating point arguments can be passed
+   * with {@link Float#floatToRawIntBits(float)} and read with
+   * {@link #getFloatArgument(int, int)}.</p>
+   *
+   * @param key Sort key made with {@link SortKey#encode(int, int, int, float)}
+   * @param command ID of a registered command
+   * @param arg0 First argument
+   * @param arg1 Second argument
+   * @param arg2 Third argument
+   * @param arg3 Fourth argument
+   * @param arg4 Fifth argument
+   * @return Index of the record or <code>-1</code> if the command isn't registered.
+   * @since 0.0.5
+   */
+  public int submit(long key, int command, int arg0, int arg1, int arg2, int arg3, int arg4) {
+
+    if (command < 0 || command >= commandCount) {
+
+      logger.error("Render command '{}' is not registered!", command);
+      return -1;
+
+    }
+
+    if (records == null) {
+      records = MemoryUtil.memAlloc(capacity * RECORD_SIZE);
+    } else if (count == capacity) {
+      capacity *= 2;
+      records = MemoryUtil.memRealloc(records, capacity * RECORD_SIZE);
+    }
+
+    int offset = count * RECORD_SIZE;
+
+    records.putLong(offset + KEY_OFFSET, key);
+    records.putInt(offset + COMMAND_OFFSET, command);
+    records.putInt(offset + ARGUMENT_OFFSET, arg0);
+    records.putInt(offset + ARGUMENT_OFFSET + 4, arg1);
+    records.putInt(offset + ARGUMENT_OFFSET + 8, arg2);
+    records.putInt(offset + ARGUMENT_OFFSET + 12, arg3);
+    records.putInt(offset + ARGUMENT_OFFSET + 16, arg4);
+
+    sortedOrder = null;
+
+    return count++;
+
+  }
+
+  /**
+   * <p>Sort the recorded commands by their keys.</p>
+   *
+   * <p>This is a least significant digit radix sort which skips the digits
+   * all the keys share, so keys using only a few fields sort in a few passes.
+   * The sort is stable.</p>
+   *
+   * @since 0.0.5
+   */
+  public void sort() {
+
+    if (keys.length < count) {
+
+      int length = Math.max(count, keys.length * 2);
+
+      keys = new long[length];
+      keysSwap = new long[length];
+      order = new int[length];
+      orderSwap = new int[length];
+
+    }
+
+    for (int i = 0; i < count; i++) {
+      keys[i] = records.getLong(i * RECORD_SIZE + KEY_OFFSET);
+      order[i] = i;
+    }
+
+    long[] sourceKeys = keys;
+    long[] targetKeys = keysSwap;
+    int[] sourceOrder = order;
+    int[] targetOrder = orderSwap;
+
+    for (int shift = 0; shift < Long.SIZE && count > 1; shift += RADIX_BITS) {
+
+      Arrays.fill(histogram, 0);
+
+      for (int i = 0; i < count; i++) {
+        histogram[(int) (sourceKeys[i] >>> shift) & (RADIX_SIZE - 1)]++;
+      }
+
+      if (histogram[(int) (sourceKeys[0] >>> shift) & (RADIX_SIZE - 1)] == count) continue;
+
+      int total = 0;
+
+      for (int i = 0; i < RADIX_SIZE; i++) {
+        int digits = histogram[i];
+        histogram[i] = total;
+        total += digits;
+      }
+
+      for (int i = 0; i < count; i++) {
+        int target = histogram[(int) (sourceKeys[i] >>> shift) & (RADIX_SIZE - 1)]++;
+        targetKeys[target] = sourceKeys[i];
+        targetOrder[target] = sourceOrder[i];
+      }
+
+      long[] swapKeys = sourceKeys;
+      sourceKeys = targetKeys;
+      targetKeys = swapKeys;
+
+      int[] swapOrder = sourceOrder;
+      sourceOrder = targetOrder;
+      targetOrder = swapOrder;
+
+    }
+
+    sortedOrder = sourceOrder;
+
+  }
+
+  /**
+   * <p>Execute all the recorded commands.</p>
+   *
+   * <p>The commands are executed in sorted order if {@link #sort()} has been called after the
+   * last submit, otherwise in the order they were recorded.</p>
+   *
+   * <p>The binder is called only when the shader or the material changes. It can be
+   * <code>NULL</code> if the commands take care of their own state.</p>
+   *
+   * @param binder Binder for the state in sort keys or <code>NULL</code>
+   * @since 0.0.5
+   */
+  public void execute(RenderStateBinder binder) {
+
+    int lastShader = -1;
+    int lastMaterial = -1;
+
+    binds = 0;
+
+    for (int i = 0; i < count; i++) {
+
+      int record = sortedOrder != null ? sortedOrder[i] : i;
+      int offset = record * RECORD_SIZE;
+
+      if (binder != null) {
+
+        long key = records.getLong(offset + KEY_OFFSET);
+        int shader = SortKey.getShader(key);
+        int material = SortKey.getMaterial(key);
+
+        if (shader != lastShader) {
+
+          binder.bindShader(shader);
+          binds++;
+
+          lastShader = shader;
+          lastMaterial = -1;
+
+        }
+
+        if (material != lastMaterial) {
+
+          binder.bindMaterial(material);
+          binds++;
+
+          lastMaterial = material;
+
+        }
+
+      }
+
+      commands[records.getInt(offset + COMMAND_OFFSET)].execute(this, record);
+
+    }
+
+  }
+
+  /**
+   * <p>Remove all the recorded commands.</p>
+   *
+   * <p>Registered commands and the allocated memory are kept for the next frame.</p>
+   *
+   * @since 0.0.5
+   */
+  public void clear() {
+
+    count = 0;
+    sortedOrder = null;
+
+  }
+
+  /**
+   * <p>Free the off-heap memory used by the records.</p>
+   *
+   * <p>The buffer can still be used after this, memory will be
+   * allocated again when needed.</p>
+   *
+   * @since 0.0.5
+   */
+  public void free() {
+
+    if (records != null) {
+
+      MemoryUtil.memFree(records);
+      records = null;
+
+    }
+
+    clear();
+
+  }
+
+  /**
+   * <p>Get the sort key of a record.</p>
+   *
+   * @param record Index of the record
+   * @return The sort key
+   * @since 0.0.5
+   */
+  public long getKey(int record) {
+
+    return records.getLong(record * RECORD_SIZE + KEY_OFFSET);
+
+  }
+
+  /**
+   * <p>Get an argument of a record.</p>
+   *
+   * @param record Index of the record
+   * @param argument Index of the argument, from <code>0</code> to {@value #ARGUMENTS} - 1
+   * @return Value of the argument
+   * @since 0.0.5
+   */
+  public int getArgument(int record, int argument) {
+
+    return records.getInt(record * RECORD_SIZE + ARGUMENT_OFFSET + argument * 4);
+
+  }
+
+  /**
+   * <p>Get an argument of a record as a float.</p>
+   *
+   * @param record Index of the record
+   * @param argument Index of the argument, from <code>0</code> to {@value #ARGUMENTS} - 1
+   * @return Value of the argument
+   * @see #getArgument(int, int)
+   * @since 0.0.5
+   */
+  public float getFloatArgument(int record, int argument) {
+
+    return Float.intBitsToFloat(getArgument(record, argument));
+
+  }
+
+  /**
+   * <p>Get the index of the record executed at the given position.</p>
+   *
+   * @param position Position in the execution order
+   * @return Index of the record
+   * @since 0.0.5
+   */
+  public int getSortedRecord(int position) {
+
+    return sortedOrder != null ? sortedOrder[position] : position;
+
+  }
+
+  /**
+   * <p>Get the amount of recorded commands.</p>
+   *
+   * @return Amount of commands recorded since the last {@link #clear()}
+   * @since 0.0.5
+   */
+  public int size() {
+
+    return count;
+
+  }
+
+  /**
+   * <p>Get the amount of state binds made on the last execution.</p>
+   *
+   * <p>Compared to {@link #size()} this tells how many binds the sorting saved.</p>
+   *
+   * @return Amount of shader and material binds
+   * @since 0.0.5
+   */
+  public int getBindCount() {
+
+    return binds;
+
+  }
+
+}
@@ -0,0 +1,32 @@
+package me.joosua.maingine.graphics.command;
+
+/**
+ * <p>RenderStateBinder binds the state described by sort keys.</p>
+ *
+ * <p>The binder is only called when the state actually changes between two
+ * sorted commands so redundant binds are never made.</p>
+ *
+ * @see RenderCommandBuffer#execute(RenderStateBinder)
+ * @since 0.0.5
+ */
+public interface RenderStateBinder {
+
+  /**
+   * <p>Bind a shader.</p>
+   *
+   * @param shader Shader ID from the sort key
+   * @since 0.0.5
+   */
+  void bindShader(int shader);
+
+  /**
+   * <p>Bind a material.</p>
+   *
+   * <p>This is always called after {@link #bindShader(int)} if both changed.</p>
+   *
+   * @param material Material ID from the sort key
+   * @since 0.0.5
+   */
+  void bindMaterial(int material);
+
+}
@@ -0,0 +1,119 @@
+package me.joosua.maingine.graphics.command;
+
+/**
+ * <p>SortKey packs the render state of a command into a single 64-bit key.</p>
+ *
+ * <p>Keys are compared as unsigned values so commands are ordered by layer first,
+ * then by shader, material and finally by depth. The layout from the highest bit
+ * to the lowest is:</p>
+ *
+ * <p>Layer (8 bits), shader (12 bits), material (20 bits), depth (24 bits).</p>
+ *
+ * @see RenderCommandBuffer
+ * @since 0.0.5
+ */
+public final class SortKey {
+
+  public static final int LAYER_BITS = 8;
+  public static final int SHADER_BITS = 12;
+  public static final int MATERIAL_BITS = 20;
+  public static final int DEPTH_BITS = 24;
+
+  private static final int DEPTH_SHIFT = 0;
+  private static final int MATERIAL_SHIFT = DEPTH_SHIFT + DEPTH_BITS;
+  private static final int SHADER_SHIFT = MATERIAL_SHIFT + MATERIAL_BITS;
+  private static final int LAYER_SHIFT = SHADER_SHIFT + SHADER_BITS;
+
+  private static final long LAYER_MASK = (1L << LAYER_BITS) - 1;
+  private static final long SHADER_MASK = (1L << SHADER_BITS) - 1;
+  private static final long MATERIAL_MASK = (1L << MATERIAL_BITS) - 1;
+  private static final long DEPTH_MASK = (1L << DEPTH_BITS) - 1;
+
+  private SortKey() {
+
+  }
+
+  /**
+   * <p>Encode a sort key.</p>
+   *
+   * <p>Values outside of their bit range are masked. Depth is clamped
+   * between <code>0</code> and <code>1</code>.</p>
+   *
+   * @param layer Layer of the command, lower layers are executed first
+   * @param shader Shader ID used by the command
+   * @param material Material ID used by the command
+   * @param depth Normalized depth of the command
+   * @return The encoded key
+   * @since 0.0.5
+   */
+  public static long encode(int layer, int shader, int material, float depth) {
+
+    return (layer & LAYER_MASK) << LAYER_SHIFT
+        | (shader & SHADER_MASK) << SHADER_SHIFT
+        | (material & MATERIAL_MASK) << MATERIAL_SHIFT
+        | quantizeDepth(depth) << DEPTH_SHIFT;
+
+  }
+
+  /**
+   * <p>Get the layer of a sort key.</p>
+   *
+   * @param key The sort key
+   * @return Layer stored in the key
+   * @since 0.0.5
+   */
+  public static int getLayer(long key) {
+
+    return (int) ((key >>> LAYER_SHIFT) & LAYER_MASK);
+
+  }
+
+  /**
+   * <p>Get the shader of a sort key.</p>
+   *
+   * @param key The sort key
+   * @return Shader ID stored in the key
+   * @since 0.0.5
+   */
+  public static int getShader(long key) {
+
+    return (int) ((key >>> SHADER_SHIFT) & SHADER_MASK);
+
+  }
+
+  /**
+   * <p>Get the material of a sort key.</p>
+   *
+   * @param key The sort key
+   * @return Material ID stored in the key
+   * @since 0.0.5
+   */
+  public static int getMaterial(long key) {
+
+    return (int) ((key >>> MATERIAL_SHIFT) & MATERIAL_MASK);
+
+  }
+
+  /**
+   * <p>Get the quantized depth of a sort key.</p>
+   *
+   * @param key The sort key
+   * @return Depth stored in the key as an integer in its 24-bit range
+   * @since 0.0.5
+   */
+  public static int getDepth(long key) {
+
+    return (int) ((key >>> DEPTH_SHIFT) & DEPTH_MASK);
+
+  }
+
+  private static long quantizeDepth(float depth) {
+
+    if (!(depth > 0)) return 0;
+    if (depth >= 1) return DEPTH_MASK;
+
+    return (long) (depth * DEPTH_MASK);
+
+  }
+
+}
@@ -0,0 +1,353 @@
+package me.joosua.maingine.graphics.mesh;
+
+import java.nio.FloatBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import me.joosua.maingine.graphics.GlStateCache;
+import me.joosua.maingine.graphics.StreamBuffer;
+import me.joosua.maingine.graphics.shader.ShaderManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.joml.Matrix4fc;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL31;
+import org.lwjgl.opengl.GL33;
+import org.lwjgl.system.MemoryStack;
+import org.lwjgl.system.MemoryUtil;
+
+/**
+ * <p>InstanceBatch draws many copies of the same mesh with a single draw call.</p>
+ *
+ * <p>The transform and the color of every instance are written to a {@link StreamBuffer}
+ * straight from the given matrices, so adding an instance never allocates. Consecutive
+ * instances of the same mesh are drawn with <code>glDrawElementsInstanced</code>.</p>
+ *
+ * <p>A batch is flushed when the mesh or the shader changes, when the current region
+ * is full and on {@link #end()}. All the methods must be called from the thread owning
+ * the OpenGL context.</p>
+ *
+ * @since 0.0.5
+ */
+public class InstanceBatch {
+
+  private static final Logger logger = LogManager.getLogger(InstanceBatch.class);
+
+  public static final int TRANSFORM_ATTRIBUTE = 2;
+  public static final int COLOR_ATTRIBUTE = 6;
+
+  private static final int INSTANCE_SIZE = 68;
+
+  private static final String VERTEX_SHADER = "#version 130\n"
+      + "uniform mat4 u_viewProjection;\n"
+      + "in vec3 a_position;\n"
+      + "in vec3 a_normal;\n"
+      + "in mat4 a_transform;\n"
+      + "in vec4 a_color;\n"
+      + "out vec4 v_color;\n"
+      + "void main() {\n"
+      + "  vec3 normal = normalize(mat3(a_transform) * a_normal);\n"
+      + "  float light = 0.4 + 0.6 * max(dot(normal, vec3(0.27, 0.8, 0.53)), 0.0);\n"
+      + "  v_color = vec4(a_color.rgb * light, a_color.a);\n"
+      + "  gl_Position = u_viewProjection * a_transform * vec4(a_position, 1.0);\n"
+      + "}\n";
+
+  private static final String FRAGMENT_SHADER = "#version 130\n"
+      + "in vec4 v_color;\n"
+      + "out vec4 f_color;\n"
+      + "void main() {\n"
+      + "  f_color = v_color;\n"
+      + "}\n";
+
+  private final GlStateCache stateCache;
+  private final int instancesPerRegion;
+
+  private final StreamBuffer instances;
+  private final int defaultShader;
+
+  private long writeAddress;
+  private int batchStart;
+  private int pending;
+
+  private int shader;
+  private Mesh mesh;
+  private boolean drawing;
+
+  private final float[] viewProjection = new float[16];
+
+  private int drawCalls;
+  private int instanceCount;
+
+  /**
+   * <p>Create an instance batch.</p>
+   *
+   * <p>Each of the three regions of the instance buffer holds the given amount of
+   * instances. One instance takes {@value #INSTANCE_SIZE} bytes.</p>
+   *
+   * @param stateCache State cache of the current context
+   * @param instancesPerRegion Amount of instances drawn with a single draw call at most
+   * @since 0.0.5
+   */
+  public InstanceBatch(GlStateCache stateCache, int instancesPerRegion) {
+
+    this.stateCache = stateCache;
+    this.instancesPerRegion = Math.max(instancesPerRegion, 1);
+
+    Map<String, Integer> attributes = new HashMap<>();
+    attributes.put("a_position", Mesh.POSITION_ATTRIBUTE);
+    attributes.put("a_normal", Mesh.NORMAL_ATTRIBUTE);
+    attributes.put("a_transform", TRANSFORM_ATTRIBUTE);
+    attributes.put("a_color", COLOR_ATTRIBUTE);
+
+    defaultShader = ShaderManager.createProgram(VERTEX_SHADER, FRAGMENT_SHADER, attributes);
+    shader = defaultShader;
+
+    instances = new StreamBuffer((long) this.instancesPerRegion * INSTANCE_SIZE);
+    writeAddress = instances.getWriteAddress();
+
+    logger.info("InstanceBatch created with {} instances per region", this.instancesPerRegion);
+
+  }
+
+  /**
+   * <p>Begin drawing instances.</p>
+   *
+   * <p>Instances can only be added between this and {@link #end()}.</p>
+   *
+   * @param viewProjection View and projection matrices multiplied together
+   * @since 0.0.5
+   */
+  public void begin(Matrix4fc viewProjection) {
+
+    if (drawing) {
+
+      logger.error("InstanceBatch.end() must be called before beginning again!");
+      return;
+
+    }
+
+    viewProjection.get(this.viewProjection);
+
+    drawing = true;
+    mesh = null;
+
+    useShader(shader);
+
+  }
+
+  /**
+   * <p>Add an instance of a mesh.</p>
+   *
+   * <p>The batch is flushed first if the mesh differs from the previous instance's.</p>
+   *
+   * @param mesh The mesh to be drawn
+   * @param transform Model matrix of the instance
+   * @param color Color packed with
+   *     {@link me.joosua.maingine.graphics.sprite.SpriteBatch#packColor(float, float, float,
+   *     float)}
+   * @since 0.0.5
+   */
+  public void add(Mesh mesh, Matrix4fc transform, int color) {
+
+    if (!drawing) {
+
+      logger.error("InstanceBatch.begin() must be called before adding instances!");
+      return;
+
+    }
+
+    if (mesh != this.mesh) {
+      flush();
+      this.mesh = mesh;
+    }
+
+    if (batchStart + pending == instancesPerRegion) {
+      flush();
+      nextRegion();
+    }
+
+    long address = writeAddress + (long) (batchStart + pending) * INSTANCE_SIZE;
+
+    transform.getToAddress(address);
+    MemoryUtil.memPutInt(address + 64, color);
+
+    pending++;
+    instanceCount++;
+
+  }
+
+  /**
+   * <p>Draw all the pending instances.</p>
+   *
+   * <p>This is called automatically when needed.</p>
+   *
+   * @since 0.0.5
+   */
+  public void flush() {
+
+    if (pending == 0) return;
+
+    long offset = (long) batchStart * INSTANCE_SIZE;
+
+    instances.upload(offset, (long) pending * INSTANCE_SIZE);
+
+    stateCache.bindVertexArray(mesh.getVertexArray());
+
+    offset += instances.getRegionOffset();
+
+    GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, instances.getBuffer());
+
+    for (int column = 0; column < 4; column++) {
+
+      int attribute = TRANSFORM_ATTRIBUTE + column;
+
+      GL20.glEnableVertexAttribArray(attribute);
+      GL20.glVertexAttribPointer(attribute, 4, GL11.GL_FLOAT, false, INSTANCE_SIZE,
+          offset + column * 16);
+      GL33.glVertexAttribDivisor(attribute, 1);
+
+    }
+
+    GL20.glEnableVertexAttribArray(COLOR_ATTRIBUTE);
+    GL20.glVertexAttribPointer(COLOR_ATTRIBUTE, 4, GL11.GL_UNSIGNED_BYTE, true, INSTANCE_SIZE,
+        offset + 64);
+    GL33.glVertexAttribDivisor(COLOR_ATTRIBUTE, 1);
+
+    GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+
+    GL31.glDrawElementsInstanced(GL11.GL_TRIANGLES, mesh.getIndexCount(), GL11.GL_UNSIGNED_INT,
+        0, pending);
+
+    drawCalls++;
+
+    batchStart += pending;
+    pending = 0;
+
+  }
+
+  /**
+   * <p>Finish drawing instances.</p>
+   *
+   * <p>Pending instances are drawn and the next frame continues on the next region.</p>
+   *
+   * @since 0.0.5
+   */
+  public void end() {
+
+    if (!drawing) return;
+
+    flush();
+    nextRegion();
+
+    stateCache.bindVertexArray(0);
+    stateCache.useProgram(0);
+
+    drawing = false;
+
+  }
+
+  /**
+   * <p>Set the shader used for the following instances.</p>
+   *
+   * <p>Pending instances are flushed if the shader changes. The shader must use the attribute
+   * locations of {@link Mesh} and this class and a <code>u_viewProjection</code> matrix.
+   * <code>0</code> selects the default shader.</p>
+   *
+   * @param shader OpenGL name of the program or <code>0</code>
+   * @since 0.0.5
+   */
+  public void setShader(int shader) {
+
+    if (shader == 0) shader = defaultShader;
+
+    if (shader == this.shader) return;
+
+    this.shader = shader;
+
+    if (drawing) {
+      flush();
+      useShader(shader);
+    }
+
+  }
+
+  /**
+   * <p>Get the amount of draw calls made since the last reset.</p>
+   *
+   * @return Amount of draw calls
+   * @see #resetStatistics()
+   * @since 0.0.5
+   */
+  public int getDrawCalls() {
+
+    return drawCalls;
+
+  }
+
+  /**
+   * <p>Get the amount of instances drawn since the last reset.</p>
+   *
+   * @return Amount of instances
+   * @see #resetStatistics()
+   * @since 0.0.5
+   */
+  public int getInstanceCount() {
+
+    return instanceCount;
+
+  }
+
+  /**
+   * <p>Reset the draw call and instance counters.</p>
+   *
+   * @since 0.0.5
+   */
+  public void resetStatistics() {
+
+    drawCalls = 0;
+    instanceCount = 0;
+
+  }
+
+  /**
+   * <p>Destroy the batch and free its resources.</p>
+   *
+   * <p>Meshes drawn with the batch are not destroyed.</p>
+   *
+   * @since 0.0.5
+   */
+  public void destroy() {
+
+    instances.destroy();
+
+    GL20.glDeleteProgram(defaultShader);
+
+    stateCache.invalidate();
+
+  }
+
+  private void nextRegion() {
+
+    instances.nextRegion();
+
+    writeAddress = instances.getWriteAddress();
+    batchStart = 0;
+
+  }
+
+  private void useShader(int program) {
+
+    stateCache.useProgram(program);
+
+    try (MemoryStack stack = MemoryStack.stackPush()) {
+
+      FloatBuffer matrix = stack.floats(viewProjection);
+      GL20.glUniformMatrix4fv(GL20.glGetUniformLocation(program, "u_viewProjection"), false,
+          matrix);
+
+    }
+
+  }
+
+}
@@ -0,0 +1,156 @@
+package me.joosua.maingine.graphics.mesh;
+
+import me.joosua.maingine.graphics.GlStateCache;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL30;
+
+/**
+ * <p>Mesh is an indexed triangle mesh stored on the GPU.</p>
+ *
+ * <p>Every vertex has a position and a normal, both three floats. The mesh owns a vertex
+ * array object which {@link InstanceBatch} extends with the per-instance attributes.</p>
+ *
+ * @since 0.0.5
+ */
+public class Mesh {
+
+  public static final int POSITION_ATTRIBUTE = 0;
+  public static final int NORMAL_ATTRIBUTE = 1;
+
+  private static final int VERTEX_SIZE = 24;
+
+  private final GlStateCache stateCache;
+
+  private final int vertexArray;
+  private final int vertexBuffer;
+  private final int indexBuffer;
+  private final int indexCount;
+
+  /**
+   * <p>Create a mesh.</p>
+   *
+   * @param stateCache State cache of the current context
+   * @param vertices Vertices as position x, y, z and normal x, y, z after each other
+   * @param indices Three vertex indices for each triangle
+   * @since 0.0.5
+   */
+  public Mesh(GlStateCache stateCache, float[] vertices, int[] indices) {
+
+    this.stateCache = stateCache;
+    this.indexCount = indices.length;
+
+    vertexArray = GL30.glGenVertexArrays();
+    stateCache.bindVertexArray(vertexArray);
+
+    vertexBuffer = GL15.glGenBuffers();
+    GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vertexBuffer);
+    GL15.glBufferData(GL15.GL_ARRAY_BUFFER, vertices, GL15.GL_STATIC_DRAW);
+
+    GL20.glEnableVertexAttribArray(POSITION_ATTRIBUTE);
+    GL20.glVertexAttribPointer(POSITION_ATTRIBUTE, 3, GL11.GL_FLOAT, false, VERTEX_SIZE, 0);
+    GL20.glEnableVertexAttribArray(NORMAL_ATTRIBUTE);
+    GL20.glVertexAttribPointer(NORMAL_ATTRIBUTE, 3, GL11.GL_FLOAT, false, VERTEX_SIZE, 12);
+
+    indexBuffer = GL15.glGenBuffers();
+    GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, indexBuffer);
+    GL15.glBufferData(GL15.GL_ELEMENT_ARRAY_BUFFER, indices, GL15.GL_STATIC_DRAW);
+
+    stateCache.bindVertexArray(0);
+    GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+
+  }
+
+  /**
+   * <p>Create a cube mesh centered at the origin.</p>
+   *
+   * @param stateCache State cache of the current context
+   * @param size Length of the cube's edges
+   * @return The cube mesh
+   * @since 0.0.5
+   */
+  public static Mesh createCube(GlStateCache stateCache, float size) {
+
+    float h = size / 2;
+
+    // Four corners per face so every face can have its own normal
+    float[][] faces = {
+      {0, 0, 1, -h, -h, h, h, -h, h, h, h, h, -h, h, h},
+      {0, 0, -1, h, -h, -h, -h, -h, -h, -h, h, -h, h, h, -h},
+      {1, 0, 0, h, -h, h, h, -h, -h, h, h, -h, h, h, h},
+      {-1, 0, 0, -h, -h, -h, -h, -h, h, -h, h, h, -h, h, -h},
+      {0, 1, 0, -h, h, h, h, h, h, h, h, -h, -h, h, -h},
+      {0, -1, 0, -h, -h, -h, h, -h, -h, h, -h, h, -h, -h, h}
+    };
+
+    float[] vertices = new float[faces.length * 4 * 6];
+    int[] indices = new int[faces.length * 6];
+
+    for (int face = 0; face < faces.length; face++) {
+
+      for (int corner = 0; corner < 4; corner++) {
+
+        int vertex = (face * 4 + corner) * 6;
+
+        System.arraycopy(faces[face], 3 + corner * 3, vertices, vertex, 3);
+        System.arraycopy(faces[face], 0, vertices, vertex + 3, 3);
+
+      }
+
+      int first = face * 4;
+      int index = face * 6;
+
+      indices[index] = first;
+      indices[index + 1] = first + 1;
+      indices[index + 2] = first + 2;
+      indices[index + 3] = first + 2;
+      indices[index + 4] = first + 3;
+      indices[index + 5] = first;
+
+    }
+
+    return new Mesh(stateCache, vertices, indices);
+
+  }
+
+  /**
+   * <p>Get the vertex array object of the mesh.</p>
+   *
+   * @return OpenGL name of the vertex array
+   * @since 0.0.5
+   */
+  public int getVertexArray() {
+
+    return vertexArray;
+
+  }
+
+  /**
+   * <p>Get the amount of indices.</p>
+   *
+   * @return Three times the amount of triangles
+   * @since 0.0.5
+   */
+  public int getIndexCount() {
+
+    return indexCount;
+
+  }
+
+  /**
+   * <p>Delete the mesh from the GPU.</p>
+   *
+   * @since 0.0.5
+   */
+  public void destroy() {
+
+    stateCache.bindVertexArray(0);
+
+    GL30.glDeleteVertexArrays(vertexArray);
+    GL15.glDeleteBuffers(vertexBuffer);
+    GL15.glDeleteBuffers(indexBuffer);
+
+  }
+
+}
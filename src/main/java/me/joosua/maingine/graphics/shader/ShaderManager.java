@@ -0,0 +1,551 @@
+package me.joosua.maingine.graphics.shader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.lwjgl.opengl.ARBParallelShaderCompile;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL41;
+import org.lwjgl.opengl.GLCapabilities;
+import org.lwjgl.opengl.KHRParallelShaderCompile;
+import org.lwjgl.system.MemoryStack;
+import org.lwjgl.system.MemoryUtil;
+
+/**
+ * <p>ShaderManager compiles, links and caches shader programs.</p>
+ *
+ * <p>Programs are first queued with {@link #load(String, String, String)} and then built all
+ * at once with {@link #build()}. Every compile and link of the queue is issued before any
+ * of their results are queried, so drivers supporting parallel shader compilation can work
+ * on all of them at the same time.</p>
+ *
+ * <p>Linked programs are saved to disk with <code>glGetProgramBinary</code>. The cache is
+ * keyed by a hash of the sources and the driver, so a program with unchanged sources is
+ * loaded from the cache without compiling anything. Invalid cache entries (after a driver
+ * update for example) are simply compiled again.</p>
+ *
+ * <p>All the methods must be called from the thread owning the OpenGL context.</p>
+ *
+ * @since 0.0.5
+ */
+public class ShaderManager {
+
+  private static final Logger logger = LogManager.getLogger(ShaderManager.class);
+
+  private static final int CACHE_MAGIC = 0x4D535042;
+  private static final int CACHE_HEADER = 8;
+
+  private final Path cacheDirectory;
+  private final boolean binarySupported;
+  private final String driver;
+
+  private final HashMap<String, ShaderProgram> programs = new HashMap<>();
+  private final List<ShaderProgram> queue = new ArrayList<>();
+
+  private int cacheHits;
+  private int cacheMisses;
+
+  /**
+   * <p>Create a shader manager for the current OpenGL context.</p>
+   *
+   * <p>Program binaries are cached only if the context supports
+   * <code>ARB_get_program_binary</code> with at least one binary format. The engine
+   * caches to the directory of
+   * {@link me.joosua.maingine.settings.EngineSettings#getShaderCacheDirectory()}.</p>
+   *
+   * @param cacheDirectory Directory for the program binaries or <code>NULL</code> for none
+   * @since 0.0.5
+   */
+  public ShaderManager(Path cacheDirectory) {
+
+    GLCapabilities capabilities = GL.getCapabilities();
+
+    this.cacheDirectory = cacheDirectory;
+    this.binarySupported = cacheDirectory != null
+        && (capabilities.OpenGL41 || capabilities.GL_ARB_get_program_binary)
+        && GL11.glGetInteger(GL41.GL_NUM_PROGRAM_BINARY_FORMATS) > 0;
+
+    this.driver = GL11.glGetString(GL11.GL_VENDOR) + '\n' + GL11.glGetString(GL11.GL_RENDERER)
+        + '\n' + GL11.glGetString(GL11.GL_VERSION);
+
+    if (capabilities.GL_KHR_parallel_shader_compile) {
+      KHRParallelShaderCompile.glMaxShaderCompilerThreadsKHR(0xFFFFFFFF);
+    } else if (capabilities.GL_ARB_parallel_shader_compile) {
+      ARBParallelShaderCompile.glMaxShaderCompilerThreadsARB(0xFFFFFFFF);
+    }
+
+    logger.info("Program binary cache is {}", binarySupported ? "enabled" : "disabled");
+
+  }
+
+  /**
+   * <p>Queue a new shader program to be built.</p>
+   *
+   * <p>If the name is already used or is <code>NULL</code>, the program will not be
+   * created.</p>
+   *
+   * @param name An unique name
+   * @param vertexSource Source of the vertex shader
+   * @param fragmentSource Source of the fragment shader
+   * @return The queued program or <code>NULL</code> if not created.
+   * @see #build()
+   * @since 0.0.5
+   */
+  public ShaderProgram load(String name, String vertexSource, String fragmentSource) {
+
+    if (name == null) {
+
+      logger.error("ShaderProgram not created! ShaderProgram name can't be NULL.");
+      return null;
+
+    }
+
+    if (programs.containsKey(name)) {
+
+      logger.error("ShaderProgram not created! ShaderProgram '{}' already exists.", name);
+      return null;
+
+    }
+
+    ShaderProgram program = new ShaderProgram(name, vertexSource, fragmentSource);
+
+    programs.put(name, program);
+    queue.add(program);
+
+    return program;
+
+  }
+
+  /**
+   * <p>Queue a program to be rebuilt with new sources.</p>
+   *
+   * <p>The old OpenGL program stays usable until the new one has been built successfully.
+   * If the sources match a cached binary, no compilation is done.</p>
+   *
+   * @param program The program to be reloaded
+   * @param vertexSource New source of the vertex shader
+   * @param fragmentSource New source of the fragment shader
+   * @see #build()
+   * @since 0.0.5
+   */
+  public void reload(ShaderProgram program, String vertexSource, String fragmentSource) {
+
+    program.setSources(vertexSource, fragmentSource);
+
+    if (!queue.contains(program)) {
+      queue.add(program);
+    }
+
+  }
+
+  /**
+   * <p>Build all the queued programs.</p>
+   *
+   * <p>Cached binaries are loaded first. The rest are compiled and linked so that all the
+   * work is issued to the driver before waiting for any of it.</p>
+   *
+   * @return Amount of programs built successfully
+   * @since 0.0.5
+   */
+  public int build() {
+
+    int built = 0;
+
+    List<Compilation> compilations = new ArrayList<>();
+
+    for (ShaderProgram program : queue) {
+
+      String key = getCacheKey(driver, program.getVertexSource(),
+          program.getFragmentSource(), program.getAttributes());
+      int binary = loadBinary(key);
+
+      if (binary != 0) {
+
+        replaceProgram(program, binary, true);
+        cacheHits++;
+        built++;
+
+      } else {
+
+        compilations.add(new Compilation(program, key));
+        cacheMisses++;
+
+      }
+
+    }
+
+    for (Compilation compilation : compilations) {
+      built += compilation.finish() ? 1 : 0;
+    }
+
+    if (!queue.isEmpty()) {
+      logger.info("Built {}/{} shader programs, {} from the cache", built, queue.size(),
+          queue.size() - compilations.size());
+    }
+
+    queue.clear();
+
+    return built;
+
+  }
+
+  /**
+   * <p>Get a program by its name.</p>
+   *
+   * @param name Name of the program
+   * @return The program or <code>NULL</code> if not found
+   * @since 0.0.5
+   */
+  public ShaderProgram getProgram(String name) {
+
+    return programs.get(name);
+
+  }
+
+  /**
+   * <p>Get the amount of programs loaded from the binary cache.</p>
+   *
+   * @return Amount of cache hits since creation
+   * @since 0.0.5
+   */
+  public int getCacheHits() {
+
+    return cacheHits;
+
+  }
+
+  /**
+   * <p>Get the amount of programs that had to be compiled.</p>
+   *
+   * @return Amount of cache misses since creation
+   * @since 0.0.5
+   */
+  public int getCacheMisses() {
+
+    return cacheMisses;
+
+  }
+
+  /**
+   * <p>Delete all the programs.</p>
+   *
+   * @since 0.0.5
+   */
+  public void destroy() {
+
+    for (ShaderProgram program : programs.values()) {
+      replaceProgram(program, 0, false);
+    }
+
+    programs.clear();
+    queue.clear();
+
+  }
+
+  /**
+   * <p>Compile and link a program immediately without caching.</p>
+   *
+   * <p>This is meant for small built-in programs of the engine. Errors are logged and
+   * the program is returned even if it couldn't be linked.</p>
+   *
+   * @param vertexSource Source of the vertex shader
+   * @param fragmentSource Source of the fragment shader
+   * @param attributes Attribute locations by their names
+   * @return OpenGL name of the program
+   * @since 0.0.5
+   */
+  public static int createProgram(String vertexSource, String fragmentSource,
+      Map<String, Integer> attributes) {
+
+    int program = GL20.glCreateProgram();
+    int vertex = compileShader(GL20.GL_VERTEX_SHADER, vertexSource);
+    int fragment = compileShader(GL20.GL_FRAGMENT_SHADER, fragmentSource);
+
+    GL20.glAttachShader(program, vertex);
+    GL20.glAttachShader(program, fragment);
+
+    for (Map.Entry<String, Integer> attribute : attributes.entrySet()) {
+      GL20.glBindAttribLocation(program, attribute.getValue(), attribute.getKey());
+    }
+
+    GL20.glLinkProgram(program);
+
+    if (GL20.glGetProgrami(program, GL20.GL_LINK_STATUS) == GL11.GL_FALSE) {
+      logger.error("Shader program couldn't be linked: {}{}{}", getCompileLog(vertex),
+          getCompileLog(fragment), GL20.glGetProgramInfoLog(program));
+    }
+
+    GL20.glDetachShader(program, vertex);
+    GL20.glDetachShader(program, fragment);
+    GL20.glDeleteShader(vertex);
+    GL20.glDeleteShader(fragment);
+
+    return program;
+
+  }
+
+  private static int compileShader(int type, String source) {
+
+    int shader = GL20.glCreateShader(type);
+
+    GL20.glShaderSource(shader, source);
+    GL20.glCompileShader(shader);
+
+    return shader;
+
+  }
+
+  private static String getCompileLog(int shader) {
+
+    if (GL20.glGetShaderi(shader, GL20.GL_COMPILE_STATUS) == GL11.GL_TRUE) return "";
+
+    return GL20.glGetShaderInfoLog(shader);
+
+  }
+
+  private void replaceProgram(ShaderProgram program, int id, boolean cached) {
+
+    if (program.getProgram() != 0) {
+      GL20.glDeleteProgram(program.getProgram());
+    }
+
+    program.setProgram(id, cached);
+
+  }
+
+  /*
+   * Hashes everything the binary depends on. Every field ends with a zero byte, which
+   * can't appear in them, so different fields never hash the same bytes.
+   */
+  static String getCacheKey(String driver, String vertexSource, String fragmentSource,
+      Map<String, Integer> attributes) {
+
+    try {
+
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+
+      updateField(digest, driver);
+      updateField(digest, vertexSource);
+      updateField(digest, fragmentSource);
+
+      for (Map.Entry<String, Integer> attribute : attributes.entrySet()) {
+        updateField(digest, attribute.getKey());
+        updateField(digest, attribute.getValue().toString());
+      }
+
+      StringBuilder key = new StringBuilder();
+
+      for (byte b : digest.digest()) {
+        key.append(String.format("%02x", b));
+      }
+
+      return key.toString();
+
+    } catch (NoSuchAlgorithmException e) {
+
+      throw new IllegalStateException("SHA-256 is not available", e);
+
+    }
+
+  }
+
+  private static void updateField(MessageDigest digest, String field) {
+
+    digest.update(field.getBytes(StandardCharsets.UTF_8));
+    digest.update((byte) 0);
+
+  }
+
+  private int loadBinary(String key) {
+
+    if (!binarySupported) return 0;
+
+    Path file = cacheDirectory.resolve(key + ".bin");
+
+    if (!Files.isRegularFile(file)) return 0;
+
+    ByteBuffer data = null;
+
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+
+      data = MemoryUtil.memAlloc((int) channel.size());
+
+      while (data.hasRemaining()) {
+        if (channel.read(data) < 0) break;
+      }
+
+      data.flip();
+
+      if (data.remaining() < CACHE_HEADER || data.getInt(0) != CACHE_MAGIC) {
+        throw new IOException("Invalid program binary header");
+      }
+
+      int format = data.getInt(4);
+      data.position(CACHE_HEADER);
+
+      int program = GL20.glCreateProgram();
+      GL41.glProgramBinary(program, format, data);
+
+      if (GL20.glGetProgrami(program, GL20.GL_LINK_STATUS) == GL11.GL_TRUE) {
+        return program;
+      }
+
+      GL20.glDeleteProgram(program);
+
+      logger.info("Cached program binary '{}' rejected by the driver", key);
+
+    } catch (IOException e) {
+
+      logger.warn("Cached program binary '{}' couldn't be read: {}", key, e.getMessage());
+
+    } finally {
+
+      MemoryUtil.memFree(data);
+
+    }
+
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      logger.warn("Invalid program binary '{}' couldn't be deleted", key);
+    }
+
+    return 0;
+
+  }
+
+  private void saveBinary(String key, int program) {
+
+    if (!binarySupported) return;
+
+    int length = GL20.glGetProgrami(program, GL41.GL_PROGRAM_BINARY_LENGTH);
+
+    if (length <= 0) return;
+
+    ByteBuffer data = MemoryUtil.memAlloc(CACHE_HEADER + length);
+
+    try (MemoryStack stack = MemoryStack.stackPush()) {
+
+      IntBuffer format = stack.mallocInt(1);
+
+      data.position(CACHE_HEADER);
+      GL41.glGetProgramBinary(program, null, format, data);
+
+      data.putInt(0, CACHE_MAGIC);
+      data.putInt(4, format.get(0));
+      data.position(0);
+
+      Files.createDirectories(cacheDirectory);
+
+      Path temporary = Files.createTempFile(cacheDirectory, key, ".tmp");
+
+      try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+        while (data.hasRemaining()) {
+          channel.write(data);
+        }
+      }
+
+      Files.move(temporary, cacheDirectory.resolve(key + ".bin"),
+          StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+    } catch (IOException e) {
+
+      logger.warn("Program binary '{}' couldn't be cached: {}", key, e.getMessage());
+
+    } finally {
+
+      MemoryUtil.memFree(data);
+
+    }
+
+  }
+
+  /**
+   * <p>A program being compiled and linked from sources.</p>
+   *
+   * <p>Creating this issues all the work, {@link #finish()} waits
+   * for the results.</p>
+   */
+  private class Compilation {
+
+    private final ShaderProgram program;
+    private final String key;
+
+    private final int id;
+    private final int vertex;
+    private final int fragment;
+
+    private Compilation(ShaderProgram program, String key) {
+
+      this.program = program;
+      this.key = key;
+
+      vertex = compileShader(GL20.GL_VERTEX_SHADER, program.getVertexSource());
+      fragment = compileShader(GL20.GL_FRAGMENT_SHADER, program.getFragmentSource());
+
+      id = GL20.glCreateProgram();
+
+      GL20.glAttachShader(id, vertex);
+      GL20.glAttachShader(id, fragment);
+
+      for (Map.Entry<String, Integer> attribute : program.getAttributes().entrySet()) {
+        GL20.glBindAttribLocation(id, attribute.getValue(), attribute.getKey());
+      }
+
+      if (binarySupported) {
+        GL41.glProgramParameteri(id, GL41.GL_PROGRAM_BINARY_RETRIEVABLE_HINT, GL11.GL_TRUE);
+      }
+
+      GL20.glLinkProgram(id);
+
+    }
+
+    private boolean finish() {
+
+      boolean linked = GL20.glGetProgrami(id, GL20.GL_LINK_STATUS) == GL11.GL_TRUE;
+
+      if (!linked) {
+
+        logger.error("Shader program '{}' couldn't be linked: {}{}{}", program.getName(),
+            getCompileLog(vertex), getCompileLog(fragment), GL20.glGetProgramInfoLog(id));
+
+      }
+
+      GL20.glDetachShader(id, vertex);
+      GL20.glDetachShader(id, fragment);
+      GL20.glDeleteShader(vertex);
+      GL20.glDeleteShader(fragment);
+
+      if (!linked) {
+
+        GL20.glDeleteProgram(id);
+        return false;
+
+      }
+
+      saveBinary(key, id);
+      replaceProgram(program, id, false);
+
+      return true;
+
+    }
+
+  }
+
+}
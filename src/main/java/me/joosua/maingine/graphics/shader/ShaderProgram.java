@@ -0,0 +1,159 @@
+package me.joosua.maingine.graphics.shader;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.lwjgl.opengl.GL20;
+
+/**
+ * <p>ShaderProgram is a linked OpenGL program made of a vertex and a fragment shader.</p>
+ *
+ * <p>Programs are created and built with {@link ShaderManager}. The OpenGL program is only
+ * valid after the manager has built it successfully.</p>
+ *
+ * @see ShaderManager#load(String, String, String)
+ * @since 0.0.5
+ */
+public class ShaderProgram {
+
+  private final String name;
+
+  private String vertexSource;
+  private String fragmentSource;
+  private final Map<String, Integer> attributes = new LinkedHashMap<>();
+
+  private final HashMap<String, Integer> uniforms = new HashMap<>();
+
+  private int program;
+  private boolean cached;
+
+  ShaderProgram(String name, String vertexSource, String fragmentSource) {
+
+    this.name = name;
+    this.vertexSource = vertexSource;
+    this.fragmentSource = fragmentSource;
+
+  }
+
+  /**
+   * <p>Bind a vertex attribute to a location.</p>
+   *
+   * <p>This must be done before the program is built. Shaders using explicit
+   * <code>layout</code> locations don't need this.</p>
+   *
+   * @param attribute Name of the attribute in the vertex shader
+   * @param location Location for the attribute
+   * @since 0.0.5
+   */
+  public void bindAttribute(String attribute, int location) {
+
+    attributes.put(attribute, location);
+
+  }
+
+  /**
+   * <p>Get the location of a uniform.</p>
+   *
+   * <p>Locations are cached so this is cheap to call every frame.</p>
+   *
+   * @param uniform Name of the uniform
+   * @return Location of the uniform or <code>-1</code> if not found.
+   * @since 0.0.5
+   */
+  public int getUniformLocation(String uniform) {
+
+    Integer location = uniforms.get(uniform);
+
+    if (location == null) {
+      location = GL20.glGetUniformLocation(program, uniform);
+      uniforms.put(uniform, location);
+    }
+
+    return location;
+
+  }
+
+  /**
+   * <p>Get the name given on creation.</p>
+   *
+   * @return Name of the program
+   * @since 0.0.5
+   */
+  public String getName() {
+
+    return name;
+
+  }
+
+  /**
+   * <p>Get the OpenGL name of the program.</p>
+   *
+   * @return OpenGL name of the program or <code>0</code> if not built.
+   * @since 0.0.5
+   */
+  public int getProgram() {
+
+    return program;
+
+  }
+
+  /**
+   * <p>Whether the program has been built successfully.</p>
+   *
+   * @return <code>TRUE</code> if the program can be used, <code>FALSE</code> if not.
+   * @since 0.0.5
+   */
+  public boolean isLinked() {
+
+    return program != 0;
+
+  }
+
+  /**
+   * <p>Whether the program was loaded from the program binary cache
+   * on the last build.</p>
+   *
+   * @return <code>TRUE</code> if the compilation was skipped, <code>FALSE</code> if not.
+   * @since 0.0.5
+   */
+  public boolean isCached() {
+
+    return cached;
+
+  }
+
+  String getVertexSource() {
+
+    return vertexSource;
+
+  }
+
+  String getFragmentSource() {
+
+    return fragmentSource;
+
+  }
+
+  Map<String, Integer> getAttributes() {
+
+    return attributes;
+
+  }
+
+  void setSources(String vertexSource, String fragmentSource) {
+
+    this.vertexSource = vertexSource;
+    this.fragmentSource = fragmentSource;
+
+  }
+
+  void setProgram(int program, boolean cached) {
+
+    this.program = program;
+    this.cached = cached;
+
+    uniforms.clear();
+
+  }
+
+}
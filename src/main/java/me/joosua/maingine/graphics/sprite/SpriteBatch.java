@@ -0,0 +1,520 @@
+package me.joosua.maingine.graphics.sprite;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import me.joosua.maingine.graphics.GlStateCache;
+import me.joosua.maingine.graphics.StreamBuffer;
+import me.joosua.maingine.graphics.shader.ShaderManager;
+import me.joosua.maingine.graphics.texture.AtlasRegion;
+import me.joosua.maingine.graphics.texture.TextureAtlas;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.joml.Matrix4fc;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL32;
+import org.lwjgl.system.MemoryStack;
+import org.lwjgl.system.MemoryUtil;
+
+/**
+ * <p>SpriteBatch draws large amounts of textured quads with a few draw calls.</p>
+ *
+ * <p>Vertices are written to a {@link StreamBuffer}, straight into persistently mapped
+ * memory when <code>ARB_buffer_storage</code> is available. The buffer is triple buffered
+ * and guarded by fences, so the CPU never writes memory the GPU is reading.</p>
+ *
+ * <p>Sprites can use either 2D textures or regions of a {@link TextureAtlas}. Drawing
+ * everything from the same atlas keeps the whole frame in a few batches.</p>
+ *
+ * <p>A batch is flushed when the texture or the shader changes, when the current region
+ * is full and on {@link #end()}. All the methods must be called from the thread owning
+ * the OpenGL context.</p>
+ *
+ * @since 0.0.5
+ */
+public class SpriteBatch {
+
+  private static final Logger logger = LogManager.getLogger(SpriteBatch.class);
+
+  public static final int POSITION_ATTRIBUTE = 0;
+  public static final int TEXCOORD_ATTRIBUTE = 1;
+  public static final int COLOR_ATTRIBUTE = 2;
+  public static final int LAYER_ATTRIBUTE = 3;
+
+  public static final int WHITE = 0xFFFFFFFF;
+
+  private static final int VERTEX_SIZE = 24;
+  private static final int SPRITE_SIZE = VERTEX_SIZE * 4;
+
+  private static final String VERTEX_SHADER = "#version 130\n"
+      + "uniform mat4 u_projection;\n"
+      + "in vec2 a_position;\n"
+      + "in vec2 a_texcoord;\n"
+      + "in vec4 a_color;\n"
+      + "in float a_layer;\n"
+      + "out vec2 v_texcoord;\n"
+      + "out vec4 v_color;\n"
+      + "out float v_layer;\n"
+      + "void main() {\n"
+      + "  v_texcoord = a_texcoord;\n"
+      + "  v_color = a_color;\n"
+      + "  v_layer = a_layer;\n"
+      + "  gl_Position = u_projection * vec4(a_position, 0.0, 1.0);\n"
+      + "}\n";
+
+  private static final String FRAGMENT_SHADER = "#version 130\n"
+      + "uniform sampler2D u_texture;\n"
+      + "in vec2 v_texcoord;\n"
+      + "in vec4 v_color;\n"
+      + "out vec4 f_color;\n"
+      + "void main() {\n"
+      + "  f_color = texture(u_texture, v_texcoord) * v_color;\n"
+      + "}\n";
+
+  private static final String ARRAY_FRAGMENT_SHADER = "#version 130\n"
+      + "uniform sampler2DArray u_texture;\n"
+      + "in vec2 v_texcoord;\n"
+      + "in vec4 v_color;\n"
+      + "in float v_layer;\n"
+      + "out vec4 f_color;\n"
+      + "void main() {\n"
+      + "  f_color = texture(u_texture, vec3(v_texcoord, v_layer)) * v_color;\n"
+      + "}\n";
+
+  private final GlStateCache stateCache;
+  private final int spritesPerRegion;
+
+  private final StreamBuffer vertices;
+  private int vertexArray;
+  private int indexBuffer;
+  private int defaultShader;
+  private int arrayShader;
+
+  private long writeAddress;
+  private int batchStart;
+  private int pending;
+
+  private int shader;
+  private int texture;
+  private int textureTarget;
+  private boolean drawing;
+
+  private final float[] projection = new float[16];
+
+  private int drawCalls;
+  private int sprites;
+
+  /**
+   * <p>Create a sprite batch.</p>
+   *
+   * <p>Each of the three regions holds the given amount of sprites. Bigger regions mean
+   * fewer draw calls but more memory, 16384 sprites take a bit over a megabyte.</p>
+   *
+   * @param stateCache State cache of the current context
+   * @param spritesPerRegion Amount of sprites drawn with a single draw call at most
+   * @since 0.0.5
+   */
+  public SpriteBatch(GlStateCache stateCache, int spritesPerRegion) {
+
+    this.stateCache = stateCache;
+    this.spritesPerRegion = Math.max(spritesPerRegion, 1);
+
+    Map<String, Integer> attributes = new HashMap<>();
+    attributes.put("a_position", POSITION_ATTRIBUTE);
+    attributes.put("a_texcoord", TEXCOORD_ATTRIBUTE);
+    attributes.put("a_color", COLOR_ATTRIBUTE);
+    attributes.put("a_layer", LAYER_ATTRIBUTE);
+
+    defaultShader = ShaderManager.createProgram(VERTEX_SHADER, FRAGMENT_SHADER, attributes);
+    arrayShader = ShaderManager.createProgram(VERTEX_SHADER, ARRAY_FRAGMENT_SHADER, attributes);
+    shader = defaultShader;
+
+    vertices = new StreamBuffer((long) this.spritesPerRegion * SPRITE_SIZE);
+
+    vertexArray = GL30.glGenVertexArrays();
+    stateCache.bindVertexArray(vertexArray);
+
+    GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vertices.getBuffer());
+    GL20.glEnableVertexAttribArray(POSITION_ATTRIBUTE);
+    GL20.glVertexAttribPointer(POSITION_ATTRIBUTE, 2, GL11.GL_FLOAT, false, VERTEX_SIZE, 0);
+    GL20.glEnableVertexAttribArray(TEXCOORD_ATTRIBUTE);
+    GL20.glVertexAttribPointer(TEXCOORD_ATTRIBUTE, 2, GL11.GL_FLOAT, false, VERTEX_SIZE, 8);
+    GL20.glEnableVertexAttribArray(COLOR_ATTRIBUTE);
+    GL20.glVertexAttribPointer(COLOR_ATTRIBUTE, 4, GL11.GL_UNSIGNED_BYTE, true, VERTEX_SIZE, 16);
+    GL20.glEnableVertexAttribArray(LAYER_ATTRIBUTE);
+    GL20.glVertexAttribPointer(LAYER_ATTRIBUTE, 1, GL11.GL_FLOAT, false, VERTEX_SIZE, 20);
+
+    indexBuffer = GL15.glGenBuffers();
+    GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, indexBuffer);
+    IntBuffer indices = createIndices();
+    GL15.glBufferData(GL15.GL_ELEMENT_ARRAY_BUFFER, indices, GL15.GL_STATIC_DRAW);
+    MemoryUtil.memFree(indices);
+
+    stateCache.bindVertexArray(0);
+    GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+
+    writeAddress = vertices.getWriteAddress();
+
+    logger.info("SpriteBatch created with {} sprites per region ({})", this.spritesPerRegion,
+        vertices.isPersistent() ? "persistent mapping" : "buffer sub data");
+
+  }
+
+  /**
+   * <p>Begin drawing sprites.</p>
+   *
+   * <p>Sprites can only be drawn between this and {@link #end()}.</p>
+   *
+   * @param projection Projection used for the vertex positions
+   * @since 0.0.5
+   */
+  public void begin(Matrix4fc projection) {
+
+    if (drawing) {
+
+      logger.error("SpriteBatch.end() must be called before beginning again!");
+      return;
+
+    }
+
+    projection.get(this.projection);
+
+    drawing = true;
+    texture = 0;
+    textureTarget = GL11.GL_TEXTURE_2D;
+
+    stateCache.bindVertexArray(vertexArray);
+    useShader(shader);
+
+  }
+
+  /**
+   * <p>Draw a sprite using the whole texture.</p>
+   *
+   * @param texture OpenGL name of the texture
+   * @param x Position of the left edge
+   * @param y Position of the bottom edge
+   * @param width Width of the sprite
+   * @param height Height of the sprite
+   * @see #draw(int, float, float, float, float, float, float, float, float, int)
+   * @since 0.0.5
+   */
+  public void draw(int texture, float x, float y, float width, float height) {
+
+    draw(texture, x, y, width, height, 0, 0, 1, 1, WHITE);
+
+  }
+
+  /**
+   * <p>Draw a sprite.</p>
+   *
+   * <p>The batch is flushed first if the texture differs from the previous sprite's.</p>
+   *
+   * @param texture OpenGL name of the texture
+   * @param x Position of the left edge
+   * @param y Position of the bottom edge
+   * @param width Width of the sprite
+   * @param height Height of the sprite
+   * @param u0 Left texture coordinate
+   * @param v0 Bottom texture coordinate
+   * @param u1 Right texture coordinate
+   * @param v1 Top texture coordinate
+   * @param color Tint packed with {@link #packColor(float, float, float, float)}
+   * @since 0.0.5
+   */
+  public void draw(int texture, float x, float y, float width, float height,
+      float u0, float v0, float u1, float v1, int color) {
+
+    drawQuad(GL11.GL_TEXTURE_2D, texture, 0, x, y, width, height, u0, v0, u1, v1, color);
+
+  }
+
+  /**
+   * <p>Draw a region of a texture atlas.</p>
+   *
+   * <p>Nothing is drawn if the region hasn't been loaded yet. Sprites from the same atlas
+   * are drawn in the same batch.</p>
+   *
+   * @param atlas The atlas containing the region
+   * @param region Region of the atlas
+   * @param x Position of the left edge
+   * @param y Position of the bottom edge
+   * @param width Width of the sprite
+   * @param height Height of the sprite
+   * @param color Tint packed with {@link #packColor(float, float, float, float)}
+   * @since 0.0.5
+   */
+  public void draw(TextureAtlas atlas, AtlasRegion region, float x, float y, float width,
+      float height, int color) {
+
+    if (!region.isLoaded()) return;
+
+    drawQuad(GL30.GL_TEXTURE_2D_ARRAY, atlas.getTexture(), region.getLayer(), x, y, width,
+        height, region.getU0(), region.getV0(), region.getU1(), region.getV1(), color);
+
+  }
+
+  private void drawQuad(int target, int texture, float layer, float x, float y, float width,
+      float height, float u0, float v0, float u1, float v1, int color) {
+
+    if (!drawing) {
+
+      logger.error("SpriteBatch.begin() must be called before drawing!");
+      return;
+
+    }
+
+    if (texture != this.texture || target != textureTarget) {
+
+      flush();
+
+      if (target != textureTarget && shader == defaultShader) {
+        useShader(target == GL11.GL_TEXTURE_2D ? defaultShader : arrayShader);
+      }
+
+      this.texture = texture;
+      this.textureTarget = target;
+
+    }
+
+    if (batchStart + pending == spritesPerRegion) {
+      flush();
+      nextRegion();
+    }
+
+    long address = writeAddress + (long) (batchStart + pending) * SPRITE_SIZE;
+    float x1 = x + width;
+    float y1 = y + height;
+
+    putVertex(address, x, y, u0, v0, color, layer);
+    putVertex(address + VERTEX_SIZE, x1, y, u1, v0, color, layer);
+    putVertex(address + VERTEX_SIZE * 2, x1, y1, u1, v1, color, layer);
+    putVertex(address + VERTEX_SIZE * 3, x, y1, u0, v1, color, layer);
+
+    pending++;
+    sprites++;
+
+  }
+
+  /**
+   * <p>Draw all the pending sprites.</p>
+   *
+   * <p>This is called automatically when needed.</p>
+   *
+   * @since 0.0.5
+   */
+  public void flush() {
+
+    if (pending == 0) return;
+
+    vertices.upload((long) batchStart * SPRITE_SIZE, (long) pending * SPRITE_SIZE);
+
+    stateCache.bindTexture(0, textureTarget, texture);
+
+    int baseVertex = (int) (vertices.getRegionOffset() / VERTEX_SIZE) + batchStart * 4;
+    GL32.glDrawElementsBaseVertex(GL11.GL_TRIANGLES, pending * 6, GL11.GL_UNSIGNED_INT, 0,
+        baseVertex);
+
+    drawCalls++;
+
+    batchStart += pending;
+    pending = 0;
+
+  }
+
+  /**
+   * <p>Finish drawing sprites.</p>
+   *
+   * <p>Pending sprites are drawn and the next frame continues on the next region.</p>
+   *
+   * @since 0.0.5
+   */
+  public void end() {
+
+    if (!drawing) return;
+
+    flush();
+    nextRegion();
+
+    stateCache.bindVertexArray(0);
+    stateCache.useProgram(0);
+
+    drawing = false;
+
+  }
+
+  /**
+   * <p>Set the shader used for the following sprites.</p>
+   *
+   * <p>Pending sprites are flushed if the shader changes. The shader must use
+   * the attribute locations of this class and a <code>u_projection</code> matrix. A custom
+   * shader is used for both 2D and atlas textures. <code>0</code> selects the default
+   * shaders.</p>
+   *
+   * @param shader OpenGL name of the program or <code>0</code>
+   * @since 0.0.5
+   */
+  public void setShader(int shader) {
+
+    if (shader == 0) shader = defaultShader;
+
+    if (shader == this.shader) return;
+
+    this.shader = shader;
+
+    if (drawing) {
+      flush();
+      useShader(shader == defaultShader && textureTarget != GL11.GL_TEXTURE_2D
+          ? arrayShader : shader);
+    }
+
+  }
+
+  /**
+   * <p>Get the amount of draw calls made since the last reset.</p>
+   *
+   * @return Amount of draw calls
+   * @see #resetStatistics()
+   * @since 0.0.5
+   */
+  public int getDrawCalls() {
+
+    return drawCalls;
+
+  }
+
+  /**
+   * <p>Get the amount of sprites drawn since the last reset.</p>
+   *
+   * @return Amount of sprites
+   * @see #resetStatistics()
+   * @since 0.0.5
+   */
+  public int getSpriteCount() {
+
+    return sprites;
+
+  }
+
+  /**
+   * <p>Reset the draw call and sprite counters.</p>
+   *
+   * @since 0.0.5
+   */
+  public void resetStatistics() {
+
+    drawCalls = 0;
+    sprites = 0;
+
+  }
+
+  /**
+   * <p>Whether vertices are written to a persistently mapped buffer.</p>
+   *
+   * @return <code>TRUE</code> if buffer storage is used, <code>FALSE</code> if not.
+   * @since 0.0.5
+   */
+  public boolean isPersistent() {
+
+    return vertices.isPersistent();
+
+  }
+
+  /**
+   * <p>Destroy the sprite batch and free its resources.</p>
+   *
+   * @since 0.0.5
+   */
+  public void destroy() {
+
+    vertices.destroy();
+
+    GL15.glDeleteBuffers(indexBuffer);
+    GL30.glDeleteVertexArrays(vertexArray);
+    GL20.glDeleteProgram(defaultShader);
+    GL20.glDeleteProgram(arrayShader);
+
+    stateCache.invalidate();
+
+  }
+
+  /**
+   * <p>Pack a color for {@link #draw(int, float, float, float, float, float, float, float,
+   * float, int)}.</p>
+   *
+   * @param red Red component from <code>0</code> to <code>1</code>
+   * @param green Green component from <code>0</code> to <code>1</code>
+   * @param blue Blue component from <code>0</code> to <code>1</code>
+   * @param alpha Alpha component from <code>0</code> to <code>1</code>
+   * @return The packed color
+   * @since 0.0.5
+   */
+  public static int packColor(float red, float green, float blue, float alpha) {
+
+    return (int) (alpha * 255) << 24
+        | (int) (blue * 255) << 16
+        | (int) (green * 255) << 8
+        | (int) (red * 255);
+
+  }
+
+  private void nextRegion() {
+
+    vertices.nextRegion();
+
+    writeAddress = vertices.getWriteAddress();
+    batchStart = 0;
+
+  }
+
+  private void useShader(int program) {
+
+    stateCache.useProgram(program);
+
+    try (MemoryStack stack = MemoryStack.stackPush()) {
+
+      FloatBuffer matrix = stack.floats(projection);
+      GL20.glUniformMatrix4fv(GL20.glGetUniformLocation(program, "u_projection"), false, matrix);
+
+    }
+
+    GL20.glUniform1i(GL20.glGetUniformLocation(program, "u_texture"), 0);
+
+  }
+
+  private IntBuffer createIndices() {
+
+    IntBuffer indices = MemoryUtil.memAllocInt(spritesPerRegion * 6);
+
+    for (int i = 0; i < spritesPerRegion; i++) {
+
+      int vertex = i * 4;
+
+      indices.put(vertex).put(vertex + 1).put(vertex + 2);
+      indices.put(vertex + 2).put(vertex + 3).put(vertex);
+
+    }
+
+    indices.flip();
+
+    return indices;
+
+  }
+
+  private static void putVertex(long address, float x, float y, float u, float v, int color,
+      float layer) {
+
+    MemoryUtil.memPutFloat(address, x);
+    MemoryUtil.memPutFloat(address + 4, y);
+    MemoryUtil.memPutFloat(address + 8, u);
+    MemoryUtil.memPutFloat(address + 12, v);
+    MemoryUtil.memPutInt(address + 16, color);
+    MemoryUtil.memPutFloat(address + 20, layer);
+
+  }
+
+}
@@ -0,0 +1,187 @@
+package me.joosua.maingine.graphics.texture;
+
+/**
+ * <p>AtlasRegion is the place of an image in a {@link TextureAtlas}.</p>
+ *
+ * <p>Regions are returned immediately when images are added to the atlas, but they are
+ * placed only after the image has been decoded. The values are valid once
+ * {@link #isLoaded()} returns <code>TRUE</code>.</p>
+ *
+ * @since 0.0.5
+ */
+public class AtlasRegion {
+
+  private int layer;
+  private int left;
+  private int bottom;
+  private int width;
+  private int height;
+
+  private float u0;
+  private float v0;
+  private float u1;
+  private float v1;
+
+  private volatile boolean loaded;
+  private volatile boolean failed;
+
+  /**
+   * <p>Get the layer of the array texture the region is on.</p>
+   *
+   * @return Index of the layer
+   * @since 0.0.5
+   */
+  public int getLayer() {
+
+    return layer;
+
+  }
+
+  /**
+   * <p>Get the left edge of the region in pixels.</p>
+   *
+   * @return Horizontal position
+   * @since 0.0.5
+   */
+  public int getX() {
+
+    return left;
+
+  }
+
+  /**
+   * <p>Get the bottom edge of the region in pixels.</p>
+   *
+   * @return Vertical position
+   * @since 0.0.5
+   */
+  public int getY() {
+
+    return bottom;
+
+  }
+
+  /**
+   * <p>Get the width of the region in pixels.</p>
+   *
+   * @return Width of the image
+   * @since 0.0.5
+   */
+  public int getWidth() {
+
+    return width;
+
+  }
+
+  /**
+   * <p>Get the height of the region in pixels.</p>
+   *
+   * @return Height of the image
+   * @since 0.0.5
+   */
+  public int getHeight() {
+
+    return height;
+
+  }
+
+  /**
+   * <p>Get the left texture coordinate.</p>
+   *
+   * @return Texture coordinate from <code>0</code> to <code>1</code>
+   * @since 0.0.5
+   */
+  public float getU0() {
+
+    return u0;
+
+  }
+
+  /**
+   * <p>Get the bottom texture coordinate.</p>
+   *
+   * @return Texture coordinate from <code>0</code> to <code>1</code>
+   * @since 0.0.5
+   */
+  public float getV0() {
+
+    return v0;
+
+  }
+
+  /**
+   * <p>Get the right texture coordinate.</p>
+   *
+   * @return Texture coordinate from <code>0</code> to <code>1</code>
+   * @since 0.0.5
+   */
+  public float getU1() {
+
+    return u1;
+
+  }
+
+  /**
+   * <p>Get the top texture coordinate.</p>
+   *
+   * @return Texture coordinate from <code>0</code> to <code>1</code>
+   * @since 0.0.5
+   */
+  public float getV1() {
+
+    return v1;
+
+  }
+
+  /**
+   * <p>Whether the image has been placed and its upload issued.</p>
+   *
+   * @return <code>TRUE</code> if the region can be drawn, <code>FALSE</code> if not.
+   * @since 0.0.5
+   */
+  public boolean isLoaded() {
+
+    return loaded;
+
+  }
+
+  /**
+   * <p>Whether the image couldn't be decoded or didn't fit in the atlas.</p>
+   *
+   * @return <code>TRUE</code> if the region will never be loaded, <code>FALSE</code> if not.
+   * @since 0.0.5
+   */
+  public boolean isFailed() {
+
+    return failed;
+
+  }
+
+  void place(int layer, int x, int y, int width, int height, int size) {
+
+    this.layer = layer;
+    this.left = x;
+    this.bottom = y;
+    this.width = width;
+    this.height = height;
+
+    u0 = (float) x / size;
+    v0 = (float) y / size;
+    u1 = (float) (x + width) / size;
+    v1 = (float) (y + height) / size;
+
+  }
+
+  void setLoaded() {
+
+    loaded = true;
+
+  }
+
+  void setFailed() {
+
+    failed = true;
+
+  }
+
+}
@@ -0,0 +1,193 @@
+package me.joosua.maingine.graphics.texture;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import org.lwjgl.stb.STBImageResize;
+import org.lwjgl.system.MemoryUtil;
+
+/**
+ * <p>ImageData is a decoded image in off-heap memory.</p>
+ *
+ * <p>Pixels are stored as tightly packed RGBA with 8 bits per channel. The first row is the
+ * bottom one, matching the OpenGL texture coordinates.</p>
+ *
+ * <p>An image can have mipmaps, each half the size of the previous level. They are made
+ * when decoding on the workers, like by {@link StbImageDecoder}, or later with
+ * {@link #createMipmaps(int)}.</p>
+ *
+ * <p>The pixels must be freed with {@link #free()} once no longer needed.</p>
+ *
+ * @since 0.0.5
+ */
+public class ImageData {
+
+  private static final int CHANNELS = 4;
+  private static final int ALPHA_CHANNEL = 3;
+
+  private final int width;
+  private final int height;
+  private ByteBuffer pixels;
+  private ImageData[] mipmaps;
+
+  /**
+   * <p>Create an image from decoded pixels.</p>
+   *
+   * <p>The image takes the ownership of the pixels, they must be allocated
+   * with {@link MemoryUtil#memAlloc(int)}.</p>
+   *
+   * @param width Width of the image
+   * @param height Height of the image
+   * @param pixels RGBA pixels of the image
+   * @since 0.0.5
+   */
+  public ImageData(int width, int height, ByteBuffer pixels) {
+
+    this(width, height, pixels, new ImageData[0]);
+
+  }
+
+  /**
+   * <p>Create an image from decoded pixels and mipmaps.</p>
+   *
+   * <p>The image takes the ownership of the pixels and the mipmaps.</p>
+   *
+   * @param width Width of the image
+   * @param height Height of the image
+   * @param pixels RGBA pixels of the image
+   * @param mipmaps Mipmaps from the largest to the smallest
+   * @since 0.0.5
+   */
+  public ImageData(int width, int height, ByteBuffer pixels, ImageData[] mipmaps) {
+
+    this.width = width;
+    this.height = height;
+    this.pixels = pixels;
+    this.mipmaps = mipmaps;
+
+  }
+
+  /**
+   * <p>Get the width of the image.</p>
+   *
+   * @return Width in pixels
+   * @since 0.0.5
+   */
+  public int getWidth() {
+
+    return width;
+
+  }
+
+  /**
+   * <p>Get the height of the image.</p>
+   *
+   * @return Height in pixels
+   * @since 0.0.5
+   */
+  public int getHeight() {
+
+    return height;
+
+  }
+
+  /**
+   * <p>Get the pixels of the image.</p>
+   *
+   * @return The pixels or <code>NULL</code> if freed.
+   * @since 0.0.5
+   */
+  public ByteBuffer getPixels() {
+
+    return pixels;
+
+  }
+
+  /**
+   * <p>Get the amount of mipmaps.</p>
+   *
+   * @return Amount of mipmaps, not counting the image itself
+   * @since 0.0.5
+   */
+  public int getMipmapCount() {
+
+    return mipmaps.length;
+
+  }
+
+  /**
+   * <p>Get a mipmap of the image.</p>
+   *
+   * @param level Level of the mipmap, <code>1</code> being the largest
+   * @return The mipmap
+   * @since 0.0.5
+   */
+  public ImageData getMipmap(int level) {
+
+    return mipmaps[level - 1];
+
+  }
+
+  /**
+   * <p>Make the mipmaps the image is missing.</p>
+   *
+   * <p>Each level is box filtered from the previous one in the sRGB color space like the
+   * images are stored. The levels stop shrinking at 1x1, so an image can be given as many
+   * mipmaps as a texture has levels. Nothing is done if the image already has enough
+   * mipmaps or has been freed.</p>
+   *
+   * @param count Amount of mipmaps the image should have, not counting the image itself
+   * @since 0.0.5
+   */
+  public void createMipmaps(int count) {
+
+    if (pixels == null || mipmaps.length >= count) return;
+
+    ImageData[] created = Arrays.copyOf(mipmaps, count);
+    ImageData source = mipmaps.length == 0 ? this : mipmaps[mipmaps.length - 1];
+
+    for (int i = mipmaps.length; i < count; i++) {
+
+      int mipWidth = Math.max(source.width / 2, 1);
+      int mipHeight = Math.max(source.height / 2, 1);
+      ByteBuffer mip = MemoryUtil.memAlloc(mipWidth * mipHeight * CHANNELS);
+
+      // Each level is filtered from the previous one, which is a quarter of the work
+      STBImageResize.stbir_resize_uint8_generic(source.pixels, source.width, source.height, 0,
+          mip, mipWidth, mipHeight, 0, CHANNELS, ALPHA_CHANNEL, 0,
+          STBImageResize.STBIR_EDGE_CLAMP, STBImageResize.STBIR_FILTER_BOX,
+          STBImageResize.STBIR_COLORSPACE_SRGB);
+
+      created[i] = new ImageData(mipWidth, mipHeight, mip);
+      source = created[i];
+
+    }
+
+    mipmaps = created;
+
+  }
+
+  /**
+   * <p>Free the pixels and the mipmaps.</p>
+   *
+   * <p>Nothing is done if the pixels have already been freed.</p>
+   *
+   * @since 0.0.5
+   */
+  public void free() {
+
+    if (pixels != null) {
+
+      MemoryUtil.memFree(pixels);
+      pixels = null;
+
+    }
+
+    for (ImageData mipmap : mipmaps) {
+      mipmap.free();
+    }
+
+    mipmaps = new ImageData[0];
+
+  }
+
+}
@@ -0,0 +1,25 @@
+package me.joosua.maingine.graphics.texture;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * <p>ImageDecoder decodes image files to {@link ImageData}.</p>
+ *
+ * <p>Decoders are called from worker threads so implementations must be thread safe.</p>
+ *
+ * @since 0.0.5
+ */
+public interface ImageDecoder {
+
+  /**
+   * <p>Decode an image file.</p>
+   *
+   * @param file Path to the image file
+   * @return The decoded image
+   * @throws IOException If the file couldn't be read or decoded
+   * @since 0.0.5
+   */
+  ImageData decode(Path file) throws IOException;
+
+}
@@ -0,0 +1,53 @@
+package me.joosua.maingine.graphics.texture;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import javax.imageio.ImageIO;
+import org.lwjgl.system.MemoryUtil;
+
+/**
+ * <p>ImageIoDecoder decodes images with Java's own ImageIO.</p>
+ *
+ * <p>This supports at least PNG, JPEG, BMP and GIF files without
+ * any native libraries.</p>
+ *
+ * @since 0.0.5
+ */
+public class ImageIoDecoder implements ImageDecoder {
+
+  @Override
+  public ImageData decode(Path file) throws IOException {
+
+    BufferedImage image = ImageIO.read(file.toFile());
+
+    if (image == null) {
+      throw new IOException("Unsupported image format: " + file);
+    }
+
+    int width = image.getWidth();
+    int height = image.getHeight();
+    int[] row = new int[width];
+
+    ByteBuffer pixels = MemoryUtil.memAlloc(width * height * 4);
+
+    // ImageIO gives the top row first, OpenGL wants the bottom one
+    for (int y = height - 1; y >= 0; y--) {
+
+      image.getRGB(0, y, width, 1, row, 0, width);
+
+      for (int argb : row) {
+        pixels.put((byte) (argb >> 16)).put((byte) (argb >> 8)).put((byte) argb)
+            .put((byte) (argb >> 24));
+      }
+
+    }
+
+    pixels.flip();
+
+    return new ImageData(width, height, pixels);
+
+  }
+
+}
@@ -0,0 +1,224 @@
+package me.joosua.maingine.graphics.texture;
+
+import java.util.Arrays;
+
+/**
+ * <p>SkylinePacker packs rectangles into a fixed size area.</p>
+ *
+ * <p>The packer keeps track of the top edge of the packed rectangles (the skyline) and places
+ * every new rectangle where its top edge ends up the lowest. This wastes little space for
+ * rectangles of similar heights like glyphs and sprites and is fast enough for packing
+ * at runtime.</p>
+ *
+ * @since 0.0.5
+ */
+public class SkylinePacker {
+
+  private final int width;
+  private final int height;
+
+  private int[] nodeX = new int[16];
+  private int[] nodeY = new int[16];
+  private int[] nodeWidth = new int[16];
+  private int nodes;
+
+  private long usedArea;
+
+  /**
+   * <p>Create a packer for an empty area.</p>
+   *
+   * @param width Width of the area
+   * @param height Height of the area
+   * @since 0.0.5
+   */
+  public SkylinePacker(int width, int height) {
+
+    this.width = width;
+    this.height = height;
+
+    clear();
+
+  }
+
+  /**
+   * <p>Pack a rectangle.</p>
+   *
+   * <p>The position is returned packed to a long, it can be read with
+   * {@link #getX(long)} and {@link #getY(long)}.</p>
+   *
+   * @param rectangleWidth Width of the rectangle
+   * @param rectangleHeight Height of the rectangle
+   * @return Position of the rectangle or <code>-1</code> if it didn't fit.
+   * @since 0.0.5
+   */
+  public long pack(int rectangleWidth, int rectangleHeight) {
+
+    if (rectangleWidth <= 0 || rectangleHeight <= 0) return -1;
+
+    int bestNode = -1;
+    int bestTop = Integer.MAX_VALUE;
+    int bestWidth = Integer.MAX_VALUE;
+    int bestY = 0;
+
+    for (int i = 0; i < nodes; i++) {
+
+      int y = fit(i, rectangleWidth, rectangleHeight);
+
+      if (y < 0) continue;
+
+      int top = y + rectangleHeight;
+
+      if (top < bestTop || (top == bestTop && nodeWidth[i] < bestWidth)) {
+        bestNode = i;
+        bestTop = top;
+        bestWidth = nodeWidth[i];
+        bestY = y;
+      }
+
+    }
+
+    if (bestNode < 0) return -1;
+
+    int x = nodeX[bestNode];
+
+    addNode(bestNode, x, bestY + rectangleHeight, rectangleWidth);
+
+    usedArea += (long) rectangleWidth * rectangleHeight;
+
+    return (long) x << 32 | bestY;
+
+  }
+
+  /**
+   * <p>Remove all the packed rectangles.</p>
+   *
+   * @since 0.0.5
+   */
+  public void clear() {
+
+    nodes = 1;
+    nodeX[0] = 0;
+    nodeY[0] = 0;
+    nodeWidth[0] = width;
+
+    usedArea = 0;
+
+  }
+
+  /**
+   * <p>Get how much of the area is covered by packed rectangles.</p>
+   *
+   * @return Occupancy from <code>0</code> to <code>1</code>
+   * @since 0.0.5
+   */
+  public float getOccupancy() {
+
+    return (float) usedArea / ((long) width * height);
+
+  }
+
+  /**
+   * <p>Get the horizontal position from a packed position.</p>
+   *
+   * @param position Position returned by {@link #pack(int, int)}
+   * @return Left edge of the rectangle
+   * @since 0.0.5
+   */
+  public static int getX(long position) {
+
+    return (int) (position >>> 32);
+
+  }
+
+  /**
+   * <p>Get the vertical position from a packed position.</p>
+   *
+   * @param position Position returned by {@link #pack(int, int)}
+   * @return Bottom edge of the rectangle
+   * @since 0.0.5
+   */
+  public static int getY(long position) {
+
+    return (int) position;
+
+  }
+
+  private int fit(int node, int rectangleWidth, int rectangleHeight) {
+
+    if (nodeX[node] + rectangleWidth > width) return -1;
+
+    int y = 0;
+    int remaining = rectangleWidth;
+
+    for (int i = node; remaining > 0; i++) {
+
+      y = Math.max(y, nodeY[i]);
+
+      if (y + rectangleHeight > height) return -1;
+
+      remaining -= nodeWidth[i];
+
+    }
+
+    return y;
+
+  }
+
+  private void addNode(int index, int x, int y, int length) {
+
+    if (nodes == nodeX.length) {
+      nodeX = Arrays.copyOf(nodeX, nodes * 2);
+      nodeY = Arrays.copyOf(nodeY, nodes * 2);
+      nodeWidth = Arrays.copyOf(nodeWidth, nodes * 2);
+    }
+
+    System.arraycopy(nodeX, index, nodeX, index + 1, nodes - index);
+    System.arraycopy(nodeY, index, nodeY, index + 1, nodes - index);
+    System.arraycopy(nodeWidth, index, nodeWidth, index + 1, nodes - index);
+
+    nodeX[index] = x;
+    nodeY[index] = y;
+    nodeWidth[index] = length;
+    nodes++;
+
+    int right = x + length;
+
+    // Shrink or remove the nodes now under the new one
+    while (index + 1 < nodes && nodeX[index + 1] < right) {
+
+      int next = index + 1;
+      int shrink = right - nodeX[next];
+
+      if (shrink < nodeWidth[next]) {
+        nodeX[next] += shrink;
+        nodeWidth[next] -= shrink;
+        break;
+      }
+
+      removeNode(next);
+
+    }
+
+    // Merge neighbours on the same height
+    for (int i = 0; i < nodes - 1; i++) {
+
+      if (nodeY[i] == nodeY[i + 1]) {
+        nodeWidth[i] += nodeWidth[i + 1];
+        removeNode(i + 1);
+        i--;
+      }
+
+    }
+
+  }
+
+  private void removeNode(int index) {
+
+    System.arraycopy(nodeX, index + 1, nodeX, index, nodes - index - 1);
+    System.arraycopy(nodeY, index + 1, nodeY, index, nodes - index - 1);
+    System.arraycopy(nodeWidth, index + 1, nodeWidth, index, nodes - index - 1);
+    nodes--;
+
+  }
+
+}
@@ -0,0 +1,382 @@
+package me.joosua.maingine.graphics.texture;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import me.joosua.maingine.graphics.GlStateCache;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL12;
+import org.lwjgl.opengl.GL30;
+
+/**
+ * <p>TextureAtlas packs images into the layers of a single array texture.</p>
+ *
+ * <p>Images are decoded on worker threads and placed with a {@link SkylinePacker} per
+ * layer. The pixels are streamed to the texture with a {@link TextureUploader}, so adding
+ * images never stalls a frame. Everything drawn from the atlas can use the same texture,
+ * which keeps batches like {@link me.joosua.maingine.graphics.sprite.SpriteBatch} from
+ * flushing.</p>
+ *
+ * <p>The atlas can have mipmap levels, which are uploaded from the mipmaps of the images,
+ * like the ones made by {@link StbImageDecoder#StbImageDecoder(boolean)}. The images are
+ * then placed on a grid of the smallest level, so each level of an image covers its region
+ * exactly. Mipmaps missing from an image are made when it's added, so every level of its
+ * region is defined.</p>
+ *
+ * <p>Except for the decoding, all the work is done in {@link #update()}, which must be
+ * called once per frame from the thread owning the OpenGL context.</p>
+ *
+ * @since 0.0.5
+ */
+public class TextureAtlas {
+
+  private static final Logger logger = LogManager.getLogger(TextureAtlas.class);
+
+  private static final int PADDING = 1;
+
+  private final GlStateCache stateCache;
+  private final Executor executor;
+  private final ImageDecoder decoder;
+
+  private final int size;
+  private final int levels;
+  private final int texture;
+  private final SkylinePacker[] packers;
+  private final TextureUploader uploader;
+
+  private final Queue<Pending> decoded = new ConcurrentLinkedQueue<>();
+  private final Queue<Pending> uploads = new ArrayDeque<>();
+
+  /**
+   * <p>Create an atlas with an array texture without mipmaps.</p>
+   *
+   * @param stateCache State cache of the current context
+   * @param size Width and height of each layer in pixels
+   * @param layers Amount of layers
+   * @param decoder Decoder used for the image files
+   * @param executor Executor running the decoding
+   * @param uploadBudget Bytes uploaded per frame at most
+   * @since 0.0.5
+   */
+  public TextureAtlas(GlStateCache stateCache, int size, int layers, ImageDecoder decoder,
+      Executor executor, long uploadBudget) {
+
+    this(stateCache, size, layers, 1, decoder, executor, uploadBudget);
+
+  }
+
+  /**
+   * <p>Create an atlas with an array texture.</p>
+   *
+   * @param stateCache State cache of the current context
+   * @param size Width and height of each layer in pixels
+   * @param layers Amount of layers
+   * @param levels Amount of mipmap levels, <code>1</code> being only the base level
+   * @param decoder Decoder used for the image files
+   * @param executor Executor running the decoding
+   * @param uploadBudget Bytes uploaded per frame at most
+   * @since 0.0.5
+   */
+  public TextureAtlas(GlStateCache stateCache, int size, int layers, int levels,
+      ImageDecoder decoder, Executor executor, long uploadBudget) {
+
+    this.stateCache = stateCache;
+    this.executor = executor;
+    this.decoder = decoder;
+    this.size = size;
+    this.levels = Math.min(Math.max(levels, 1), 32 - Integer.numberOfLeadingZeros(size));
+
+    texture = GL11.glGenTextures();
+    stateCache.bindTexture(0, GL30.GL_TEXTURE_2D_ARRAY, texture);
+
+    GL11.glTexParameteri(GL30.GL_TEXTURE_2D_ARRAY, GL11.GL_TEXTURE_MIN_FILTER,
+        this.levels > 1 ? GL11.GL_LINEAR_MIPMAP_LINEAR : GL11.GL_LINEAR);
+    GL11.glTexParameteri(GL30.GL_TEXTURE_2D_ARRAY, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_LINEAR);
+    GL11.glTexParameteri(GL30.GL_TEXTURE_2D_ARRAY, GL11.GL_TEXTURE_WRAP_S, GL12.GL_CLAMP_TO_EDGE);
+    GL11.glTexParameteri(GL30.GL_TEXTURE_2D_ARRAY, GL11.GL_TEXTURE_WRAP_T, GL12.GL_CLAMP_TO_EDGE);
+    GL11.glTexParameteri(GL30.GL_TEXTURE_2D_ARRAY, GL12.GL_TEXTURE_MAX_LEVEL, this.levels - 1);
+
+    for (int level = 0; level < this.levels; level++) {
+
+      int levelSize = Math.max(size >> level, 1);
+
+      GL12.glTexImage3D(GL30.GL_TEXTURE_2D_ARRAY, level, GL11.GL_RGBA8, levelSize, levelSize,
+          layers, 0, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, (ByteBuffer) null);
+
+    }
+
+    packers = new SkylinePacker[layers];
+
+    for (int i = 0; i < layers; i++) {
+      packers[i] = new SkylinePacker(size, size);
+    }
+
+    uploader = new TextureUploader(stateCache, 4, 4 * 1024 * 1024, uploadBudget);
+
+    logger.info("TextureAtlas created with {} layers of {}x{} and {} mipmap levels", layers, size,
+        size, this.levels);
+
+  }
+
+  /**
+   * <p>Add an image file to the atlas.</p>
+   *
+   * <p>The file is decoded on the executor. The returned region is placed
+   * later in {@link #update()}.</p>
+   *
+   * @param file Path to the image file
+   * @return Region of the image
+   * @since 0.0.5
+   */
+  public AtlasRegion add(Path file) {
+
+    AtlasRegion region = new AtlasRegion();
+
+    executor.execute(() -> {
+
+      try {
+
+        ImageData image = decoder.decode(file);
+
+        image.createMipmaps(levels - 1);
+        decoded.add(new Pending(region, image));
+
+      } catch (IOException | RuntimeException e) {
+
+        logger.error("Image '{}' couldn't be decoded: {}", file, e.getMessage());
+        region.setFailed();
+
+      }
+
+    });
+
+    return region;
+
+  }
+
+  /**
+   * <p>Add a decoded image to the atlas.</p>
+   *
+   * <p>The atlas takes the ownership of the image and frees it after uploading.
+   * This can be called from any thread. Mipmaps missing from the image are made on the
+   * calling thread.</p>
+   *
+   * @param image The decoded image
+   * @return Region of the image
+   * @since 0.0.5
+   */
+  public AtlasRegion add(ImageData image) {
+
+    AtlasRegion region = new AtlasRegion();
+
+    image.createMipmaps(levels - 1);
+    decoded.add(new Pending(region, image));
+
+    return region;
+
+  }
+
+  /**
+   * <p>Place the decoded images and upload them within the budget.</p>
+   *
+   * @since 0.0.5
+   */
+  public void update() {
+
+    Pending pending;
+
+    while ((pending = decoded.poll()) != null) {
+
+      if (place(pending.region, pending.image)) {
+        uploads.add(pending);
+      } else {
+        pending.image.free();
+        pending.region.setFailed();
+      }
+
+    }
+
+    uploader.beginFrame();
+
+    while ((pending = uploads.peek()) != null) {
+
+      if (!upload(pending)) break;
+
+      uploads.poll();
+      pending.image.free();
+      pending.region.setLoaded();
+
+    }
+
+  }
+
+  /**
+   * <p>Get the OpenGL name of the array texture.</p>
+   *
+   * @return OpenGL name of the texture
+   * @since 0.0.5
+   */
+  public int getTexture() {
+
+    return texture;
+
+  }
+
+  /**
+   * <p>Get the width and height of the layers.</p>
+   *
+   * @return Size of the layers in pixels
+   * @since 0.0.5
+   */
+  public int getSize() {
+
+    return size;
+
+  }
+
+  /**
+   * <p>Get the amount of mipmap levels of the texture.</p>
+   *
+   * @return Amount of levels including the base level
+   * @since 0.0.5
+   */
+  public int getLevels() {
+
+    return levels;
+
+  }
+
+  /**
+   * <p>Get the amount of images waiting to be uploaded.</p>
+   *
+   * @return Amount of placed but not uploaded images
+   * @since 0.0.5
+   */
+  public int getPendingUploads() {
+
+    return uploads.size();
+
+  }
+
+  /**
+   * <p>Get the uploader of the atlas.</p>
+   *
+   * <p>The uploader can be used for changing the budget and for statistics.</p>
+   *
+   * @return The uploader
+   * @since 0.0.5
+   */
+  public TextureUploader getUploader() {
+
+    return uploader;
+
+  }
+
+  /**
+   * <p>Destroy the atlas and its texture.</p>
+   *
+   * <p>Images still waiting to be uploaded are freed.</p>
+   *
+   * @since 0.0.5
+   */
+  public void destroy() {
+
+    Pending pending;
+
+    while ((pending = decoded.poll()) != null) {
+      pending.image.free();
+    }
+
+    while ((pending = uploads.poll()) != null) {
+      pending.image.free();
+    }
+
+    uploader.destroy();
+
+    GL11.glDeleteTextures(texture);
+    stateCache.invalidate();
+
+  }
+
+  private boolean place(AtlasRegion region, ImageData image) {
+
+    int width = image.getWidth();
+    int height = image.getHeight();
+
+    // Aligning to the smallest level keeps the levels of the neighbours apart
+    int alignment = 1 << (levels - 1);
+    int packedWidth = (width + PADDING + alignment - 1) & -alignment;
+    int packedHeight = (height + PADDING + alignment - 1) & -alignment;
+
+    for (int layer = 0; layer < packers.length; layer++) {
+
+      long position = packers[layer].pack(packedWidth, packedHeight);
+
+      if (position >= 0) {
+
+        region.place(layer, SkylinePacker.getX(position), SkylinePacker.getY(position),
+            width, height, size);
+
+        return true;
+
+      }
+
+    }
+
+    logger.error("Image of {}x{} doesn't fit in the atlas!", width, height);
+
+    return false;
+
+  }
+
+  private boolean upload(Pending pending) {
+
+    AtlasRegion region = pending.region;
+    ImageData image = pending.image;
+    int count = Math.min(image.getMipmapCount() + 1, levels);
+
+    // The uploaded levels and rows are remembered, so the upload continues from where it
+    // was left on the next frame
+    while (pending.level < count) {
+
+      int level = pending.level;
+      ImageData data = level == 0 ? image : image.getMipmap(level);
+
+      pending.row = uploader.upload(texture, region.getLayer(), level, region.getX() >> level,
+          region.getY() >> level, data.getWidth(), data.getHeight(), data.getPixels(),
+          pending.row);
+
+      if (pending.row < data.getHeight()) return false;
+
+      pending.row = 0;
+      pending.level++;
+
+    }
+
+    return true;
+
+  }
+
+  private static class Pending {
+
+    private final AtlasRegion region;
+    private final ImageData image;
+    private int level;
+    private int row;
+
+    private Pending(AtlasRegion region, ImageData image) {
+
+      this.region = region;
+      this.image = image;
+
+    }
+
+  }
+
+}
@@ -0,0 +1,246 @@
+package me.joosua.maingine.graphics.texture;
+
+import java.nio.ByteBuffer;
+import me.joosua.maingine.graphics.GlFence;
+import me.joosua.maingine.graphics.GlStateCache;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL12;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL21;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.system.MemoryUtil;
+
+/**
+ * <p>TextureUploader streams pixels to textures through a ring of pixel buffer objects.</p>
+ *
+ * <p>Pixels are copied into a pixel buffer and the texture is updated from it, so the GPU
+ * makes the actual copy while the CPU continues with the frame. A buffer is reused only
+ * after the fence inserted after its upload has been passed, so uploading never waits on
+ * the GPU. Instead an upload is refused and should be retried on the next frame.</p>
+ *
+ * <p>The bytes uploaded per frame are limited by a budget to bound hitching when a lot
+ * of new content arrives at once. At least one band of rows is always allowed per frame.</p>
+ *
+ * <p>All the methods must be called from the thread owning the OpenGL context.</p>
+ *
+ * @since 0.0.5
+ */
+public class TextureUploader {
+
+  private static final int CHANNELS = 4;
+
+  private final GlStateCache stateCache;
+
+  private final int[] buffers;
+  private final long[] fences;
+  private final int bufferSize;
+  private int next;
+
+  private long budget;
+  private long frameBytes;
+  private long totalBytes;
+
+  /**
+   * <p>Create an uploader.</p>
+   *
+   * <p>Uploads bigger than the buffer size are split into bands of rows, each going
+   * through its own pixel buffer.</p>
+   *
+   * @param stateCache State cache of the current context
+   * @param bufferCount Amount of pixel buffers in the ring
+   * @param bufferSize Size of each pixel buffer in bytes
+   * @param budget Bytes uploaded per frame at most
+   * @since 0.0.5
+   */
+  public TextureUploader(GlStateCache stateCache, int bufferCount, int bufferSize, long budget) {
+
+    this.stateCache = stateCache;
+    this.buffers = new int[Math.max(bufferCount, 1)];
+    this.fences = new long[buffers.length];
+    this.bufferSize = bufferSize;
+    this.budget = budget;
+
+    for (int i = 0; i < buffers.length; i++) {
+
+      buffers[i] = GL15.glGenBuffers();
+
+      GL15.glBindBuffer(GL21.GL_PIXEL_UNPACK_BUFFER, buffers[i]);
+      GL15.glBufferData(GL21.GL_PIXEL_UNPACK_BUFFER, bufferSize, GL15.GL_STREAM_DRAW);
+
+    }
+
+    GL15.glBindBuffer(GL21.GL_PIXEL_UNPACK_BUFFER, 0);
+
+  }
+
+  /**
+   * <p>Start a new frame.</p>
+   *
+   * <p>This resets the budget and must be called once per frame.</p>
+   *
+   * @since 0.0.5
+   */
+  public void beginFrame() {
+
+    frameBytes = 0;
+
+  }
+
+  /**
+   * <p>Upload RGBA pixels to a layer of an array texture.</p>
+   *
+   * <p>The pixels are copied before returning, so they can be freed
+   * right after a successful upload. Pixels bigger than a pixel buffer can take several
+   * frames, so they should be uploaded with
+   * {@link #upload(int, int, int, int, int, int, int, ByteBuffer, int)} instead, which
+   * continues from where the previous frame left off.</p>
+   *
+   * @param texture OpenGL name of a <code>GL_TEXTURE_2D_ARRAY</code>
+   * @param layer Layer of the texture
+   * @param x Left edge of the updated area
+   * @param y Bottom edge of the updated area
+   * @param width Width of the updated area
+   * @param height Height of the updated area
+   * @param pixels Tightly packed RGBA pixels
+   * @return <code>TRUE</code> if uploaded, <code>FALSE</code> if it should be retried later.
+   * @since 0.0.5
+   */
+  public boolean upload(int texture, int layer, int x, int y, int width, int height,
+      ByteBuffer pixels) {
+
+    return upload(texture, layer, 0, x, y, width, height, pixels, 0) == height;
+
+  }
+
+  /**
+   * <p>Upload rows of RGBA pixels to a mipmap level of a layer of an array texture.</p>
+   *
+   * <p>The rows are uploaded in bands fitting the pixel buffers, starting from the given
+   * row, for as long as there are free buffers and budget left. The rest of the rows are
+   * uploaded by calling this again on the next frames with the returned row, so even the
+   * largest images never stall the frame.</p>
+   *
+   * <p>The area is given in the pixels of the level. The pixels of a row are copied before
+   * returning, so the pixels can be freed once every row is uploaded.</p>
+   *
+   * @param texture OpenGL name of a <code>GL_TEXTURE_2D_ARRAY</code>
+   * @param layer Layer of the texture
+   * @param level Mipmap level, <code>0</code> being the base level
+   * @param x Left edge of the updated area
+   * @param y Bottom edge of the updated area
+   * @param width Width of the updated area
+   * @param height Height of the updated area
+   * @param pixels Tightly packed RGBA pixels of the whole area
+   * @param row First row to upload, <code>0</code> being the bottom one
+   * @return The first row not uploaded yet, <code>height</code> once every row is.
+   * @since 0.0.5
+   */
+  public int upload(int texture, int layer, int level, int x, int y, int width, int height,
+      ByteBuffer pixels, int row) {
+
+    int rowSize = width * CHANNELS;
+    int bandRows = Math.max(bufferSize / rowSize, 1);
+    long address = MemoryUtil.memAddress(pixels);
+
+    stateCache.bindTexture(0, GL30.GL_TEXTURE_2D_ARRAY, texture);
+
+    while (row < height) {
+
+      int rows = Math.min(bandRows, height - row);
+      int size = rows * rowSize;
+
+      if (frameBytes > 0 && frameBytes + size > budget) break;
+
+      long band = address + (long) row * rowSize;
+
+      if (size > bufferSize) {
+
+        // Only a row wider than a whole buffer, which no texture size allows in practice
+        GL12.nglTexSubImage3D(GL30.GL_TEXTURE_2D_ARRAY, level, x, y + row, layer, width, rows,
+            1, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, band);
+
+      } else {
+
+        if (!GlFence.isSignaled(fences[next])) break;
+
+        GlFence.delete(fences[next]);
+
+        GL15.glBindBuffer(GL21.GL_PIXEL_UNPACK_BUFFER, buffers[next]);
+
+        ByteBuffer mapped = GL30.glMapBufferRange(GL21.GL_PIXEL_UNPACK_BUFFER, 0, size,
+            GL30.GL_MAP_WRITE_BIT | GL30.GL_MAP_UNSYNCHRONIZED_BIT
+                | GL30.GL_MAP_INVALIDATE_RANGE_BIT);
+
+        MemoryUtil.memCopy(band, MemoryUtil.memAddress(mapped), size);
+
+        GL15.glUnmapBuffer(GL21.GL_PIXEL_UNPACK_BUFFER);
+        GL12.glTexSubImage3D(GL30.GL_TEXTURE_2D_ARRAY, level, x, y + row, layer, width, rows,
+            1, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, 0L);
+        GL15.glBindBuffer(GL21.GL_PIXEL_UNPACK_BUFFER, 0);
+
+        fences[next] = GlFence.insert();
+        next = (next + 1) % buffers.length;
+
+      }
+
+      frameBytes += size;
+      totalBytes += size;
+      row += rows;
+
+    }
+
+    return row;
+
+  }
+
+  /**
+   * <p>Set the amount of bytes uploaded per frame at most.</p>
+   *
+   * @param budget Bytes per frame
+   * @since 0.0.5
+   */
+  public void setBudget(long budget) {
+
+    this.budget = budget;
+
+  }
+
+  /**
+   * <p>Get the amount of bytes uploaded on the current frame.</p>
+   *
+   * @return Bytes uploaded since {@link #beginFrame()}
+   * @since 0.0.5
+   */
+  public long getFrameBytes() {
+
+    return frameBytes;
+
+  }
+
+  /**
+   * <p>Get the amount of bytes uploaded since creation.</p>
+   *
+   * @return Bytes uploaded in total
+   * @since 0.0.5
+   */
+  public long getTotalBytes() {
+
+    return totalBytes;
+
+  }
+
+  /**
+   * <p>Delete the pixel buffers.</p>
+   *
+   * @since 0.0.5
+   */
+  public void destroy() {
+
+    for (int i = 0; i < buffers.length; i++) {
+      GlFence.delete(fences[i]);
+      GL15.glDeleteBuffers(buffers[i]);
+    }
+
+  }
+
+}
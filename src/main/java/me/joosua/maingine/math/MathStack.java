@@ -0,0 +1,302 @@
+package me.joosua.maingine.math;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+import org.joml.Matrix3f;
+import org.joml.Matrix4f;
+import org.joml.Quaternionf;
+import org.joml.Vector2f;
+import org.joml.Vector2i;
+import org.joml.Vector3f;
+import org.joml.Vector4f;
+
+/**
+ * <p>MathStack hands out temporary JOML objects without allocating.</p>
+ *
+ * <p>Every thread has its own stack of vectors, matrices and quaternions. A frame is
+ * pushed with {@link #stackPush()} and the objects taken after it are returned when the
+ * frame is popped, so the stack is used with try-with-resources:</p>
+ *
+ * <pre>
+ * try (MathStack math = MathStack.stackPush()) {
+ *   Matrix4f model = math.mat4().translation(position);
+ *   Vector3f normal = math.vec3(0, 1, 0);
+ * }
+ * </pre>
+ *
+ * <p>The objects must not be used after their frame is popped. The pools grow when
+ * needed and keep their size, so in a steady state nothing is allocated.</p>
+ *
+ * @since 0.0.5
+ */
+public final class MathStack implements AutoCloseable {
+
+  private static final int INITIAL_SIZE = 16;
+
+  private static final ThreadLocal<MathStack> stacks = ThreadLocal.withInitial(MathStack::new);
+
+  private final Pool<Vector2f> vector2fs = new Pool<>(Vector2f::new);
+  private final Pool<Vector3f> vector3fs = new Pool<>(Vector3f::new);
+  private final Pool<Vector4f> vector4fs = new Pool<>(Vector4f::new);
+  private final Pool<Vector2i> vector2is = new Pool<>(Vector2i::new);
+  private final Pool<Matrix3f> matrix3fs = new Pool<>(Matrix3f::new);
+  private final Pool<Matrix4f> matrix4fs = new Pool<>(Matrix4f::new);
+  private final Pool<Quaternionf> quaternionfs = new Pool<>(Quaternionf::new);
+
+  private final Pool<?>[] pools = {vector2fs, vector3fs, vector4fs, vector2is, matrix3fs,
+      matrix4fs, quaternionfs};
+
+  private int[] marks = new int[INITIAL_SIZE * pools.length];
+  private int depth;
+
+  private MathStack() {
+
+  }
+
+  /**
+   * <p>Get the stack of the current thread.</p>
+   *
+   * @return The stack of the thread
+   * @since 0.0.5
+   */
+  public static MathStack stackGet() {
+
+    return stacks.get();
+
+  }
+
+  /**
+   * <p>Push a frame to the stack of the current thread.</p>
+   *
+   * @return The stack of the thread
+   * @since 0.0.5
+   */
+  public static MathStack stackPush() {
+
+    return stacks.get().push();
+
+  }
+
+  /**
+   * <p>Push a frame to the stack.</p>
+   *
+   * @return This stack
+   * @since 0.0.5
+   */
+  public MathStack push() {
+
+    if ((depth + 1) * pools.length > marks.length) marks = Arrays.copyOf(marks, marks.length * 2);
+
+    for (int i = 0; i < pools.length; i++) {
+      marks[depth * pools.length + i] = pools[i].top;
+    }
+
+    depth++;
+
+    return this;
+
+  }
+
+  /**
+   * <p>Pop the latest frame and return its objects to the stack.</p>
+   *
+   * @since 0.0.5
+   */
+  public void pop() {
+
+    if (depth == 0) return;
+
+    depth--;
+
+    for (int i = 0; i < pools.length; i++) {
+      pools[i].top = marks[depth * pools.length + i];
+    }
+
+  }
+
+  @Override
+  public void close() {
+
+    pop();
+
+  }
+
+  /**
+   * <p>Get the amount of frames pushed.</p>
+   *
+   * @return Depth of the stack
+   * @since 0.0.5
+   */
+  public int getDepth() {
+
+    return depth;
+
+  }
+
+  /**
+   * <p>Take a zero vector.</p>
+   *
+   * @return Temporary vector
+   * @since 0.0.5
+   */
+  public Vector2f vec2() {
+
+    return vector2fs.take().zero();
+
+  }
+
+  /**
+   * <p>Take a vector with the given components.</p>
+   *
+   * @param x The x component
+   * @param y The y component
+   * @return Temporary vector
+   * @since 0.0.5
+   */
+  public Vector2f vec2(float x, float y) {
+
+    return vector2fs.take().set(x, y);
+
+  }
+
+  /**
+   * <p>Take a zero vector.</p>
+   *
+   * @return Temporary vector
+   * @since 0.0.5
+   */
+  public Vector3f vec3() {
+
+    return vector3fs.take().zero();
+
+  }
+
+  /**
+   * <p>Take a vector with the given components.</p>
+   *
+   * @param x The x component
+   * @param y The y component
+   * @param z The z component
+   * @return Temporary vector
+   * @since 0.0.5
+   */
+  public Vector3f vec3(float x, float y, float z) {
+
+    return vector3fs.take().set(x, y, z);
+
+  }
+
+  /**
+   * <p>Take a zero vector.</p>
+   *
+   * @return Temporary vector
+   * @since 0.0.5
+   */
+  public Vector4f vec4() {
+
+    return vector4fs.take().zero();
+
+  }
+
+  /**
+   * <p>Take a vector with the given components.</p>
+   *
+   * @param x The x component
+   * @param y The y component
+   * @param z The z component
+   * @param w The w component
+   * @return Temporary vector
+   * @since 0.0.5
+   */
+  public Vector4f vec4(float x, float y, float z, float w) {
+
+    return vector4fs.take().set(x, y, z, w);
+
+  }
+
+  /**
+   * <p>Take a zero integer vector.</p>
+   *
+   * @return Temporary vector
+   * @since 0.0.5
+   */
+  public Vector2i vec2i() {
+
+    return vector2is.take().zero();
+
+  }
+
+  /**
+   * <p>Take an identity matrix.</p>
+   *
+   * @return Temporary matrix
+   * @since 0.0.5
+   */
+  public Matrix3f mat3() {
+
+    return matrix3fs.take().identity();
+
+  }
+
+  /**
+   * <p>Take an identity matrix.</p>
+   *
+   * @return Temporary matrix
+   * @since 0.0.5
+   */
+  public Matrix4f mat4() {
+
+    return matrix4fs.take().identity();
+
+  }
+
+  /**
+   * <p>Take an identity quaternion.</p>
+   *
+   * @return Temporary quaternion
+   * @since 0.0.5
+   */
+  public Quaternionf quat() {
+
+    return quaternionfs.take().identity();
+
+  }
+
+  private static final class Pool<T> {
+
+    private final Supplier<T> factory;
+
+    private Object[] items = new Object[INITIAL_SIZE];
+    private int top;
+
+    private Pool(Supplier<T> factory) {
+
+      this.factory = factory;
+
+      fill(0);
+
+    }
+
+    @SuppressWarnings("unchecked")
+    private T take() {
+
+      if (top == items.length) {
+        items = Arrays.copyOf(items, items.length * 2);
+        fill(top);
+      }
+
+      return (T) items[top++];
+
+    }
+
+    private void fill(int from) {
+
+      for (int i = from; i < items.length; i++) {
+        items[i] = factory.get();
+      }
+
+    }
+
+  }
+
+}
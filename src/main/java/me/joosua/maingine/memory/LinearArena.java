@@ -0,0 +1,231 @@
+package me.joosua.maingine.memory;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import org.lwjgl.system.MemoryUtil;
+
+/**
+ * <p>LinearArena is a bump allocator for short-lived native memory.</p>
+ *
+ * <p>Allocating only moves a pointer forward and everything is freed at once with
+ * {@link #reset()}. The engine owns an arena reset after every frame, which can be used
+ * for scratch buffers living until the end of the frame.</p>
+ *
+ * <p>When the arena runs out of space, overflow blocks are allocated and freed on the next
+ * reset, which also grows the arena to the peak usage. In a steady state the arena never
+ * allocates. The arena isn't thread-safe.</p>
+ *
+ * @since 0.0.5
+ */
+public class LinearArena {
+
+  private static final int DEFAULT_ALIGNMENT = 16;
+
+  private final MemoryTag tag;
+
+  private long block;
+  private long capacity;
+  private long offset;
+
+  private long[] overflow = new long[4];
+  private int overflowCount;
+  private long overflowBytes;
+
+  private long peak;
+
+  /**
+   * <p>Create an arena.</p>
+   *
+   * @param capacity Size of the arena in bytes at first
+   * @param tag Tag the memory is accounted with
+   * @since 0.0.5
+   */
+  public LinearArena(long capacity, MemoryTag tag) {
+
+    this.tag = tag;
+    this.capacity = capacity;
+
+    block = Memory.malloc(capacity, tag);
+
+  }
+
+  /**
+   * <p>Allocate memory aligned to {@value #DEFAULT_ALIGNMENT} bytes.</p>
+   *
+   * @param size Size of the memory in bytes
+   * @return Address of the memory, valid until the next reset
+   * @since 0.0.5
+   */
+  public long allocate(long size) {
+
+    return allocate(size, DEFAULT_ALIGNMENT);
+
+  }
+
+  /**
+   * <p>Allocate aligned memory.</p>
+   *
+   * @param size Size of the memory in bytes
+   * @param alignment Alignment of the address, a power of two
+   * @return Address of the memory, valid until the next reset
+   * @since 0.0.5
+   */
+  public long allocate(long size, int alignment) {
+
+    long address = (block + offset + alignment - 1) & -alignment;
+    long end = address - block + size;
+
+    if (block != MemoryUtil.NULL && end <= capacity) {
+      offset = end;
+      peak = Math.max(peak, offset + overflowBytes);
+      return address;
+    }
+
+    return allocateOverflow(size, alignment);
+
+  }
+
+  /**
+   * <p>Allocate a byte buffer.</p>
+   *
+   * @param size Size of the buffer in bytes
+   * @return The buffer, valid until the next reset
+   * @since 0.0.5
+   */
+  public ByteBuffer bytes(int size) {
+
+    return MemoryUtil.memByteBuffer(allocate(size), size);
+
+  }
+
+  /**
+   * <p>Allocate an int buffer.</p>
+   *
+   * @param count Amount of ints
+   * @return The buffer, valid until the next reset
+   * @since 0.0.5
+   */
+  public IntBuffer ints(int count) {
+
+    return MemoryUtil.memIntBuffer(allocate((long) count * Integer.BYTES), count);
+
+  }
+
+  /**
+   * <p>Allocate a float buffer.</p>
+   *
+   * @param count Amount of floats
+   * @return The buffer, valid until the next reset
+   * @since 0.0.5
+   */
+  public FloatBuffer floats(int count) {
+
+    return MemoryUtil.memFloatBuffer(allocate((long) count * Float.BYTES), count);
+
+  }
+
+  /**
+   * <p>Free everything allocated from the arena.</p>
+   *
+   * <p>If overflow blocks were needed, the arena is grown to the peak usage.</p>
+   *
+   * @since 0.0.5
+   */
+  public void reset() {
+
+    if (overflowCount > 0) {
+
+      for (int i = 0; i < overflowCount; i++) {
+        Memory.free(overflow[i], tag);
+        overflow[i] = MemoryUtil.NULL;
+      }
+
+      overflowCount = 0;
+      overflowBytes = 0;
+
+      Memory.free(block, tag);
+
+      capacity = Math.max(capacity, peak);
+      block = Memory.malloc(capacity, tag);
+
+    }
+
+    offset = 0;
+
+  }
+
+  /**
+   * <p>Get the amount of memory allocated since the last reset.</p>
+   *
+   * @return Size of the used memory in bytes
+   * @since 0.0.5
+   */
+  public long getUsed() {
+
+    return offset + overflowBytes;
+
+  }
+
+  /**
+   * <p>Get the size of the arena.</p>
+   *
+   * @return Size of the arena in bytes
+   * @since 0.0.5
+   */
+  public long getCapacity() {
+
+    return capacity;
+
+  }
+
+  /**
+   * <p>Get the largest amount of memory allocated between two resets.</p>
+   *
+   * @return Size of the memory in bytes
+   * @since 0.0.5
+   */
+  public long getPeak() {
+
+    return peak;
+
+  }
+
+  /**
+   * <p>Free the memory of the arena.</p>
+   *
+   * <p>The arena can't be used after this.</p>
+   *
+   * @since 0.0.5
+   */
+  public void free() {
+
+    reset();
+
+    Memory.free(block, tag);
+
+    block = MemoryUtil.NULL;
+    capacity = 0;
+
+  }
+
+  private long allocateOverflow(long size, int alignment) {
+
+    long address = Memory.malloc(size + alignment - 1, tag);
+
+    if (address == MemoryUtil.NULL) return MemoryUtil.NULL;
+
+    if (overflowCount == overflow.length) {
+      overflow = Arrays.copyOf(overflow, overflowCount * 2);
+    }
+
+    overflow[overflowCount++] = address;
+    overflowBytes += size + alignment - 1;
+    peak = Math.max(peak, offset + overflowBytes);
+
+    return (address + alignment - 1) & -alignment;
+
+  }
+
+}
@@ -0,0 +1,166 @@
+package me.joosua.maingine.memory;
+
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.lwjgl.system.MemoryStack;
+import org.lwjgl.system.MemoryUtil;
+import org.lwjgl.system.jemalloc.JEmalloc;
+
+/**
+ * <p>Memory allocates native memory with jemalloc and accounts it by tag.</p>
+ *
+ * <p>Native memory isn't managed by the garbage collector, so it doesn't leave direct
+ * buffers waiting for their cleaners like <code>BufferUtils</code> does. Every allocation
+ * must be freed with the same tag it was allocated with.</p>
+ *
+ * <p>Short-lived parameters for native functions should be allocated from the thread's
+ * stack with {@link #stackPush()} instead.</p>
+ *
+ * @since 0.0.5
+ */
+public final class Memory {
+
+  private static final Logger logger = LogManager.getLogger(Memory.class);
+
+  /**
+   * <p>Size of the stack of each thread in bytes.</p>
+   */
+  public static final int STACK_SIZE = 256 * 1024;
+
+  private static final Cleaner cleaner = Cleaner.create();
+
+  private static final ThreadLocal<MemoryStack> stacks = ThreadLocal.withInitial(() -> {
+
+    final long address = malloc(STACK_SIZE, MemoryTag.STACK);
+
+    if (address == MemoryUtil.NULL) return MemoryStack.create(STACK_SIZE);
+
+    // Workers of pools come and go, so the stack is freed once its thread has terminated
+    // and been collected. The action holds only the address, never the thread.
+    cleaner.register(Thread.currentThread(), () -> free(address, MemoryTag.STACK));
+
+    return MemoryStack.ncreate(address, STACK_SIZE);
+
+  });
+
+  private Memory() {
+
+  }
+
+  /**
+   * <p>Allocate memory.</p>
+   *
+   * @param size Size of the memory in bytes
+   * @param tag Tag the memory is accounted with
+   * @return Address of the memory or <code>NULL</code> if it couldn't be allocated.
+   * @since 0.0.5
+   */
+  public static long malloc(long size, MemoryTag tag) {
+
+    long address = JEmalloc.nje_malloc(size);
+
+    if (address == MemoryUtil.NULL) {
+
+      logger.error("Memory not allocated! Allocating {} bytes failed.", size);
+      return MemoryUtil.NULL;
+
+    }
+
+    MemoryTracker.allocated(tag, JEmalloc.nje_malloc_usable_size(address));
+
+    return address;
+
+  }
+
+  /**
+   * <p>Allocate memory filled with zeros.</p>
+   *
+   * @param size Size of the memory in bytes
+   * @param tag Tag the memory is accounted with
+   * @return Address of the memory or <code>NULL</code> if it couldn't be allocated.
+   * @since 0.0.5
+   */
+  public static long calloc(long size, MemoryTag tag) {
+
+    long address = JEmalloc.nje_calloc(1, size);
+
+    if (address == MemoryUtil.NULL) {
+
+      logger.error("Memory not allocated! Allocating {} bytes failed.", size);
+      return MemoryUtil.NULL;
+
+    }
+
+    MemoryTracker.allocated(tag, JEmalloc.nje_malloc_usable_size(address));
+
+    return address;
+
+  }
+
+  /**
+   * <p>Free memory.</p>
+   *
+   * <p>Nothing is done for <code>NULL</code>.</p>
+   *
+   * @param address Address of the memory
+   * @param tag Tag the memory was allocated with
+   * @since 0.0.5
+   */
+  public static void free(long address, MemoryTag tag) {
+
+    if (address == MemoryUtil.NULL) return;
+
+    MemoryTracker.freed(tag, JEmalloc.nje_malloc_usable_size(address));
+    JEmalloc.nje_free(address);
+
+  }
+
+  /**
+   * <p>Allocate memory as a buffer.</p>
+   *
+   * @param size Size of the buffer in bytes
+   * @param tag Tag the memory is accounted with
+   * @return The buffer or <code>NULL</code> if it couldn't be allocated.
+   * @since 0.0.5
+   */
+  public static ByteBuffer mallocBuffer(int size, MemoryTag tag) {
+
+    long address = malloc(size, tag);
+
+    return address == MemoryUtil.NULL ? null : MemoryUtil.memByteBuffer(address, size);
+
+  }
+
+  /**
+   * <p>Free a buffer allocated with {@link #mallocBuffer(int, MemoryTag)}.</p>
+   *
+   * @param buffer The buffer or <code>NULL</code>
+   * @param tag Tag the buffer was allocated with
+   * @since 0.0.5
+   */
+  public static void freeBuffer(ByteBuffer buffer, MemoryTag tag) {
+
+    if (buffer != null) free(MemoryUtil.memAddress0(buffer), tag);
+
+  }
+
+  /**
+   * <p>Push a frame to the stack of the current thread.</p>
+   *
+   * <p>Every thread gets its own stack of {@value #STACK_SIZE} bytes on first use. The
+   * frame is popped when the returned stack is closed, so this is used with
+   * try-with-resources. The stacks live as long as their threads and are freed after
+   * the threads have terminated and been garbage collected.</p>
+   *
+   * @return The stack of the thread
+   * @since 0.0.5
+   */
+  public static MemoryStack stackPush() {
+
+    return stacks.get().push();
+
+  }
+
+}
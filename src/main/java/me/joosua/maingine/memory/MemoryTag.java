@@ -0,0 +1,51 @@
+package me.joosua.maingine.memory;
+
+/**
+ * <p>Tags used for accounting native memory by its use.</p>
+ *
+ * @see MemoryTracker
+ * @since 0.0.5
+ */
+public enum MemoryTag {
+
+  /**
+   * <p>Memory without a more specific use.</p>
+   */
+  GENERAL,
+
+  /**
+   * <p>Per-frame scratch memory reset after every frame.</p>
+   */
+  FRAME,
+
+  /**
+   * <p>Per-thread stacks for passing parameters to native functions.</p>
+   */
+  STACK,
+
+  /**
+   * <p>Staging and vertex data of the renderer.</p>
+   */
+  GRAPHICS,
+
+  /**
+   * <p>Loaded asset data.</p>
+   */
+  ASSETS,
+
+  /**
+   * <p>Sound data.</p>
+   */
+  AUDIO,
+
+  /**
+   * <p>Data of the physics simulation.</p>
+   */
+  PHYSICS,
+
+  /**
+   * <p>Saved states of the simulation.</p>
+   */
+  SNAPSHOTS
+
+}
@@ -0,0 +1,125 @@
+package me.joosua.maingine.memory;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>MemoryTracker counts the native memory allocated by the engine per tag.</p>
+ *
+ * <p>All the allocators of this package report here. The counters are atomic, so memory
+ * can be allocated and freed from any thread.</p>
+ *
+ * @since 0.0.5
+ */
+public final class MemoryTracker {
+
+  private static final MemoryTag[] TAGS = MemoryTag.values();
+
+  private static final AtomicLongArray bytes = new AtomicLongArray(TAGS.length);
+  private static final AtomicLongArray peakBytes = new AtomicLongArray(TAGS.length);
+
+  private MemoryTracker() {
+
+  }
+
+  /**
+   * <p>Account allocated memory.</p>
+   *
+   * @param tag Tag of the memory
+   * @param size Size of the memory in bytes
+   * @since 0.0.5
+   */
+  public static void allocated(MemoryTag tag, long size) {
+
+    int index = tag.ordinal();
+    long current = bytes.addAndGet(index, size);
+    long peak = peakBytes.get(index);
+
+    while (current > peak && !peakBytes.compareAndSet(index, peak, current)) {
+      peak = peakBytes.get(index);
+    }
+
+  }
+
+  /**
+   * <p>Account freed memory.</p>
+   *
+   * @param tag Tag of the memory
+   * @param size Size of the memory in bytes
+   * @since 0.0.5
+   */
+  public static void freed(MemoryTag tag, long size) {
+
+    bytes.addAndGet(tag.ordinal(), -size);
+
+  }
+
+  /**
+   * <p>Get the amount of memory currently allocated with a tag.</p>
+   *
+   * @param tag The tag
+   * @return Size of the memory in bytes
+   * @since 0.0.5
+   */
+  public static long getBytes(MemoryTag tag) {
+
+    return bytes.get(tag.ordinal());
+
+  }
+
+  /**
+   * <p>Get the largest amount of memory allocated with a tag at once.</p>
+   *
+   * @param tag The tag
+   * @return Size of the memory in bytes
+   * @since 0.0.5
+   */
+  public static long getPeakBytes(MemoryTag tag) {
+
+    return peakBytes.get(tag.ordinal());
+
+  }
+
+  /**
+   * <p>Get the amount of memory currently allocated with all the tags.</p>
+   *
+   * @return Size of the memory in bytes
+   * @since 0.0.5
+   */
+  public static long getTotalBytes() {
+
+    long total = 0;
+
+    for (int i = 0; i < TAGS.length; i++) {
+      total += bytes.get(i);
+    }
+
+    return total;
+
+  }
+
+  /**
+   * <p>Get the memory usage of every tag as text.</p>
+   *
+   * @return The current and the peak usage of the tags in use
+   * @since 0.0.5
+   */
+  public static String getReport() {
+
+    StringBuilder builder = new StringBuilder();
+
+    for (MemoryTag tag : TAGS) {
+
+      if (getPeakBytes(tag) == 0) continue;
+
+      if (builder.length() > 0) builder.append(", ");
+
+      builder.append(String.format("%s %d KiB (peak %d KiB)", tag.name().toLowerCase(),
+          getBytes(tag) / 1024, getPeakBytes(tag) / 1024));
+
+    }
+
+    return builder.toString();
+
+  }
+
+}
@@ -0,0 +1,161 @@
+package me.joosua.maingine.memory;
+
+import java.nio.IntBuffer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.lwjgl.PointerBuffer;
+import org.lwjgl.system.MemoryStack;
+import org.lwjgl.system.MemoryUtil;
+import org.lwjgl.system.jemalloc.JEmalloc;
+
+/**
+ * <p>NativeArena is a pool of long-lived native memory in its own jemalloc arena.</p>
+ *
+ * <p>Allocations of a subsystem, like the assets of a level, are kept together and away
+ * from the fragmentation of other allocations. Destroying the arena frees all the memory
+ * still allocated from it at once.</p>
+ *
+ * <p>If jemalloc can't create an arena, the default one is used and destroying the arena
+ * only reports the memory left allocated. The arena can be used from any thread.</p>
+ *
+ * @since 0.0.5
+ */
+public class NativeArena {
+
+  private static final Logger logger = LogManager.getLogger(NativeArena.class);
+
+  private final MemoryTag tag;
+  private final int arena;
+  private final int flags;
+
+  private long liveBytes;
+
+  /**
+   * <p>Create an arena.</p>
+   *
+   * @param tag Tag the memory is accounted with
+   * @since 0.0.5
+   */
+  public NativeArena(MemoryTag tag) {
+
+    this.tag = tag;
+
+    int created = -1;
+
+    try (MemoryStack stack = MemoryStack.stackPush()) {
+
+      IntBuffer index = stack.mallocInt(1);
+      PointerBuffer length = stack.pointers(Integer.BYTES);
+
+      if (JEmalloc.nje_mallctl(MemoryUtil.memAddress(stack.ASCII("arenas.create")),
+          MemoryUtil.memAddress(index), MemoryUtil.memAddress(length), MemoryUtil.NULL, 0) == 0) {
+        created = index.get(0);
+      } else {
+        logger.warn("jemalloc arena couldn't be created, using the default arena");
+      }
+
+    }
+
+    arena = created;
+    flags = created >= 0 ? JEmalloc.MALLOCX_ARENA(created) | JEmalloc.MALLOCX_TCACHE_NONE : 0;
+
+  }
+
+  /**
+   * <p>Allocate memory from the arena.</p>
+   *
+   * @param size Size of the memory in bytes
+   * @return Address of the memory or <code>NULL</code> if it couldn't be allocated.
+   * @since 0.0.5
+   */
+  public long allocate(long size) {
+
+    long address = JEmalloc.nje_mallocx(size, flags);
+
+    if (address == MemoryUtil.NULL) {
+
+      logger.error("Memory not allocated! Allocating {} bytes failed.", size);
+      return MemoryUtil.NULL;
+
+    }
+
+    account(JEmalloc.nje_malloc_usable_size(address));
+
+    return address;
+
+  }
+
+  /**
+   * <p>Free memory allocated from the arena.</p>
+   *
+   * @param address Address of the memory or <code>NULL</code>
+   * @since 0.0.5
+   */
+  public void free(long address) {
+
+    if (address == MemoryUtil.NULL) return;
+
+    account(-JEmalloc.nje_malloc_usable_size(address));
+
+    JEmalloc.nje_dallocx(address, flags);
+
+  }
+
+  /**
+   * <p>Get the amount of memory allocated from the arena.</p>
+   *
+   * @return Size of the memory in bytes
+   * @since 0.0.5
+   */
+  public synchronized long getBytes() {
+
+    return liveBytes;
+
+  }
+
+  /**
+   * <p>Free all the memory of the arena.</p>
+   *
+   * <p>Addresses allocated from the arena must not be used after this.</p>
+   *
+   * @since 0.0.5
+   */
+  public synchronized void destroy() {
+
+    if (arena >= 0) {
+
+      try (MemoryStack stack = MemoryStack.stackPush()) {
+
+        String name = "arena." + arena + ".destroy";
+
+        if (JEmalloc.nje_mallctl(MemoryUtil.memAddress(stack.ASCII(name)), MemoryUtil.NULL,
+            MemoryUtil.NULL, MemoryUtil.NULL, 0) == 0) {
+
+          MemoryTracker.freed(tag, liveBytes);
+          liveBytes = 0;
+
+        }
+
+      }
+
+    }
+
+    if (liveBytes > 0) {
+      logger.warn("{} bytes left allocated in a destroyed arena", liveBytes);
+    }
+
+  }
+
+  private synchronized void account(long bytes) {
+
+    liveBytes += bytes;
+
+    if (bytes > 0) {
+      MemoryTracker.allocated(tag, bytes);
+    } else {
+      MemoryTracker.freed(tag, -bytes);
+    }
+
+  }
+
+}
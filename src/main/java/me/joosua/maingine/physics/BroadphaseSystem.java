@@ -0,0 +1,125 @@
+package me.joosua.maingine.physics;
+
+import java.util.function.Consumer;
+import me.joosua.maingine.ecs.Chunk;
+import me.joosua.maingine.ecs.ComponentType;
+import me.joosua.maingine.ecs.EntitySystem;
+import me.joosua.maingine.ecs.Query;
+import me.joosua.maingine.ecs.SystemAccess;
+import me.joosua.maingine.ecs.World;
+
+/**
+ * <p>BroadphaseSystem keeps a {@link SpatialHash} in sync with the entities of a world and
+ * finds their overlapping pairs on every tick.</p>
+ *
+ * <p>Entities with a position, half extents and a collider component are bodies. The
+ * collider stores the proxy of the body, so it's zero for new bodies. The bodies of
+ * entities which were destroyed or lost their components are removed on the next
+ * tick.</p>
+ *
+ * <p>After the update, the user data of the proxies in {@link SpatialHash#getPairs()} are
+ * the entities.</p>
+ *
+ * @since 0.0.5
+ */
+public class BroadphaseSystem implements EntitySystem {
+
+  private final SpatialHash hash;
+  private final ComponentType position;
+  private final ComponentType extents;
+  private final ComponentType collider;
+
+  private Query bodies;
+  private final Consumer<Chunk> sync = this::sync;
+
+  /**
+   * <p>Create a broadphase system.</p>
+   *
+   * @param hash The spatial hash of the bodies
+   * @param position Component of three floats, the center of a body
+   * @param extents Component of three floats, the half sizes of a body
+   * @param collider Component of one int, the proxy of a body
+   * @since 0.0.5
+   */
+  public BroadphaseSystem(SpatialHash hash, ComponentType position, ComponentType extents,
+      ComponentType collider) {
+
+    this.hash = hash;
+    this.position = position;
+    this.extents = extents;
+    this.collider = collider;
+
+  }
+
+  @Override
+  public void declareAccess(SystemAccess access) {
+
+    access.reads(position, extents).writes(collider);
+
+  }
+
+  @Override
+  public void update(World world, double delta) {
+
+    if (bodies == null) bodies = world.query(position, extents, collider);
+
+    bodies.forEach(sync);
+
+    for (int proxy = 0; proxy < hash.getCapacity(); proxy++) {
+
+      if (!hash.contains(proxy)) continue;
+
+      int entity = hash.getData(proxy);
+
+      if (!world.has(entity, position) || !world.has(entity, extents)
+          || world.getInt(entity, collider, 0) != proxy + 1) {
+        hash.remove(proxy);
+      }
+
+    }
+
+    hash.findPairs();
+
+  }
+
+  /**
+   * <p>Get the spatial hash of the bodies.</p>
+   *
+   * @return The spatial hash
+   * @since 0.0.5
+   */
+  public SpatialHash getSpatialHash() {
+
+    return hash;
+
+  }
+
+  private void sync(Chunk chunk) {
+
+    float[] x = chunk.getFloats(position, 0);
+    float[] y = chunk.getFloats(position, 1);
+    float[] z = chunk.getFloats(position, 2);
+    float[] halfX = chunk.getFloats(extents, 0);
+    float[] halfY = chunk.getFloats(extents, 1);
+    float[] halfZ = chunk.getFloats(extents, 2);
+    int[] proxies = chunk.getInts(collider, 0);
+
+    for (int i = 0; i < chunk.size(); i++) {
+
+      int proxy = proxies[i] - 1;
+
+      // Proxies are stored plus one so a zeroed collider means no body. A proxy removed
+      // while the entity lacked a component may belong to another entity by now.
+      if (!hash.contains(proxy) || hash.getData(proxy) != chunk.getEntity(i)) {
+        proxies[i] = hash.insert(x[i] - halfX[i], y[i] - halfY[i], z[i] - halfZ[i],
+            x[i] + halfX[i], y[i] + halfY[i], z[i] + halfZ[i], chunk.getEntity(i)) + 1;
+      } else {
+        hash.update(proxy, x[i] - halfX[i], y[i] - halfY[i], z[i] - halfZ[i],
+            x[i] + halfX[i], y[i] + halfY[i], z[i] + halfZ[i]);
+      }
+
+    }
+
+  }
+
+}
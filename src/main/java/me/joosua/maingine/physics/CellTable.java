@@ -0,0 +1,191 @@
+package me.joosua.maingine.physics;
+
+import java.util.Arrays;
+
+/*
+ * Open-addressing hash table from long cell keys to int values with linear probing. Every
+ * slot is two longs in the same array, the key and the value packed with a count, so a
+ * probe touches a single cache line and nothing is boxed. Removal shifts the following
+ * entries back instead of leaving tombstones, so lookups stay short. The counts let a scan
+ * over the slots skip cells with a single body without touching their entries.
+ */
+class CellTable {
+
+  static final int EMPTY = -1;
+
+  private static final long EMPTY_SLOT = (long) EMPTY << 32;
+
+  private long[] slots;
+  private int mask;
+  private int size;
+
+  CellTable(int capacity) {
+
+    int count = Integer.highestOneBit(Math.max(capacity * 2 - 1, 16)) * 2;
+
+    slots = new long[count * 2];
+    mask = count - 1;
+
+    clear();
+
+  }
+
+  int get(long key) {
+
+    for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+
+      int value = valueAt(slot);
+
+      if (value == EMPTY) return EMPTY;
+      if (slots[slot * 2] == key) return value;
+
+    }
+
+  }
+
+  /*
+   * Sets the value of a key and adds to its count. The value must not be EMPTY, use remove
+   * instead.
+   */
+  void put(long key, int value, int countDelta) {
+
+    if ((size + 1) * 2 > capacity()) rehash(capacity() * 2);
+
+    int slot = find(key);
+    int count = countDelta;
+
+    if (valueAt(slot) == EMPTY) {
+      size++;
+    } else {
+      count += countAt(slot);
+    }
+
+    slots[slot * 2] = key;
+    slots[slot * 2 + 1] = (long) value << 32 | count & 0xFFFFFFFFL;
+
+  }
+
+  void addCount(long key, int countDelta) {
+
+    int slot = find(key);
+
+    if (valueAt(slot) != EMPTY) {
+      slots[slot * 2 + 1] = (long) valueAt(slot) << 32 | countAt(slot) + countDelta & 0xFFFFFFFFL;
+    }
+
+  }
+
+  void remove(long key) {
+
+    int slot = find(key);
+
+    if (valueAt(slot) == EMPTY) return;
+
+    size--;
+
+    // Shift back the following entries which would be unreachable past the hole
+    for (int next = (slot + 1) & mask; valueAt(next) != EMPTY; next = (next + 1) & mask) {
+
+      int home = hash(slots[next * 2]) & mask;
+
+      if (((next - home) & mask) >= ((next - slot) & mask)) {
+        slots[slot * 2] = slots[next * 2];
+        slots[slot * 2 + 1] = slots[next * 2 + 1];
+        slot = next;
+      }
+
+    }
+
+    slots[slot * 2 + 1] = EMPTY_SLOT;
+
+  }
+
+  void clear() {
+
+    for (int i = 1; i < slots.length; i += 2) {
+      slots[i] = EMPTY_SLOT;
+    }
+
+    size = 0;
+
+  }
+
+  int size() {
+
+    return size;
+
+  }
+
+  int capacity() {
+
+    return mask + 1;
+
+  }
+
+  long keyAt(int slot) {
+
+    return slots[slot * 2];
+
+  }
+
+  int valueAt(int slot) {
+
+    return (int) (slots[slot * 2 + 1] >> 32);
+
+  }
+
+  int countAt(int slot) {
+
+    return (int) slots[slot * 2 + 1];
+
+  }
+
+  private int find(long key) {
+
+    int slot = hash(key) & mask;
+
+    while (valueAt(slot) != EMPTY && slots[slot * 2] != key) {
+      slot = (slot + 1) & mask;
+    }
+
+    return slot;
+
+  }
+
+  private void rehash(int count) {
+
+    final long[] old = slots;
+
+    slots = new long[count * 2];
+    mask = count - 1;
+
+    clear();
+
+    for (int i = 0; i < old.length; i += 2) {
+
+      if ((int) (old[i + 1] >> 32) == EMPTY) continue;
+
+      int slot = find(old[i]);
+
+      slots[slot * 2] = old[i];
+      slots[slot * 2 + 1] = old[i + 1];
+      size++;
+
+    }
+
+  }
+
+  private static int hash(long key) {
+
+    // Finalizer of MurmurHash3, spreads neighbouring cells over the table
+    key ^= key >>> 33;
+    key *= 0xff51afd7ed558ccdL;
+    key ^= key >>> 33;
+    key *= 0xc4ceb9fe1a85ec53L;
+    key ^= key >>> 33;
+
+    return (int) key;
+
+  }
+
+}
@@ -0,0 +1,253 @@
+package me.joosua.maingine.physics;
+
+import java.util.function.Consumer;
+import me.joosua.maingine.ecs.Chunk;
+import me.joosua.maingine.ecs.ComponentType;
+import me.joosua.maingine.ecs.EntitySystem;
+import me.joosua.maingine.ecs.Query;
+import me.joosua.maingine.ecs.SystemAccess;
+import me.joosua.maingine.ecs.World;
+
+/**
+ * <p>IntegrationSystem moves the bodies of a world with a fixed step.</p>
+ *
+ * <p>Entities with a position, velocity, force and inverse mass component are bodies. The
+ * time of the updates is accumulated and the bodies are moved by {@link Integrator} in
+ * steps of the same length, so the simulation doesn't depend on the rate of updates. At
+ * most {@link #getMaxSteps()} steps are taken on one update and the rest of the time is
+ * dropped, so a slow frame doesn't make the next ones slower.</p>
+ *
+ * <p>The forces are applied on every step of an update and reset after the steps, so
+ * other systems add their forces again before the next steps. The chunks of the bodies
+ * are integrated in parallel when the world is updated by a
+ * {@link me.joosua.maingine.ecs.SystemScheduler}.</p>
+ *
+ * @since 0.0.5
+ */
+public class IntegrationSystem implements EntitySystem {
+
+  private static final int DEFAULT_MAX_STEPS = 5;
+
+  private final ComponentType position;
+  private final ComponentType velocity;
+  private final ComponentType force;
+  private final ComponentType inverseMass;
+  private final double step;
+
+  private final float[] gravity = new float[3];
+  private float damping = 1;
+  private int maxSteps = DEFAULT_MAX_STEPS;
+  private boolean vectorized = true;
+  private double accumulator;
+
+  private Query bodies;
+  private final Consumer<Chunk> integrate = this::integrate;
+  private final Consumer<Chunk> clear = this::clear;
+
+  /**
+   * <p>Create an integration system.</p>
+   *
+   * @param position Component of three floats, the position of a body
+   * @param velocity Component of three floats, the velocity of a body
+   * @param force Component of three floats, the force applied to a body
+   * @param inverseMass Component of one float, one divided by the mass of a body
+   * @param step Duration of a step in seconds
+   * @since 0.0.5
+   */
+  public IntegrationSystem(ComponentType position, ComponentType velocity,
+      ComponentType force, ComponentType inverseMass, double step) {
+
+    this.position = position;
+    this.velocity = velocity;
+    this.force = force;
+    this.inverseMass = inverseMass;
+    this.step = step;
+
+  }
+
+  @Override
+  public void declareAccess(SystemAccess access) {
+
+    access.reads(inverseMass).writes(position, velocity, force);
+
+  }
+
+  @Override
+  public void update(World world, double delta) {
+
+    if (bodies == null) bodies = world.query(position, velocity, force, inverseMass);
+
+    accumulator += delta;
+
+    int steps = (int) Math.min(Math.floor(accumulator / step), maxSteps);
+
+    accumulator -= steps * step;
+
+    if (accumulator >= step) accumulator %= step;
+
+    if (steps == 0) return;
+
+    for (int i = 0; i < steps; i++) {
+      bodies.forEachParallel(integrate);
+    }
+
+    bodies.forEachParallel(clear);
+
+  }
+
+  /**
+   * <p>Set the acceleration of every body.</p>
+   *
+   * @param x Acceleration on the x axis
+   * @param y Acceleration on the y axis
+   * @param z Acceleration on the z axis
+   * @since 0.0.5
+   */
+  public void setGravity(float x, float y, float z) {
+
+    gravity[0] = x;
+    gravity[1] = y;
+    gravity[2] = z;
+
+  }
+
+  /**
+   * <p>Set the multiplier of the velocities on each step.</p>
+   *
+   * @param damping Multiplier between <code>0</code> and <code>1</code>
+   * @since 0.0.5
+   */
+  public void setDamping(float damping) {
+
+    this.damping = damping;
+
+  }
+
+  /**
+   * <p>Get the multiplier of the velocities on each step.</p>
+   *
+   * @return The multiplier
+   * @since 0.0.5
+   */
+  public float getDamping() {
+
+    return damping;
+
+  }
+
+  /**
+   * <p>Set the maximum amount of steps taken on one update.</p>
+   *
+   * @param maxSteps Amount of steps
+   * @since 0.0.5
+   */
+  public void setMaxSteps(int maxSteps) {
+
+    this.maxSteps = Math.max(maxSteps, 1);
+
+  }
+
+  /**
+   * <p>Get the maximum amount of steps taken on one update.</p>
+   *
+   * @return Amount of steps
+   * @since 0.0.5
+   */
+  public int getMaxSteps() {
+
+    return maxSteps;
+
+  }
+
+  /**
+   * <p>Set whether the axes are integrated separately.</p>
+   *
+   * <p>The vectorized path is used by default. The scalar path integrates one body at a
+   * time and gives the same results.</p>
+   *
+   * @param vectorized <code>TRUE</code> to integrate the axes separately
+   * @since 0.0.5
+   */
+  public void setVectorized(boolean vectorized) {
+
+    this.vectorized = vectorized;
+
+  }
+
+  /**
+   * <p>Whether the axes are integrated separately.</p>
+   *
+   * @return <code>TRUE</code> if vectorized, <code>FALSE</code> if scalar
+   * @since 0.0.5
+   */
+  public boolean isVectorized() {
+
+    return vectorized;
+
+  }
+
+  /**
+   * <p>Get the duration of a step.</p>
+   *
+   * @return Duration in seconds
+   * @since 0.0.5
+   */
+  public double getStep() {
+
+    return step;
+
+  }
+
+  /**
+   * <p>Get how far the time is between the last step and the next one.</p>
+   *
+   * <p>Rendering can interpolate the positions with this to move the bodies smoothly
+   * between the steps.</p>
+   *
+   * @return Value from <code>0</code> to <code>1</code>
+   * @since 0.0.5
+   */
+  public float getAlpha() {
+
+    return (float) (accumulator / step);
+
+  }
+
+  private void integrate(Chunk chunk) {
+
+    final float[] masses = chunk.getFloats(inverseMass, 0);
+    final float time = (float) step;
+
+    if (vectorized) {
+
+      for (int axis = 0; axis < 3; axis++) {
+        Integrator.integrate(chunk.getFloats(position, axis), chunk.getFloats(velocity, axis),
+            chunk.getFloats(force, axis), masses, gravity[axis], damping, time, 0,
+            chunk.size());
+      }
+
+    } else {
+
+      float[][] positions = {chunk.getFloats(position, 0), chunk.getFloats(position, 1),
+          chunk.getFloats(position, 2)};
+      float[][] velocities = {chunk.getFloats(velocity, 0), chunk.getFloats(velocity, 1),
+          chunk.getFloats(velocity, 2)};
+      float[][] forces = {chunk.getFloats(force, 0), chunk.getFloats(force, 1),
+          chunk.getFloats(force, 2)};
+
+      Integrator.integrateScalar(positions, velocities, forces, masses, gravity, damping, time,
+          0, chunk.size());
+
+    }
+
+  }
+
+  private void clear(Chunk chunk) {
+
+    for (int axis = 0; axis < 3; axis++) {
+      Integrator.clearForces(chunk.getFloats(force, axis), 0, chunk.size());
+    }
+
+  }
+
+}
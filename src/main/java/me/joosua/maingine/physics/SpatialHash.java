@@ -0,0 +1,750 @@
+package me.joosua.maingine.physics;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * <p>SpatialHash is a broadphase finding the pairs of overlapping axis-aligned boxes.</p>
+ *
+ * <p>Space is split into a hierarchy of uniform grids, each level having cells twice as
+ * large as the previous one. Every body is put to the first level where its cells are at
+ * least as large as the body, so it overlaps at most eight cells. Only the occupied cells
+ * are stored, in a primitive open-addressing table keyed by the level and the coordinates
+ * of the cell. The cells link their bodies through pooled entry arrays, so moving bodies
+ * doesn't allocate.</p>
+ *
+ * <p>Every body gets a proxy, which is used for moving and removing it. Moving a body only
+ * changes the table when the body's range of cells changes.</p>
+ *
+ * <p>{@link #findPairs()} tests the bodies sharing a cell and the bodies against the
+ * coarser levels. A pair is only reported from the cell containing the minimum corner of
+ * the overlap, so every pair is found exactly once without a set of found pairs. The
+ * occupied cells are split into chunks, which are run in parallel on a fork/join pool. The
+ * chunks are tasks reused by every search, so finding pairs doesn't allocate.</p>
+ *
+ * <p>The cells of the top level should be larger than the largest bodies, as larger bodies
+ * overlap more cells. The hash isn't thread-safe, but finding pairs only reads it.</p>
+ *
+ * @since 0.0.5
+ */
+public class SpatialHash {
+
+  private static final Logger logger = LogManager.getLogger(SpatialHash.class);
+
+  public static final int NULL = -1;
+
+  /**
+   * <p>Maximum amount of grid levels.</p>
+   */
+  public static final int MAX_LEVELS = 8;
+
+  private static final int BOUNDS = 6;
+
+  // Bits of a cell coordinate in a key, coordinates further away wrap around
+  private static final int COORD_BITS = 20;
+  private static final int COORD_MASK = (1 << COORD_BITS) - 1;
+
+  private final int levels;
+  private final float[] cellSizes;
+  private final float[] inverseSizes;
+  private final int[] levelCounts = new int[MAX_LEVELS];
+
+  private final ForkJoinPool pool;
+  private final Chunk[] chunks;
+  private final RecursiveAction root = new RecursiveAction() {
+
+    @Override
+    protected void compute() {
+
+      invokeChunks();
+
+    }
+
+  };
+
+  private int capacity;
+  private int freeList = NULL;
+  private int proxyCount;
+
+  private float[] bounds = new float[0];
+  // Minimum and maximum cell coordinates of the bodies
+  private int[] cells = new int[0];
+  private int[] level = new int[0];
+  private int[] data = new int[0];
+  private int[] firstEntry = new int[0];
+
+  // Entries link the bodies of a cell and the cells of a body
+  private int entryCapacity;
+  private int freeEntry = NULL;
+  private int[] entryBody = new int[0];
+  private int[] entryNext = new int[0];
+  private int[] entryPrevious = new int[0];
+  private int[] entryBodyNext = new int[0];
+  private long[] entryKey = new long[0];
+
+  private final CellTable table;
+
+  private int[] pairs = new int[1024];
+  private int pairCount;
+
+  /**
+   * <p>Create a spatial hash.</p>
+   *
+   * <p>With a <code>NULL</code> pool or a single chunk the pairs are found on the calling
+   * thread. When finding pairs on a worker of a pool, like in a system, the chunks are run
+   * on that pool instead.</p>
+   *
+   * @param cellSize Size of the cells of the first level, close to the size of the
+   *     smallest common bodies
+   * @param levels Amount of levels, at most {@value #MAX_LEVELS}
+   * @param capacity Amount of bodies allocated at first
+   * @param pool Pool finding the pairs, can be <code>NULL</code>
+   * @param chunkCount Amount of chunks run in parallel
+   * @since 0.0.5
+   */
+  public SpatialHash(float cellSize, int levels, int capacity, ForkJoinPool pool,
+      int chunkCount) {
+
+    if (levels < 1 || levels > MAX_LEVELS) {
+      logger.warn("Spatial hash levels must be between 1 and {}, {} was given", MAX_LEVELS,
+          levels);
+    }
+
+    this.levels = Math.min(Math.max(levels, 1), MAX_LEVELS);
+    this.pool = pool;
+
+    cellSizes = new float[this.levels];
+    inverseSizes = new float[this.levels];
+
+    for (int i = 0; i < this.levels; i++) {
+      cellSizes[i] = cellSize * (1 << i);
+      inverseSizes[i] = 1 / cellSizes[i];
+    }
+
+    chunks = new Chunk[Math.max(chunkCount, 1)];
+
+    for (int i = 0; i < chunks.length; i++) {
+      chunks[i] = new Chunk(i);
+    }
+
+    table = new CellTable(capacity * 2);
+
+    grow(Math.max(capacity, 16));
+    growEntries(Math.max(capacity * 2, 32));
+
+  }
+
+  /**
+   * <p>Add a body.</p>
+   *
+   * @param minX Minimum x of the body's box
+   * @param minY Minimum y of the body's box
+   * @param minZ Minimum z of the body's box
+   * @param maxX Maximum x of the body's box
+   * @param maxY Maximum y of the body's box
+   * @param maxZ Maximum z of the body's box
+   * @param userData Value returned by {@link #getData(int)}, like an entity id
+   * @return Proxy of the body
+   * @since 0.0.5
+   */
+  public int insert(float minX, float minY, float minZ, float maxX, float maxY, float maxZ,
+      int userData) {
+
+    if (freeList == NULL) grow(capacity * 2);
+
+    int proxy = freeList;
+
+    freeList = firstEntry[proxy];
+    firstEntry[proxy] = NULL;
+    data[proxy] = userData;
+
+    setBounds(proxy, minX, minY, minZ, maxX, maxY, maxZ);
+    level[proxy] = levelOf(proxy);
+    setCells(proxy);
+    link(proxy);
+
+    levelCounts[level[proxy]]++;
+    proxyCount++;
+
+    return proxy;
+
+  }
+
+  /**
+   * <p>Remove a body.</p>
+   *
+   * @param proxy Proxy of the body
+   * @return <code>TRUE</code> if removed, <code>FALSE</code> if the proxy isn't in use.
+   * @since 0.0.5
+   */
+  public boolean remove(int proxy) {
+
+    if (!contains(proxy)) return false;
+
+    unlink(proxy);
+
+    levelCounts[level[proxy]]--;
+    level[proxy] = NULL;
+    firstEntry[proxy] = freeList;
+    freeList = proxy;
+    proxyCount--;
+
+    return true;
+
+  }
+
+  /**
+   * <p>Move a body.</p>
+   *
+   * <p>The cells are only changed when the body's new box overlaps different cells.</p>
+   *
+   * @param proxy Proxy of the body
+   * @param minX Minimum x of the body's new box
+   * @param minY Minimum y of the body's new box
+   * @param minZ Minimum z of the body's new box
+   * @param maxX Maximum x of the body's new box
+   * @param maxY Maximum y of the body's new box
+   * @param maxZ Maximum z of the body's new box
+   * @return <code>TRUE</code> if the cells were changed, <code>FALSE</code> if not.
+   * @since 0.0.5
+   */
+  public boolean update(int proxy, float minX, float minY, float minZ, float maxX, float maxY,
+      float maxZ) {
+
+    if (!contains(proxy)) return false;
+
+    setBounds(proxy, minX, minY, minZ, maxX, maxY, maxZ);
+
+    int newLevel = levelOf(proxy);
+    int offset = proxy * BOUNDS;
+
+    if (newLevel == level[proxy]
+        && cells[offset] == cell(minX, newLevel) && cells[offset + 3] == cell(maxX, newLevel)
+        && cells[offset + 1] == cell(minY, newLevel) && cells[offset + 4] == cell(maxY, newLevel)
+        && cells[offset + 2] == cell(minZ, newLevel)
+        && cells[offset + 5] == cell(maxZ, newLevel)) {
+      return false;
+    }
+
+    unlink(proxy);
+
+    levelCounts[level[proxy]]--;
+    level[proxy] = newLevel;
+    levelCounts[newLevel]++;
+
+    setCells(proxy);
+    link(proxy);
+
+    return true;
+
+  }
+
+  /**
+   * <p>Find all the pairs of overlapping bodies.</p>
+   *
+   * <p>The proxies of the pairs can be read with {@link #getPairs()}. Their order depends on
+   * the amount of chunks but not on the scheduling of the threads.</p>
+   *
+   * @return Amount of pairs found, <code>-1</code> if finding failed
+   * @since 0.0.5
+   */
+  public int findPairs() {
+
+    pairCount = 0;
+
+    if (pool == null || chunks.length == 1) {
+
+      for (Chunk chunk : chunks) {
+        chunk.find();
+      }
+
+    } else if (ForkJoinTask.inForkJoinPool()) {
+
+      invokeChunks();
+
+    } else {
+
+      root.reinitialize();
+      pool.invoke(root);
+
+    }
+
+    for (Chunk chunk : chunks) {
+
+      if (chunk.isCompletedAbnormally()) {
+        logger.error("Finding pairs failed: {}", chunk.getException().getMessage());
+        return -1;
+      }
+
+    }
+
+    for (Chunk chunk : chunks) {
+
+      if (pairCount + chunk.count > pairs.length) {
+        pairs = Arrays.copyOf(pairs, Math.max(pairs.length * 2, pairCount + chunk.count));
+      }
+
+      System.arraycopy(chunk.results, 0, pairs, pairCount, chunk.count);
+      pairCount += chunk.count;
+
+    }
+
+    pairCount /= 2;
+
+    return pairCount;
+
+  }
+
+  /**
+   * <p>Get the pairs found by the last {@link #findPairs()}.</p>
+   *
+   * <p>The proxies of pair <code>i</code> are at <code>2 * i</code> and
+   * <code>2 * i + 1</code>. Only the first {@link #getPairCount()} pairs are valid. The
+   * array is reused by the next search.</p>
+   *
+   * @return Proxies of the pairs
+   * @since 0.0.5
+   */
+  public int[] getPairs() {
+
+    return pairs;
+
+  }
+
+  /**
+   * <p>Get the amount of pairs found by the last search.</p>
+   *
+   * @return Amount of pairs
+   * @since 0.0.5
+   */
+  public int getPairCount() {
+
+    return pairCount;
+
+  }
+
+  /**
+   * <p>Whether a proxy is in use.</p>
+   *
+   * @param proxy The proxy
+   * @return <code>TRUE</code> if it's a body, <code>FALSE</code> if not.
+   * @since 0.0.5
+   */
+  public boolean contains(int proxy) {
+
+    return proxy >= 0 && proxy < capacity && level[proxy] != NULL;
+
+  }
+
+  /**
+   * <p>Get the user data of a body.</p>
+   *
+   * @param proxy Proxy of the body
+   * @return User data given on insertion
+   * @since 0.0.5
+   */
+  public int getData(int proxy) {
+
+    return data[proxy];
+
+  }
+
+  /**
+   * <p>Get the amount of bodies.</p>
+   *
+   * @return Amount of bodies
+   * @since 0.0.5
+   */
+  public int size() {
+
+    return proxyCount;
+
+  }
+
+  /**
+   * <p>Get the amount of proxies allocated.</p>
+   *
+   * <p>All the proxies in use are less than this.</p>
+   *
+   * @return Amount of proxies
+   * @since 0.0.5
+   */
+  public int getCapacity() {
+
+    return capacity;
+
+  }
+
+  /**
+   * <p>Get the amount of occupied cells.</p>
+   *
+   * @return Amount of cells
+   * @since 0.0.5
+   */
+  public int getCellCount() {
+
+    return table.size();
+
+  }
+
+  /**
+   * <p>Remove all the bodies.</p>
+   *
+   * <p>The arrays are kept for reuse.</p>
+   *
+   * @since 0.0.5
+   */
+  public void clear() {
+
+    table.clear();
+    Arrays.fill(levelCounts, 0);
+    proxyCount = 0;
+    pairCount = 0;
+
+    freeList = NULL;
+
+    for (int i = capacity - 1; i >= 0; i--) {
+      level[i] = NULL;
+      firstEntry[i] = freeList;
+      freeList = i;
+    }
+
+    freeEntry = NULL;
+
+    for (int i = entryCapacity - 1; i >= 0; i--) {
+      entryBodyNext[i] = freeEntry;
+      freeEntry = i;
+    }
+
+  }
+
+  private void setBounds(int proxy, float minX, float minY, float minZ, float maxX,
+      float maxY, float maxZ) {
+
+    int offset = proxy * BOUNDS;
+
+    bounds[offset] = minX;
+    bounds[offset + 1] = minY;
+    bounds[offset + 2] = minZ;
+    bounds[offset + 3] = maxX;
+    bounds[offset + 4] = maxY;
+    bounds[offset + 5] = maxZ;
+
+  }
+
+  private void setCells(int proxy) {
+
+    int offset = proxy * BOUNDS;
+
+    for (int i = 0; i < BOUNDS; i++) {
+      cells[offset + i] = cell(bounds[offset + i], level[proxy]);
+    }
+
+  }
+
+  private int levelOf(int proxy) {
+
+    int offset = proxy * BOUNDS;
+    float size = Math.max(bounds[offset + 3] - bounds[offset],
+        Math.max(bounds[offset + 4] - bounds[offset + 1], bounds[offset + 5] - bounds[offset + 2]));
+
+    for (int i = 0; i < levels - 1; i++) {
+      if (size <= cellSizes[i]) return i;
+    }
+
+    return levels - 1;
+
+  }
+
+  private int cell(float value, int level) {
+
+    return (int) Math.floor(value * inverseSizes[level]);
+
+  }
+
+  private void link(int proxy) {
+
+    int offset = proxy * BOUNDS;
+
+    for (int x = cells[offset]; x <= cells[offset + 3]; x++) {
+      for (int y = cells[offset + 1]; y <= cells[offset + 4]; y++) {
+        for (int z = cells[offset + 2]; z <= cells[offset + 5]; z++) {
+
+          long key = key(level[proxy], x, y, z);
+          final int head = table.get(key);
+          int entry = allocateEntry();
+
+          entryBody[entry] = proxy;
+          entryKey[entry] = key;
+          entryPrevious[entry] = NULL;
+          entryNext[entry] = head;
+
+          if (head != NULL) entryPrevious[head] = entry;
+
+          table.put(key, entry, 1);
+
+          entryBodyNext[entry] = firstEntry[proxy];
+          firstEntry[proxy] = entry;
+
+        }
+      }
+    }
+
+  }
+
+  private void unlink(int proxy) {
+
+    int entry = firstEntry[proxy];
+
+    while (entry != NULL) {
+
+      int previous = entryPrevious[entry];
+      int next = entryNext[entry];
+
+      if (previous != NULL) {
+        entryNext[previous] = next;
+        table.addCount(entryKey[entry], -1);
+      } else if (next != NULL) {
+        table.put(entryKey[entry], next, -1);
+      } else {
+        table.remove(entryKey[entry]);
+      }
+
+      if (next != NULL) entryPrevious[next] = previous;
+
+      int following = entryBodyNext[entry];
+
+      entryBodyNext[entry] = freeEntry;
+      freeEntry = entry;
+      entry = following;
+
+    }
+
+    firstEntry[proxy] = NULL;
+
+  }
+
+  private int allocateEntry() {
+
+    if (freeEntry == NULL) growEntries(entryCapacity * 2);
+
+    int entry = freeEntry;
+
+    freeEntry = entryBodyNext[entry];
+
+    return entry;
+
+  }
+
+  private void grow(int newCapacity) {
+
+    bounds = Arrays.copyOf(bounds, newCapacity * BOUNDS);
+    cells = Arrays.copyOf(cells, newCapacity * BOUNDS);
+    level = Arrays.copyOf(level, newCapacity);
+    data = Arrays.copyOf(data, newCapacity);
+    firstEntry = Arrays.copyOf(firstEntry, newCapacity);
+
+    // The free proxies are linked through firstEntry
+    for (int i = newCapacity - 1; i >= capacity; i--) {
+      level[i] = NULL;
+      firstEntry[i] = freeList;
+      freeList = i;
+    }
+
+    capacity = newCapacity;
+
+  }
+
+  private void growEntries(int newCapacity) {
+
+    entryBody = Arrays.copyOf(entryBody, newCapacity);
+    entryNext = Arrays.copyOf(entryNext, newCapacity);
+    entryPrevious = Arrays.copyOf(entryPrevious, newCapacity);
+    entryBodyNext = Arrays.copyOf(entryBodyNext, newCapacity);
+    entryKey = Arrays.copyOf(entryKey, newCapacity);
+
+    for (int i = newCapacity - 1; i >= entryCapacity; i--) {
+      entryBodyNext[i] = freeEntry;
+      freeEntry = i;
+    }
+
+    entryCapacity = newCapacity;
+
+  }
+
+  private boolean overlaps(int proxyA, int proxyB) {
+
+    int a = proxyA * BOUNDS;
+    int b = proxyB * BOUNDS;
+
+    return bounds[a] <= bounds[b + 3] && bounds[a + 3] >= bounds[b]
+        && bounds[a + 1] <= bounds[b + 4] && bounds[a + 4] >= bounds[b + 1]
+        && bounds[a + 2] <= bounds[b + 5] && bounds[a + 5] >= bounds[b + 2];
+
+  }
+
+  // Whether a cell contains the minimum corner of the overlap of two bodies
+  private boolean owns(long key, int proxyA, int proxyB, int level) {
+
+    int a = proxyA * BOUNDS;
+    int b = proxyB * BOUNDS;
+
+    return key == key(level, cell(Math.max(bounds[a], bounds[b]), level),
+        cell(Math.max(bounds[a + 1], bounds[b + 1]), level),
+        cell(Math.max(bounds[a + 2], bounds[b + 2]), level));
+
+  }
+
+  private static long key(int level, int x, int y, int z) {
+
+    return (long) level << (COORD_BITS * 3) | (long) (x & COORD_MASK) << (COORD_BITS * 2)
+        | (long) (y & COORD_MASK) << COORD_BITS | z & COORD_MASK;
+
+  }
+
+  private void invokeChunks() {
+
+    for (Chunk chunk : chunks) {
+      chunk.reinitialize();
+    }
+
+    // The calling thread runs the first chunk itself
+    for (int i = 1; i < chunks.length; i++) {
+      chunks[i].fork();
+    }
+
+    chunks[0].quietlyInvoke();
+
+    for (int i = chunks.length - 1; i > 0; i--) {
+      chunks[i].quietlyJoin();
+    }
+
+  }
+
+  private static int levelOfKey(long key) {
+
+    return (int) (key >>> (COORD_BITS * 3));
+
+  }
+
+  private final class Chunk extends RecursiveAction {
+
+    private final int index;
+
+    private int[] results = new int[256];
+    private int count;
+
+    private Chunk(int index) {
+
+      this.index = index;
+
+    }
+
+    @Override
+    protected void compute() {
+
+      find();
+
+    }
+
+    private void find() {
+
+      count = 0;
+
+      int chunkCount = chunks.length;
+      int slots = table.capacity();
+      int end = (int) ((long) slots * (index + 1) / chunkCount);
+
+      for (int slot = (int) ((long) slots * index / chunkCount); slot < end; slot++) {
+
+        // Cells with a single body have no pairs, nor empty slots
+        if (table.countAt(slot) > 1) findInCell(table.keyAt(slot), table.valueAt(slot));
+
+      }
+
+      end = (int) ((long) capacity * (index + 1) / chunkCount);
+
+      for (int proxy = (int) ((long) capacity * index / chunkCount); proxy < end; proxy++) {
+        if (level[proxy] != NULL) findInCoarserLevels(proxy);
+      }
+
+    }
+
+    private void findInCell(long key, int head) {
+
+      int cellLevel = levelOfKey(key);
+
+      for (int entryA = head; entryA != NULL; entryA = entryNext[entryA]) {
+
+        int proxyA = entryBody[entryA];
+
+        for (int entryB = entryNext[entryA]; entryB != NULL; entryB = entryNext[entryB]) {
+
+          int proxyB = entryBody[entryB];
+
+          if (overlaps(proxyA, proxyB) && owns(key, proxyA, proxyB, cellLevel)) {
+            add(proxyA, proxyB);
+          }
+
+        }
+
+      }
+
+    }
+
+    private void findInCoarserLevels(int proxy) {
+
+      int offset = proxy * BOUNDS;
+
+      for (int coarse = level[proxy] + 1; coarse < levels; coarse++) {
+
+        if (levelCounts[coarse] == 0) continue;
+
+        int minX = cell(bounds[offset], coarse);
+        int minY = cell(bounds[offset + 1], coarse);
+        int minZ = cell(bounds[offset + 2], coarse);
+        int maxX = cell(bounds[offset + 3], coarse);
+        int maxY = cell(bounds[offset + 4], coarse);
+        int maxZ = cell(bounds[offset + 5], coarse);
+
+        for (int x = minX; x <= maxX; x++) {
+          for (int y = minY; y <= maxY; y++) {
+            for (int z = minZ; z <= maxZ; z++) {
+
+              long key = key(coarse, x, y, z);
+
+              for (int entry = table.get(key); entry != NULL; entry = entryNext[entry]) {
+
+                int other = entryBody[entry];
+
+                if (overlaps(proxy, other) && owns(key, proxy, other, coarse)) {
+                  add(proxy, other);
+                }
+
+              }
+
+            }
+          }
+        }
+
+      }
+
+    }
+
+    private void add(int proxyA, int proxyB) {
+
+      if (count + 2 > results.length) results = Arrays.copyOf(results, results.length * 2);
+
+      results[count] = proxyA;
+      results[count + 1] = proxyB;
+      count += 2;
+
+    }
+
+  }
+
+}
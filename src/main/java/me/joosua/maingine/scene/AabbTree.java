@@ -0,0 +1,654 @@
+package me.joosua.maingine.scene;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * <p>AabbTree is a dynamic bounding volume hierarchy of axis-aligned boxes.</p>
+ *
+ * <p>Every object added to the tree gets a proxy, which is used for moving and removing
+ * the object. The leaves store the object's box enlarged by a margin, so objects moving
+ * a little don't change the tree at all. When an object leaves its enlarged box, only its
+ * own leaf is removed and inserted again. Insertion picks the sibling with the surface area
+ * heuristic and the tree is kept balanced with rotations.</p>
+ *
+ * <p>The nodes are stored in flat arrays to keep the traversal cache friendly and free of
+ * allocations. The tree isn't thread-safe, but the read-only traversal of
+ * {@link FrustumCuller} can run on many threads as long as the tree isn't changed at the
+ * same time.</p>
+ *
+ * @since 0.0.5
+ */
+public class AabbTree {
+
+  public static final int NULL = -1;
+
+  static final int BOUNDS = 6;
+
+  private final float margin;
+
+  private int capacity;
+  private int root = NULL;
+  private int freeList = NULL;
+  private int proxyCount;
+
+  // Fat boxes of the leaves and unions of the children for the other nodes
+  private float[] bounds;
+  // Exact boxes of the objects, only used for the leaves
+  private float[] objects;
+
+  private int[] parent;
+  private int[] child1;
+  private int[] child2;
+  private int[] height;
+  private int[] data;
+
+  private int[] stack = new int[64];
+
+  /**
+   * <p>Create a tree.</p>
+   *
+   * @param margin Distance the leaves' boxes extend beyond the objects
+   * @param capacity Amount of nodes allocated at first
+   * @since 0.0.5
+   */
+  public AabbTree(float margin, int capacity) {
+
+    this.margin = margin;
+    this.capacity = 0;
+
+    bounds = new float[0];
+    objects = new float[0];
+    parent = new int[0];
+    child1 = new int[0];
+    child2 = new int[0];
+    height = new int[0];
+    data = new int[0];
+
+    grow(Math.max(capacity, 16));
+
+  }
+
+  /**
+   * <p>Add an object to the tree.</p>
+   *
+   * @param minX Minimum x of the object's box
+   * @param minY Minimum y of the object's box
+   * @param minZ Minimum z of the object's box
+   * @param maxX Maximum x of the object's box
+   * @param maxY Maximum y of the object's box
+   * @param maxZ Maximum z of the object's box
+   * @param userData Value returned by {@link #getData(int)}, like an entity id
+   * @return Proxy of the object
+   * @since 0.0.5
+   */
+  public int insert(float minX, float minY, float minZ, float maxX, float maxY, float maxZ,
+      int userData) {
+
+    int proxy = allocateNode();
+
+    setObject(proxy, minX, minY, minZ, maxX, maxY, maxZ);
+    data[proxy] = userData;
+    height[proxy] = 0;
+
+    insertLeaf(proxy);
+    proxyCount++;
+
+    return proxy;
+
+  }
+
+  /**
+   * <p>Remove an object from the tree.</p>
+   *
+   * @param proxy Proxy of the object
+   * @return <code>TRUE</code> if removed, <code>FALSE</code> if the proxy isn't a leaf.
+   * @since 0.0.5
+   */
+  public boolean remove(int proxy) {
+
+    if (!isProxy(proxy)) return false;
+
+    removeLeaf(proxy);
+    freeNode(proxy);
+    proxyCount--;
+
+    return true;
+
+  }
+
+  /**
+   * <p>Move an object.</p>
+   *
+   * <p>The tree is only changed when the object's new box isn't within the enlarged box of
+   * its leaf anymore.</p>
+   *
+   * @param proxy Proxy of the object
+   * @param minX Minimum x of the object's new box
+   * @param minY Minimum y of the object's new box
+   * @param minZ Minimum z of the object's new box
+   * @param maxX Maximum x of the object's new box
+   * @param maxY Maximum y of the object's new box
+   * @param maxZ Maximum z of the object's new box
+   * @return <code>TRUE</code> if the leaf was inserted again, <code>FALSE</code> if not.
+   * @since 0.0.5
+   */
+  public boolean update(int proxy, float minX, float minY, float minZ, float maxX, float maxY,
+      float maxZ) {
+
+    if (!isProxy(proxy)) return false;
+
+    int offset = proxy * BOUNDS;
+
+    if (bounds[offset] <= minX && bounds[offset + 1] <= minY && bounds[offset + 2] <= minZ
+        && bounds[offset + 3] >= maxX && bounds[offset + 4] >= maxY
+        && bounds[offset + 5] >= maxZ) {
+
+      objects[offset] = minX;
+      objects[offset + 1] = minY;
+      objects[offset + 2] = minZ;
+      objects[offset + 3] = maxX;
+      objects[offset + 4] = maxY;
+      objects[offset + 5] = maxZ;
+
+      return false;
+
+    }
+
+    removeLeaf(proxy);
+    setObject(proxy, minX, minY, minZ, maxX, maxY, maxZ);
+    insertLeaf(proxy);
+
+    return true;
+
+  }
+
+  /**
+   * <p>Find the objects overlapping a box.</p>
+   *
+   * @param minX Minimum x of the box
+   * @param minY Minimum y of the box
+   * @param minZ Minimum z of the box
+   * @param maxX Maximum x of the box
+   * @param maxY Maximum y of the box
+   * @param maxZ Maximum z of the box
+   * @param consumer Consumer given the proxy of each object found
+   * @return Amount of objects found
+   * @since 0.0.5
+   */
+  public int queryBox(float minX, float minY, float minZ, float maxX, float maxY, float maxZ,
+      IntConsumer consumer) {
+
+    if (root == NULL) return 0;
+
+    int found = 0;
+    int top = 0;
+    stack[top++] = root;
+
+    while (top > 0) {
+
+      int node = stack[--top];
+      int offset = node * BOUNDS;
+      float[] boxes = child1[node] == NULL ? objects : bounds;
+
+      if (boxes[offset] > maxX || boxes[offset + 1] > maxY || boxes[offset + 2] > maxZ
+          || boxes[offset + 3] < minX || boxes[offset + 4] < minY || boxes[offset + 5] < minZ) {
+        continue;
+      }
+
+      if (child1[node] == NULL) {
+        consumer.accept(node);
+        found++;
+      } else {
+        top = push(top, node);
+      }
+
+    }
+
+    return found;
+
+  }
+
+  /**
+   * <p>Find the objects overlapping a sphere.</p>
+   *
+   * @param x X of the sphere's center
+   * @param y Y of the sphere's center
+   * @param z Z of the sphere's center
+   * @param radius Radius of the sphere
+   * @param consumer Consumer given the proxy of each object found
+   * @return Amount of objects found
+   * @since 0.0.5
+   */
+  public int queryRadius(float x, float y, float z, float radius, IntConsumer consumer) {
+
+    if (root == NULL) return 0;
+
+    float radiusSquared = radius * radius;
+    int found = 0;
+    int top = 0;
+    stack[top++] = root;
+
+    while (top > 0) {
+
+      int node = stack[--top];
+      int offset = node * BOUNDS;
+      float[] boxes = child1[node] == NULL ? objects : bounds;
+
+      float dx = Math.max(Math.max(boxes[offset] - x, x - boxes[offset + 3]), 0);
+      float dy = Math.max(Math.max(boxes[offset + 1] - y, y - boxes[offset + 4]), 0);
+      float dz = Math.max(Math.max(boxes[offset + 2] - z, z - boxes[offset + 5]), 0);
+
+      if (dx * dx + dy * dy + dz * dz > radiusSquared) continue;
+
+      if (child1[node] == NULL) {
+        consumer.accept(node);
+        found++;
+      } else {
+        top = push(top, node);
+      }
+
+    }
+
+    return found;
+
+  }
+
+  /**
+   * <p>Get the user data of an object.</p>
+   *
+   * @param proxy Proxy of the object
+   * @return User data given on insertion
+   * @since 0.0.5
+   */
+  public int getData(int proxy) {
+
+    return data[proxy];
+
+  }
+
+  /**
+   * <p>Get the amount of objects in the tree.</p>
+   *
+   * @return Amount of objects
+   * @since 0.0.5
+   */
+  public int size() {
+
+    return proxyCount;
+
+  }
+
+  /**
+   * <p>Get the height of the tree.</p>
+   *
+   * <p>A balanced tree of <code>n</code> objects has a height close to
+   * <code>log2(n)</code>.</p>
+   *
+   * @return Height of the root, <code>0</code> if the tree is empty
+   * @since 0.0.5
+   */
+  public int getHeight() {
+
+    return root == NULL ? 0 : height[root];
+
+  }
+
+  /**
+   * <p>Remove all the objects.</p>
+   *
+   * <p>The node arrays are kept for reuse.</p>
+   *
+   * @since 0.0.5
+   */
+  public void clear() {
+
+    root = NULL;
+    freeList = NULL;
+    proxyCount = 0;
+
+    for (int i = capacity - 1; i >= 0; i--) {
+      freeNode(i);
+    }
+
+  }
+
+  int getRoot() {
+
+    return root;
+
+  }
+
+  int getChild1(int node) {
+
+    return child1[node];
+
+  }
+
+  int getChild2(int node) {
+
+    return child2[node];
+
+  }
+
+  float[] getBounds() {
+
+    return bounds;
+
+  }
+
+  float[] getObjects() {
+
+    return objects;
+
+  }
+
+  private boolean isProxy(int proxy) {
+
+    return proxy >= 0 && proxy < capacity && height[proxy] == 0;
+
+  }
+
+  private int push(int top, int node) {
+
+    if (top + 2 > stack.length) stack = Arrays.copyOf(stack, stack.length * 2);
+
+    stack[top] = child1[node];
+    stack[top + 1] = child2[node];
+
+    return top + 2;
+
+  }
+
+  private void setObject(int proxy, float minX, float minY, float minZ, float maxX, float maxY,
+      float maxZ) {
+
+    int offset = proxy * BOUNDS;
+
+    objects[offset] = minX;
+    objects[offset + 1] = minY;
+    objects[offset + 2] = minZ;
+    objects[offset + 3] = maxX;
+    objects[offset + 4] = maxY;
+    objects[offset + 5] = maxZ;
+
+    bounds[offset] = minX - margin;
+    bounds[offset + 1] = minY - margin;
+    bounds[offset + 2] = minZ - margin;
+    bounds[offset + 3] = maxX + margin;
+    bounds[offset + 4] = maxY + margin;
+    bounds[offset + 5] = maxZ + margin;
+
+  }
+
+  private int allocateNode() {
+
+    if (freeList == NULL) grow(capacity * 2);
+
+    int node = freeList;
+
+    freeList = parent[node];
+    parent[node] = NULL;
+    child1[node] = NULL;
+    child2[node] = NULL;
+    height[node] = 0;
+    data[node] = 0;
+
+    return node;
+
+  }
+
+  private void freeNode(int node) {
+
+    parent[node] = freeList;
+    height[node] = -1;
+    freeList = node;
+
+  }
+
+  private void grow(int newCapacity) {
+
+    bounds = Arrays.copyOf(bounds, newCapacity * BOUNDS);
+    objects = Arrays.copyOf(objects, newCapacity * BOUNDS);
+    parent = Arrays.copyOf(parent, newCapacity);
+    child1 = Arrays.copyOf(child1, newCapacity);
+    child2 = Arrays.copyOf(child2, newCapacity);
+    height = Arrays.copyOf(height, newCapacity);
+    data = Arrays.copyOf(data, newCapacity);
+
+    for (int i = newCapacity - 1; i >= capacity; i--) {
+      freeNode(i);
+    }
+
+    capacity = newCapacity;
+
+  }
+
+  private void insertLeaf(int leaf) {
+
+    if (root == NULL) {
+      root = leaf;
+      parent[root] = NULL;
+      return;
+    }
+
+    int index = root;
+
+    while (child1[index] != NULL) {
+
+      float area = area(index);
+      float combinedArea = combinedArea(index, leaf);
+
+      // Cost of making a new parent for this node and the leaf
+      float cost = 2 * combinedArea;
+      // Minimum cost of pushing the leaf further down the tree
+      float inheritance = 2 * (combinedArea - area);
+
+      float cost1 = descendCost(child1[index], leaf, inheritance);
+      float cost2 = descendCost(child2[index], leaf, inheritance);
+
+      if (cost < cost1 && cost < cost2) break;
+
+      index = cost1 < cost2 ? child1[index] : child2[index];
+
+    }
+
+    int sibling = index;
+    int oldParent = parent[sibling];
+    int newParent = allocateNode();
+
+    parent[newParent] = oldParent;
+    height[newParent] = height[sibling] + 1;
+    union(newParent, leaf, sibling);
+
+    if (oldParent != NULL) {
+
+      if (child1[oldParent] == sibling) {
+        child1[oldParent] = newParent;
+      } else {
+        child2[oldParent] = newParent;
+      }
+
+    } else {
+
+      root = newParent;
+
+    }
+
+    child1[newParent] = sibling;
+    child2[newParent] = leaf;
+    parent[sibling] = newParent;
+    parent[leaf] = newParent;
+
+    refit(parent[leaf]);
+
+  }
+
+  private void removeLeaf(int leaf) {
+
+    if (leaf == root) {
+      root = NULL;
+      return;
+    }
+
+    int oldParent = parent[leaf];
+    int grandParent = parent[oldParent];
+    int sibling = child1[oldParent] == leaf ? child2[oldParent] : child1[oldParent];
+
+    if (grandParent != NULL) {
+
+      if (child1[grandParent] == oldParent) {
+        child1[grandParent] = sibling;
+      } else {
+        child2[grandParent] = sibling;
+      }
+
+      parent[sibling] = grandParent;
+      freeNode(oldParent);
+
+      refit(grandParent);
+
+    } else {
+
+      root = sibling;
+      parent[sibling] = NULL;
+      freeNode(oldParent);
+
+    }
+
+    parent[leaf] = NULL;
+
+  }
+
+  private void refit(int index) {
+
+    while (index != NULL) {
+
+      index = balance(index);
+
+      int left = child1[index];
+      int right = child2[index];
+
+      height[index] = 1 + Math.max(height[left], height[right]);
+      union(index, left, right);
+
+      index = parent[index];
+
+    }
+
+  }
+
+  private int balance(int nodeA) {
+
+    if (child1[nodeA] == NULL || height[nodeA] < 2) return nodeA;
+
+    int nodeB = child1[nodeA];
+    int nodeC = child2[nodeA];
+    int difference = height[nodeC] - height[nodeB];
+
+    if (difference > 1) return rotate(nodeA, nodeC, nodeB, false);
+    if (difference < -1) return rotate(nodeA, nodeB, nodeC, true);
+
+    return nodeA;
+
+  }
+
+  // Move the higher child of nodeA up to nodeA's place
+  private int rotate(int nodeA, int higher, int lower, boolean higherIsFirst) {
+
+    final int grandChild1 = child1[higher];
+    final int grandChild2 = child2[higher];
+
+    child1[higher] = nodeA;
+    parent[higher] = parent[nodeA];
+    parent[nodeA] = higher;
+
+    if (parent[higher] != NULL) {
+
+      if (child1[parent[higher]] == nodeA) {
+        child1[parent[higher]] = higher;
+      } else {
+        child2[parent[higher]] = higher;
+      }
+
+    } else {
+
+      root = higher;
+
+    }
+
+    // The higher grandchild stays under the rotated node, the lower one moves to nodeA
+    int keep = height[grandChild1] > height[grandChild2] ? grandChild1 : grandChild2;
+    int move = keep == grandChild1 ? grandChild2 : grandChild1;
+
+    child2[higher] = keep;
+
+    if (higherIsFirst) {
+      child1[nodeA] = move;
+    } else {
+      child2[nodeA] = move;
+    }
+
+    parent[move] = nodeA;
+
+    union(nodeA, lower, move);
+    union(higher, nodeA, keep);
+
+    height[nodeA] = 1 + Math.max(height[lower], height[move]);
+    height[higher] = 1 + Math.max(height[nodeA], height[keep]);
+
+    return higher;
+
+  }
+
+  private float descendCost(int child, int leaf, float inheritance) {
+
+    if (child1[child] == NULL) return combinedArea(child, leaf) + inheritance;
+
+    return combinedArea(child, leaf) - area(child) + inheritance;
+
+  }
+
+  private void union(int target, int nodeA, int nodeB) {
+
+    int a = nodeA * BOUNDS;
+    int b = nodeB * BOUNDS;
+    int t = target * BOUNDS;
+
+    bounds[t] = Math.min(bounds[a], bounds[b]);
+    bounds[t + 1] = Math.min(bounds[a + 1], bounds[b + 1]);
+    bounds[t + 2] = Math.min(bounds[a + 2], bounds[b + 2]);
+    bounds[t + 3] = Math.max(bounds[a + 3], bounds[b + 3]);
+    bounds[t + 4] = Math.max(bounds[a + 4], bounds[b + 4]);
+    bounds[t + 5] = Math.max(bounds[a + 5], bounds[b + 5]);
+
+  }
+
+  private float area(int node) {
+
+    int offset = node * BOUNDS;
+
+    return surfaceArea(bounds[offset + 3] - bounds[offset], bounds[offset + 4] - bounds[offset + 1],
+        bounds[offset + 5] - bounds[offset + 2]);
+
+  }
+
+  private float combinedArea(int nodeA, int nodeB) {
+
+    int a = nodeA * BOUNDS;
+    int b = nodeB * BOUNDS;
+
+    return surfaceArea(
+        Math.max(bounds[a + 3], bounds[b + 3]) - Math.min(bounds[a], bounds[b]),
+        Math.max(bounds[a + 4], bounds[b + 4]) - Math.min(bounds[a + 1], bounds[b + 1]),
+        Math.max(bounds[a + 5], bounds[b + 5]) - Math.min(bounds[a + 2], bounds[b + 2]));
+
+  }
+
+  private static float surfaceArea(float width, float height, float depth) {
+
+    return 2 * (width * height + height * depth + depth * width);
+
+  }
+
+}
@@ -0,0 +1,329 @@
+package me.joosua.maingine.scene;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.joml.FrustumIntersection;
+
+/**
+ * <p>FrustumCuller finds the objects of an {@link AabbTree} visible in a frustum.</p>
+ *
+ * <p>The top of the tree is split into subtrees, which are culled in parallel chunks on a
+ * fork/join pool. Subtrees entirely inside the frustum are accepted without testing their
+ * objects, and subtrees entirely outside are skipped. Every chunk is a task reused between
+ * frames with its own stack and result array, so culling doesn't allocate once the arrays
+ * are large enough.</p>
+ *
+ * <p>The tree must not be changed while culling.</p>
+ *
+ * @since 0.0.5
+ */
+public class FrustumCuller {
+
+  private static final Logger logger = LogManager.getLogger(FrustumCuller.class);
+
+  // Subtrees made per chunk, so uneven subtrees even out between the chunks
+  private static final int SUBTREES_PER_CHUNK = 4;
+
+  private final AabbTree tree;
+  private final ForkJoinPool pool;
+
+  private final Chunk[] chunks;
+  private final RecursiveAction root = new RecursiveAction() {
+
+    @Override
+    protected void compute() {
+
+      invokeChunks();
+
+    }
+
+  };
+
+  private FrustumIntersection frustum;
+  private int[] subtrees = new int[16];
+  private int subtreeCount;
+
+  private int[] visible = new int[1024];
+  private int visibleCount;
+
+  /**
+   * <p>Create a culler.</p>
+   *
+   * <p>With a <code>NULL</code> pool or a single chunk everything runs on the calling
+   * thread. When culling on a worker of a pool, the chunks are run on that pool
+   * instead.</p>
+   *
+   * @param tree The tree culled
+   * @param pool Pool running the chunks, can be <code>NULL</code>
+   * @param chunkCount Amount of chunks culled in parallel
+   * @since 0.0.5
+   */
+  public FrustumCuller(AabbTree tree, ForkJoinPool pool, int chunkCount) {
+
+    this.tree = tree;
+    this.pool = pool;
+
+    chunks = new Chunk[Math.max(chunkCount, 1)];
+
+    for (int i = 0; i < chunks.length; i++) {
+      chunks[i] = new Chunk(i);
+    }
+
+  }
+
+  /**
+   * <p>Find the objects overlapping a frustum.</p>
+   *
+   * <p>The proxies of the found objects can be read with {@link #getVisible()}. Their order
+   * depends on the amount of chunks but not on the scheduling of the threads.</p>
+   *
+   * @param frustum The frustum, like one made from a view projection matrix
+   * @return Amount of objects found, <code>-1</code> if culling failed
+   * @since 0.0.5
+   */
+  public int cull(FrustumIntersection frustum) {
+
+    this.frustum = frustum;
+    visibleCount = 0;
+
+    split(chunks.length * SUBTREES_PER_CHUNK);
+
+    if (pool == null || chunks.length == 1) {
+
+      for (Chunk chunk : chunks) {
+        chunk.cullSubtrees();
+      }
+
+    } else if (ForkJoinTask.inForkJoinPool()) {
+
+      invokeChunks();
+
+    } else {
+
+      root.reinitialize();
+      pool.invoke(root);
+
+    }
+
+    for (Chunk chunk : chunks) {
+
+      if (chunk.isCompletedAbnormally()) {
+        logger.error("Frustum culling failed: {}", chunk.getException().getMessage());
+        this.frustum = null;
+        return -1;
+      }
+
+    }
+
+    for (Chunk chunk : chunks) {
+
+      if (visibleCount + chunk.count > visible.length) {
+        visible = Arrays.copyOf(visible, Math.max(visible.length * 2, visibleCount + chunk.count));
+      }
+
+      System.arraycopy(chunk.results, 0, visible, visibleCount, chunk.count);
+      visibleCount += chunk.count;
+
+    }
+
+    this.frustum = null;
+
+    return visibleCount;
+
+  }
+
+  /**
+   * <p>Get the proxies found by the last {@link #cull(FrustumIntersection)}.</p>
+   *
+   * <p>Only the first {@link #getVisibleCount()} elements are valid. The array is reused by
+   * the next culling.</p>
+   *
+   * @return Proxies of the visible objects
+   * @since 0.0.5
+   */
+  public int[] getVisible() {
+
+    return visible;
+
+  }
+
+  /**
+   * <p>Get the amount of objects found by the last culling.</p>
+   *
+   * @return Amount of visible objects
+   * @since 0.0.5
+   */
+  public int getVisibleCount() {
+
+    return visibleCount;
+
+  }
+
+  // Expand the top of the tree breadth first until there are enough subtrees
+  private void split(int target) {
+
+    subtreeCount = 0;
+
+    int root = tree.getRoot();
+
+    if (root == AabbTree.NULL) return;
+
+    subtrees[subtreeCount++] = root;
+
+    boolean expanded = true;
+
+    while (subtreeCount < target && expanded) {
+
+      expanded = false;
+
+      for (int i = subtreeCount - 1; i >= 0 && subtreeCount < target; i--) {
+
+        int node = subtrees[i];
+
+        if (tree.getChild1(node) == AabbTree.NULL) continue;
+
+        if (subtreeCount == subtrees.length) subtrees = Arrays.copyOf(subtrees, subtreeCount * 2);
+
+        subtrees[i] = tree.getChild1(node);
+        subtrees[subtreeCount++] = tree.getChild2(node);
+        expanded = true;
+
+      }
+
+    }
+
+  }
+
+  private void invokeChunks() {
+
+    for (Chunk chunk : chunks) {
+      chunk.reinitialize();
+    }
+
+    // The calling thread culls the first chunk itself
+    for (int i = 1; i < chunks.length; i++) {
+      chunks[i].fork();
+    }
+
+    chunks[0].quietlyInvoke();
+
+    for (int i = chunks.length - 1; i > 0; i--) {
+      chunks[i].quietlyJoin();
+    }
+
+  }
+
+  private final class Chunk extends RecursiveAction {
+
+    private final int index;
+
+    private int[] stack = new int[64];
+    private int[] results = new int[256];
+    private int count;
+
+    private Chunk(int index) {
+
+      this.index = index;
+
+    }
+
+    @Override
+    protected void compute() {
+
+      cullSubtrees();
+
+    }
+
+    private void cullSubtrees() {
+
+      count = 0;
+
+      for (int i = index; i < subtreeCount; i += chunks.length) {
+        cull(subtrees[i]);
+      }
+
+    }
+
+    private void cull(int subtree) {
+
+      float[] bounds = tree.getBounds();
+      float[] objects = tree.getObjects();
+
+      int top = 0;
+      stack[top++] = subtree;
+
+      while (top > 0) {
+
+        int node = stack[--top];
+        int offset = node * AabbTree.BOUNDS;
+
+        if (tree.getChild1(node) == AabbTree.NULL) {
+
+          if (frustum.testAab(objects[offset], objects[offset + 1], objects[offset + 2],
+              objects[offset + 3], objects[offset + 4], objects[offset + 5])) {
+            add(node);
+          }
+
+          continue;
+
+        }
+
+        int result = frustum.intersectAab(bounds[offset], bounds[offset + 1],
+            bounds[offset + 2], bounds[offset + 3], bounds[offset + 4], bounds[offset + 5]);
+
+        if (result == FrustumIntersection.INSIDE) {
+          addAll(node, top);
+        } else if (result == FrustumIntersection.INTERSECT) {
+          top = push(top, tree.getChild1(node));
+          top = push(top, tree.getChild2(node));
+        }
+
+      }
+
+    }
+
+    // Add every leaf of a subtree without testing it, using the stack above the base
+    private void addAll(int subtree, int base) {
+
+      int top = push(base, subtree);
+
+      while (top > base) {
+
+        int node = stack[--top];
+
+        if (tree.getChild1(node) == AabbTree.NULL) {
+          add(node);
+        } else {
+          top = push(top, tree.getChild1(node));
+          top = push(top, tree.getChild2(node));
+        }
+
+      }
+
+    }
+
+    private int push(int top, int node) {
+
+      if (top == stack.length) stack = Arrays.copyOf(stack, top * 2);
+
+      stack[top] = node;
+
+      return top + 1;
+
+    }
+
+    private void add(int proxy) {
+
+      if (count == results.length) results = Arrays.copyOf(results, count * 2);
+
+      results[count++] = proxy;
+
+    }
+
+  }
+
+}
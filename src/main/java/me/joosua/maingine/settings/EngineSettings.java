@@ -1,5 +1,8 @@
 package me.joosua.maingine.settings;
 
+import java.nio.file.Paths;
+import me.joosua.maingine.asset.AssetMemory;
+import me.joosua.maingine.audio.AudioMixer;
 import me.joosua.maingine.engine.Engine;
 
 /**
@@ -14,6 +17,18 @@ public class EngineSettings {
 
   private double targetUps = 0;
   private double targetFps = 0;
+  private int maxFramesInFlight = 2;
+  private int systemThreads = Runtime.getRuntime().availableProcessors();
+  private boolean deterministicSystems = false;
+  private int eventCapacity = 4096;
+  private String assetDirectory = "assets";
+  private int assetThreads = Math.max(Runtime.getRuntime().availableProcessors() - 1, 1);
+  private boolean assetHotReload = false;
+  private final long[] assetBudgets = new long[AssetMemory.values().length];
+  private String shaderCacheDirectory = Paths.get(System.getProperty("java.io.tmpdir"),
+      "maingine", "shaders").toString();
+  private int audioVoices = AudioMixer.DEFAULT_VOICES;
+  private boolean audioHeadless = false;
 
   /**
    * <p>Set the target FPS.</p>
@@ -92,4 +107,334 @@ public class EngineSettings {
 
   }
 
+  /**
+   * <p>Set the amount of frames the CPU can run ahead of the GPU.</p>
+   *
+   * <p>One frame gives the lowest input latency. Two or three frames let the CPU prepare
+   * the next frame while the GPU is still drawing, which raises the throughput. The value
+   * is clamped between <code>1</code> and <code>3</code>.</p>
+   *
+   * <p>The value can be changed once the engine is running with
+   * {@link Engine#setMaxFramesInFlight(int)}.</p>
+   *
+   * @param frames Amount of frames in flight
+   * @see #getMaxFramesInFlight()
+   * @since 0.0.5
+   */
+  public void setMaxFramesInFlight(int frames) {
+
+    this.maxFramesInFlight = frames;
+
+  }
+
+  /**
+   * <p>Get the amount of frames the CPU can run ahead of the GPU.</p>
+   *
+   * <p>The value can be gotten once the engine is running with
+   * {@link Engine#getMaxFramesInFlight()}.</p>
+   *
+   * @return Amount of frames in flight
+   * @see #setMaxFramesInFlight(int)
+   * @since 0.0.5
+   */
+  public int getMaxFramesInFlight() {
+
+    return maxFramesInFlight;
+
+  }
+
+  /**
+   * <p>Set the amount of worker threads running the entity systems.</p>
+   *
+   * <p>By default there's one thread for each processor.</p>
+   *
+   * @param threads Amount of threads, at least <code>1</code>
+   * @see #getSystemThreads()
+   * @since 0.0.5
+   */
+  public void setSystemThreads(int threads) {
+
+    this.systemThreads = threads;
+
+  }
+
+  /**
+   * <p>Get the amount of worker threads running the entity systems.</p>
+   *
+   * @return Amount of threads
+   * @see #setSystemThreads(int)
+   * @since 0.0.5
+   */
+  public int getSystemThreads() {
+
+    return systemThreads;
+
+  }
+
+  /**
+   * <p>Set whether the entity systems run one by one in the order they were added.</p>
+   *
+   * <p>The value can be changed once the engine is running with
+   * {@link Engine#getSystemScheduler()}.</p>
+   *
+   * @param deterministic <code>TRUE</code> for deterministic order, <code>FALSE</code>
+   *     for parallel
+   * @see #isDeterministicSystems()
+   * @since 0.0.5
+   */
+  public void setDeterministicSystems(boolean deterministic) {
+
+    this.deterministicSystems = deterministic;
+
+  }
+
+  /**
+   * <p>Whether the entity systems run one by one in the order they were added.</p>
+   *
+   * @return <code>TRUE</code> if deterministic, <code>FALSE</code> if parallel.
+   * @see #setDeterministicSystems(boolean)
+   * @since 0.0.5
+   */
+  public boolean isDeterministicSystems() {
+
+    return deterministicSystems;
+
+  }
+
+  /**
+   * <p>Set the amount of events that can wait for a dispatch of the engine's event bus.</p>
+   *
+   * <p>Events published to a full bus are dropped.</p>
+   *
+   * @param capacity Amount of events, rounded up to a power of two
+   * @see #getEventCapacity()
+   * @since 0.0.5
+   */
+  public void setEventCapacity(int capacity) {
+
+    this.eventCapacity = capacity;
+
+  }
+
+  /**
+   * <p>Get the amount of events that can wait for a dispatch of the engine's event bus.</p>
+   *
+   * @return Amount of events
+   * @see #setEventCapacity(int)
+   * @since 0.0.5
+   */
+  public int getEventCapacity() {
+
+    return eventCapacity;
+
+  }
+
+  /**
+   * <p>Set the directory the assets are loaded from.</p>
+   *
+   * <p>The path can also be an archive packed with the <code>packAssets</code> Gradle
+   * task.</p>
+   *
+   * @param directory Path of the directory or archive, relative to the working directory
+   * @see #getAssetDirectory()
+   * @since 0.0.5
+   */
+  public void setAssetDirectory(String directory) {
+
+    this.assetDirectory = directory;
+
+  }
+
+  /**
+   * <p>Get the directory the assets are loaded from.</p>
+   *
+   * @return Path of the directory
+   * @see #setAssetDirectory(String)
+   * @since 0.0.5
+   */
+  public String getAssetDirectory() {
+
+    return assetDirectory;
+
+  }
+
+  /**
+   * <p>Set the amount of worker threads loading the assets.</p>
+   *
+   * <p>By default every core except the one running the engine loads assets.</p>
+   *
+   * @param threads Amount of threads
+   * @see #getAssetThreads()
+   * @since 0.0.5
+   */
+  public void setAssetThreads(int threads) {
+
+    this.assetThreads = threads;
+
+  }
+
+  /**
+   * <p>Get the amount of worker threads loading the assets.</p>
+   *
+   * @return Amount of threads
+   * @see #setAssetThreads(int)
+   * @since 0.0.5
+   */
+  public int getAssetThreads() {
+
+    return assetThreads;
+
+  }
+
+  /**
+   * <p>Set whether changed assets are reloaded while the engine is running.</p>
+   *
+   * <p>This is meant for development. The asset directory is watched for changes and
+   * the changed assets and the assets depending on them are reloaded, so content can be
+   * iterated on without restarting. Assets of an archive can't be reloaded.</p>
+   *
+   * @param hotReload <code>TRUE</code> to reload changed assets
+   * @see #isAssetHotReload()
+   * @since 0.0.5
+   */
+  public void setAssetHotReload(boolean hotReload) {
+
+    this.assetHotReload = hotReload;
+
+  }
+
+  /**
+   * <p>Whether changed assets are reloaded while the engine is running.</p>
+   *
+   * @return <code>TRUE</code> if reloaded, <code>FALSE</code> if not.
+   * @see #setAssetHotReload(boolean)
+   * @since 0.0.5
+   */
+  public boolean isAssetHotReload() {
+
+    return assetHotReload;
+
+  }
+
+  /**
+   * <p>Set the budget of the assets for a kind of memory.</p>
+   *
+   * <p>Released assets are kept loaded while the loaded assets fit the budgets, so
+   * loading them again is free. Without any budgets, assets are unloaded as soon as
+   * they're released.</p>
+   *
+   * @param memory Kind of the memory
+   * @param bytes The budget in bytes, <code>0</code> for none
+   * @see #getAssetBudget(AssetMemory)
+   * @see me.joosua.maingine.asset.AssetCache
+   * @since 0.0.5
+   */
+  public void setAssetBudget(AssetMemory memory, long bytes) {
+
+    assetBudgets[memory.ordinal()] = bytes;
+
+  }
+
+  /**
+   * <p>Get the budget of the assets for a kind of memory.</p>
+   *
+   * @param memory Kind of the memory
+   * @return The budget in bytes or <code>0</code> if none.
+   * @see #setAssetBudget(AssetMemory, long)
+   * @since 0.0.5
+   */
+  public long getAssetBudget(AssetMemory memory) {
+
+    return assetBudgets[memory.ordinal()];
+
+  }
+
+  /**
+   * <p>Set the directory the linked shader programs are cached to.</p>
+   *
+   * <p>By default the programs are cached to the system's temp dir, like
+   * <i>/tmp/maingine/shaders</i> on most Linux based systems.</p>
+   *
+   * @param directory Path of the directory or <code>NULL</code> to not cache
+   * @see #getShaderCacheDirectory()
+   * @see me.joosua.maingine.graphics.shader.ShaderManager
+   * @since 0.0.5
+   */
+  public void setShaderCacheDirectory(String directory) {
+
+    this.shaderCacheDirectory = directory;
+
+  }
+
+  /**
+   * <p>Get the directory the linked shader programs are cached to.</p>
+   *
+   * @return Path of the directory or <code>NULL</code> if not cached.
+   * @see #setShaderCacheDirectory(String)
+   * @since 0.0.5
+   */
+  public String getShaderCacheDirectory() {
+
+    return shaderCacheDirectory;
+
+  }
+
+  /**
+   * <p>Set the amount of sounds and streams played at once.</p>
+   *
+   * <p>When every voice is playing, new sounds take the voices of the ones with a lower
+   * priority or are culled, so the cost of mixing stays within the voices.</p>
+   *
+   * @param voices Amount of voices
+   * @see #getAudioVoices()
+   * @since 0.0.5
+   */
+  public void setAudioVoices(int voices) {
+
+    this.audioVoices = voices;
+
+  }
+
+  /**
+   * <p>Get the amount of sounds and streams played at once.</p>
+   *
+   * @return Amount of voices
+   * @see #setAudioVoices(int)
+   * @since 0.0.5
+   */
+  public int getAudioVoices() {
+
+    return audioVoices;
+
+  }
+
+  /**
+   * <p>Set whether audio is mixed without an audio device.</p>
+   *
+   * <p>Headless audio is mixed to a loopback device and never heard, like on servers.
+   * Audio is also headless when no device can be opened.</p>
+   *
+   * @param headless <code>TRUE</code> to not open an audio device
+   * @see #isAudioHeadless()
+   * @since 0.0.5
+   */
+  public void setAudioHeadless(boolean headless) {
+
+    this.audioHeadless = headless;
+
+  }
+
+  /**
+   * <p>Whether audio is mixed without an audio device.</p>
+   *
+   * @return <code>TRUE</code> if headless, <code>FALSE</code> if not.
+   * @see #setAudioHeadless(boolean)
+   * @since 0.0.5
+   */
+  public boolean isAudioHeadless() {
+
+    return audioHeadless;
+
+  }
+
 }
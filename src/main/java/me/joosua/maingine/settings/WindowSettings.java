@@ -158,7 +158,22 @@ public class WindowSettings {
    */
   public Vector2i getSize() {
 
-    return new Vector2i(width, height);
+    return getSize(new Vector2i());
+
+  }
+
+  /**
+   * <p>Get window's size set with {@link #setSize(int, int)} without allocating.</p>
+   *
+   * @param dest Vector the width is stored to as <code>x</code> and the height as
+   *     <code>y</code>
+   * @return The given vector
+   * @see #getSize()
+   * @since 0.0.5
+   */
+  public Vector2i getSize(Vector2i dest) {
+
+    return dest.set(width, height);
 
   }
 
@@ -10,6 +10,13 @@ import org.lwjgl.system.Configuration;
 /**
  * <p>Everything to do with Log4j logger.</p>
  *
+ * <p>The loggers of the engine are asynchronous. A logged event is put to a preallocated
+ * ring buffer and written to the console and the file on a thread of its own, so logging
+ * never waits for the disk. Once the buffer is full, debug and info events are dropped
+ * while warnings and errors wait for room. Messages should be logged with parameters
+ * instead of concatenating them, and primitive parameters boxed with
+ * {@link org.apache.logging.log4j.util.Unbox}, so that logging doesn't allocate.</p>
+ *
  * @since 0.0.2
  */
 public class LoggerManager {
@@ -31,6 +38,9 @@ public class LoggerManager {
   /**
    * <p>Sets custom system properties and streams needed for logger.</p>
    *
+   * <p><code>System.out</code>, <code>System.err</code> and the debug stream of LWJGL are
+   * redirected to the loggers, so their lines are written by the logging thread too.</p>
+   *
    * @param folders Folders for {@link #getLogDir(String[])}
    * @see #prepareLogger()
    * @since 0.0.2
@@ -0,0 +1,194 @@
+package me.joosua.maingine.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * <p>SlotRing is a bounded ring of preallocated slots with many producers and one
+ * consumer.</p>
+ *
+ * <p>Every slot has a sequence telling its state. A slot whose sequence equals the position
+ * of the tail is free and a producer claims it by moving the tail with a compare-and-set.
+ * Once the slot is written, the producer publishes the position, which sets the sequence to
+ * the position plus one and makes the slot visible to the consumer. The consumer sets the
+ * sequence to the position of the next lap after handling the slot, which frees it
+ * again.</p>
+ *
+ * <p>Nothing is locked, so a producer stopped between claiming and publishing only holds
+ * back the consumer, and the other producers keep on claiming slots. The slots are reused,
+ * so nothing is allocated after the ring has been created.</p>
+ *
+ * <p>This is the ring of the event bus and of the audio commands.</p>
+ *
+ * @param <T> Type of the slots
+ * @since 0.0.5
+ */
+public final class SlotRing<T> {
+
+  /**
+   * <p>Position returned when the ring is full.</p>
+   */
+  public static final long FULL = -1;
+
+  private final T[] slots;
+  private final AtomicLongArray sequences;
+  private final int mask;
+
+  private final AtomicLong tail = new AtomicLong();
+  private long head;
+
+  /**
+   * <p>Create a ring.</p>
+   *
+   * @param capacity Amount of slots, rounded up to a power of two
+   * @param factory Creates the slots
+   * @since 0.0.5
+   */
+  @SuppressWarnings("unchecked")
+  public SlotRing(int capacity, Supplier<T> factory) {
+
+    int size = Integer.highestOneBit(Math.max(capacity, 2) * 2 - 1);
+
+    slots = (T[]) new Object[size];
+    sequences = new AtomicLongArray(size);
+    mask = size - 1;
+
+    for (int i = 0; i < size; i++) {
+      slots[i] = factory.get();
+      sequences.set(i, i);
+    }
+
+  }
+
+  /**
+   * <p>Claim the next slot.</p>
+   *
+   * <p>The slot is written through {@link #get(long)} and then published with
+   * {@link #publish(long)}. Every claimed slot must be published.</p>
+   *
+   * @return Position of the slot or {@link #FULL} if the ring is full.
+   * @since 0.0.5
+   */
+  public long claim() {
+
+    long position = tail.get();
+
+    while (true) {
+
+      long sequence = sequences.get((int) position & mask);
+
+      if (sequence == position) {
+
+        if (tail.compareAndSet(position, position + 1)) return position;
+
+        position = tail.get();
+
+      } else if (sequence < position) {
+
+        return FULL;
+
+      } else {
+
+        // Another producer claimed the slot first
+        position = tail.get();
+
+      }
+
+    }
+
+  }
+
+  /**
+   * <p>Get the slot of a claimed position.</p>
+   *
+   * @param position Position returned by {@link #claim()}
+   * @return The slot
+   * @since 0.0.5
+   */
+  public T get(long position) {
+
+    return slots[(int) position & mask];
+
+  }
+
+  /**
+   * <p>Publish a claimed slot to the consumer.</p>
+   *
+   * @param position Position returned by {@link #claim()}
+   * @since 0.0.5
+   */
+  public void publish(long position) {
+
+    sequences.lazySet((int) position & mask, position + 1);
+
+  }
+
+  /**
+   * <p>Get the oldest slot if it's published.</p>
+   *
+   * <p>This is only called by the consumer.</p>
+   *
+   * @return The slot or <code>NULL</code> if it isn't published yet.
+   * @since 0.0.5
+   */
+  public T peek() {
+
+    int index = (int) head & mask;
+
+    return sequences.get(index) == head + 1 ? slots[index] : null;
+
+  }
+
+  /**
+   * <p>Free the slot returned by {@link #peek()}.</p>
+   *
+   * <p>This is only called by the consumer, which should clear the references held by the
+   * slot first.</p>
+   *
+   * @since 0.0.5
+   */
+  public void release() {
+
+    sequences.lazySet((int) head & mask, head + slots.length);
+    head++;
+
+  }
+
+  /**
+   * <p>Get the position of the oldest slot not released yet.</p>
+   *
+   * @return Position of the head
+   * @since 0.0.5
+   */
+  public long getHead() {
+
+    return head;
+
+  }
+
+  /**
+   * <p>Get the position of the next slot claimed.</p>
+   *
+   * @return Position of the tail
+   * @since 0.0.5
+   */
+  public long getTail() {
+
+    return tail.get();
+
+  }
+
+  /**
+   * <p>Get the amount of slots.</p>
+   *
+   * @return Amount of slots
+   * @since 0.0.5
+   */
+  public int capacity() {
+
+    return slots.length;
+
+  }
+
+}
@@ -21,11 +21,11 @@ public class SystemInfo {
    */
   public static void printInfo() {
 
-    logger.info("Maingine version: " + Maingine.VERSION);
-    logger.info("Maingine debug mode: " + Maingine.DEBUG);
-    logger.info("OS name: " + System.getProperty("os.name"));
-    logger.info("OS version: " + System.getProperty("os.version"));
-    logger.info("LWJGL version: " + Version.getVersion());
+    logger.info("Maingine version: {}", Maingine.VERSION);
+    logger.info("Maingine debug mode: {}", Maingine.DEBUG);
+    logger.info("OS name: {}", System.getProperty("os.name"));
+    logger.info("OS version: {}", System.getProperty("os.version"));
+    logger.info("LWJGL version: {}", Version.getVersion());
 
   }
 
@@ -145,16 +145,22 @@ public class MaingineTest {
 
     Engine engine = new Engine(engineSettings, new GameStateManager(), window);
 
-    assertEquals(0, engine.getTargetFps());
-    assertEquals(20, engine.getTargetUps());
-    assertEquals(0, engine.getFps());
-    assertEquals(0, engine.getUps());
+    try {
 
-    engine.setTargetFps(10);
-    engine.setTargetUps(30);
+      assertEquals(0, engine.getTargetFps());
+      assertEquals(20, engine.getTargetUps());
+      assertEquals(0, engine.getFps());
+      assertEquals(0, engine.getUps());
 
-    assertEquals(10, engine.getTargetFps());
-    assertEquals(30, engine.getTargetUps());
+      engine.setTargetFps(10);
+      engine.setTargetUps(30);
+
+      assertEquals(10, engine.getTargetFps());
+      assertEquals(30, engine.getTargetUps());
+
+    } finally {
+      engine.destroy();
+    }
 
   }
 
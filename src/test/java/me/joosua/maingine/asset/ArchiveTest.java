@@ -0,0 +1,113 @@
+package me.joosua.maingine.asset;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ArchiveTest {
+
+  @Test
+  public void testWriteAndRead(@TempDir Path directory) throws IOException {
+
+    Path assets = directory.resolve("assets");
+    Files.createDirectories(assets.resolve("meshes"));
+
+    byte[] repeated = new byte[10_000];
+    byte[] random = new byte[5_000];
+
+    Arrays.fill(repeated, (byte) 7);
+    new Random(1).nextBytes(random);
+
+    Files.write(assets.resolve("meshes/cube.bin"), repeated);
+    Files.write(assets.resolve("noise.bin"), random);
+    Files.write(assets.resolve("icon.png"), repeated);
+    Files.write(assets.resolve("empty.txt"), new byte[0]);
+
+    ArchiveWriter writer = new ArchiveWriter();
+    Path archive = directory.resolve("assets.pak");
+
+    writer.addDirectory(assets, true);
+    writer.write(archive);
+
+    ArchiveSource source = new ArchiveSource(archive);
+
+    assertEquals(4, source.getEntryCount());
+    assertTrue(source.isCompressed("meshes/cube.bin"));
+    assertFalse(source.isCompressed("noise.bin"));
+    assertFalse(source.isCompressed("icon.png"));
+    assertTrue(source.exists("empty.txt"));
+    assertFalse(source.exists("missing.bin"));
+
+    try (AssetData data = source.read("meshes/cube.bin")) {
+      assertFalse(data.isMapped());
+      assertArrayEquals(repeated, toArray(data.getBuffer()));
+    }
+
+    try (AssetData data = source.read("noise.bin")) {
+      assertTrue(data.isMapped());
+      assertTrue(data.getBuffer().isDirect());
+      assertArrayEquals(random, toArray(data.getBuffer()));
+    }
+
+    try (AssetData data = source.read("empty.txt")) {
+      assertEquals(0, data.getBuffer().remaining());
+    }
+
+    assertThrows(NoSuchFileException.class, () -> source.read("missing.bin"));
+
+    source.close();
+
+  }
+
+  @Test
+  public void testLoadFromArchive(@TempDir Path directory) throws IOException {
+
+    Path assets = directory.resolve("assets");
+    Files.createDirectories(assets);
+    Files.write(assets.resolve("a.bin"), new byte[] {1, 2, 3, 4});
+
+    ArchiveWriter writer = new ArchiveWriter();
+    Path archive = directory.resolve("assets.pak");
+
+    writer.addDirectory(assets, false);
+    writer.write(archive);
+
+    AssetManager manager = new AssetManager(new ArchiveSource(archive), 1);
+
+    manager.registerLoader(byte[].class, (data, context) -> toArray(data.getBuffer()));
+
+    AssetHandle<byte[]> handle = manager.load("a.bin", byte[].class);
+    final AssetHandle<byte[]> missing = manager.load("b.bin", byte[].class);
+
+    manager.finishLoading();
+
+    assertArrayEquals(new byte[] {1, 2, 3, 4}, handle.get());
+    assertTrue(missing.isFailed());
+
+    manager.destroy();
+
+  }
+
+  private static byte[] toArray(ByteBuffer buffer) {
+
+    byte[] bytes = new byte[buffer.remaining()];
+
+    buffer.duplicate().get(bytes);
+
+    return bytes;
+
+  }
+
+}
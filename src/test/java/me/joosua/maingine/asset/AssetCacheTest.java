@@ -0,0 +1,133 @@
+package me.joosua.maingine.asset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class AssetCacheTest {
+
+  private final List<String> unloaded = new ArrayList<>();
+
+  @Test
+  public void testEvictWithinBudget(@TempDir Path directory) throws IOException {
+
+    for (int i = 0; i < 4; i++) {
+      Files.write(directory.resolve(i + ".bin"), new byte[100]);
+    }
+
+    AssetManager manager = createManager(directory);
+    AssetCache cache = manager.getCache();
+
+    cache.setBudget(AssetMemory.NATIVE, 250);
+
+    List<AssetHandle<String>> handles = new ArrayList<>();
+
+    for (int i = 0; i < 3; i++) {
+      handles.add(manager.load(i + ".bin", String.class));
+    }
+
+    manager.finishLoading();
+
+    // Assets in use are kept over the budget
+    assertEquals(300, cache.getUsed(AssetMemory.NATIVE));
+    assertTrue(cache.isOverBudget());
+    assertEquals(3, cache.getMisses());
+
+    for (AssetHandle<String> handle : handles) {
+      handle.release();
+    }
+
+    manager.update();
+
+    assertEquals(List.of("0.bin"), unloaded);
+    assertEquals(200, cache.getUsed(AssetMemory.NATIVE));
+    assertEquals(2, cache.getLoadedCount());
+
+    // Released assets kept in the cache are loaded again without reading them
+    AssetHandle<String> hit = manager.load("1.bin", String.class);
+
+    assertTrue(hit.isLoaded());
+    assertEquals(1, hit.getReferenceCount());
+    assertEquals(1, cache.getHits());
+
+    // Loading another one evicts the released asset, not the one in use
+    final AssetHandle<String> other = manager.load("3.bin", String.class);
+    manager.finishLoading();
+
+    assertEquals(2, cache.getEvictions());
+    assertEquals(List.of("0.bin", "2.bin"), unloaded);
+    assertSame(hit, manager.load("1.bin", String.class));
+
+    hit.release();
+    hit.release();
+    other.release();
+    manager.destroy();
+
+    assertEquals(4, unloaded.size());
+    assertEquals(0, cache.getUsed(AssetMemory.NATIVE));
+
+  }
+
+  @Test
+  public void testWithoutBudget(@TempDir Path directory) throws IOException {
+
+    Files.write(directory.resolve("a.bin"), new byte[100]);
+
+    AssetManager manager = createManager(directory);
+    AssetHandle<String> handle = manager.load("a.bin", String.class);
+
+    manager.finishLoading();
+    handle.release();
+    manager.update();
+
+    assertEquals(List.of("a.bin"), unloaded);
+    assertEquals(0, manager.getAssetCount());
+    assertEquals(0, manager.getCache().getLoadedCount());
+
+    manager.destroy();
+
+  }
+
+  private AssetManager createManager(Path directory) {
+
+    AssetManager manager = new AssetManager(new DirectorySource(directory), 1);
+
+    manager.registerLoader(String.class, new AssetLoader<String>() {
+
+      @Override
+      public String load(AssetData data, AssetContext context) {
+
+        return context.getPath() + ':' + data.getBuffer().remaining();
+
+      }
+
+      @Override
+      public void unload(String asset) {
+
+        unloaded.add(asset.substring(0, asset.indexOf(':')));
+
+      }
+
+      @Override
+      public long getSize(String asset, AssetMemory memory) {
+
+        return memory == AssetMemory.NATIVE ? Long.parseLong(asset.substring(
+            asset.indexOf(':') + 1)) : 0;
+
+      }
+
+    });
+
+    return manager;
+
+  }
+
+}
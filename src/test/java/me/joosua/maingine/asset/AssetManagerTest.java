@@ -0,0 +1,257 @@
+package me.joosua.maingine.asset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class AssetManagerTest {
+
+  private final Set<String> unloaded = ConcurrentHashMap.newKeySet();
+
+  @Test
+  public void testLoadAndShare(@TempDir Path directory) throws IOException {
+
+    Files.write(directory.resolve("a.bin"), new byte[] {1, 2, 3, 4});
+
+    AssetManager manager = createManager(directory, 0);
+    List<Thread> callbackThreads = new ArrayList<>();
+
+    AssetHandle<Blob> first = manager.load("a.bin", Blob.class,
+        handle -> callbackThreads.add(Thread.currentThread()));
+    AssetHandle<Blob> second = manager.load("a.bin", Blob.class);
+
+    assertSame(first, second);
+    assertEquals(2, first.getReferenceCount());
+
+    manager.finishLoading();
+
+    assertTrue(first.isLoaded());
+    assertEquals(10, first.get().sum);
+    assertTrue(first.get().mapped);
+    assertEquals(List.of(Thread.currentThread()), callbackThreads);
+
+    // Callbacks of loaded assets are called on the next update
+    manager.load("a.bin", Blob.class, handle -> callbackThreads.add(null));
+    assertEquals(1, callbackThreads.size());
+    manager.update();
+    assertEquals(2, callbackThreads.size());
+
+    first.release();
+    second.release();
+    manager.update();
+    assertTrue(unloaded.isEmpty());
+
+    first.release();
+    manager.update();
+    assertEquals(Set.of("a.bin"), unloaded);
+    assertEquals(0, manager.getAssetCount());
+
+    manager.destroy();
+
+  }
+
+  @Test
+  public void testDependencies(@TempDir Path directory) throws IOException {
+
+    Files.createDirectories(directory.resolve("textures"));
+
+    for (int i = 0; i < 3; i++) {
+      Files.write(directory.resolve("textures/t" + i + ".bin"), new byte[] {(byte) i});
+    }
+
+    Files.write(directory.resolve("stone.mat"), "t0.bin\nt1.bin\nt2.bin".getBytes());
+    Files.write(directory.resolve("broken.mat"), "t0.bin\nmissing.bin".getBytes());
+
+    AssetManager manager = createManager(directory, DirectorySource.DEFAULT_MAP_THRESHOLD);
+    AssetHandle<Material> stone = manager.load("stone.mat", Material.class);
+    final AssetHandle<Material> broken = manager.load("broken.mat", Material.class);
+
+    manager.finishLoading();
+
+    assertTrue(stone.isLoaded());
+    assertEquals(3, stone.get().textures.size());
+
+    for (AssetHandle<Blob> texture : stone.get().textures) {
+      assertTrue(texture.isLoaded());
+      assertFalse(texture.get().mapped);
+    }
+
+    assertTrue(broken.isFailed());
+    assertNull(broken.get());
+    assertEquals(0, manager.getPendingCount());
+
+    // The material itself was loaded before its texture failed
+    assertEquals(Set.of("broken.mat"), unloaded);
+
+    // The failed material released its reference to the shared texture
+    assertEquals(1, stone.get().textures.get(0).getReferenceCount());
+
+    stone.release();
+    broken.release();
+    manager.update();
+
+    assertEquals(Set.of("broken.mat", "stone.mat", "textures/t0.bin", "textures/t1.bin",
+        "textures/t2.bin"), unloaded);
+    assertEquals(0, manager.getAssetCount());
+
+    manager.destroy();
+
+  }
+
+  @Test
+  public void testReload(@TempDir Path directory) throws IOException {
+
+    Files.createDirectories(directory.resolve("textures"));
+    Files.write(directory.resolve("textures/t0.bin"), new byte[] {1});
+    Files.write(directory.resolve("textures/t1.bin"), new byte[] {2});
+    Files.write(directory.resolve("stone.mat"), "t0.bin\nt1.bin".getBytes());
+
+    AssetManager manager = createManager(directory, DirectorySource.DEFAULT_MAP_THRESHOLD);
+    AssetHandle<Material> stone = manager.load("stone.mat", Material.class);
+
+    manager.finishLoading();
+
+    final Material material = stone.get();
+    final AssetHandle<Blob> texture = material.textures.get(1);
+
+    Files.write(directory.resolve("textures/t1.bin"), new byte[] {5, 5});
+
+    assertEquals(1, manager.reload("textures/t1.bin"));
+    assertEquals(0, manager.reload("missing.bin"));
+
+    // The old version is used until the new one is swapped in
+    assertEquals(2, texture.get().sum);
+    manager.finishLoading();
+
+    assertEquals(10, texture.get().sum);
+    assertTrue(unloaded.contains("textures/t1.bin"));
+
+    // The material depending on the texture was reloaded after it
+    assertNotSame(material, stone.get());
+    assertEquals(Set.of("stone.mat", "textures/t1.bin"), unloaded);
+    assertEquals(1, texture.getReferenceCount());
+    assertEquals(1, stone.get().textures.get(0).getReferenceCount());
+
+    // A failed reload keeps the loaded version and unloads the new one
+    final Material reloaded = stone.get();
+    unloaded.clear();
+    Files.write(directory.resolve("stone.mat"), "missing.bin".getBytes());
+    manager.reload("stone.mat");
+    manager.finishLoading();
+
+    assertSame(reloaded, stone.get());
+    assertTrue(stone.isLoaded());
+    assertEquals(Set.of("stone.mat"), unloaded);
+
+    stone.release();
+    manager.update();
+    assertEquals(0, manager.getAssetCount());
+
+    manager.destroy();
+
+  }
+
+  private AssetManager createManager(Path directory, long mapThreshold) {
+
+    AssetManager manager = new AssetManager(new DirectorySource(directory, mapThreshold), 4);
+
+    manager.registerLoader(Blob.class, new AssetLoader<Blob>() {
+
+      @Override
+      public Blob load(AssetData data, AssetContext context) {
+
+        Blob blob = new Blob(context.getPath(), data.isMapped());
+        ByteBuffer buffer = data.getBuffer();
+
+        while (buffer.hasRemaining()) {
+          blob.sum += buffer.get();
+        }
+
+        return blob;
+
+      }
+
+      @Override
+      public void unload(Blob asset) {
+
+        unloaded.add(asset.path);
+
+      }
+
+    });
+
+    manager.registerLoader(Material.class, new AssetLoader<Material>() {
+
+      @Override
+      public Material load(AssetData data, AssetContext context) {
+
+        Material material = new Material(context.getPath());
+        byte[] bytes = new byte[data.getBuffer().remaining()];
+
+        data.getBuffer().get(bytes);
+
+        for (String line : new String(bytes, StandardCharsets.UTF_8).split("\n")) {
+          material.textures.add(context.load(context.resolve("textures/" + line), Blob.class));
+        }
+
+        return material;
+
+      }
+
+      @Override
+      public void unload(Material asset) {
+
+        unloaded.add(asset.path);
+
+      }
+
+    });
+
+    return manager;
+
+  }
+
+  private static class Blob {
+
+    private final String path;
+    private final boolean mapped;
+    private int sum;
+
+    private Blob(String path, boolean mapped) {
+
+      this.path = path;
+      this.mapped = mapped;
+
+    }
+
+  }
+
+  private static class Material {
+
+    private final String path;
+    private final List<AssetHandle<Blob>> textures = new ArrayList<>();
+
+    private Material(String path) {
+
+      this.path = path;
+
+    }
+
+  }
+
+}
@@ -0,0 +1,59 @@
+package me.joosua.maingine.asset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class AssetWatcherTest {
+
+  private static final long TIMEOUT = TimeUnit.SECONDS.toNanos(20);
+
+  @Test
+  public void testReloadChanged(@TempDir Path directory) throws IOException {
+
+    Files.write(directory.resolve("a.txt"), "first".getBytes());
+
+    AssetManager manager = new AssetManager(new DirectorySource(directory), 1);
+
+    manager.registerLoader(String.class, (data, context) -> {
+
+      byte[] bytes = new byte[data.getBuffer().remaining()];
+
+      data.getBuffer().get(bytes);
+
+      return new String(bytes);
+
+    });
+
+    final AssetHandle<String> handle = manager.load("a.txt", String.class);
+    manager.finishLoading();
+
+    AssetWatcher watcher = new AssetWatcher(manager, directory, 50);
+    watcher.start();
+
+    // Written several times, reloaded once it has settled
+    Files.write(directory.resolve("a.txt"), "second".getBytes());
+    Files.write(directory.resolve("a.txt"), "third".getBytes());
+
+    long start = System.nanoTime();
+
+    while (!"third".equals(handle.get()) && System.nanoTime() - start < TIMEOUT) {
+      LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+      manager.update();
+    }
+
+    watcher.stop();
+
+    assertEquals("third", handle.get());
+
+    manager.destroy();
+
+  }
+
+}
@@ -0,0 +1,250 @@
+package me.joosua.maingine.audio;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ShortBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.Test;
+
+public class AudioMixerTest {
+
+  private static final long TIMEOUT = TimeUnit.SECONDS.toNanos(20);
+
+  @Test
+  public void testVoiceLimit() {
+
+    AudioMixer mixer = new AudioMixer(4, true);
+
+    assertTrue(mixer.start());
+    assertTrue(mixer.isLoopback());
+
+    Sound sound = new Sound(createTone(AudioMixer.SAMPLE_RATE), 1, AudioMixer.SAMPLE_RATE);
+    int[] voices = new int[4];
+
+    for (int i = 0; i < voices.length; i++) {
+      voices[i] = mixer.play(sound, 1, 1, true, 1);
+      assertNotEquals(AudioMixer.NO_VOICE, voices[i]);
+    }
+
+    await(() -> mixer.getActiveVoiceCount() == 4);
+
+    // A lower priority is culled, a higher one takes the oldest voice
+    mixer.play(sound, 0);
+    await(() -> mixer.getCulledCount() == 1);
+    mixer.play(sound, 2);
+    await(() -> mixer.getCulledCount() == 2);
+
+    assertEquals(4, mixer.getActiveVoiceCount());
+
+    // Stopping the voice taken does nothing
+    mixer.stop(voices[0]);
+    mixer.stop(voices[1]);
+    await(() -> mixer.getActiveVoiceCount() == 3);
+
+    // Deleting stops the voices still playing the sound
+    mixer.delete(sound);
+    await(() -> mixer.getActiveVoiceCount() == 0);
+
+    Sound click = new Sound(createTone(100), 1, AudioMixer.SAMPLE_RATE);
+
+    mixer.play(click, 0);
+    await(() -> mixer.getActiveVoiceCount() == 1);
+    await(() -> mixer.getActiveVoiceCount() == 0);
+
+    mixer.delete(click);
+    mixer.destroy();
+
+    assertEquals(0, mixer.getDroppedCount());
+
+  }
+
+  @Test
+  public void testStream() {
+
+    AudioMixer mixer = new AudioMixer(2, true);
+
+    assertTrue(mixer.start());
+
+    // Longer than the buffers of a voice, so it's refilled while playing
+    ToneStream stream = new ToneStream(AudioMixer.STREAM_FRAMES * 3);
+
+    mixer.stream(stream, 1, false, 0);
+    await(() -> stream.closed);
+
+    assertEquals(AudioMixer.STREAM_FRAMES * 3, stream.position);
+
+    ToneStream looping = new ToneStream(1000);
+    int voice = mixer.stream(looping, 1, true, 0);
+
+    await(() -> looping.rewinds > 2);
+
+    assertTrue(mixer.stop(voice));
+    await(() -> looping.closed);
+
+    mixer.destroy();
+
+  }
+
+  @Test
+  public void testFailure() {
+
+    AudioMixer mixer = new AudioMixer(2, true);
+
+    assertTrue(mixer.start());
+
+    ToneStream surround = new ToneStream(1000) {
+
+      @Override
+      public int getChannels() {
+
+        return 6;
+
+      }
+
+    };
+
+    assertEquals(AudioMixer.NO_VOICE, mixer.stream(surround, 1, false, 0));
+    assertTrue(surround.closed);
+
+    ToneStream broken = new ToneStream(1000) {
+
+      @Override
+      public int read(ShortBuffer samples) {
+
+        throw new IllegalStateException("Broken stream");
+
+      }
+
+    };
+
+    // A failing stream stops the audio thread, but nothing waits for it anymore
+    mixer.stream(broken, 1, false, 0);
+    await(() -> !mixer.isAvailable());
+
+    Sound sound = new Sound(createTone(100), 1, AudioMixer.SAMPLE_RATE);
+
+    assertTrue(broken.closed);
+    assertEquals(AudioMixer.NO_VOICE, mixer.play(sound, 0));
+
+    mixer.delete(sound);
+    mixer.destroy();
+
+  }
+
+  @Test
+  public void testOpenFailure() {
+
+    AudioMixer mixer = new AudioMixer(2, true) {
+
+      @Override
+      boolean open() {
+
+        throw new UnsatisfiedLinkError("No OpenAL");
+
+      }
+
+    };
+
+    // Starting returns instead of waiting for the thread forever
+    assertFalse(mixer.start());
+    assertFalse(mixer.isAvailable());
+
+    Sound sound = new Sound(createTone(100), 1, AudioMixer.SAMPLE_RATE);
+
+    assertEquals(AudioMixer.NO_VOICE, mixer.play(sound, 0));
+
+    mixer.destroy();
+    sound.free();
+
+  }
+
+  private static short[] createTone(int frames) {
+
+    short[] samples = new short[frames];
+
+    for (int i = 0; i < frames; i++) {
+      samples[i] = (short) (Math.sin(i * 0.05) * Short.MAX_VALUE / 2);
+    }
+
+    return samples;
+
+  }
+
+  private static void await(BooleanSupplier condition) {
+
+    long start = System.nanoTime();
+
+    while (!condition.getAsBoolean() && System.nanoTime() - start < TIMEOUT) {
+      LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+    }
+
+    assertTrue(condition.getAsBoolean());
+
+  }
+
+  private static class ToneStream implements AudioStream {
+
+    private final int length;
+    private volatile int position;
+    private volatile int rewinds;
+    private volatile boolean closed;
+
+    private ToneStream(int length) {
+
+      this.length = length;
+
+    }
+
+    @Override
+    public int getChannels() {
+
+      return 2;
+
+    }
+
+    @Override
+    public int getSampleRate() {
+
+      return AudioMixer.SAMPLE_RATE;
+
+    }
+
+    @Override
+    public int read(ShortBuffer samples) {
+
+      int frames = Math.min(samples.remaining() / 2, length - position);
+
+      for (int i = 0; i < frames; i++) {
+        short sample = (short) (Math.sin((position + i) * 0.05) * Short.MAX_VALUE / 2);
+        samples.put(sample).put(sample);
+      }
+
+      position += frames;
+
+      return frames;
+
+    }
+
+    @Override
+    public void rewind() {
+
+      position = 0;
+      rewinds++;
+
+    }
+
+    @Override
+    public void close() {
+
+      closed = true;
+
+    }
+
+  }
+
+}
@@ -0,0 +1,245 @@
+package me.joosua.maingine.ecs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.Test;
+
+public class SystemSchedulerTest {
+
+  private static final int ENTITIES = Archetype.CHUNK_CAPACITY * 10;
+  private static final long PARK_NANOS = 1_000_000;
+
+  private final World world = new World();
+  private final ComponentType position = world.registerFloats("position", 1);
+  private final ComponentType velocity = world.registerFloats("velocity", 1);
+  private final ComponentType health = world.registerInts("health", 1);
+
+  private final SystemScheduler scheduler = new SystemScheduler(4);
+  private final List<String> order = new CopyOnWriteArrayList<>();
+
+  @Test
+  public void testParallel() {
+
+    run(false);
+    scheduler.shutdown();
+
+  }
+
+  @Test
+  public void testDeterministic() {
+
+    scheduler.setDeterministic(true);
+    run(true);
+    scheduler.shutdown();
+
+  }
+
+  @Test
+  public void testParallelCommands() {
+
+    for (int i = 0; i < ENTITIES; i++) {
+      world.create(position, velocity);
+    }
+
+    final Query moving = world.query(position, velocity);
+    final int chunks = moving.count() / Archetype.CHUNK_CAPACITY;
+    final CommandBuffer shared = world.getCommands();
+    final List<CommandBuffer> used = new CopyOnWriteArrayList<>();
+
+    // Every chunk creates an entity with its size and destroys its first entity
+    world.addSystem(new TestSystem("spawn", access -> access.writes(position), () ->
+        moving.forEachParallel(chunk -> {
+          CommandBuffer commands = world.getCommands();
+          used.add(commands);
+          int created = commands.create(health);
+          commands.setInt(created, health, 0, chunk.size());
+          commands.destroy(chunk.getEntity(0));
+          // Gives the other workers time to steal ranges
+          LockSupport.parkNanos(PARK_NANOS);
+        })));
+
+    // Records at the same time on another worker
+    world.addSystem(new TestSystem("other", access -> access.writes(velocity), () -> {
+      for (int i = 0; i < ENTITIES; i++) {
+        world.getCommands().create(velocity);
+      }
+    }));
+
+    world.update(1, scheduler);
+    scheduler.shutdown();
+
+    int total = 0;
+
+    for (int i = 0; i < world.getArchetypeCount(); i++) {
+
+      Archetype archetype = world.getArchetype(i);
+
+      if (archetype.getMask() != health.getMask()) continue;
+
+      for (int chunk = 0; chunk < archetype.getChunkCount(); chunk++) {
+        for (int j = 0; j < archetype.getChunk(chunk).size(); j++) {
+          total += archetype.getChunk(chunk).getInts(health, 0)[j];
+        }
+      }
+
+    }
+
+    assertFalse(used.contains(shared));
+    assertEquals(ENTITIES, total);
+    assertEquals(chunks, world.query(health).count());
+    assertEquals(ENTITIES - chunks, moving.count());
+    assertEquals(ENTITIES * 2, world.getEntityCount());
+
+  }
+
+  @Test
+  public void testNestedCommands() throws Exception {
+
+    final SystemGraph graph = new SystemGraph();
+    final CommandBuffer outer = new CommandBuffer();
+    final ForkJoinPool pool = new ForkJoinPool(1);
+
+    graph.add(new TestSystem("inner", access -> access.writes(health), () ->
+        world.getCommands().create(health)));
+
+    // Like a range of another system whose worker runs a system while helping a join
+    final CommandBuffer parallel = pool.submit(() -> {
+      world.setCurrentCommands(outer);
+      graph.runParallel(pool, world, 1);
+      return world.getCurrentCommands();
+    }).get();
+
+    world.setCurrentCommands(outer);
+    graph.runSerial(world, 1);
+
+    final CommandBuffer serial = world.getCurrentCommands();
+
+    world.setCurrentCommands(null);
+    pool.shutdown();
+    scheduler.shutdown();
+
+    assertSame(outer, parallel);
+    assertSame(outer, serial);
+    assertEquals(2, order.size());
+
+  }
+
+  @Test
+  public void testConflicts() {
+
+    SystemAccess reader = new SystemAccess().reads(position);
+    SystemAccess writer = new SystemAccess().writes(position);
+
+    assertFalse(reader.conflicts(new SystemAccess().reads(position)));
+    assertTrue(reader.conflicts(writer));
+    assertTrue(writer.conflicts(reader));
+    assertFalse(writer.conflicts(new SystemAccess().writes(velocity)));
+    assertTrue(new SystemAccess().exclusive().conflicts(new SystemAccess()));
+
+  }
+
+  private void run(boolean deterministic) {
+
+    for (int i = 0; i < ENTITIES; i++) {
+      int entity = world.create(position, velocity, health);
+      world.setFloat(entity, velocity, 0, 1);
+    }
+
+    Query moving = world.query(position, velocity);
+    AtomicInteger visited = new AtomicInteger();
+    AtomicBoolean structural = new AtomicBoolean();
+
+    world.addSystem(new TestSystem("velocity", access -> access.writes(velocity), () ->
+        moving.forEachParallel(chunk -> {
+          float[] v = chunk.getFloats(velocity, 0);
+          for (int i = 0; i < chunk.size(); i++) {
+            v[i] *= 2;
+          }
+        })));
+
+    world.addSystem(new TestSystem("health", access -> access.writes(health), () ->
+        world.query(health).forEach(chunk -> {
+          int[] h = chunk.getInts(health, 0);
+          for (int i = 0; i < chunk.size(); i++) {
+            h[i] = 100;
+          }
+        })));
+
+    world.addSystem(new TestSystem("move",
+        access -> access.reads(velocity).writes(position), () ->
+        moving.forEachParallel(chunk -> {
+          float[] p = chunk.getFloats(position, 0);
+          float[] v = chunk.getFloats(velocity, 0);
+          for (int i = 0; i < chunk.size(); i++) {
+            p[i] += v[i];
+          }
+          visited.addAndGet(chunk.size());
+        })));
+
+    world.addSystem(new TestSystem("cleanup", access -> access.reads(position), () -> {
+      structural.set(!world.isIterating());
+      world.getCommands().create(health);
+    }));
+
+    world.update(1, scheduler);
+    world.update(1, scheduler);
+
+    assertEquals(ENTITIES * 2, visited.get());
+    assertEquals(deterministic, structural.get());
+    assertTrue(order.indexOf("velocity") < order.indexOf("move"));
+    assertTrue(order.indexOf("move") < order.indexOf("cleanup"));
+    assertEquals(ENTITIES + 2, world.query(health).count());
+    assertEquals(ENTITIES + 2, world.getEntityCount());
+
+    moving.forEach(chunk -> {
+      for (int i = 0; i < chunk.size(); i++) {
+        assertEquals(6, chunk.getFloats(position, 0)[i]);
+        assertEquals(100, world.getInt(chunk.getEntity(i), health, 0));
+      }
+    });
+
+  }
+
+  private class TestSystem implements EntitySystem {
+
+    private final String name;
+    private final Consumer<SystemAccess> declaration;
+    private final Runnable body;
+
+    private TestSystem(String name, Consumer<SystemAccess> declaration,
+        Runnable body) {
+
+      this.name = name;
+      this.declaration = declaration;
+      this.body = body;
+
+    }
+
+    @Override
+    public void declareAccess(SystemAccess access) {
+
+      declaration.accept(access);
+
+    }
+
+    @Override
+    public void update(World world, double delta) {
+
+      body.run();
+      order.add(name);
+
+    }
+
+  }
+
+}
@@ -0,0 +1,189 @@
+package me.joosua.maingine.ecs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class WorldSnapshotTest {
+
+  private final World world = new World();
+  private final ComponentType position = world.registerFloats("position", 2);
+  private final ComponentType health = world.registerInts("health", 1);
+
+  @Test
+  public void testRestore() {
+
+    int count = Archetype.CHUNK_CAPACITY + 100;
+    int[] entities = new int[count];
+
+    for (int i = 0; i < count; i++) {
+      entities[i] = world.create(position);
+      world.setFloat(entities[i], position, 1, i);
+    }
+
+    world.add(entities[5], health);
+    world.setInt(entities[5], health, 0, 42);
+    world.destroy(entities[7]);
+
+    final WorldSnapshot snapshot = WorldSnapshot.capture(world);
+
+    // Changes after the snapshot are all undone
+    world.destroy(entities[0]);
+    world.remove(entities[5], health);
+    world.setFloat(entities[1], position, 1, -1);
+
+    final int created = world.create(position, health);
+
+    assertTrue(snapshot.restore(world));
+    assertState(world, entities);
+    assertFalse(world.isAlive(created));
+    assertEquals(1, world.query(health).count());
+
+    // A world with the same schema gets the same state
+    World other = new World();
+    other.registerFloats("position", 2);
+    other.registerInts("health", 1);
+
+    assertTrue(snapshot.restore(other));
+    assertState(other, entities);
+
+    World different = new World();
+    different.registerFloats("position", 3);
+    different.registerInts("health", 1);
+
+    assertFalse(snapshot.restore(different));
+
+    // The memory of an old snapshot is reused when it's large enough
+    world.destroy(entities[0]);
+
+    WorldSnapshot reused = WorldSnapshot.capture(world, snapshot);
+
+    assertSame(snapshot, reused);
+    assertTrue(reused.restore(other));
+    assertFalse(other.isAlive(entities[0]));
+
+    reused.free();
+
+  }
+
+  @Test
+  public void testDeltaAndFiles(@TempDir Path directory) throws Exception {
+
+    int[] entities = new int[10_000];
+
+    for (int i = 0; i < entities.length; i++) {
+      entities[i] = world.create(position);
+      world.setFloat(entities[i], position, 0, i);
+    }
+
+    WorldSnapshot base = WorldSnapshot.capture(world);
+
+    world.setFloat(entities[5000], position, 0, -1);
+
+    WorldSnapshot target = WorldSnapshot.capture(world);
+    SnapshotDelta delta = SnapshotDelta.encode(base, target);
+
+    assertEquals(1, delta.getChangedBlocks());
+    assertTrue(delta.getSize() < target.getSize() / 10);
+
+    SnapshotWriter writer = new SnapshotWriter();
+
+    writer.write(base, directory.resolve("base.snapshot")).get();
+    writer.write(delta, directory.resolve("delta.snapshot")).get();
+    writer.destroy();
+
+    WorldSnapshot readBase = WorldSnapshot.read(directory.resolve("base.snapshot"));
+    SnapshotDelta readDelta = SnapshotDelta.read(directory.resolve("delta.snapshot"));
+    WorldSnapshot applied = readDelta.apply(readBase);
+
+    assertEquals(target.getData(), applied.getData());
+    assertNull(readDelta.apply(WorldSnapshot.capture(new World())));
+
+    // A snapshot of the same size with other content isn't the base
+    WorldSnapshot other = WorldSnapshot.capture(world);
+    assertEquals(base.getSize(), other.getSize());
+    assertNull(readDelta.apply(other));
+    other.free();
+
+    world.setFloat(entities[5000], position, 0, 3);
+    assertTrue(applied.restore(world));
+    assertEquals(-1, world.getFloat(entities[5000], position, 0));
+
+    for (WorldSnapshot snapshot : new WorldSnapshot[] {base, target, readBase, applied}) {
+      snapshot.free();
+    }
+
+    delta.free();
+    readDelta.free();
+
+  }
+
+  @Test
+  public void testCorrupted() {
+
+    int[] entities = new int[10];
+
+    for (int i = 0; i < entities.length; i++) {
+      entities[i] = world.create(position);
+      world.setFloat(entities[i], position, 1, i);
+    }
+
+    WorldSnapshot snapshot = WorldSnapshot.capture(world);
+    final int size = snapshot.getSize();
+
+    world.destroy(entities[0]);
+    world.setFloat(entities[1], position, 1, -1);
+
+    // Length of the first name, mask of the first archetype and the amount of indices
+    assertFalse(corrupt(snapshot, WorldSnapshot.HEADER_SIZE + 12, -5).restore(world));
+    assertFalse(corrupt(snapshot, WorldSnapshot.HEADER_SIZE + 46, 1 << 20).restore(world));
+    assertFalse(corrupt(snapshot, size - 3 * entities.length * Integer.BYTES - 12,
+        Integer.MAX_VALUE).restore(world));
+
+    assertFalse(world.isAlive(entities[0]));
+    assertEquals(-1, world.getFloat(entities[1], position, 1));
+    assertEquals(entities.length - 1, world.getEntityCount());
+
+    assertTrue(snapshot.restore(world));
+    assertEquals(entities.length, world.getEntityCount());
+
+    snapshot.free();
+
+  }
+
+  private static WorldSnapshot corrupt(WorldSnapshot snapshot, int offset, int value) {
+
+    ByteBuffer data = ByteBuffer.allocateDirect(snapshot.getSize()).order(ByteOrder.nativeOrder());
+
+    data.put(snapshot.getData()).flip();
+    data.putInt(offset, value);
+
+    return new WorldSnapshot(data);
+
+  }
+
+  private void assertState(World world, int[] entities) {
+
+    ComponentType position = world.getComponentType(0);
+    final ComponentType health = world.getComponentType(1);
+
+    assertEquals(entities.length - 1, world.getEntityCount());
+    assertFalse(world.isAlive(entities[7]));
+
+    for (int i = 0; i < entities.length; i++) {
+      if (i != 7) assertEquals(i, world.getFloat(entities[i], position, 1));
+    }
+
+    assertEquals(42, world.getInt(entities[5], health, 0));
+
+  }
+
+}
@@ -0,0 +1,114 @@
+package me.joosua.maingine.ecs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+public class WorldTest {
+
+  private final World world = new World();
+  private final ComponentType position = world.registerFloats("position", 2);
+  private final ComponentType velocity = world.registerFloats("velocity", 2);
+  private final ComponentType health = world.registerInts("health", 1);
+
+  @Test
+  public void testStructuralChanges() {
+
+    int count = Archetype.CHUNK_CAPACITY * 2 + 10;
+    int[] entities = new int[count];
+
+    for (int i = 0; i < count; i++) {
+      entities[i] = world.create(position, velocity);
+      world.setFloat(entities[i], position, 0, i);
+    }
+
+    for (int i = 0; i < count; i += 3) {
+      assertTrue(world.add(entities[i], health));
+      world.setInt(entities[i], health, 0, i);
+    }
+
+    for (int i = 0; i < count; i += 2) {
+      assertTrue(world.destroy(entities[i]));
+      assertFalse(world.isAlive(entities[i]));
+    }
+
+    for (int i = 0; i < count; i++) {
+
+      if (i % 2 == 0) continue;
+
+      assertEquals(i, world.getFloat(entities[i], position, 0));
+      assertEquals(i % 3 == 0, world.has(entities[i], health));
+
+      if (i % 3 == 0) assertEquals(i, world.getInt(entities[i], health, 0));
+
+    }
+
+    assertEquals(count / 2, world.getEntityCount());
+    assertEquals(count / 2, world.query(position).count());
+    assertEquals(count / 2 - world.query(health).count(),
+        world.query(position).without(health).count());
+
+    int reused = world.create(position);
+
+    assertNotEquals(entities[count - 2], reused);
+    assertFalse(world.isAlive(entities[count - 2]));
+    assertEquals(0, world.getFloat(reused, position, 0));
+
+  }
+
+  @Test
+  public void testCommands() {
+
+    for (int i = 0; i < 100; i++) {
+      world.create(position, velocity);
+    }
+
+    Query query = world.query(position, velocity);
+    CommandBuffer commands = world.getCommands();
+
+    world.addSystem((system, delta) -> query.forEach(chunk -> {
+
+      float[] x = chunk.getFloats(position, 0);
+      float[] vx = chunk.getFloats(velocity, 0);
+
+      for (int i = 0; i < chunk.size(); i++) {
+
+        vx[i] = 1;
+        x[i] += vx[i] * (float) delta;
+
+        if (chunk.getEntity(i) % 10 == 0) commands.destroy(chunk.getEntity(i));
+
+      }
+
+      assertEquals(World.NULL, system.create(position));
+
+    }));
+
+    int spawned = commands.create(health);
+    commands.setInt(spawned, health, 0, 42);
+
+    world.update(2);
+
+    assertEquals(0, commands.size());
+    assertEquals(90, query.count());
+    assertEquals(1, world.query(health).count());
+
+    Set<Float> values = new HashSet<>();
+
+    world.query(health).forEach(chunk -> assertEquals(42, chunk.getInts(health, 0)[0]));
+    query.forEach(chunk -> {
+      for (int i = 0; i < chunk.size(); i++) {
+        values.add(chunk.getFloats(position, 0)[i]);
+      }
+    });
+
+    assertEquals(Set.of(2f), values);
+
+  }
+
+}
@@ -0,0 +1,171 @@
+package me.joosua.maingine.engine.event;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import me.joosua.maingine.engine.stats.AllocationMonitor;
+import org.junit.jupiter.api.Test;
+
+public class EventBusTest {
+
+  private static final int PRODUCERS = 4;
+  private static final int EVENTS_PER_PRODUCER = 20000;
+  private static final int ROUNDS = 5;
+
+  @Test
+  public void testDispatch() {
+
+    EventBus bus = new EventBus(16);
+    EventType resized = bus.register("resized");
+    EventType closed = bus.register("closed");
+    List<String> received = new ArrayList<>();
+
+    EventListener listener = event -> received.add(event.getType() + " " + event.getInt(0)
+        + "x" + event.getFloat(1) + " " + event.getObject());
+
+    assertTrue(bus.subscribe(resized, listener));
+    assertTrue(bus.subscribe(closed, event -> {
+      received.add("closed");
+      bus.publish(resized, 1);
+    }));
+
+    bus.publish(bus.claim(resized).setInt(0, 800).setFloat(1, 600).setObject("window"));
+    assertTrue(bus.publish(closed));
+    assertTrue(bus.publish(resized, 1024));
+
+    assertEquals(3, bus.dispatch());
+    assertEquals(List.of("resized 800x600.0 window", "closed", "resized 1024x0.0 null"),
+        received);
+
+    // The event published by the listener waits for the next dispatch
+    assertEquals(1, bus.getPendingCount());
+    assertEquals(1, bus.dispatch());
+    assertEquals("resized 1x0.0 null", received.get(3));
+    assertEquals(0, bus.getPendingCount());
+
+    assertTrue(bus.unsubscribe(resized, listener));
+    assertFalse(bus.unsubscribe(resized, listener));
+    assertNull(bus.claim(new EventBus(2).register("other")));
+
+  }
+
+  @Test
+  public void testFull() {
+
+    EventBus bus = new EventBus(4);
+    EventType type = bus.register("type");
+    int[] sum = new int[1];
+
+    bus.subscribe(type, event -> sum[0] += event.getInt(0));
+
+    for (int i = 0; i < bus.getCapacity(); i++) {
+      assertTrue(bus.publish(type, i));
+    }
+
+    assertFalse(bus.publish(type, 100));
+    assertEquals(1, bus.getDroppedCount());
+
+    assertEquals(4, bus.dispatch());
+    assertEquals(6, sum[0]);
+
+    assertTrue(bus.publish(type, 10));
+    assertEquals(1, bus.dispatch());
+    assertEquals(16, sum[0]);
+
+  }
+
+  @Test
+  public void testProducers() throws InterruptedException {
+
+    EventBus bus = new EventBus(1024);
+    EventType type = bus.register("type");
+    int[] next = new int[PRODUCERS];
+    boolean[] ordered = {true};
+
+    bus.subscribe(type, event -> {
+      int producer = event.getInt(0);
+      ordered[0] &= event.getInt(1) == next[producer]++;
+    });
+
+    Thread[] threads = new Thread[PRODUCERS];
+
+    for (int p = 0; p < PRODUCERS; p++) {
+
+      final int producer = p;
+
+      threads[p] = new Thread(() -> {
+
+        for (int i = 0; i < EVENTS_PER_PRODUCER; i++) {
+
+          Event event = bus.claim(type);
+
+          while (event == null) {
+            Thread.yield();
+            event = bus.claim(type);
+          }
+
+          bus.publish(event.setInt(0, producer).setInt(1, i));
+
+        }
+
+      });
+
+      threads[p].start();
+
+    }
+
+    int total = 0;
+
+    while (total < PRODUCERS * EVENTS_PER_PRODUCER) {
+      total += bus.dispatch();
+      Thread.yield();
+    }
+
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    assertTrue(ordered[0]);
+
+    for (int p = 0; p < PRODUCERS; p++) {
+      assertEquals(EVENTS_PER_PRODUCER, next[p]);
+    }
+
+  }
+
+  @Test
+  public void testNoAllocations() {
+
+    EventBus bus = new EventBus(64);
+    EventType type = bus.register("type");
+    long[] sum = new long[1];
+    AllocationMonitor monitor = new AllocationMonitor();
+
+    bus.subscribe(type, event -> sum[0] += event.getLong(0));
+
+    for (int round = 0; round < ROUNDS; round++) {
+
+      final long start = monitor.getAllocatedBytes();
+
+      for (int i = 0; i < 10000; i++) {
+        bus.publish(bus.claim(type).setLong(0, i).setDouble(1, i));
+        bus.publish(type, i);
+        bus.dispatch();
+      }
+
+      // The first rounds warm up the code
+      if (round == ROUNDS - 1 && monitor.isSupported()) {
+        assertEquals(0, monitor.getAllocatedSince(start));
+      }
+
+    }
+
+    monitor.destroy();
+
+  }
+
+}
@@ -0,0 +1,85 @@
+package me.joosua.maingine.graphics.command;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class RenderCommandBufferTest {
+
+  @Test
+  public void testSortKey() {
+
+    long key = SortKey.encode(3, 42, 1000, 0.5f);
+
+    assertEquals(3, SortKey.getLayer(key));
+    assertEquals(42, SortKey.getShader(key));
+    assertEquals(1000, SortKey.getMaterial(key));
+    assertEquals((1 << SortKey.DEPTH_BITS) / 2 - 1, SortKey.getDepth(key));
+
+    assertEquals(0, SortKey.getDepth(SortKey.encode(0, 0, 0, -1)));
+    assertEquals((1 << SortKey.DEPTH_BITS) - 1, SortKey.getDepth(SortKey.encode(0, 0, 0, 2)));
+    assertEquals(255, SortKey.getLayer(SortKey.encode(255, 0, 0, 0)));
+
+  }
+
+  @Test
+  public void testSortAndExecute() {
+
+    RenderCommandBuffer buffer = new RenderCommandBuffer(4);
+
+    List<Long> executed = new ArrayList<>();
+    int command = buffer.registerCommand((b, record) -> {
+      executed.add(b.getKey(record));
+      assertEquals(record, b.getArgument(record, 0));
+      assertEquals(record * 0.5f, b.getFloatArgument(record, 4));
+    });
+
+    assertEquals(-1, buffer.submit(0, command + 1, 0, 0, 0, 0, 0));
+
+    Random random = new Random(1);
+    List<Long> keys = new ArrayList<>();
+
+    for (int i = 0; i < 100; i++) {
+
+      long key = SortKey.encode(random.nextInt(256), random.nextInt(4), random.nextInt(4),
+          random.nextFloat());
+      keys.add(key);
+
+      int floatArg = Float.floatToRawIntBits(i * 0.5f);
+      assertEquals(i, buffer.submit(key, command, i, 0, 0, 0, floatArg));
+
+    }
+
+    assertEquals(100, buffer.size());
+
+    final int[] binds = {0, 0};
+
+    buffer.sort();
+    buffer.execute(new RenderStateBinder() {
+
+      public void bindShader(int shader) {
+        binds[0]++;
+      }
+
+      public void bindMaterial(int material) {
+        binds[1]++;
+      }
+
+    });
+
+    keys.sort(Long::compareUnsigned);
+
+    assertEquals(keys, executed);
+    assertEquals(binds[0] + binds[1], buffer.getBindCount());
+
+    buffer.clear();
+    assertEquals(0, buffer.size());
+
+    buffer.free();
+
+  }
+
+}
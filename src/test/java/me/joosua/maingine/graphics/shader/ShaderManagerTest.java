@@ -0,0 +1,34 @@
+package me.joosua.maingine.graphics.shader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+public class ShaderManagerTest {
+
+  @Test
+  public void testCacheKey() {
+
+    Map<String, Integer> attributes = new LinkedHashMap<>();
+    attributes.put("a", 12);
+    attributes.put("b", 3);
+
+    Map<String, Integer> shifted = new LinkedHashMap<>();
+    shifted.put("a", 1);
+    shifted.put("2b", 3);
+
+    // The entries run together the same way without separators
+    assertNotEquals(ShaderManager.getCacheKey("driver", "vertex", "fragment", attributes),
+        ShaderManager.getCacheKey("driver", "vertex", "fragment", shifted));
+    assertNotEquals(ShaderManager.getCacheKey("driver", "vertex", "fragment", attributes),
+        ShaderManager.getCacheKey("drive", "rvertex", "fragment", attributes));
+    assertEquals(ShaderManager.getCacheKey("driver", "vertex", "fragment", attributes),
+        ShaderManager.getCacheKey("driver", "vertex", "fragment",
+            new LinkedHashMap<>(attributes)));
+
+  }
+
+}
@@ -0,0 +1,56 @@
+package me.joosua.maingine.graphics.texture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.ByteBuffer;
+import org.junit.jupiter.api.Test;
+import org.lwjgl.system.MemoryUtil;
+
+public class ImageDataTest {
+
+  @Test
+  public void testCreateMipmaps() {
+
+    ImageData image = new ImageData(4, 2, createPixels(4, 2));
+
+    image.createMipmaps(1);
+
+    assertEquals(1, image.getMipmapCount());
+    assertEquals(2, image.getMipmap(1).getWidth());
+
+    // The missing levels continue from the smallest one and stay at 1x1
+    final ImageData first = image.getMipmap(1);
+    image.createMipmaps(4);
+
+    assertEquals(4, image.getMipmapCount());
+    assertEquals(first, image.getMipmap(1));
+    assertEquals(1, image.getMipmap(2).getWidth());
+    assertEquals(1, image.getMipmap(2).getHeight());
+    assertEquals(1, image.getMipmap(4).getWidth());
+    assertEquals(0x80, image.getMipmap(4).getPixels().get(0) & 0xFF);
+    assertEquals(0xFF, image.getMipmap(4).getPixels().get(3) & 0xFF);
+
+    image.createMipmaps(2);
+    assertEquals(4, image.getMipmapCount());
+
+    image.free();
+    image.createMipmaps(2);
+
+    assertEquals(0, image.getMipmapCount());
+
+  }
+
+  static ByteBuffer createPixels(int width, int height) {
+
+    ByteBuffer pixels = MemoryUtil.memAlloc(width * height * 4);
+
+    // A flat color stays the same when filtered
+    for (int i = 0; i < width * height; i++) {
+      pixels.putInt(i * 4, 0xFF808080);
+    }
+
+    return pixels;
+
+  }
+
+}
@@ -0,0 +1,81 @@
+package me.joosua.maingine.graphics.texture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class SkylinePackerTest {
+
+  @Test
+  public void testPack() {
+
+    SkylinePacker packer = new SkylinePacker(64, 64);
+
+    assertEquals(-1, packer.pack(0, 10));
+    assertEquals(-1, packer.pack(65, 10));
+
+    long position = packer.pack(32, 32);
+    assertEquals(0, SkylinePacker.getX(position));
+    assertEquals(0, SkylinePacker.getY(position));
+
+    position = packer.pack(32, 16);
+    assertEquals(32, SkylinePacker.getX(position));
+    assertEquals(0, SkylinePacker.getY(position));
+
+    position = packer.pack(32, 16);
+    assertEquals(32, SkylinePacker.getX(position));
+    assertEquals(16, SkylinePacker.getY(position));
+
+    position = packer.pack(64, 32);
+    assertEquals(0, SkylinePacker.getX(position));
+    assertEquals(32, SkylinePacker.getY(position));
+
+    assertEquals(1, packer.getOccupancy(), 0.0001f);
+    assertEquals(-1, packer.pack(1, 1));
+
+    packer.clear();
+    assertEquals(0, packer.getOccupancy());
+    assertEquals(0, packer.pack(64, 64));
+
+  }
+
+  @Test
+  public void testNoOverlap() {
+
+    SkylinePacker packer = new SkylinePacker(256, 256);
+    Random random = new Random(1);
+
+    List<int[]> rectangles = new ArrayList<>();
+
+    for (int i = 0; i < 500; i++) {
+
+      int width = 1 + random.nextInt(24);
+      int height = 1 + random.nextInt(24);
+      long position = packer.pack(width, height);
+
+      if (position < 0) continue;
+
+      int x = SkylinePacker.getX(position);
+      int y = SkylinePacker.getY(position);
+
+      assertTrue(x + width <= 256 && y + height <= 256);
+
+      for (int[] other : rectangles) {
+        assertFalse(x < other[0] + other[2] && other[0] < x + width
+            && y < other[1] + other[3] && other[1] < y + height);
+      }
+
+      rectangles.add(new int[] {x, y, width, height});
+
+    }
+
+    assertTrue(packer.getOccupancy() > 0.5f);
+
+  }
+
+}
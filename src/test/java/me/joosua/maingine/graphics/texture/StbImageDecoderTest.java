@@ -0,0 +1,86 @@
+package me.joosua.maingine.graphics.texture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class StbImageDecoderTest {
+
+  @Test
+  public void testSameAsImageIo(@TempDir Path directory) throws IOException {
+
+    BufferedImage image = new BufferedImage(8, 4, BufferedImage.TYPE_INT_ARGB);
+
+    for (int y = 0; y < 4; y++) {
+      for (int x = 0; x < 8; x++) {
+        image.setRGB(x, y, (x * 30 << 24) | (x * 20 << 16) | (y * 60 << 8) | 0x7F);
+      }
+    }
+
+    Path file = directory.resolve("image.png");
+    ImageIO.write(image, "png", file.toFile());
+
+    final ImageData expected = new ImageIoDecoder().decode(file);
+    ImageData decoded = new StbImageDecoder().decode(file);
+
+    assertEquals(8, decoded.getWidth());
+    assertEquals(4, decoded.getHeight());
+    assertEquals(0, decoded.getMipmapCount());
+    assertEquals(expected.getPixels(), decoded.getPixels());
+
+    expected.free();
+    decoded.free();
+
+    assertNull(decoded.getPixels());
+
+  }
+
+  @Test
+  public void testMipmaps(@TempDir Path directory) throws IOException {
+
+    BufferedImage image = new BufferedImage(8, 2, BufferedImage.TYPE_INT_ARGB);
+
+    for (int x = 0; x < 8; x++) {
+      image.setRGB(x, 0, 0xFF808080);
+      image.setRGB(x, 1, 0xFF808080);
+    }
+
+    Path file = directory.resolve("image.png");
+    ImageIO.write(image, "png", file.toFile());
+
+    ImageData decoded = new StbImageDecoder(true).decode(file);
+
+    assertEquals(3, decoded.getMipmapCount());
+    assertEquals(4, decoded.getMipmap(1).getWidth());
+    assertEquals(1, decoded.getMipmap(1).getHeight());
+    assertEquals(1, decoded.getMipmap(3).getWidth());
+
+    // A flat color stays the same when filtered
+    assertEquals(0x80, decoded.getMipmap(3).getPixels().get(0) & 0xFF);
+    assertEquals(0xFF, decoded.getMipmap(3).getPixels().get(3) & 0xFF);
+
+    decoded.free();
+
+    assertEquals(0, decoded.getMipmapCount());
+
+  }
+
+  @Test
+  public void testInvalidImage(@TempDir Path directory) throws IOException {
+
+    Path file = directory.resolve("image.png");
+    Files.write(file, new byte[] {1, 2, 3});
+
+    assertThrows(IOException.class, () -> new StbImageDecoder().decode(file));
+
+  }
+
+}
@@ -0,0 +1,60 @@
+package me.joosua.maingine.graphics.texture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.nio.ByteBuffer;
+import me.joosua.maingine.glfw.GlfwManager;
+import me.joosua.maingine.glfw.window.Window;
+import me.joosua.maingine.settings.WindowSettings;
+import org.junit.jupiter.api.Test;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.system.MemoryUtil;
+
+public class TextureAtlasTest {
+
+  @Test
+  public void testMipmapsOfImageWithout() {
+
+    // Needs a display for the OpenGL context
+    assumeTrue(GlfwManager.init());
+
+    Window window = new Window(new WindowSettings());
+    TextureAtlas atlas = new TextureAtlas(window.getStateCache(), 64, 1, 4,
+        new StbImageDecoder(), Runnable::run, Long.MAX_VALUE);
+    ByteBuffer level = MemoryUtil.memAlloc(8 * 8 * 4);
+
+    try {
+
+      assertEquals(4, atlas.getLevels());
+
+      AtlasRegion region = atlas.add(new ImageData(4, 4, ImageDataTest.createPixels(4, 4)));
+
+      atlas.update();
+
+      assertTrue(region.isLoaded());
+
+      // The smallest level of the region is made from the image, not left empty
+      window.getStateCache().bindTexture(0, GL30.GL_TEXTURE_2D_ARRAY, atlas.getTexture());
+      GL11.glGetTexImage(GL30.GL_TEXTURE_2D_ARRAY, 3, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE,
+          level);
+
+      int offset = ((region.getY() >> 3) * 8 + (region.getX() >> 3)) * 4;
+
+      assertEquals(0x80, level.get(offset) & 0xFF);
+      assertEquals(0xFF, level.get(offset + 3) & 0xFF);
+
+    } finally {
+
+      MemoryUtil.memFree(level);
+      atlas.destroy();
+      window.destroy();
+      GlfwManager.terminate();
+
+    }
+
+  }
+
+}
@@ -0,0 +1,65 @@
+package me.joosua.maingine.math;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+import org.junit.jupiter.api.Test;
+
+public class MathStackTest {
+
+  @Test
+  public void testReuse() {
+
+    Vector3f first;
+    Matrix4f matrix;
+
+    try (MathStack math = MathStack.stackPush()) {
+
+      first = math.vec3(1, 2, 3);
+      matrix = math.mat4().translate(1, 0, 0);
+
+      try (MathStack inner = MathStack.stackPush()) {
+        assertNotSame(first, inner.vec3());
+        assertEquals(2, inner.getDepth());
+      }
+
+      assertEquals(2, first.y);
+
+    }
+
+    try (MathStack math = MathStack.stackPush()) {
+
+      assertSame(first, math.vec3());
+      assertEquals(0, first.x);
+      assertSame(matrix, math.mat4());
+      assertEquals(0, matrix.m30());
+
+    }
+
+    assertEquals(0, MathStack.stackGet().getDepth());
+
+  }
+
+  @Test
+  public void testGrow() {
+
+    try (MathStack math = MathStack.stackPush()) {
+
+      Vector3f[] vectors = new Vector3f[100];
+
+      for (int i = 0; i < vectors.length; i++) {
+        vectors[i] = math.vec3(i, 0, 0);
+      }
+
+      for (int i = 0; i < vectors.length; i++) {
+        assertEquals(i, vectors[i].x);
+      }
+
+    }
+
+  }
+
+}
@@ -0,0 +1,63 @@
+package me.joosua.maingine.memory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.lwjgl.system.MemoryUtil;
+
+public class LinearArenaTest {
+
+  @Test
+  public void testAllocate() {
+
+    long before = MemoryTracker.getBytes(MemoryTag.FRAME);
+    LinearArena arena = new LinearArena(256, MemoryTag.FRAME);
+
+    assertTrue(MemoryTracker.getBytes(MemoryTag.FRAME) >= before + 256);
+
+    long first = arena.allocate(10);
+    long second = arena.allocate(10);
+
+    assertEquals(0, first % 16);
+    assertEquals(0, second % 16);
+    assertTrue(second >= first + 10);
+
+    MemoryUtil.memPutInt(first, 1);
+    MemoryUtil.memPutInt(second, 2);
+    assertEquals(1, MemoryUtil.memGetInt(first));
+
+    arena.reset();
+    assertEquals(0, arena.getUsed());
+    assertEquals(first, arena.allocate(10));
+
+    arena.free();
+    assertEquals(before, MemoryTracker.getBytes(MemoryTag.FRAME));
+
+  }
+
+  @Test
+  public void testOverflow() {
+
+    LinearArena arena = new LinearArena(64, MemoryTag.FRAME);
+
+    MemoryUtil.memSet(arena.allocate(48), 0, 48);
+
+    assertNotEquals(MemoryUtil.NULL, arena.allocate(100));
+    assertNotEquals(MemoryUtil.NULL, arena.allocate(200, 64));
+    assertTrue(arena.getUsed() >= 348);
+
+    arena.reset();
+    assertTrue(arena.getCapacity() >= 348);
+    assertEquals(0, arena.getUsed());
+
+    long end = arena.allocate(300);
+    assertNotEquals(MemoryUtil.NULL, end);
+    assertTrue(arena.getUsed() <= arena.getCapacity());
+
+    arena.free();
+
+  }
+
+}
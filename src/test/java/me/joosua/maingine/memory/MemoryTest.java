@@ -0,0 +1,47 @@
+package me.joosua.maingine.memory;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.lwjgl.system.MemoryStack;
+
+public class MemoryTest {
+
+  private static final long TIMEOUT = TimeUnit.SECONDS.toNanos(20);
+
+  @Test
+  public void testStackFreedWithThread() throws InterruptedException {
+
+    final long before = MemoryTracker.getBytes(MemoryTag.STACK);
+    final long[] during = new long[1];
+
+    Thread thread = new Thread(() -> {
+
+      try (MemoryStack stack = Memory.stackPush()) {
+        stack.mallocInt(1).put(0, 1);
+        during[0] = MemoryTracker.getBytes(MemoryTag.STACK);
+      }
+
+    });
+
+    thread.start();
+    thread.join();
+    thread = null;
+
+    assertTrue(during[0] >= before + Memory.STACK_SIZE);
+
+    // The stack is freed once the terminated thread is collected
+    long start = System.nanoTime();
+
+    while (MemoryTracker.getBytes(MemoryTag.STACK) > before
+        && System.nanoTime() - start < TIMEOUT) {
+      System.gc();
+      Thread.sleep(10);
+    }
+
+    assertTrue(MemoryTracker.getBytes(MemoryTag.STACK) <= before);
+
+  }
+
+}
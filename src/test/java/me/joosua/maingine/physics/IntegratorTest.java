@@ -0,0 +1,131 @@
+package me.joosua.maingine.physics;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+import me.joosua.maingine.ecs.ComponentType;
+import me.joosua.maingine.ecs.SystemScheduler;
+import me.joosua.maingine.ecs.World;
+import org.junit.jupiter.api.Test;
+
+public class IntegratorTest {
+
+  private static final int BODIES = 1000;
+  private static final float STEP = 1 / 60f;
+
+  @Test
+  public void testScalarEqualsVectorized() {
+
+    Random random = new Random(1);
+    float[][][] vectorized = new float[3][3][BODIES];
+    float[][][] scalar = new float[3][3][BODIES];
+    float[] inverseMass = new float[BODIES];
+    float[] gravity = {0, -9.81f, 0};
+
+    for (int i = 0; i < BODIES; i++) {
+
+      inverseMass[i] = random.nextInt(10) == 0 ? 0 : random.nextFloat();
+
+      for (int array = 0; array < 3; array++) {
+        for (int axis = 0; axis < 3; axis++) {
+          vectorized[array][axis][i] = random.nextFloat() * 10 - 5;
+          scalar[array][axis][i] = vectorized[array][axis][i];
+        }
+      }
+
+    }
+
+    for (int step = 0; step < 10; step++) {
+
+      for (int axis = 0; axis < 3; axis++) {
+        Integrator.integrate(vectorized[0][axis], vectorized[1][axis], vectorized[2][axis],
+            inverseMass, gravity[axis], 0.99f, STEP, 0, BODIES);
+      }
+
+      Integrator.integrateScalar(scalar[0], scalar[1], scalar[2], inverseMass, gravity, 0.99f,
+          STEP, 0, BODIES);
+
+    }
+
+    for (int array = 0; array < 2; array++) {
+      for (int axis = 0; axis < 3; axis++) {
+        assertArrayEquals(scalar[array][axis], vectorized[array][axis]);
+      }
+    }
+
+  }
+
+  @Test
+  public void testFixedStep() {
+
+    World world = new World();
+    ComponentType position = world.registerFloats("position", 3);
+    ComponentType velocity = world.registerFloats("velocity", 3);
+    ComponentType force = world.registerFloats("force", 3);
+    ComponentType inverseMass = world.registerFloats("inverseMass", 1);
+    IntegrationSystem system = new IntegrationSystem(position, velocity, force, inverseMass,
+        0.25);
+
+    world.addSystem(system);
+
+    int entity = world.create(position, velocity, force, inverseMass);
+
+    world.setFloat(entity, velocity, 0, 1);
+    world.setFloat(entity, inverseMass, 0, 0.5f);
+    world.setFloat(entity, force, 1, 4);
+
+    // Not a full step yet
+    world.update(0.125);
+    assertEquals(0, world.getFloat(entity, position, 0));
+    assertEquals(4, world.getFloat(entity, force, 1));
+
+    // Two steps with the force, which is reset after them
+    world.update(0.5);
+    assertEquals(0.5f, world.getFloat(entity, position, 0));
+    assertEquals(1, world.getFloat(entity, velocity, 1));
+    assertEquals(0.375f, world.getFloat(entity, position, 1));
+    assertEquals(0, world.getFloat(entity, force, 1));
+    assertEquals(0.5f, system.getAlpha());
+
+    // Steps past the maximum are dropped
+    system.setMaxSteps(2);
+    world.update(2);
+    assertEquals(1, world.getFloat(entity, position, 0));
+
+  }
+
+  @Test
+  public void testParallel() {
+
+    World world = new World();
+    ComponentType position = world.registerFloats("position", 3);
+    ComponentType velocity = world.registerFloats("velocity", 3);
+    ComponentType force = world.registerFloats("force", 3);
+    ComponentType inverseMass = world.registerFloats("inverseMass", 1);
+    IntegrationSystem system = new IntegrationSystem(position, velocity, force, inverseMass,
+        STEP);
+    final SystemScheduler scheduler = new SystemScheduler(4);
+
+    system.setGravity(0, -10, 0);
+    world.addSystem(system);
+
+    int[] entities = new int[20000];
+
+    for (int i = 0; i < entities.length; i++) {
+      entities[i] = world.create(position, velocity, force, inverseMass);
+      world.setFloat(entities[i], velocity, 0, i);
+    }
+
+    world.update(STEP, scheduler);
+
+    for (int i = 0; i < entities.length; i++) {
+      assertEquals(i * STEP, world.getFloat(entities[i], position, 0), 1e-3f);
+      assertEquals(-10 * STEP, world.getFloat(entities[i], velocity, 1), 1e-5f);
+    }
+
+    scheduler.shutdown();
+
+  }
+
+}
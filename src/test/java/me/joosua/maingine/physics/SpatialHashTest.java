@@ -0,0 +1,184 @@
+package me.joosua.maingine.physics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import me.joosua.maingine.ecs.ComponentType;
+import me.joosua.maingine.ecs.World;
+import org.junit.jupiter.api.Test;
+
+public class SpatialHashTest {
+
+  private static final int BODIES = 1500;
+
+  private final Random random = new Random(1);
+
+  private final int[] proxies = new int[BODIES];
+  private final float[] boxes = new float[BODIES * 6];
+
+  @Test
+  public void testPairs() {
+
+    SpatialHash hash = new SpatialHash(1, 4, 16, null, 1);
+
+    fill(hash);
+    assertEquals(expectedPairs(), foundPairs(hash));
+
+    for (int i = 0; i < BODIES; i += 3) {
+      setBox(i);
+      hash.update(proxies[i], boxes[i * 6], boxes[i * 6 + 1], boxes[i * 6 + 2],
+          boxes[i * 6 + 3], boxes[i * 6 + 4], boxes[i * 6 + 5]);
+    }
+
+    for (int i = 1; i < BODIES; i += 7) {
+      assertTrue(hash.remove(proxies[i]));
+      assertFalse(hash.remove(proxies[i]));
+      proxies[i] = SpatialHash.NULL;
+    }
+
+    assertEquals(expectedPairs(), foundPairs(hash));
+
+    hash.clear();
+    assertEquals(0, hash.findPairs());
+    assertEquals(0, hash.getCellCount());
+
+  }
+
+  @Test
+  public void testParallel() {
+
+    ForkJoinPool pool = new ForkJoinPool(4);
+    SpatialHash hash = new SpatialHash(1, 4, 16, pool, 4);
+
+    fill(hash);
+    assertEquals(expectedPairs(), foundPairs(hash));
+
+    pool.shutdown();
+
+  }
+
+  @Test
+  public void testSystem() {
+
+    World world = new World();
+    ComponentType position = world.registerFloats("position", 3);
+    ComponentType extents = world.registerFloats("extents", 3);
+    ComponentType collider = world.registerInts("collider", 1);
+    SpatialHash hash = new SpatialHash(1, 2, 16, null, 1);
+
+    world.addSystem(new BroadphaseSystem(hash, position, extents, collider));
+
+    int[] entities = new int[3];
+
+    for (int i = 0; i < entities.length; i++) {
+      entities[i] = world.create(position, extents, collider);
+      world.setFloat(entities[i], position, 0, i * 1.5f);
+      world.setFloat(entities[i], extents, 0, 1);
+    }
+
+    world.update(1);
+
+    assertEquals(3, hash.size());
+    assertEquals(2, hash.getPairCount());
+
+    world.destroy(entities[1]);
+    world.remove(entities[2], position);
+    world.update(1);
+
+    assertEquals(1, hash.size());
+    assertEquals(0, hash.getPairCount());
+
+    world.add(entities[2], position);
+    world.setFloat(entities[2], position, 0, 1);
+    world.update(1);
+
+    assertEquals(2, hash.size());
+    assertEquals(1, hash.getPairCount());
+    assertEquals(entities[0] + entities[2], hash.getData(hash.getPairs()[0])
+        + hash.getData(hash.getPairs()[1]));
+
+  }
+
+  private void fill(SpatialHash hash) {
+
+    for (int i = 0; i < BODIES; i++) {
+      setBox(i);
+      proxies[i] = hash.insert(boxes[i * 6], boxes[i * 6 + 1], boxes[i * 6 + 2],
+          boxes[i * 6 + 3], boxes[i * 6 + 4], boxes[i * 6 + 5], i);
+    }
+
+  }
+
+  private void setBox(int i) {
+
+    // Mostly small bodies with a few large ones, some of them on negative coordinates
+    final float size = random.nextFloat() * (random.nextInt(20) == 0 ? 12 : 1.5f);
+
+    boxes[i * 6] = random.nextFloat() * 40 - 20;
+    boxes[i * 6 + 1] = random.nextFloat() * 40 - 20;
+    boxes[i * 6 + 2] = random.nextFloat() * 10;
+    boxes[i * 6 + 3] = boxes[i * 6] + size;
+    boxes[i * 6 + 4] = boxes[i * 6 + 1] + size * random.nextFloat();
+    boxes[i * 6 + 5] = boxes[i * 6 + 2] + size;
+
+  }
+
+  private Set<Long> expectedPairs() {
+
+    Set<Long> pairs = new HashSet<>();
+
+    for (int a = 0; a < BODIES; a++) {
+      for (int b = a + 1; b < BODIES; b++) {
+        if (proxies[a] != SpatialHash.NULL && proxies[b] != SpatialHash.NULL && overlaps(a, b)) {
+          pairs.add(pair(a, b));
+        }
+      }
+    }
+
+    return pairs;
+
+  }
+
+  private Set<Long> foundPairs(SpatialHash hash) {
+
+    Set<Long> pairs = new HashSet<>();
+    int count = hash.findPairs();
+
+    for (int i = 0; i < count; i++) {
+
+      int a = hash.getData(hash.getPairs()[i * 2]);
+      int b = hash.getData(hash.getPairs()[i * 2 + 1]);
+
+      assertTrue(pairs.add(pair(Math.min(a, b), Math.max(a, b))), "Duplicate pair");
+
+    }
+
+    return pairs;
+
+  }
+
+  private boolean overlaps(int a, int b) {
+
+    for (int axis = 0; axis < 3; axis++) {
+      if (boxes[a * 6 + axis] > boxes[b * 6 + axis + 3]
+          || boxes[a * 6 + axis + 3] < boxes[b * 6 + axis]) {
+        return false;
+      }
+    }
+
+    return true;
+
+  }
+
+  private static long pair(int a, int b) {
+
+    return (long) a << 32 | b;
+
+  }
+
+}
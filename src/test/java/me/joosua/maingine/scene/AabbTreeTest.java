@@ -0,0 +1,178 @@
+package me.joosua.maingine.scene;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import org.joml.FrustumIntersection;
+import org.joml.Matrix4f;
+import org.junit.jupiter.api.Test;
+
+public class AabbTreeTest {
+
+  private static final int OBJECTS = 2000;
+
+  private final Random random = new Random(1);
+
+  private final AabbTree tree = new AabbTree(0.5f, 16);
+  private final int[] proxies = new int[OBJECTS];
+  private final float[] boxes = new float[OBJECTS * 6];
+
+  @Test
+  public void testQueries() {
+
+    fill();
+
+    for (int i = 0; i < OBJECTS; i += 3) {
+
+      float x = random.nextFloat() * 100;
+      float y = random.nextFloat() * 100;
+      float z = random.nextFloat() * 100;
+
+      setBox(i, x, y, z);
+      tree.update(proxies[i], boxes[i * 6], boxes[i * 6 + 1], boxes[i * 6 + 2], boxes[i * 6 + 3],
+          boxes[i * 6 + 4], boxes[i * 6 + 5]);
+
+    }
+
+    for (int i = 1; i < OBJECTS; i += 5) {
+      assertTrue(tree.remove(proxies[i]));
+      assertFalse(tree.remove(proxies[i]));
+      proxies[i] = AabbTree.NULL;
+    }
+
+    assertTrue(tree.getHeight() < 4 * Math.log(tree.size()) / Math.log(2));
+
+    for (int query = 0; query < 50; query++) {
+
+      float x = random.nextFloat() * 100;
+      float y = random.nextFloat() * 100;
+      float z = random.nextFloat() * 100;
+      float radius = random.nextFloat() * 20;
+
+      Set<Integer> expected = new HashSet<>();
+      Set<Integer> found = new HashSet<>();
+
+      for (int i = 0; i < OBJECTS; i++) {
+        if (proxies[i] != AabbTree.NULL && overlapsBox(i, x, y, z, x + radius, y + radius,
+            z + radius)) {
+          expected.add(i);
+        }
+      }
+
+      tree.queryBox(x, y, z, x + radius, y + radius, z + radius,
+          proxy -> found.add(tree.getData(proxy)));
+      assertEquals(expected, found);
+
+      expected.clear();
+      found.clear();
+
+      for (int i = 0; i < OBJECTS; i++) {
+        if (proxies[i] != AabbTree.NULL && overlapsSphere(i, x, y, z, radius)) {
+          expected.add(i);
+        }
+      }
+
+      tree.queryRadius(x, y, z, radius, proxy -> found.add(tree.getData(proxy)));
+      assertEquals(expected, found);
+
+    }
+
+  }
+
+  @Test
+  public void testCulling() {
+
+    fill();
+
+    FrustumIntersection frustum = new FrustumIntersection(new Matrix4f()
+        .perspective((float) Math.toRadians(60), 1, 0.1f, 60)
+        .lookAt(50, 50, -10, 50, 50, 50, 0, 1, 0));
+
+    Set<Integer> expected = new HashSet<>();
+
+    for (int i = 0; i < OBJECTS; i++) {
+      if (frustum.testAab(boxes[i * 6], boxes[i * 6 + 1], boxes[i * 6 + 2], boxes[i * 6 + 3],
+          boxes[i * 6 + 4], boxes[i * 6 + 5])) {
+        expected.add(i);
+      }
+    }
+
+    assertFalse(expected.isEmpty());
+
+    ForkJoinPool pool = new ForkJoinPool(4);
+
+    FrustumCuller serial = new FrustumCuller(tree, null, 1);
+    FrustumCuller parallel = new FrustumCuller(tree, pool, 4);
+
+    assertEquals(expected, visible(serial, frustum));
+    assertEquals(expected, visible(parallel, frustum));
+    assertEquals(expected, visible(parallel, frustum));
+
+    pool.shutdown();
+
+  }
+
+  private Set<Integer> visible(FrustumCuller culler, FrustumIntersection frustum) {
+
+    int count = culler.cull(frustum);
+    Set<Integer> visible = new HashSet<>();
+
+    Arrays.stream(culler.getVisible(), 0, count).forEach(proxy -> visible.add(tree.getData(proxy)));
+    assertEquals(count, visible.size());
+
+    return visible;
+
+  }
+
+  private void fill() {
+
+    for (int i = 0; i < OBJECTS; i++) {
+
+      setBox(i, random.nextFloat() * 100, random.nextFloat() * 100, random.nextFloat() * 100);
+      proxies[i] = tree.insert(boxes[i * 6], boxes[i * 6 + 1], boxes[i * 6 + 2],
+          boxes[i * 6 + 3], boxes[i * 6 + 4], boxes[i * 6 + 5], i);
+
+    }
+
+    assertEquals(OBJECTS, tree.size());
+
+  }
+
+  private void setBox(int i, float x, float y, float z) {
+
+    float size = 0.1f + random.nextFloat() * 2;
+
+    boxes[i * 6 + 3] = x + size;
+    boxes[i * 6 + 4] = y + size;
+    boxes[i * 6 + 5] = z + size;
+    boxes[i * 6] = x;
+    boxes[i * 6 + 1] = y;
+    boxes[i * 6 + 2] = z;
+
+  }
+
+  private boolean overlapsBox(int i, float minX, float minY, float minZ, float maxX, float maxY,
+      float maxZ) {
+
+    return boxes[i * 6] <= maxX && boxes[i * 6 + 1] <= maxY && boxes[i * 6 + 2] <= maxZ
+        && boxes[i * 6 + 3] >= minX && boxes[i * 6 + 4] >= minY && boxes[i * 6 + 5] >= minZ;
+
+  }
+
+  private boolean overlapsSphere(int i, float x, float y, float z, float radius) {
+
+    float dx = Math.max(Math.max(boxes[i * 6] - x, x - boxes[i * 6 + 3]), 0);
+    float dy = Math.max(Math.max(boxes[i * 6 + 1] - y, y - boxes[i * 6 + 4]), 0);
+    float dz = Math.max(Math.max(boxes[i * 6 + 2] - z, z - boxes[i * 6 + 5]), 0);
+
+    return dx * dx + dy * dy + dz * dz <= radius * radius;
+
+  }
+
+}